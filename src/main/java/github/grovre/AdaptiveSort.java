@@ -0,0 +1,540 @@
+package github.grovre;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * The adaptive sorts behind {@code ArraysSupport.sort}. One pass over the array measures
+ * its exact minimum, maximum and run structure (ascents and descents between neighbours),
+ * and a small evenly spaced sample estimates how many values repeat. From those:
+ * </P>
+ * <ul>
+ *     <li>no descent means it is already sorted, no ascent means it only needs reversing;</li>
+ *     <li>a span of values no larger than the array is counted;</li>
+ *     <li>a few long runs, averaging at least {@value #MIN_AVERAGE_RUN} elements, are merged;</li>
+ *     <li>a large array of mostly distinct values over a span of at most
+ *     {@value #MAX_RADIX_PASSES} digits is LSD radix sorted;</li>
+ *     <li>anything else goes to {@link Arrays#sort}, whose three-way partitioning
+ *     already handles heavy duplication well.</li>
+ * </ul>
+ * <p>
+ * Scratch buffers come from the thread's {@link ScratchArena}.
+ * </P>
+ */
+@UtilityClass
+class AdaptiveSort {
+
+    // Below this, Arrays.sort's insertion sort beats any setup
+    private static final int SMALL = 48;
+    private static final int MIN_AVERAGE_RUN = 64;
+    private static final int MIN_RADIX_LENGTH = 1 << 12;
+    private static final int MAX_RADIX_PASSES = 3;
+    private static final int SAMPLE = 128;
+
+    private static final int RADIX_BITS = 11;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int RADIX_MASK = RADIX - 1;
+
+    public static SortStrategy sort(@NonNull final int[] arr) {
+        final int n = arr.length;
+        if (n < 2)
+            return SortStrategy.ALREADY_SORTED;
+
+        int min = arr[0], max = arr[0];
+        int descents = 0, ascents = 0;
+        for (int i = 1; i < n; i++) {
+            int prev = arr[i - 1], v = arr[i];
+            descents += prev > v ? 1 : 0;
+            ascents += prev < v ? 1 : 0;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        if (descents == 0)
+            return SortStrategy.ALREADY_SORTED;
+        if (ascents == 0) {
+            ArraysSupport.reverse(arr);
+            return SortStrategy.REVERSED;
+        }
+        if (n < SMALL) {
+            Arrays.sort(arr);
+            return SortStrategy.JDK;
+        }
+
+        final long span = (long) max - min;
+        if (span < n) {
+            Sort.countingSort(arr, ScratchArena.local());
+            return SortStrategy.COUNTING;
+        }
+        if (descents + 1 <= n / MIN_AVERAGE_RUN) {
+            runMerge(arr, descents + 1);
+            return SortStrategy.RUN_MERGE;
+        }
+        int bits = 64 - Long.numberOfLeadingZeros(span);
+        if (n >= MIN_RADIX_LENGTH && bits <= MAX_RADIX_PASSES * RADIX_BITS && mostlyDistinct(arr)) {
+            radixSort(arr, min, bits);
+            return SortStrategy.RADIX;
+        }
+        Arrays.sort(arr);
+        return SortStrategy.JDK;
+    }
+
+    /**
+     * Sorts an evenly spaced sample and checks that most of it is distinct.
+     */
+    private static boolean mostlyDistinct(final int[] arr) {
+        int[] sample = new int[SAMPLE];
+        long step = arr.length / SAMPLE;
+        for (int i = 0; i < SAMPLE; i++)
+            sample[i] = arr[(int) (i * step)];
+        Arrays.sort(sample);
+        int distinct = 1;
+        for (int i = 1; i < SAMPLE; i++)
+            if (sample[i] != sample[i - 1])
+                distinct++;
+        return distinct >= SAMPLE / 2;
+    }
+
+    /**
+     * LSD radix sort of <code>value - min</code>, one pass per 11-bit digit of the span.
+     */
+    private static void radixSort(final int[] arr, final int min, final int bits) {
+        final int n = arr.length;
+        ScratchArena arena = ScratchArena.local();
+        int[] buffer = arena.borrowInts(n);
+        int[] counts = arena.borrowInts(RADIX);
+        int[] src = arr, dst = buffer;
+        for (int shift = 0; shift < bits; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0, RADIX, 0);
+            for (int i = 0; i < n; i++)
+                counts[((src[i] - min) >>> shift) & RADIX_MASK]++;
+            for (int d = 0, sum = 0; d < RADIX; d++) {
+                int c = counts[d];
+                counts[d] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < n; i++) {
+                int v = src[i];
+                dst[counts[((v - min) >>> shift) & RADIX_MASK]++] = v;
+            }
+            int[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        if (src != arr)
+            System.arraycopy(src, 0, arr, 0, n);
+        arena.release(buffer);
+        arena.release(counts);
+    }
+
+    /**
+     * Bottom-up merge of the ascending runs, ping-ponging between the array and a buffer.
+     */
+    private static void runMerge(final int[] arr, int runs) {
+        final int n = arr.length;
+        ScratchArena arena = ScratchArena.local();
+        int[] bounds = arena.borrowInts(runs + 1);
+        bounds[0] = 0;
+        for (int i = 1, r = 1; i < n; i++)
+            if (arr[i - 1] > arr[i])
+                bounds[r++] = i;
+        bounds[runs] = n;
+
+        int[] buffer = arena.borrowInts(n);
+        int[] src = arr, dst = buffer;
+        while (runs > 1) {
+            int merged = 0;
+            for (int r = 0; r < runs; r += 2) {
+                int lo = bounds[r];
+                int mid = bounds[Math.min(r + 1, runs)];
+                int hi = bounds[Math.min(r + 2, runs)];
+                merge(src, lo, mid, hi, dst);
+                bounds[merged++] = lo;
+            }
+            bounds[merged] = n;
+            runs = merged;
+            int[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        if (src != arr)
+            System.arraycopy(src, 0, arr, 0, n);
+        arena.release(buffer);
+        arena.release(bounds);
+    }
+
+    private static void merge(final int[] src, final int lo, final int mid, final int hi, final int[] dst) {
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi)
+            dst[k++] = src[i] > src[j] ? src[j++] : src[i++];
+        System.arraycopy(src, i, dst, k, mid - i);
+        System.arraycopy(src, j, dst, k + mid - i, hi - j);
+    }
+
+    public static SortStrategy sort(@NonNull final long[] arr) {
+        final int n = arr.length;
+        if (n < 2)
+            return SortStrategy.ALREADY_SORTED;
+
+        long min = arr[0], max = arr[0];
+        int descents = 0, ascents = 0;
+        for (int i = 1; i < n; i++) {
+            long prev = arr[i - 1], v = arr[i];
+            descents += prev > v ? 1 : 0;
+            ascents += prev < v ? 1 : 0;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        if (descents == 0)
+            return SortStrategy.ALREADY_SORTED;
+        if (ascents == 0) {
+            ArraysSupport.reverse(arr);
+            return SortStrategy.REVERSED;
+        }
+        if (n < SMALL) {
+            Arrays.sort(arr);
+            return SortStrategy.JDK;
+        }
+
+        final long span = max - min < 0 ? Long.MAX_VALUE : max - min;
+        if (span < n) {
+            Sort.countingSort(arr, ScratchArena.local());
+            return SortStrategy.COUNTING;
+        }
+        if (descents + 1 <= n / MIN_AVERAGE_RUN) {
+            runMerge(arr, descents + 1);
+            return SortStrategy.RUN_MERGE;
+        }
+        int bits = 64 - Long.numberOfLeadingZeros(span);
+        if (n >= MIN_RADIX_LENGTH && bits <= MAX_RADIX_PASSES * RADIX_BITS && mostlyDistinct(arr)) {
+            radixSort(arr, min, bits);
+            return SortStrategy.RADIX;
+        }
+        Arrays.sort(arr);
+        return SortStrategy.JDK;
+    }
+
+    /**
+     * Sorts an evenly spaced sample and checks that most of it is distinct.
+     */
+    private static boolean mostlyDistinct(final long[] arr) {
+        long[] sample = new long[SAMPLE];
+        long step = arr.length / SAMPLE;
+        for (int i = 0; i < SAMPLE; i++)
+            sample[i] = arr[(int) (i * step)];
+        Arrays.sort(sample);
+        int distinct = 1;
+        for (int i = 1; i < SAMPLE; i++)
+            if (sample[i] != sample[i - 1])
+                distinct++;
+        return distinct >= SAMPLE / 2;
+    }
+
+    /**
+     * LSD radix sort of <code>value - min</code>, one pass per 11-bit digit of the span.
+     */
+    private static void radixSort(final long[] arr, final long min, final int bits) {
+        final int n = arr.length;
+        ScratchArena arena = ScratchArena.local();
+        long[] buffer = arena.borrowLongs(n);
+        int[] counts = arena.borrowInts(RADIX);
+        long[] src = arr, dst = buffer;
+        for (int shift = 0; shift < bits; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0, RADIX, 0);
+            for (int i = 0; i < n; i++)
+                counts[(int) ((src[i] - min) >>> shift) & RADIX_MASK]++;
+            for (int d = 0, sum = 0; d < RADIX; d++) {
+                int c = counts[d];
+                counts[d] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < n; i++) {
+                long v = src[i];
+                dst[counts[(int) ((v - min) >>> shift) & RADIX_MASK]++] = v;
+            }
+            long[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        if (src != arr)
+            System.arraycopy(src, 0, arr, 0, n);
+        arena.release(buffer);
+        arena.release(counts);
+    }
+
+    /**
+     * Bottom-up merge of the ascending runs, ping-ponging between the array and a buffer.
+     */
+    private static void runMerge(final long[] arr, int runs) {
+        final int n = arr.length;
+        ScratchArena arena = ScratchArena.local();
+        int[] bounds = arena.borrowInts(runs + 1);
+        bounds[0] = 0;
+        for (int i = 1, r = 1; i < n; i++)
+            if (arr[i - 1] > arr[i])
+                bounds[r++] = i;
+        bounds[runs] = n;
+
+        long[] buffer = arena.borrowLongs(n);
+        long[] src = arr, dst = buffer;
+        while (runs > 1) {
+            int merged = 0;
+            for (int r = 0; r < runs; r += 2) {
+                int lo = bounds[r];
+                int mid = bounds[Math.min(r + 1, runs)];
+                int hi = bounds[Math.min(r + 2, runs)];
+                merge(src, lo, mid, hi, dst);
+                bounds[merged++] = lo;
+            }
+            bounds[merged] = n;
+            runs = merged;
+            long[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        if (src != arr)
+            System.arraycopy(src, 0, arr, 0, n);
+        arena.release(buffer);
+        arena.release(bounds);
+    }
+
+    private static void merge(final long[] src, final int lo, final int mid, final int hi, final long[] dst) {
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi)
+            dst[k++] = src[i] > src[j] ? src[j++] : src[i++];
+        System.arraycopy(src, i, dst, k, mid - i);
+        System.arraycopy(src, j, dst, k + mid - i, hi - j);
+    }
+
+    public static SortStrategy sort(@NonNull final short[] arr) {
+        final int n = arr.length;
+        if (n < 2)
+            return SortStrategy.ALREADY_SORTED;
+
+        int min = arr[0], max = arr[0];
+        int descents = 0, ascents = 0;
+        for (int i = 1; i < n; i++) {
+            int prev = arr[i - 1], v = arr[i];
+            descents += prev > v ? 1 : 0;
+            ascents += prev < v ? 1 : 0;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        if (descents == 0)
+            return SortStrategy.ALREADY_SORTED;
+        if (ascents == 0) {
+            ArraysSupport.reverse(arr);
+            return SortStrategy.REVERSED;
+        }
+        if (n >= SMALL && max - min < n) {
+            Sort.countingSort(arr, ScratchArena.local());
+            return SortStrategy.COUNTING;
+        }
+        Arrays.sort(arr);
+        return SortStrategy.JDK;
+    }
+
+    public static SortStrategy sort(@NonNull final char[] arr) {
+        final int n = arr.length;
+        if (n < 2)
+            return SortStrategy.ALREADY_SORTED;
+
+        int min = arr[0], max = arr[0];
+        int descents = 0, ascents = 0;
+        for (int i = 1; i < n; i++) {
+            int prev = arr[i - 1], v = arr[i];
+            descents += prev > v ? 1 : 0;
+            ascents += prev < v ? 1 : 0;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        if (descents == 0)
+            return SortStrategy.ALREADY_SORTED;
+        if (ascents == 0) {
+            ArraysSupport.reverse(arr);
+            return SortStrategy.REVERSED;
+        }
+        if (n >= SMALL && max - min < n) {
+            Sort.countingSort(arr, ScratchArena.local());
+            return SortStrategy.COUNTING;
+        }
+        Arrays.sort(arr);
+        return SortStrategy.JDK;
+    }
+
+    public static SortStrategy sort(@NonNull final byte[] arr) {
+        final int n = arr.length;
+        if (n < 2)
+            return SortStrategy.ALREADY_SORTED;
+
+        int min = arr[0], max = arr[0];
+        int descents = 0, ascents = 0;
+        for (int i = 1; i < n; i++) {
+            int prev = arr[i - 1], v = arr[i];
+            descents += prev > v ? 1 : 0;
+            ascents += prev < v ? 1 : 0;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        if (descents == 0)
+            return SortStrategy.ALREADY_SORTED;
+        if (ascents == 0) {
+            ArraysSupport.reverse(arr);
+            return SortStrategy.REVERSED;
+        }
+        if (n >= SMALL && max - min < n) {
+            Sort.countingSort(arr, ScratchArena.local());
+            return SortStrategy.COUNTING;
+        }
+        Arrays.sort(arr);
+        return SortStrategy.JDK;
+    }
+
+    public static SortStrategy sort(@NonNull final float[] arr) {
+        final int n = arr.length;
+        if (n < 2)
+            return SortStrategy.ALREADY_SORTED;
+
+        int descents = 0, ascents = 0;
+        for (int i = 1; i < n; i++) {
+            int c = Float.compare(arr[i - 1], arr[i]);
+            descents += c > 0 ? 1 : 0;
+            ascents += c < 0 ? 1 : 0;
+        }
+        if (descents == 0)
+            return SortStrategy.ALREADY_SORTED;
+        if (ascents == 0) {
+            ArraysSupport.reverse(arr);
+            return SortStrategy.REVERSED;
+        }
+        if (n >= SMALL && descents + 1 <= n / MIN_AVERAGE_RUN) {
+            runMerge(arr, descents + 1);
+            return SortStrategy.RUN_MERGE;
+        }
+        Arrays.sort(arr);
+        return SortStrategy.JDK;
+    }
+
+    /**
+     * Bottom-up merge of the ascending runs, ping-ponging between the array and a buffer.
+     */
+    private static void runMerge(final float[] arr, int runs) {
+        final int n = arr.length;
+        ScratchArena arena = ScratchArena.local();
+        int[] bounds = arena.borrowInts(runs + 1);
+        bounds[0] = 0;
+        for (int i = 1, r = 1; i < n; i++)
+            if (Float.compare(arr[i - 1], arr[i]) > 0)
+                bounds[r++] = i;
+        bounds[runs] = n;
+
+        float[] buffer = new float[n];
+        float[] src = arr, dst = buffer;
+        while (runs > 1) {
+            int merged = 0;
+            for (int r = 0; r < runs; r += 2) {
+                int lo = bounds[r];
+                int mid = bounds[Math.min(r + 1, runs)];
+                int hi = bounds[Math.min(r + 2, runs)];
+                merge(src, lo, mid, hi, dst);
+                bounds[merged++] = lo;
+            }
+            bounds[merged] = n;
+            runs = merged;
+            float[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        if (src != arr)
+            System.arraycopy(src, 0, arr, 0, n);
+        arena.release(bounds);
+    }
+
+    private static void merge(final float[] src, final int lo, final int mid, final int hi, final float[] dst) {
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi)
+            dst[k++] = Float.compare(src[i], src[j]) > 0 ? src[j++] : src[i++];
+        System.arraycopy(src, i, dst, k, mid - i);
+        System.arraycopy(src, j, dst, k + mid - i, hi - j);
+    }
+
+    public static SortStrategy sort(@NonNull final double[] arr) {
+        final int n = arr.length;
+        if (n < 2)
+            return SortStrategy.ALREADY_SORTED;
+
+        int descents = 0, ascents = 0;
+        for (int i = 1; i < n; i++) {
+            int c = Double.compare(arr[i - 1], arr[i]);
+            descents += c > 0 ? 1 : 0;
+            ascents += c < 0 ? 1 : 0;
+        }
+        if (descents == 0)
+            return SortStrategy.ALREADY_SORTED;
+        if (ascents == 0) {
+            ArraysSupport.reverse(arr);
+            return SortStrategy.REVERSED;
+        }
+        if (n >= SMALL && descents + 1 <= n / MIN_AVERAGE_RUN) {
+            runMerge(arr, descents + 1);
+            return SortStrategy.RUN_MERGE;
+        }
+        Arrays.sort(arr);
+        return SortStrategy.JDK;
+    }
+
+    /**
+     * Bottom-up merge of the ascending runs, ping-ponging between the array and a buffer.
+     */
+    private static void runMerge(final double[] arr, int runs) {
+        final int n = arr.length;
+        ScratchArena arena = ScratchArena.local();
+        int[] bounds = arena.borrowInts(runs + 1);
+        bounds[0] = 0;
+        for (int i = 1, r = 1; i < n; i++)
+            if (Double.compare(arr[i - 1], arr[i]) > 0)
+                bounds[r++] = i;
+        bounds[runs] = n;
+
+        double[] buffer = new double[n];
+        double[] src = arr, dst = buffer;
+        while (runs > 1) {
+            int merged = 0;
+            for (int r = 0; r < runs; r += 2) {
+                int lo = bounds[r];
+                int mid = bounds[Math.min(r + 1, runs)];
+                int hi = bounds[Math.min(r + 2, runs)];
+                merge(src, lo, mid, hi, dst);
+                bounds[merged++] = lo;
+            }
+            bounds[merged] = n;
+            runs = merged;
+            double[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        if (src != arr)
+            System.arraycopy(src, 0, arr, 0, n);
+        arena.release(bounds);
+    }
+
+    private static void merge(final double[] src, final int lo, final int mid, final int hi, final double[] dst) {
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi)
+            dst[k++] = Double.compare(src[i], src[j]) > 0 ? src[j++] : src[i++];
+        System.arraycopy(src, i, dst, k, mid - i);
+        System.arraycopy(src, j, dst, k + mid - i, hi - j);
+    }
+
+    public static SortStrategy sort(@NonNull final boolean[] arr) {
+        for (int i = 1; i < arr.length; i++) {
+            if (arr[i - 1] && !arr[i]) {
+                Sort.countingSort(arr);
+                return SortStrategy.COUNTING;
+            }
+        }
+        return SortStrategy.ALREADY_SORTED;
+    }
+}
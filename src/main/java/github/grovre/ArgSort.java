@@ -0,0 +1,252 @@
+package github.grovre;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sorting permutations (argsort) of primitive arrays. The values themselves
+ * are never moved; a copy of their keys is sorted together with their indices.
+ * Floating-point values are mapped to integers that sort the same way as
+ * {@link Double#compare(double, double)}, so they can share the integer paths.
+ */
+@UtilityClass
+class ArgSort {
+
+    private static final int INSERTION_THRESHOLD = 16;
+    // Below this many elements a parallel sort stops forking
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+    // Below this many elements radix passes cost more than comparing
+    private static final int RADIX_THRESHOLD = 1 << 10;
+
+    public static int[] argsort(@NonNull final int[] arr) {
+        final int n = arr.length;
+        if (n >= RADIX_THRESHOLD)
+            return Sort.stablePermutation(arr);
+
+        // The key in the high half and the index in the low half: sorting the longs breaks ties by index
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++)
+            packed[i] = ((long) arr[i] << 32) | i;
+        Arrays.sort(packed);
+        return unpack(packed);
+    }
+
+    public static int[] argsort(@NonNull final long[] arr, final boolean stable) {
+        if (stable)
+            return Sort.stablePermutation(arr);
+        long[] keys = arr.clone();
+        int[] idx = identity(keys.length);
+        introSort(keys, idx, 0, keys.length, 2 * (32 - Integer.numberOfLeadingZeros(keys.length)));
+        return idx;
+    }
+
+    public static int[] argsort(@NonNull final float[] arr) {
+        return argsort(sortableKeys(arr));
+    }
+
+    public static int[] argsort(@NonNull final double[] arr, final boolean stable) {
+        return argsort(sortableKeys(arr), stable);
+    }
+
+    public static int[] parallelArgsort(@NonNull final int[] arr) {
+        long[] packed = new long[arr.length];
+        for (int i = 0; i < packed.length; i++)
+            packed[i] = ((long) arr[i] << 32) | i;
+        Arrays.parallelSort(packed);
+        return unpack(packed);
+    }
+
+    public static int[] parallelArgsort(@NonNull final long[] arr) {
+        final int n = arr.length;
+        if (n < PARALLEL_THRESHOLD)
+            return Sort.stablePermutation(arr);
+        long[] keys = arr.clone();
+        int[] idx = identity(n);
+        ForkJoinPool.commonPool().invoke(new MergeSort(keys.clone(), idx.clone(), keys, idx, 0, n));
+        return idx;
+    }
+
+    public static int[] parallelArgsort(@NonNull final float[] arr) {
+        return parallelArgsort(sortableKeys(arr));
+    }
+
+    public static int[] parallelArgsort(@NonNull final double[] arr) {
+        return parallelArgsort(sortableKeys(arr));
+    }
+
+    /**
+     * Maps floats to ints whose signed order is the order of {@link Float#compare(float, float)}:
+     * negative values have their magnitude bits flipped so larger magnitudes sort lower.
+     */
+    static int[] sortableKeys(final float[] arr) {
+        int[] keys = new int[arr.length];
+        for (int i = 0; i < arr.length; i++) {
+            int bits = Float.floatToIntBits(arr[i]);
+            keys[i] = bits ^ ((bits >> 31) & Integer.MAX_VALUE);
+        }
+        return keys;
+    }
+
+    /**
+     * Maps doubles to longs whose signed order is the order of {@link Double#compare(double, double)}.
+     */
+    static long[] sortableKeys(final double[] arr) {
+        long[] keys = new long[arr.length];
+        for (int i = 0; i < arr.length; i++) {
+            long bits = Double.doubleToLongBits(arr[i]);
+            keys[i] = bits ^ ((bits >> 63) & Long.MAX_VALUE);
+        }
+        return keys;
+    }
+
+    private static int[] identity(final int n) {
+        int[] idx = new int[n];
+        for (int i = 0; i < n; i++)
+            idx[i] = i;
+        return idx;
+    }
+
+    private static int[] unpack(final long[] packed) {
+        int[] idx = new int[packed.length];
+        for (int i = 0; i < packed.length; i++)
+            idx[i] = (int) packed[i];
+        return idx;
+    }
+
+    /**
+     * Quicksorts the keys and moves the indices along with them, switching to heapsort
+     * once it recurses too deep and to insertion sort on small ranges.
+     */
+    static void introSort(final long[] keys, final int[] idx, int from, int to, int depth) {
+        while (to - from > INSERTION_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(keys, idx, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            long pivot = median(keys[from], keys[mid], keys[to - 1]);
+            int i = from - 1, j = to;
+            while (true) {
+                do i++; while (keys[i] < pivot);
+                do j--; while (keys[j] > pivot);
+                if (i >= j)
+                    break;
+                swap(keys, idx, i, j);
+            }
+            // Recurse into the smaller side and loop on the larger one
+            if (j + 1 - from < to - j - 1) {
+                introSort(keys, idx, from, j + 1, depth);
+                from = j + 1;
+            } else {
+                introSort(keys, idx, j + 1, to, depth);
+                to = j + 1;
+            }
+        }
+        insertionSort(keys, idx, from, to);
+    }
+
+    private static long median(final long a, final long b, final long c) {
+        if (a < b)
+            return b < c ? b : Math.max(a, c);
+        return a < c ? a : Math.max(b, c);
+    }
+
+    private static void insertionSort(final long[] keys, final int[] idx, final int from, final int to) {
+        for (int i = from + 1; i < to; i++) {
+            long k = keys[i];
+            int v = idx[i];
+            int j = i - 1;
+            while (j >= from && keys[j] > k) {
+                keys[j + 1] = keys[j];
+                idx[j + 1] = idx[j];
+                j--;
+            }
+            keys[j + 1] = k;
+            idx[j + 1] = v;
+        }
+    }
+
+    private static void heapSort(final long[] keys, final int[] idx, final int from, final int to) {
+        int n = to - from;
+        for (int i = n / 2 - 1; i >= 0; i--)
+            siftDown(keys, idx, from, i, n);
+        for (int end = n - 1; end > 0; end--) {
+            swap(keys, idx, from, from + end);
+            siftDown(keys, idx, from, 0, end);
+        }
+    }
+
+    private static void siftDown(final long[] keys, final int[] idx, final int base, int i, final int size) {
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[base + child + 1] > keys[base + child])
+                child++;
+            if (keys[base + child] <= keys[base + i])
+                return;
+            swap(keys, idx, base + i, base + child);
+            i = child;
+        }
+    }
+
+    private static void swap(final long[] keys, final int[] idx, final int i, final int j) {
+        long k = keys[i];
+        keys[i] = keys[j];
+        keys[j] = k;
+        int v = idx[i];
+        idx[i] = idx[j];
+        idx[j] = v;
+    }
+
+    /**
+     * A stable merge sort of keys with their indices that sorts both halves in parallel.
+     * Sorts the source range into the destination; both hold the same pairs on entry.
+     */
+    private static final class MergeSort extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] srcKeys, dstKeys;
+        private final int[] srcIdx, dstIdx;
+        private final int from, to;
+
+        MergeSort(long[] srcKeys, int[] srcIdx, long[] dstKeys, int[] dstIdx, int from, int to) {
+            this.srcKeys = srcKeys;
+            this.srcIdx = srcIdx;
+            this.dstKeys = dstKeys;
+            this.dstIdx = dstIdx;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= INSERTION_THRESHOLD) {
+                insertionSort(dstKeys, dstIdx, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            MergeSort left = new MergeSort(dstKeys, dstIdx, srcKeys, srcIdx, from, mid);
+            MergeSort right = new MergeSort(dstKeys, dstIdx, srcKeys, srcIdx, mid, to);
+            if (to - from < PARALLEL_THRESHOLD) {
+                left.compute();
+                right.compute();
+            } else {
+                invokeAll(left, right);
+            }
+
+            for (int i = from, l = from, r = mid; i < to; i++) {
+                if (r >= to || (l < mid && srcKeys[l] <= srcKeys[r])) {
+                    dstKeys[i] = srcKeys[l];
+                    dstIdx[i] = srcIdx[l++];
+                } else {
+                    dstKeys[i] = srcKeys[r];
+                    dstIdx[i] = srcIdx[r++];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,1103 @@
+package github.grovre;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * <p>
+ * Bulk binary reads and writes of primitive arrays over NIO channels. Elements are
+ * moved through direct buffers with the bulk {@code put} and {@code get} of the typed
+ * views, such as {@link ByteBuffer#asIntBuffer()}, in chunks of 1 MiB, so writing an
+ * array is one copy and a few large channel calls rather than a call per element.
+ * </P>
+ * <p>
+ * The direct buffers are pooled per thread: the first call on a thread allocates
+ * {@value #GATHER} buffers of 1 MiB, which every later call on that thread reuses.
+ * Gathering writes fill all of them before handing them to the channel at once.
+ * Reads and writes are meant for blocking channels, and loop until every byte is moved.
+ * </P>
+ */
+@UtilityClass
+public class ArrayIO {
+
+    // Bytes per pooled buffer, a multiple of every element size
+    private static final int CHUNK = 1 << 20;
+    // Pooled buffers per thread, all of which a gathering write fills before writing
+    private static final int GATHER = 4;
+
+    private static final ThreadLocal<ByteBuffer[]> BUFFERS = ThreadLocal.withInitial(() -> {
+        ByteBuffer[] bufs = new ByteBuffer[GATHER];
+        for (int i = 0; i < bufs.length; i++)
+            bufs[i] = ByteBuffer.allocateDirect(CHUNK);
+        return bufs;
+    });
+
+    /**
+     * Writes the whole array in the given byte order.
+     *
+     * @param arr   The array to write
+     * @param ch    The channel to write to
+     * @param order The byte order of the elements
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final int[] arr, @NonNull final WritableByteChannel ch, @NonNull final ByteOrder order) throws IOException {
+        write(arr, 0, arr.length, ch, order);
+    }
+
+    /**
+     * Writes part of the array in the given byte order.
+     *
+     * @param arr   The array to write from
+     * @param from  The inclusive index to begin from
+     * @param to    The exclusive index to write up to
+     * @param ch    The channel to write to
+     * @param order The byte order of the elements
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final int[] arr, final int from, final int to,
+                             @NonNull final WritableByteChannel ch, @NonNull final ByteOrder order) throws IOException {
+        checkRange(arr.length, from, to);
+        final ByteBuffer buf = buffers(order)[0];
+        for (int i = from; i < to; ) {
+            int n = Math.min(to - i, CHUNK / Integer.BYTES);
+            clear(buf);
+            put(buf, arr, i, n);
+            flip(buf);
+            writeFully(ch, buf);
+            i += n;
+        }
+    }
+
+    /**
+     * Writes the arrays one after another, packing them into several pooled buffers
+     * that are handed to the channel in one gathering write.
+     *
+     * @param ch    The channel to write to
+     * @param order The byte order of the elements
+     * @param arrs  The arrays to write
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final GatheringByteChannel ch, @NonNull final ByteOrder order, @NonNull final int[]... arrs) throws IOException {
+        final ByteBuffer[] bufs = buffers(order);
+        int b = 0;
+        clear(bufs[0]);
+        for (int[] arr : arrs) {
+            for (int i = 0; i < arr.length; ) {
+                int n = Math.min(arr.length - i, bufs[b].remaining() / Integer.BYTES);
+                if (n == 0) {
+                    if (++b == bufs.length) {
+                        writeFully(ch, bufs, b);
+                        b = 0;
+                    }
+                    clear(bufs[b]);
+                    continue;
+                }
+                put(bufs[b], arr, i, n);
+                i += n;
+            }
+        }
+        writeFully(ch, bufs, b + 1);
+    }
+
+    /**
+     * Fills the whole array from the channel in the given byte order.
+     *
+     * @param ch    The channel to read from
+     * @param dst   The array to fill
+     * @param order The byte order of the elements
+     * @throws EOFException If the channel ends before the array is filled
+     * @throws IOException  If the channel fails
+     */
+    public static void read(@NonNull final ReadableByteChannel ch, @NonNull final int[] dst, @NonNull final ByteOrder order) throws IOException {
+        read(ch, dst, 0, dst.length, order);
+    }
+
+    /**
+     * Fills part of the array from the channel in the given byte order.
+     *
+     * @param ch    The channel to read from
+     * @param dst   The array to fill
+     * @param from  The inclusive index to begin from
+     * @param to    The exclusive index to fill up to
+     * @param order The byte order of the elements
+     * @throws EOFException If the channel ends before the range is filled
+     * @throws IOException  If the channel fails
+     */
+    public static void read(@NonNull final ReadableByteChannel ch, @NonNull final int[] dst, final int from, final int to, @NonNull final ByteOrder order) throws IOException {
+        checkRange(dst.length, from, to);
+        final ByteBuffer buf = buffers(order)[0];
+        for (int i = from; i < to; ) {
+            int n = Math.min(to - i, CHUNK / Integer.BYTES);
+            clear(buf);
+            limit(buf, n * Integer.BYTES);
+            readFully(ch, buf);
+            flip(buf);
+            get(buf, dst, i, n);
+            i += n;
+        }
+    }
+
+    /**
+     * @param ch     The channel to read from
+     * @param length The amount of elements to read
+     * @param order  The byte order of the elements
+     * @return A new array of the elements read
+     * @throws EOFException If the channel ends before every element is read
+     * @throws IOException  If the channel fails
+     */
+    public static int[] readInts(@NonNull final ReadableByteChannel ch, final int length, @NonNull final ByteOrder order) throws IOException {
+        int[] arr = new int[length];
+        read(ch, arr, order);
+        return arr;
+    }
+
+    /**
+     * Writes the whole array in the given byte order.
+     *
+     * @param arr   The array to write
+     * @param ch    The channel to write to
+     * @param order The byte order of the elements
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final long[] arr, @NonNull final WritableByteChannel ch, @NonNull final ByteOrder order) throws IOException {
+        write(arr, 0, arr.length, ch, order);
+    }
+
+    /**
+     * Writes part of the array in the given byte order.
+     *
+     * @param arr   The array to write from
+     * @param from  The inclusive index to begin from
+     * @param to    The exclusive index to write up to
+     * @param ch    The channel to write to
+     * @param order The byte order of the elements
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final long[] arr, final int from, final int to,
+                             @NonNull final WritableByteChannel ch, @NonNull final ByteOrder order) throws IOException {
+        checkRange(arr.length, from, to);
+        final ByteBuffer buf = buffers(order)[0];
+        for (int i = from; i < to; ) {
+            int n = Math.min(to - i, CHUNK / Long.BYTES);
+            clear(buf);
+            put(buf, arr, i, n);
+            flip(buf);
+            writeFully(ch, buf);
+            i += n;
+        }
+    }
+
+    /**
+     * Writes the arrays one after another, packing them into several pooled buffers
+     * that are handed to the channel in one gathering write.
+     *
+     * @param ch    The channel to write to
+     * @param order The byte order of the elements
+     * @param arrs  The arrays to write
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final GatheringByteChannel ch, @NonNull final ByteOrder order, @NonNull final long[]... arrs) throws IOException {
+        final ByteBuffer[] bufs = buffers(order);
+        int b = 0;
+        clear(bufs[0]);
+        for (long[] arr : arrs) {
+            for (int i = 0; i < arr.length; ) {
+                int n = Math.min(arr.length - i, bufs[b].remaining() / Long.BYTES);
+                if (n == 0) {
+                    if (++b == bufs.length) {
+                        writeFully(ch, bufs, b);
+                        b = 0;
+                    }
+                    clear(bufs[b]);
+                    continue;
+                }
+                put(bufs[b], arr, i, n);
+                i += n;
+            }
+        }
+        writeFully(ch, bufs, b + 1);
+    }
+
+    /**
+     * Fills the whole array from the channel in the given byte order.
+     *
+     * @param ch    The channel to read from
+     * @param dst   The array to fill
+     * @param order The byte order of the elements
+     * @throws EOFException If the channel ends before the array is filled
+     * @throws IOException  If the channel fails
+     */
+    public static void read(@NonNull final ReadableByteChannel ch, @NonNull final long[] dst, @NonNull final ByteOrder order) throws IOException {
+        read(ch, dst, 0, dst.length, order);
+    }
+
+    /**
+     * Fills part of the array from the channel in the given byte order.
+     *
+     * @param ch    The channel to read from
+     * @param dst   The array to fill
+     * @param from  The inclusive index to begin from
+     * @param to    The exclusive index to fill up to
+     * @param order The byte order of the elements
+     * @throws EOFException If the channel ends before the range is filled
+     * @throws IOException  If the channel fails
+     */
+    public static void read(@NonNull final ReadableByteChannel ch, @NonNull final long[] dst, final int from, final int to, @NonNull final ByteOrder order) throws IOException {
+        checkRange(dst.length, from, to);
+        final ByteBuffer buf = buffers(order)[0];
+        for (int i = from; i < to; ) {
+            int n = Math.min(to - i, CHUNK / Long.BYTES);
+            clear(buf);
+            limit(buf, n * Long.BYTES);
+            readFully(ch, buf);
+            flip(buf);
+            get(buf, dst, i, n);
+            i += n;
+        }
+    }
+
+    /**
+     * @param ch     The channel to read from
+     * @param length The amount of elements to read
+     * @param order  The byte order of the elements
+     * @return A new array of the elements read
+     * @throws EOFException If the channel ends before every element is read
+     * @throws IOException  If the channel fails
+     */
+    public static long[] readLongs(@NonNull final ReadableByteChannel ch, final int length, @NonNull final ByteOrder order) throws IOException {
+        long[] arr = new long[length];
+        read(ch, arr, order);
+        return arr;
+    }
+
+    /**
+     * Writes the whole array in the given byte order.
+     *
+     * @param arr   The array to write
+     * @param ch    The channel to write to
+     * @param order The byte order of the elements
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final short[] arr, @NonNull final WritableByteChannel ch, @NonNull final ByteOrder order) throws IOException {
+        write(arr, 0, arr.length, ch, order);
+    }
+
+    /**
+     * Writes part of the array in the given byte order.
+     *
+     * @param arr   The array to write from
+     * @param from  The inclusive index to begin from
+     * @param to    The exclusive index to write up to
+     * @param ch    The channel to write to
+     * @param order The byte order of the elements
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final short[] arr, final int from, final int to,
+                             @NonNull final WritableByteChannel ch, @NonNull final ByteOrder order) throws IOException {
+        checkRange(arr.length, from, to);
+        final ByteBuffer buf = buffers(order)[0];
+        for (int i = from; i < to; ) {
+            int n = Math.min(to - i, CHUNK / Short.BYTES);
+            clear(buf);
+            put(buf, arr, i, n);
+            flip(buf);
+            writeFully(ch, buf);
+            i += n;
+        }
+    }
+
+    /**
+     * Writes the arrays one after another, packing them into several pooled buffers
+     * that are handed to the channel in one gathering write.
+     *
+     * @param ch    The channel to write to
+     * @param order The byte order of the elements
+     * @param arrs  The arrays to write
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final GatheringByteChannel ch, @NonNull final ByteOrder order, @NonNull final short[]... arrs) throws IOException {
+        final ByteBuffer[] bufs = buffers(order);
+        int b = 0;
+        clear(bufs[0]);
+        for (short[] arr : arrs) {
+            for (int i = 0; i < arr.length; ) {
+                int n = Math.min(arr.length - i, bufs[b].remaining() / Short.BYTES);
+                if (n == 0) {
+                    if (++b == bufs.length) {
+                        writeFully(ch, bufs, b);
+                        b = 0;
+                    }
+                    clear(bufs[b]);
+                    continue;
+                }
+                put(bufs[b], arr, i, n);
+                i += n;
+            }
+        }
+        writeFully(ch, bufs, b + 1);
+    }
+
+    /**
+     * Fills the whole array from the channel in the given byte order.
+     *
+     * @param ch    The channel to read from
+     * @param dst   The array to fill
+     * @param order The byte order of the elements
+     * @throws EOFException If the channel ends before the array is filled
+     * @throws IOException  If the channel fails
+     */
+    public static void read(@NonNull final ReadableByteChannel ch, @NonNull final short[] dst, @NonNull final ByteOrder order) throws IOException {
+        read(ch, dst, 0, dst.length, order);
+    }
+
+    /**
+     * Fills part of the array from the channel in the given byte order.
+     *
+     * @param ch    The channel to read from
+     * @param dst   The array to fill
+     * @param from  The inclusive index to begin from
+     * @param to    The exclusive index to fill up to
+     * @param order The byte order of the elements
+     * @throws EOFException If the channel ends before the range is filled
+     * @throws IOException  If the channel fails
+     */
+    public static void read(@NonNull final ReadableByteChannel ch, @NonNull final short[] dst, final int from, final int to, @NonNull final ByteOrder order) throws IOException {
+        checkRange(dst.length, from, to);
+        final ByteBuffer buf = buffers(order)[0];
+        for (int i = from; i < to; ) {
+            int n = Math.min(to - i, CHUNK / Short.BYTES);
+            clear(buf);
+            limit(buf, n * Short.BYTES);
+            readFully(ch, buf);
+            flip(buf);
+            get(buf, dst, i, n);
+            i += n;
+        }
+    }
+
+    /**
+     * @param ch     The channel to read from
+     * @param length The amount of elements to read
+     * @param order  The byte order of the elements
+     * @return A new array of the elements read
+     * @throws EOFException If the channel ends before every element is read
+     * @throws IOException  If the channel fails
+     */
+    public static short[] readShorts(@NonNull final ReadableByteChannel ch, final int length, @NonNull final ByteOrder order) throws IOException {
+        short[] arr = new short[length];
+        read(ch, arr, order);
+        return arr;
+    }
+
+    /**
+     * Writes the whole array in the given byte order.
+     *
+     * @param arr   The array to write
+     * @param ch    The channel to write to
+     * @param order The byte order of the elements
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final char[] arr, @NonNull final WritableByteChannel ch, @NonNull final ByteOrder order) throws IOException {
+        write(arr, 0, arr.length, ch, order);
+    }
+
+    /**
+     * Writes part of the array in the given byte order.
+     *
+     * @param arr   The array to write from
+     * @param from  The inclusive index to begin from
+     * @param to    The exclusive index to write up to
+     * @param ch    The channel to write to
+     * @param order The byte order of the elements
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final char[] arr, final int from, final int to,
+                             @NonNull final WritableByteChannel ch, @NonNull final ByteOrder order) throws IOException {
+        checkRange(arr.length, from, to);
+        final ByteBuffer buf = buffers(order)[0];
+        for (int i = from; i < to; ) {
+            int n = Math.min(to - i, CHUNK / Character.BYTES);
+            clear(buf);
+            put(buf, arr, i, n);
+            flip(buf);
+            writeFully(ch, buf);
+            i += n;
+        }
+    }
+
+    /**
+     * Writes the arrays one after another, packing them into several pooled buffers
+     * that are handed to the channel in one gathering write.
+     *
+     * @param ch    The channel to write to
+     * @param order The byte order of the elements
+     * @param arrs  The arrays to write
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final GatheringByteChannel ch, @NonNull final ByteOrder order, @NonNull final char[]... arrs) throws IOException {
+        final ByteBuffer[] bufs = buffers(order);
+        int b = 0;
+        clear(bufs[0]);
+        for (char[] arr : arrs) {
+            for (int i = 0; i < arr.length; ) {
+                int n = Math.min(arr.length - i, bufs[b].remaining() / Character.BYTES);
+                if (n == 0) {
+                    if (++b == bufs.length) {
+                        writeFully(ch, bufs, b);
+                        b = 0;
+                    }
+                    clear(bufs[b]);
+                    continue;
+                }
+                put(bufs[b], arr, i, n);
+                i += n;
+            }
+        }
+        writeFully(ch, bufs, b + 1);
+    }
+
+    /**
+     * Fills the whole array from the channel in the given byte order.
+     *
+     * @param ch    The channel to read from
+     * @param dst   The array to fill
+     * @param order The byte order of the elements
+     * @throws EOFException If the channel ends before the array is filled
+     * @throws IOException  If the channel fails
+     */
+    public static void read(@NonNull final ReadableByteChannel ch, @NonNull final char[] dst, @NonNull final ByteOrder order) throws IOException {
+        read(ch, dst, 0, dst.length, order);
+    }
+
+    /**
+     * Fills part of the array from the channel in the given byte order.
+     *
+     * @param ch    The channel to read from
+     * @param dst   The array to fill
+     * @param from  The inclusive index to begin from
+     * @param to    The exclusive index to fill up to
+     * @param order The byte order of the elements
+     * @throws EOFException If the channel ends before the range is filled
+     * @throws IOException  If the channel fails
+     */
+    public static void read(@NonNull final ReadableByteChannel ch, @NonNull final char[] dst, final int from, final int to, @NonNull final ByteOrder order) throws IOException {
+        checkRange(dst.length, from, to);
+        final ByteBuffer buf = buffers(order)[0];
+        for (int i = from; i < to; ) {
+            int n = Math.min(to - i, CHUNK / Character.BYTES);
+            clear(buf);
+            limit(buf, n * Character.BYTES);
+            readFully(ch, buf);
+            flip(buf);
+            get(buf, dst, i, n);
+            i += n;
+        }
+    }
+
+    /**
+     * @param ch     The channel to read from
+     * @param length The amount of elements to read
+     * @param order  The byte order of the elements
+     * @return A new array of the elements read
+     * @throws EOFException If the channel ends before every element is read
+     * @throws IOException  If the channel fails
+     */
+    public static char[] readChars(@NonNull final ReadableByteChannel ch, final int length, @NonNull final ByteOrder order) throws IOException {
+        char[] arr = new char[length];
+        read(ch, arr, order);
+        return arr;
+    }
+
+    /**
+     * Writes the whole array in the given byte order.
+     *
+     * @param arr   The array to write
+     * @param ch    The channel to write to
+     * @param order The byte order of the elements
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final float[] arr, @NonNull final WritableByteChannel ch, @NonNull final ByteOrder order) throws IOException {
+        write(arr, 0, arr.length, ch, order);
+    }
+
+    /**
+     * Writes part of the array in the given byte order.
+     *
+     * @param arr   The array to write from
+     * @param from  The inclusive index to begin from
+     * @param to    The exclusive index to write up to
+     * @param ch    The channel to write to
+     * @param order The byte order of the elements
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final float[] arr, final int from, final int to,
+                             @NonNull final WritableByteChannel ch, @NonNull final ByteOrder order) throws IOException {
+        checkRange(arr.length, from, to);
+        final ByteBuffer buf = buffers(order)[0];
+        for (int i = from; i < to; ) {
+            int n = Math.min(to - i, CHUNK / Float.BYTES);
+            clear(buf);
+            put(buf, arr, i, n);
+            flip(buf);
+            writeFully(ch, buf);
+            i += n;
+        }
+    }
+
+    /**
+     * Writes the arrays one after another, packing them into several pooled buffers
+     * that are handed to the channel in one gathering write.
+     *
+     * @param ch    The channel to write to
+     * @param order The byte order of the elements
+     * @param arrs  The arrays to write
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final GatheringByteChannel ch, @NonNull final ByteOrder order, @NonNull final float[]... arrs) throws IOException {
+        final ByteBuffer[] bufs = buffers(order);
+        int b = 0;
+        clear(bufs[0]);
+        for (float[] arr : arrs) {
+            for (int i = 0; i < arr.length; ) {
+                int n = Math.min(arr.length - i, bufs[b].remaining() / Float.BYTES);
+                if (n == 0) {
+                    if (++b == bufs.length) {
+                        writeFully(ch, bufs, b);
+                        b = 0;
+                    }
+                    clear(bufs[b]);
+                    continue;
+                }
+                put(bufs[b], arr, i, n);
+                i += n;
+            }
+        }
+        writeFully(ch, bufs, b + 1);
+    }
+
+    /**
+     * Fills the whole array from the channel in the given byte order.
+     *
+     * @param ch    The channel to read from
+     * @param dst   The array to fill
+     * @param order The byte order of the elements
+     * @throws EOFException If the channel ends before the array is filled
+     * @throws IOException  If the channel fails
+     */
+    public static void read(@NonNull final ReadableByteChannel ch, @NonNull final float[] dst, @NonNull final ByteOrder order) throws IOException {
+        read(ch, dst, 0, dst.length, order);
+    }
+
+    /**
+     * Fills part of the array from the channel in the given byte order.
+     *
+     * @param ch    The channel to read from
+     * @param dst   The array to fill
+     * @param from  The inclusive index to begin from
+     * @param to    The exclusive index to fill up to
+     * @param order The byte order of the elements
+     * @throws EOFException If the channel ends before the range is filled
+     * @throws IOException  If the channel fails
+     */
+    public static void read(@NonNull final ReadableByteChannel ch, @NonNull final float[] dst, final int from, final int to, @NonNull final ByteOrder order) throws IOException {
+        checkRange(dst.length, from, to);
+        final ByteBuffer buf = buffers(order)[0];
+        for (int i = from; i < to; ) {
+            int n = Math.min(to - i, CHUNK / Float.BYTES);
+            clear(buf);
+            limit(buf, n * Float.BYTES);
+            readFully(ch, buf);
+            flip(buf);
+            get(buf, dst, i, n);
+            i += n;
+        }
+    }
+
+    /**
+     * @param ch     The channel to read from
+     * @param length The amount of elements to read
+     * @param order  The byte order of the elements
+     * @return A new array of the elements read
+     * @throws EOFException If the channel ends before every element is read
+     * @throws IOException  If the channel fails
+     */
+    public static float[] readFloats(@NonNull final ReadableByteChannel ch, final int length, @NonNull final ByteOrder order) throws IOException {
+        float[] arr = new float[length];
+        read(ch, arr, order);
+        return arr;
+    }
+
+    /**
+     * Writes the whole array in the given byte order.
+     *
+     * @param arr   The array to write
+     * @param ch    The channel to write to
+     * @param order The byte order of the elements
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final double[] arr, @NonNull final WritableByteChannel ch, @NonNull final ByteOrder order) throws IOException {
+        write(arr, 0, arr.length, ch, order);
+    }
+
+    /**
+     * Writes part of the array in the given byte order.
+     *
+     * @param arr   The array to write from
+     * @param from  The inclusive index to begin from
+     * @param to    The exclusive index to write up to
+     * @param ch    The channel to write to
+     * @param order The byte order of the elements
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final double[] arr, final int from, final int to,
+                             @NonNull final WritableByteChannel ch, @NonNull final ByteOrder order) throws IOException {
+        checkRange(arr.length, from, to);
+        final ByteBuffer buf = buffers(order)[0];
+        for (int i = from; i < to; ) {
+            int n = Math.min(to - i, CHUNK / Double.BYTES);
+            clear(buf);
+            put(buf, arr, i, n);
+            flip(buf);
+            writeFully(ch, buf);
+            i += n;
+        }
+    }
+
+    /**
+     * Writes the arrays one after another, packing them into several pooled buffers
+     * that are handed to the channel in one gathering write.
+     *
+     * @param ch    The channel to write to
+     * @param order The byte order of the elements
+     * @param arrs  The arrays to write
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final GatheringByteChannel ch, @NonNull final ByteOrder order, @NonNull final double[]... arrs) throws IOException {
+        final ByteBuffer[] bufs = buffers(order);
+        int b = 0;
+        clear(bufs[0]);
+        for (double[] arr : arrs) {
+            for (int i = 0; i < arr.length; ) {
+                int n = Math.min(arr.length - i, bufs[b].remaining() / Double.BYTES);
+                if (n == 0) {
+                    if (++b == bufs.length) {
+                        writeFully(ch, bufs, b);
+                        b = 0;
+                    }
+                    clear(bufs[b]);
+                    continue;
+                }
+                put(bufs[b], arr, i, n);
+                i += n;
+            }
+        }
+        writeFully(ch, bufs, b + 1);
+    }
+
+    /**
+     * Fills the whole array from the channel in the given byte order.
+     *
+     * @param ch    The channel to read from
+     * @param dst   The array to fill
+     * @param order The byte order of the elements
+     * @throws EOFException If the channel ends before the array is filled
+     * @throws IOException  If the channel fails
+     */
+    public static void read(@NonNull final ReadableByteChannel ch, @NonNull final double[] dst, @NonNull final ByteOrder order) throws IOException {
+        read(ch, dst, 0, dst.length, order);
+    }
+
+    /**
+     * Fills part of the array from the channel in the given byte order.
+     *
+     * @param ch    The channel to read from
+     * @param dst   The array to fill
+     * @param from  The inclusive index to begin from
+     * @param to    The exclusive index to fill up to
+     * @param order The byte order of the elements
+     * @throws EOFException If the channel ends before the range is filled
+     * @throws IOException  If the channel fails
+     */
+    public static void read(@NonNull final ReadableByteChannel ch, @NonNull final double[] dst, final int from, final int to, @NonNull final ByteOrder order) throws IOException {
+        checkRange(dst.length, from, to);
+        final ByteBuffer buf = buffers(order)[0];
+        for (int i = from; i < to; ) {
+            int n = Math.min(to - i, CHUNK / Double.BYTES);
+            clear(buf);
+            limit(buf, n * Double.BYTES);
+            readFully(ch, buf);
+            flip(buf);
+            get(buf, dst, i, n);
+            i += n;
+        }
+    }
+
+    /**
+     * @param ch     The channel to read from
+     * @param length The amount of elements to read
+     * @param order  The byte order of the elements
+     * @return A new array of the elements read
+     * @throws EOFException If the channel ends before every element is read
+     * @throws IOException  If the channel fails
+     */
+    public static double[] readDoubles(@NonNull final ReadableByteChannel ch, final int length, @NonNull final ByteOrder order) throws IOException {
+        double[] arr = new double[length];
+        read(ch, arr, order);
+        return arr;
+    }
+
+    /**
+     * Writes the whole array.
+     *
+     * @param arr The array to write
+     * @param ch  The channel to write to
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final byte[] arr, @NonNull final WritableByteChannel ch) throws IOException {
+        write(arr, 0, arr.length, ch);
+    }
+
+    /**
+     * Writes part of the array.
+     *
+     * @param arr  The array to write from
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to write up to
+     * @param ch   The channel to write to
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final byte[] arr, final int from, final int to,
+                             @NonNull final WritableByteChannel ch) throws IOException {
+        checkRange(arr.length, from, to);
+        final ByteBuffer buf = buffers(ByteOrder.BIG_ENDIAN)[0];
+        for (int i = from; i < to; ) {
+            int n = Math.min(to - i, CHUNK);
+            clear(buf);
+            buf.put(arr, i, n);
+            flip(buf);
+            writeFully(ch, buf);
+            i += n;
+        }
+    }
+
+    /**
+     * Writes the arrays one after another, packing them into several pooled buffers
+     * that are handed to the channel in one gathering write.
+     *
+     * @param ch   The channel to write to
+     * @param arrs The arrays to write
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final GatheringByteChannel ch, @NonNull final byte[]... arrs) throws IOException {
+        final ByteBuffer[] bufs = buffers(ByteOrder.BIG_ENDIAN);
+        int b = 0;
+        clear(bufs[0]);
+        for (byte[] arr : arrs) {
+            for (int i = 0; i < arr.length; ) {
+                int n = Math.min(arr.length - i, bufs[b].remaining());
+                if (n == 0) {
+                    if (++b == bufs.length) {
+                        writeFully(ch, bufs, b);
+                        b = 0;
+                    }
+                    clear(bufs[b]);
+                    continue;
+                }
+                bufs[b].put(arr, i, n);
+                i += n;
+            }
+        }
+        writeFully(ch, bufs, b + 1);
+    }
+
+    /**
+     * Fills the whole array from the channel.
+     *
+     * @param ch  The channel to read from
+     * @param dst The array to fill
+     * @throws EOFException If the channel ends before the array is filled
+     * @throws IOException  If the channel fails
+     */
+    public static void read(@NonNull final ReadableByteChannel ch, @NonNull final byte[] dst) throws IOException {
+        read(ch, dst, 0, dst.length);
+    }
+
+    /**
+     * Fills part of the array from the channel.
+     *
+     * @param ch   The channel to read from
+     * @param dst  The array to fill
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to fill up to
+     * @throws EOFException If the channel ends before the range is filled
+     * @throws IOException  If the channel fails
+     */
+    public static void read(@NonNull final ReadableByteChannel ch, @NonNull final byte[] dst, final int from, final int to) throws IOException {
+        checkRange(dst.length, from, to);
+        final ByteBuffer buf = buffers(ByteOrder.BIG_ENDIAN)[0];
+        for (int i = from; i < to; ) {
+            int n = Math.min(to - i, CHUNK);
+            clear(buf);
+            limit(buf, n);
+            readFully(ch, buf);
+            flip(buf);
+            buf.get(dst, i, n);
+            i += n;
+        }
+    }
+
+    /**
+     * @param ch     The channel to read from
+     * @param length The amount of elements to read
+     * @return A new array of the elements read
+     * @throws EOFException If the channel ends before every element is read
+     * @throws IOException  If the channel fails
+     */
+    public static byte[] readBytes(@NonNull final ReadableByteChannel ch, final int length) throws IOException {
+        byte[] arr = new byte[length];
+        read(ch, arr);
+        return arr;
+    }
+
+    /**
+     * Writes the whole array, one byte per element.
+     *
+     * @param arr The array to write
+     * @param ch  The channel to write to
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final boolean[] arr, @NonNull final WritableByteChannel ch) throws IOException {
+        write(arr, 0, arr.length, ch);
+    }
+
+    /**
+     * Writes part of the array, one byte per element.
+     *
+     * @param arr  The array to write from
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to write up to
+     * @param ch   The channel to write to
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final boolean[] arr, final int from, final int to,
+                             @NonNull final WritableByteChannel ch) throws IOException {
+        checkRange(arr.length, from, to);
+        final ByteBuffer buf = buffers(ByteOrder.BIG_ENDIAN)[0];
+        for (int i = from; i < to; ) {
+            int n = Math.min(to - i, CHUNK);
+            clear(buf);
+            put(buf, arr, i, n);
+            flip(buf);
+            writeFully(ch, buf);
+            i += n;
+        }
+    }
+
+    /**
+     * Writes the arrays one after another, packing them into several pooled buffers
+     * that are handed to the channel in one gathering write.
+     *
+     * @param ch   The channel to write to
+     * @param arrs The arrays to write
+     * @throws IOException If the channel fails
+     */
+    public static void write(@NonNull final GatheringByteChannel ch, @NonNull final boolean[]... arrs) throws IOException {
+        final ByteBuffer[] bufs = buffers(ByteOrder.BIG_ENDIAN);
+        int b = 0;
+        clear(bufs[0]);
+        for (boolean[] arr : arrs) {
+            for (int i = 0; i < arr.length; ) {
+                int n = Math.min(arr.length - i, bufs[b].remaining());
+                if (n == 0) {
+                    if (++b == bufs.length) {
+                        writeFully(ch, bufs, b);
+                        b = 0;
+                    }
+                    clear(bufs[b]);
+                    continue;
+                }
+                put(bufs[b], arr, i, n);
+                i += n;
+            }
+        }
+        writeFully(ch, bufs, b + 1);
+    }
+
+    /**
+     * Fills the whole array from the channel, one byte per element.
+     *
+     * @param ch  The channel to read from
+     * @param dst The array to fill
+     * @throws EOFException If the channel ends before the array is filled
+     * @throws IOException  If the channel fails
+     */
+    public static void read(@NonNull final ReadableByteChannel ch, @NonNull final boolean[] dst) throws IOException {
+        read(ch, dst, 0, dst.length);
+    }
+
+    /**
+     * Fills part of the array from the channel, one byte per element.
+     *
+     * @param ch   The channel to read from
+     * @param dst  The array to fill
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to fill up to
+     * @throws EOFException If the channel ends before the range is filled
+     * @throws IOException  If the channel fails
+     */
+    public static void read(@NonNull final ReadableByteChannel ch, @NonNull final boolean[] dst, final int from, final int to) throws IOException {
+        checkRange(dst.length, from, to);
+        final ByteBuffer buf = buffers(ByteOrder.BIG_ENDIAN)[0];
+        for (int i = from; i < to; ) {
+            int n = Math.min(to - i, CHUNK);
+            clear(buf);
+            limit(buf, n);
+            readFully(ch, buf);
+            flip(buf);
+            get(buf, dst, i, n);
+            i += n;
+        }
+    }
+
+    /**
+     * @param ch     The channel to read from
+     * @param length The amount of elements to read
+     * @return A new array of the elements read
+     * @throws EOFException If the channel ends before every element is read
+     * @throws IOException  If the channel fails
+     */
+    public static boolean[] readBooleans(@NonNull final ReadableByteChannel ch, final int length) throws IOException {
+        boolean[] arr = new boolean[length];
+        read(ch, arr);
+        return arr;
+    }
+
+    private static void put(final ByteBuffer buf, final int[] arr, final int i, final int n) {
+        buf.asIntBuffer().put(arr, i, n);
+        position(buf, buf.position() + n * Integer.BYTES);
+    }
+
+    private static void get(final ByteBuffer buf, final int[] dst, final int i, final int n) {
+        buf.asIntBuffer().get(dst, i, n);
+        position(buf, buf.position() + n * Integer.BYTES);
+    }
+
+    private static void put(final ByteBuffer buf, final long[] arr, final int i, final int n) {
+        buf.asLongBuffer().put(arr, i, n);
+        position(buf, buf.position() + n * Long.BYTES);
+    }
+
+    private static void get(final ByteBuffer buf, final long[] dst, final int i, final int n) {
+        buf.asLongBuffer().get(dst, i, n);
+        position(buf, buf.position() + n * Long.BYTES);
+    }
+
+    private static void put(final ByteBuffer buf, final short[] arr, final int i, final int n) {
+        buf.asShortBuffer().put(arr, i, n);
+        position(buf, buf.position() + n * Short.BYTES);
+    }
+
+    private static void get(final ByteBuffer buf, final short[] dst, final int i, final int n) {
+        buf.asShortBuffer().get(dst, i, n);
+        position(buf, buf.position() + n * Short.BYTES);
+    }
+
+    private static void put(final ByteBuffer buf, final char[] arr, final int i, final int n) {
+        buf.asCharBuffer().put(arr, i, n);
+        position(buf, buf.position() + n * Character.BYTES);
+    }
+
+    private static void get(final ByteBuffer buf, final char[] dst, final int i, final int n) {
+        buf.asCharBuffer().get(dst, i, n);
+        position(buf, buf.position() + n * Character.BYTES);
+    }
+
+    private static void put(final ByteBuffer buf, final float[] arr, final int i, final int n) {
+        buf.asFloatBuffer().put(arr, i, n);
+        position(buf, buf.position() + n * Float.BYTES);
+    }
+
+    private static void get(final ByteBuffer buf, final float[] dst, final int i, final int n) {
+        buf.asFloatBuffer().get(dst, i, n);
+        position(buf, buf.position() + n * Float.BYTES);
+    }
+
+    private static void put(final ByteBuffer buf, final double[] arr, final int i, final int n) {
+        buf.asDoubleBuffer().put(arr, i, n);
+        position(buf, buf.position() + n * Double.BYTES);
+    }
+
+    private static void get(final ByteBuffer buf, final double[] dst, final int i, final int n) {
+        buf.asDoubleBuffer().get(dst, i, n);
+        position(buf, buf.position() + n * Double.BYTES);
+    }
+
+    private static void put(final ByteBuffer buf, final boolean[] arr, final int i, final int n) {
+        for (int k = i; k < i + n; k++)
+            buf.put(arr[k] ? (byte) 1 : (byte) 0);
+    }
+
+    private static void get(final ByteBuffer buf, final boolean[] dst, final int i, final int n) {
+        for (int k = i; k < i + n; k++)
+            dst[k] = buf.get() != 0;
+    }
+
+    private static ByteBuffer[] buffers(final ByteOrder order) {
+        ByteBuffer[] bufs = BUFFERS.get();
+        for (ByteBuffer buf : bufs)
+            buf.order(order);
+        return bufs;
+    }
+
+    private static void writeFully(final WritableByteChannel ch, final ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining())
+            ch.write(buf);
+    }
+
+    private static void writeFully(final GatheringByteChannel ch, final ByteBuffer[] bufs, final int count) throws IOException {
+        long remaining = 0;
+        for (int i = 0; i < count; i++) {
+            flip(bufs[i]);
+            remaining += bufs[i].remaining();
+        }
+        while (remaining > 0)
+            remaining -= ch.write(bufs, 0, count);
+    }
+
+    private static void readFully(final ReadableByteChannel ch, final ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining())
+            if (ch.read(buf) < 0)
+                throw new EOFException("Channel ended " + buf.remaining() + " bytes early");
+    }
+
+    private static void checkRange(final int length, final int from, final int to) {
+        if (from < 0 || to > length || from > to)
+            throw new ArrayIndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + length);
+    }
+
+    // Called through Buffer, since ByteBuffer's own overrides only exist from Java 9 on
+    static void clear(final Buffer buf) {
+        buf.clear();
+    }
+
+    static void flip(final Buffer buf) {
+        buf.flip();
+    }
+
+    static void limit(final Buffer buf, final int limit) {
+        buf.limit(limit);
+    }
+
+    static void position(final Buffer buf, final int position) {
+        buf.position(position);
+    }
+}
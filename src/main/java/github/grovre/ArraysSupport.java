@@ -5,6 +5,7 @@ import lombok.experimental.UtilityClass;
 import org.apache.commons.math3.util.FastMath;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.*;
 import java.util.stream.IntStream;
@@ -59,9 +60,9 @@ public class ArraysSupport {
     public static final Object[] EMPTY_OBJECT_ARRAY = new Object[0];
 
     /**
-     * Generates an array based off of the generate function provided.
-     * The parameter to the generate function is the index; the first
-     * index, 0, is applied to the function and assigned to index 0 and so on.
+     * Generates an array based off of the supplier provided.
+     * The supplier is called once per element, starting from index 0.
+     * To generate elements from their index, use {@link #generateIndexed(IntFunction, IntFunction, int)}.
      * Generation is unchecked.
      *
      * @param <T>            the type parameter
@@ -79,9 +80,9 @@ public class ArraysSupport {
     }
 
     /**
-     * Generates an array based off of the generate function provided.
-     * The parameter to the generate function is the index; the first
-     * index, 0, is applied to the function and assigned to index 0 and so on.
+     * Generates an array based off of the supplier provided.
+     * The supplier is called once per element, starting from index 0.
+     * To generate elements from their index, use {@link #generateIntIndexed(IntUnaryOperator, int)}.
      *
      * @param op  The operation to generate the elements
      * @param len The length of the array
@@ -95,9 +96,9 @@ public class ArraysSupport {
     }
 
     /**
-     * Generates an array based off of the generate function provided.
-     * The parameter to the generate function is the index; the first
-     * index, 0, is applied to the function and assigned to index 0 and so on.
+     * Generates an array based off of the supplier provided.
+     * The supplier is called once per element, starting from index 0.
+     * To generate elements from their index, use {@link #generateShortIndexed(IntUnaryOperator, int)}.
      *
      * @param op  The operation to generate the elements
      * @param len The length of the array
@@ -111,9 +112,9 @@ public class ArraysSupport {
     }
 
     /**
-     * Generates an array based off of the generate function provided.
-     * The parameter to the generate function is the index; the first
-     * index, 0, is applied to the function and assigned to index 0 and so on.
+     * Generates an array based off of the supplier provided.
+     * The supplier is called once per element, starting from index 0.
+     * To generate elements from their index, use {@link #generateByteIndexed(IntUnaryOperator, int)}.
      *
      * @param op  The operation to generate the elements
      * @param len The length of the array
@@ -127,9 +128,9 @@ public class ArraysSupport {
     }
 
     /**
-     * Generates an array based off of the generate function provided.
-     * The parameter to the generate function is the index; the first
-     * index, 0, is applied to the function and assigned to index 0 and so on.
+     * Generates an array based off of the supplier provided.
+     * The supplier is called once per element, starting from index 0.
+     * To generate elements from their index, use {@link #generateLongIndexed(IntToLongFunction, int)}.
      *
      * @param op  The operation to generate the elements
      * @param len The length of the array
@@ -143,9 +144,9 @@ public class ArraysSupport {
     }
 
     /**
-     * Generates an array based off of the generate function provided.
-     * The parameter to the generate function is the index; the first
-     * index, 0, is applied to the function and assigned to index 0 and so on.
+     * Generates an array based off of the supplier provided.
+     * The supplier is called once per element, starting from index 0.
+     * To generate elements from their index, use {@link #generateBooleanIndexed(IntPredicate, int)}.
      *
      * @param op  The operation to generate the elements
      * @param len The length of the array
@@ -159,9 +160,9 @@ public class ArraysSupport {
     }
 
     /**
-     * Generates an array based off of the generate function provided.
-     * The parameter to the generate function is the index; the first
-     * index, 0, is applied to the function and assigned to index 0 and so on.
+     * Generates an array based off of the supplier provided.
+     * The supplier is called once per element, starting from index 0.
+     * To generate elements from their index, use {@link #generateDoubleIndexed(IntToDoubleFunction, int)}.
      *
      * @param op  The operation to generate the elements
      * @param len The length of the array
@@ -175,9 +176,9 @@ public class ArraysSupport {
     }
 
     /**
-     * Generates an array based off of the generate function provided.
-     * The parameter to the generate function is the index; the first
-     * index, 0, is applied to the function and assigned to index 0 and so on.
+     * Generates an array based off of the supplier provided.
+     * The supplier is called once per element, starting from index 0.
+     * To generate elements from their index, use {@link #generateFloatIndexed(IntToDoubleFunction, int)}.
      *
      * @param op  The operation to generate the elements
      * @param len The length of the array
@@ -190,6 +191,308 @@ public class ArraysSupport {
         return arr;
     }
 
+    /**
+     * Generates an array based off of the generate function provided.
+     * The parameter to the generate function is the index; the first
+     * index, 0, is applied to the function and assigned to index 0 and so on.
+     * Generation is unchecked.
+     *
+     * @param <T>            the type parameter
+     * @param arrayGenerator The function used to create an array safely.
+     *                       It should look like <code>T[]::new</code>
+     * @param op             The operation to generate the elements from their index
+     * @param len            The length of the array
+     * @return A new array after applying the generating function to all indices
+     */
+    public static <T> T[] generateIndexed(@NonNull IntFunction<T[]> arrayGenerator, @NonNull IntFunction<T> op, int len) {
+        T[] arr = arrayGenerator.apply(len);
+        for (int i = 0; i < len; i++)
+            arr[i] = op.apply(i);
+        return arr;
+    }
+
+    /**
+     * Generates an array based off of the generate function provided.
+     * The parameter to the generate function is the index; the first
+     * index, 0, is applied to the function and assigned to index 0 and so on.
+     *
+     * @param op  The operation to generate the elements from their index
+     * @param len The length of the array
+     * @return A new array after applying the generating function to all indices
+     */
+    public static int[] generateIntIndexed(@NonNull IntUnaryOperator op, int len) {
+        int[] arr = new int[len];
+        for (int i = 0; i < arr.length; i++)
+            arr[i] = op.applyAsInt(i);
+        return arr;
+    }
+
+    /**
+     * Generates an array based off of the generate function provided.
+     * The parameter to the generate function is the index; the first
+     * index, 0, is applied to the function and assigned to index 0 and so on.
+     *
+     * @param op  The operation to generate the elements from their index
+     * @param len The length of the array
+     * @return A new array after applying the generating function to all indices
+     */
+    public static short[] generateShortIndexed(@NonNull IntUnaryOperator op, int len) {
+        short[] arr = new short[len];
+        for (int i = 0; i < arr.length; i++)
+            arr[i] = (short) op.applyAsInt(i);
+        return arr;
+    }
+
+    /**
+     * Generates an array based off of the generate function provided.
+     * The parameter to the generate function is the index; the first
+     * index, 0, is applied to the function and assigned to index 0 and so on.
+     *
+     * @param op  The operation to generate the elements from their index
+     * @param len The length of the array
+     * @return A new array after applying the generating function to all indices
+     */
+    public static byte[] generateByteIndexed(@NonNull IntUnaryOperator op, int len) {
+        byte[] arr = new byte[len];
+        for (int i = 0; i < arr.length; i++)
+            arr[i] = (byte) op.applyAsInt(i);
+        return arr;
+    }
+
+    /**
+     * Generates an array based off of the generate function provided.
+     * The parameter to the generate function is the index; the first
+     * index, 0, is applied to the function and assigned to index 0 and so on.
+     *
+     * @param op  The operation to generate the elements from their index
+     * @param len The length of the array
+     * @return A new array after applying the generating function to all indices
+     */
+    public static long[] generateLongIndexed(@NonNull IntToLongFunction op, int len) {
+        long[] arr = new long[len];
+        for (int i = 0; i < arr.length; i++)
+            arr[i] = op.applyAsLong(i);
+        return arr;
+    }
+
+    /**
+     * Generates an array based off of the generate function provided.
+     * The parameter to the generate function is the index; the first
+     * index, 0, is applied to the function and assigned to index 0 and so on.
+     *
+     * @param op  The operation to generate the elements from their index
+     * @param len The length of the array
+     * @return A new array after applying the generating function to all indices
+     */
+    public static boolean[] generateBooleanIndexed(@NonNull IntPredicate op, int len) {
+        boolean[] arr = new boolean[len];
+        for (int i = 0; i < arr.length; i++)
+            arr[i] = op.test(i);
+        return arr;
+    }
+
+    /**
+     * Generates an array based off of the generate function provided.
+     * The parameter to the generate function is the index; the first
+     * index, 0, is applied to the function and assigned to index 0 and so on.
+     *
+     * @param op  The operation to generate the elements from their index
+     * @param len The length of the array
+     * @return A new array after applying the generating function to all indices
+     */
+    public static double[] generateDoubleIndexed(@NonNull IntToDoubleFunction op, int len) {
+        double[] arr = new double[len];
+        for (int i = 0; i < arr.length; i++)
+            arr[i] = op.applyAsDouble(i);
+        return arr;
+    }
+
+    /**
+     * Generates an array based off of the generate function provided.
+     * The parameter to the generate function is the index; the first
+     * index, 0, is applied to the function and assigned to index 0 and so on.
+     *
+     * @param op  The operation to generate the elements from their index
+     * @param len The length of the array
+     * @return A new array after applying the generating function to all indices
+     */
+    public static float[] generateFloatIndexed(@NonNull IntToDoubleFunction op, int len) {
+        float[] arr = new float[len];
+        for (int i = 0; i < arr.length; i++)
+            arr[i] = (float) op.applyAsDouble(i);
+        return arr;
+    }
+
+    /**
+     * Generates an array in parallel based off of the generate function provided,
+     * which is given each index. The function may be called from several threads
+     * and in any order, so it should not depend on shared state.
+     *
+     * @param <T>            the type parameter
+     * @param arrayGenerator The function used to create an array safely.
+     *                       It should look like <code>T[]::new</code>
+     * @param op             The operation to generate the elements from their index
+     * @param len            The length of the array
+     * @return A new array after applying the generating function to all indices
+     */
+    public static <T> T[] parallelGenerate(@NonNull IntFunction<T[]> arrayGenerator, @NonNull IntFunction<? extends T> op, int len) {
+        T[] arr = arrayGenerator.apply(len);
+        Arrays.parallelSetAll(arr, op);
+        return arr;
+    }
+
+    /**
+     * <p>
+     * Generates an array of random elements in parallel, deterministically for a given seed.
+     * </P>
+     * <p>
+     * The array is split into fixed-size chunks and the given generator is split once per chunk,
+     * in order, before any chunk is filled. Every chunk then draws from its own generator, so the
+     * result depends only on the seed and the length, never on the amount of threads or how the
+     * chunks are scheduled.
+     * </P>
+     *
+     * @param <T>            the type parameter
+     * @param arrayGenerator The function used to create an array safely.
+     *                       It should look like <code>T[]::new</code>
+     * @param op             The operation to generate an element from a chunk's generator
+     * @param len            The length of the array
+     * @param random         The generator to split, which is advanced once per chunk
+     * @return A new array of generated elements
+     */
+    public static <T> T[] parallelGenerate(@NonNull IntFunction<T[]> arrayGenerator, @NonNull Function<SplittableRandom, ? extends T> op,
+                                           int len, @NonNull SplittableRandom random) {
+        T[] arr = arrayGenerator.apply(len);
+        Generate.parallelChunks(len, random, (r, from, to) -> {
+            for (int i = from; i < to; i++)
+                arr[i] = op.apply(r);
+        });
+        return arr;
+    }
+
+    /**
+     * Generates an array in parallel based off of the generate function provided,
+     * which is given each index. The function may be called from several threads
+     * and in any order, so it should not depend on shared state.
+     *
+     * @param op  The operation to generate the elements from their index
+     * @param len The length of the array
+     * @return A new array after applying the generating function to all indices
+     */
+    public static int[] parallelGenerateInt(@NonNull IntUnaryOperator op, int len) {
+        int[] arr = new int[len];
+        Arrays.parallelSetAll(arr, op);
+        return arr;
+    }
+
+    /**
+     * <p>
+     * Generates an array of random elements in parallel, deterministically for a given seed.
+     * </P>
+     * <p>
+     * The array is split into fixed-size chunks and the given generator is split once per chunk,
+     * in order, before any chunk is filled. Every chunk then draws from its own generator, so the
+     * result depends only on the seed and the length, never on the amount of threads or how the
+     * chunks are scheduled.
+     * </P>
+     *
+     * @param op     The operation to generate an element from a chunk's generator,
+     *               for example <code>r -&gt; r.nextInt(100)</code>
+     * @param len    The length of the array
+     * @param random The generator to split, which is advanced once per chunk
+     * @return A new array of generated elements
+     */
+    public static int[] parallelGenerateInt(@NonNull ToIntFunction<SplittableRandom> op, int len, @NonNull SplittableRandom random) {
+        int[] arr = new int[len];
+        Generate.parallelChunks(len, random, (r, from, to) -> {
+            for (int i = from; i < to; i++)
+                arr[i] = op.applyAsInt(r);
+        });
+        return arr;
+    }
+
+    /**
+     * Generates an array in parallel based off of the generate function provided,
+     * which is given each index. The function may be called from several threads
+     * and in any order, so it should not depend on shared state.
+     *
+     * @param op  The operation to generate the elements from their index
+     * @param len The length of the array
+     * @return A new array after applying the generating function to all indices
+     */
+    public static long[] parallelGenerateLong(@NonNull IntToLongFunction op, int len) {
+        long[] arr = new long[len];
+        Arrays.parallelSetAll(arr, op);
+        return arr;
+    }
+
+    /**
+     * <p>
+     * Generates an array of random elements in parallel, deterministically for a given seed.
+     * </P>
+     * <p>
+     * The array is split into fixed-size chunks and the given generator is split once per chunk,
+     * in order, before any chunk is filled. Every chunk then draws from its own generator, so the
+     * result depends only on the seed and the length, never on the amount of threads or how the
+     * chunks are scheduled.
+     * </P>
+     *
+     * @param op     The operation to generate an element from a chunk's generator,
+     *               for example <code>r -&gt; r.nextLong()</code>
+     * @param len    The length of the array
+     * @param random The generator to split, which is advanced once per chunk
+     * @return A new array of generated elements
+     */
+    public static long[] parallelGenerateLong(@NonNull ToLongFunction<SplittableRandom> op, int len, @NonNull SplittableRandom random) {
+        long[] arr = new long[len];
+        Generate.parallelChunks(len, random, (r, from, to) -> {
+            for (int i = from; i < to; i++)
+                arr[i] = op.applyAsLong(r);
+        });
+        return arr;
+    }
+
+    /**
+     * Generates an array in parallel based off of the generate function provided,
+     * which is given each index. The function may be called from several threads
+     * and in any order, so it should not depend on shared state.
+     *
+     * @param op  The operation to generate the elements from their index
+     * @param len The length of the array
+     * @return A new array after applying the generating function to all indices
+     */
+    public static double[] parallelGenerateDouble(@NonNull IntToDoubleFunction op, int len) {
+        double[] arr = new double[len];
+        Arrays.parallelSetAll(arr, op);
+        return arr;
+    }
+
+    /**
+     * <p>
+     * Generates an array of random elements in parallel, deterministically for a given seed.
+     * </P>
+     * <p>
+     * The array is split into fixed-size chunks and the given generator is split once per chunk,
+     * in order, before any chunk is filled. Every chunk then draws from its own generator, so the
+     * result depends only on the seed and the length, never on the amount of threads or how the
+     * chunks are scheduled.
+     * </P>
+     *
+     * @param op     The operation to generate an element from a chunk's generator,
+     *               for example <code>r -&gt; r.nextDouble()</code>
+     * @param len    The length of the array
+     * @param random The generator to split, which is advanced once per chunk
+     * @return A new array of generated elements
+     */
+    public static double[] parallelGenerateDouble(@NonNull ToDoubleFunction<SplittableRandom> op, int len, @NonNull SplittableRandom random) {
+        double[] arr = new double[len];
+        Generate.parallelChunks(len, random, (r, from, to) -> {
+            for (int i = from; i < to; i++)
+                arr[i] = op.applyAsDouble(r);
+        });
+        return arr;
+    }
+
     /**
      * Linearly searches through an array using Apache Common's
      * {@link FastMath} utility class to find the max.
@@ -248,7 +551,8 @@ public class ArraysSupport {
 
     /**
      * Linearly searches through an array using Apache Common's
-     * {@link FastMath} utility class to find the max.
+     * {@link FastMath} utility class to find the max. A NaN propagates, so the max
+     * is NaN if the array holds one, matching {@link #argmax(double[])}.
      *
      * @param arr The array to be searched for the max
      * @return The max number from the array
@@ -262,7 +566,8 @@ public class ArraysSupport {
 
     /**
      * Linearly searches through an array using Apache Common's
-     * {@link FastMath} utility class to find the max.
+     * {@link FastMath} utility class to find the max. A NaN propagates, so the max
+     * is NaN if the array holds one, matching {@link #argmax(float[])}.
      *
      * @param arr The array to be searched for the max
      * @return The max number from the array
@@ -361,7 +666,8 @@ public class ArraysSupport {
 
     /**
      * Linearly searches through an array using Apache Common's
-     * {@link FastMath} utility class to find the min.
+     * {@link FastMath} utility class to find the min. A NaN propagates, so the min
+     * is NaN if the array holds one, matching {@link #argmin(float[])}.
      *
      * @param arr The array to be searched for the min
      * @return The min number from the array
@@ -375,7 +681,8 @@ public class ArraysSupport {
 
     /**
      * Linearly searches through an array using Apache Common's
-     * {@link FastMath} utility class to find the min.
+     * {@link FastMath} utility class to find the min. A NaN propagates, so the min
+     * is NaN if the array holds one, matching {@link #argmin(double[])}.
      *
      * @param arr The array to be searched for the min
      * @return The min number from the array
@@ -833,7 +1140,24 @@ public class ArraysSupport {
      * @param arr The array to sort
      */
     public static void countingSort(@NonNull final int[] arr) {
-        Sort.countingSort(arr);
+        Metrics.Probe probe = Metrics.begin();
+        int range = Sort.countingSort(arr);
+        if (probe != null)
+            probe.end("countingSort", "int[]", arr.length, range, "counting");
+    }
+
+    /**
+     * Counting sorts an array like {@code countingSort}, but borrows the map of counts from
+     * an arena and gives it back afterwards instead of allocating a new one every call.
+     *
+     * @param arr   The array to sort
+     * @param arena The arena to borrow the map from, such as {@link ScratchArena#local()}
+     */
+    public static void countingSort(@NonNull final int[] arr, @NonNull final ScratchArena arena) {
+        Metrics.Probe probe = Metrics.begin();
+        int range = Sort.countingSort(arr, arena);
+        if (probe != null)
+            probe.end("countingSort", "int[]", arr.length, range, "counting-arena");
     }
 
     /**
@@ -863,7 +1187,24 @@ public class ArraysSupport {
      * @param arr The array to sort
      */
     public static void countingSort(@NonNull final short[] arr) {
-        Sort.countingSort(arr);
+        Metrics.Probe probe = Metrics.begin();
+        int range = Sort.countingSort(arr);
+        if (probe != null)
+            probe.end("countingSort", "short[]", arr.length, range, "counting");
+    }
+
+    /**
+     * Counting sorts an array like {@code countingSort}, but borrows the map of counts from
+     * an arena and gives it back afterwards instead of allocating a new one every call.
+     *
+     * @param arr   The array to sort
+     * @param arena The arena to borrow the map from, such as {@link ScratchArena#local()}
+     */
+    public static void countingSort(@NonNull final short[] arr, @NonNull final ScratchArena arena) {
+        Metrics.Probe probe = Metrics.begin();
+        int range = Sort.countingSort(arr, arena);
+        if (probe != null)
+            probe.end("countingSort", "short[]", arr.length, range, "counting-arena");
     }
 
     /**
@@ -893,7 +1234,24 @@ public class ArraysSupport {
      * @param arr The array to sort
      */
     public static void countingSort(@NonNull final byte[] arr) {
-        Sort.countingSort(arr);
+        Metrics.Probe probe = Metrics.begin();
+        int range = Sort.countingSort(arr);
+        if (probe != null)
+            probe.end("countingSort", "byte[]", arr.length, range, "counting");
+    }
+
+    /**
+     * Counting sorts an array like {@code countingSort}, but borrows the map of counts from
+     * an arena and gives it back afterwards instead of allocating a new one every call.
+     *
+     * @param arr   The array to sort
+     * @param arena The arena to borrow the map from, such as {@link ScratchArena#local()}
+     */
+    public static void countingSort(@NonNull final byte[] arr, @NonNull final ScratchArena arena) {
+        Metrics.Probe probe = Metrics.begin();
+        int range = Sort.countingSort(arr, arena);
+        if (probe != null)
+            probe.end("countingSort", "byte[]", arr.length, range, "counting-arena");
     }
 
     /**
@@ -918,7 +1276,10 @@ public class ArraysSupport {
      * @param arr The array to sort
      */
     public static void countingSort(@NonNull final boolean[] arr) {
-        Sort.countingSort(arr);
+        Metrics.Probe probe = Metrics.begin();
+        int range = Sort.countingSort(arr);
+        if (probe != null)
+            probe.end("countingSort", "boolean[]", arr.length, range, "counting");
     }
 
     /**
@@ -2136,6 +2497,7 @@ public class ArraysSupport {
      * @return The new array with only 1 of each element
      */
     public static int[] union(int[] arr1, int[] arr2) {
+        Metrics.Probe probe = Metrics.begin();
         Set<Integer> set = new HashSet<>();
         for (int n : arr1)
             set.add(n);
@@ -2146,9 +2508,55 @@ public class ArraysSupport {
         for (int i = 0; i < set.size(); i++) {
             unionArr[i] = iter.next();
         }
+        if (probe != null)
+            probe.end("union", "int[]", arr1.length + arr2.length, -1, "boxed-hash");
         return unionArr;
     }
 
+    /**
+     * <p>
+     * Takes all elements from both arrays and only puts 1 of each into a new array, in ascending order.
+     * </P>
+     * <p>
+     * Nothing is boxed: copies of both arrays are sorted together in a buffer borrowed
+     * from the arena, so the only allocation is the resulting array.
+     * </P>
+     *
+     * @param arr1  The first array
+     * @param arr2  The second array
+     * @param arena The arena to borrow the buffer from, such as {@link ScratchArena#local()}
+     * @return The new sorted array with only 1 of each element
+     */
+    public static int[] union(@NonNull int[] arr1, @NonNull int[] arr2, @NonNull ScratchArena arena) {
+        Metrics.Probe probe = Metrics.begin();
+        int[] result = SetOperations.union(arr1, arr2, arena);
+        if (probe != null)
+            probe.end("union", "int[]", arr1.length + arr2.length, -1, "sort-merge-arena");
+        return result;
+    }
+
+    /**
+     * <p>
+     * Gets the elements found in both arrays into a new array, 1 of each, in ascending order.
+     * </P>
+     * <p>
+     * Copies of both arrays are sorted in buffers borrowed from the arena and then merged,
+     * so the only allocation is the resulting array.
+     * </P>
+     *
+     * @param arr1  The first array
+     * @param arr2  The second array
+     * @param arena The arena to borrow the buffers from, such as {@link ScratchArena#local()}
+     * @return The new sorted array with only elements that are in both arrays
+     */
+    public static int[] intersection(@NonNull int[] arr1, @NonNull int[] arr2, @NonNull ScratchArena arena) {
+        Metrics.Probe probe = Metrics.begin();
+        int[] result = SetOperations.intersection(arr1, arr2, arena);
+        if (probe != null)
+            probe.end("intersection", "int[]", arr1.length + arr2.length, -1, "sort-merge-arena");
+        return result;
+    }
+
     /**
      * Takes all elements from both arrays and only puts 1 of each into a new array.
      * @param arr1 The first array
@@ -2156,6 +2564,7 @@ public class ArraysSupport {
      * @return The new array with only 1 of each element
      */
     public static byte[] union(byte[] arr1, byte[] arr2) {
+        Metrics.Probe probe = Metrics.begin();
         Set<Byte> set = new HashSet<>();
         for (byte n : arr1)
             set.add(n);
@@ -2166,6 +2575,8 @@ public class ArraysSupport {
         for (int i = 0; i < set.size(); i++) {
             unionArr[i] = iter.next();
         }
+        if (probe != null)
+            probe.end("union", "byte[]", arr1.length + arr2.length, -1, "boxed-hash");
         return unionArr;
     }
 
@@ -2176,6 +2587,7 @@ public class ArraysSupport {
      * @return The new array with only 1 of each element
      */
     public static short[] union(short[] arr1, short[] arr2) {
+        Metrics.Probe probe = Metrics.begin();
         Set<Short> set = new HashSet<>();
         for (short n : arr1)
             set.add(n);
@@ -2186,6 +2598,8 @@ public class ArraysSupport {
         for (int i = 0; i < set.size(); i++) {
             unionArr[i] = iter.next();
         }
+        if (probe != null)
+            probe.end("union", "short[]", arr1.length + arr2.length, -1, "boxed-hash");
         return unionArr;
     }
 
@@ -2196,6 +2610,7 @@ public class ArraysSupport {
      * @return The new array with only 1 of each element
      */
     public static long[] union(long[] arr1, long[] arr2) {
+        Metrics.Probe probe = Metrics.begin();
         Set<Long> set = new HashSet<>();
         for (long n : arr1)
             set.add(n);
@@ -2206,9 +2621,55 @@ public class ArraysSupport {
         for (int i = 0; i < set.size(); i++) {
             unionArr[i] = iter.next();
         }
+        if (probe != null)
+            probe.end("union", "long[]", arr1.length + arr2.length, -1, "boxed-hash");
         return unionArr;
     }
 
+    /**
+     * <p>
+     * Takes all elements from both arrays and only puts 1 of each into a new array, in ascending order.
+     * </P>
+     * <p>
+     * Nothing is boxed: copies of both arrays are sorted together in a buffer borrowed
+     * from the arena, so the only allocation is the resulting array.
+     * </P>
+     *
+     * @param arr1  The first array
+     * @param arr2  The second array
+     * @param arena The arena to borrow the buffer from, such as {@link ScratchArena#local()}
+     * @return The new sorted array with only 1 of each element
+     */
+    public static long[] union(@NonNull long[] arr1, @NonNull long[] arr2, @NonNull ScratchArena arena) {
+        Metrics.Probe probe = Metrics.begin();
+        long[] result = SetOperations.union(arr1, arr2, arena);
+        if (probe != null)
+            probe.end("union", "long[]", arr1.length + arr2.length, -1, "sort-merge-arena");
+        return result;
+    }
+
+    /**
+     * <p>
+     * Gets the elements found in both arrays into a new array, 1 of each, in ascending order.
+     * </P>
+     * <p>
+     * Copies of both arrays are sorted in buffers borrowed from the arena and then merged,
+     * so the only allocation is the resulting array.
+     * </P>
+     *
+     * @param arr1  The first array
+     * @param arr2  The second array
+     * @param arena The arena to borrow the buffers from, such as {@link ScratchArena#local()}
+     * @return The new sorted array with only elements that are in both arrays
+     */
+    public static long[] intersection(@NonNull long[] arr1, @NonNull long[] arr2, @NonNull ScratchArena arena) {
+        Metrics.Probe probe = Metrics.begin();
+        long[] result = SetOperations.intersection(arr1, arr2, arena);
+        if (probe != null)
+            probe.end("intersection", "long[]", arr1.length + arr2.length, -1, "sort-merge-arena");
+        return result;
+    }
+
     /**
      * Takes all elements from both arrays and only puts 1 of each into a new array.
      * @param arr1 The first array
@@ -2216,6 +2677,7 @@ public class ArraysSupport {
      * @return The new array with only 1 of each element
      */
     public static float[] union(float[] arr1, float[] arr2) {
+        Metrics.Probe probe = Metrics.begin();
         Set<Float> set = new HashSet<>();
         for (float n : arr1)
             set.add(n);
@@ -2226,6 +2688,8 @@ public class ArraysSupport {
         for (int i = 0; i < set.size(); i++) {
             unionArr[i] = iter.next();
         }
+        if (probe != null)
+            probe.end("union", "float[]", arr1.length + arr2.length, -1, "boxed-hash");
         return unionArr;
     }
 
@@ -2236,6 +2700,7 @@ public class ArraysSupport {
      * @return The new array with only 1 of each element
      */
     public static double[] union(double[] arr1, double[] arr2) {
+        Metrics.Probe probe = Metrics.begin();
         Set<Double> set = new HashSet<>();
         for (double n : arr1)
             set.add(n);
@@ -2246,6 +2711,8 @@ public class ArraysSupport {
         for (int i = 0; i < set.size(); i++) {
             unionArr[i] = iter.next();
         }
+        if (probe != null)
+            probe.end("union", "double[]", arr1.length + arr2.length, -1, "boxed-hash");
         return unionArr;
     }
 
@@ -2256,10 +2723,14 @@ public class ArraysSupport {
      * @return The new array with only 1 of each element
      */
     public static <T> T[] union(T[] arr1, T[] arr2, IntFunction<T[]> generator) {
+        Metrics.Probe probe = Metrics.begin();
         Set<T> set = new HashSet<>();
         Collections.addAll(set, arr1);
         Collections.addAll(set, arr2);
-        return set.toArray(generator.apply(set.size()));
+        T[] result = set.toArray(generator.apply(set.size()));
+        if (probe != null)
+            probe.end("union", "T[]", arr1.length + arr2.length, -1, "boxed-hash");
+        return result;
     }
 
     /**
@@ -2272,6 +2743,7 @@ public class ArraysSupport {
      * @param <T> The type to deal with
      */
     public static <T> T[] intersection(T[] arr1, T[] arr2, IntFunction<T[]> generator) {
+        Metrics.Probe probe = Metrics.begin();
         Set<T> set1 = new HashSet<>(Arrays.asList(arr1));
         Set<T> set2 = new HashSet<>(Arrays.asList(arr2));
         ArrayList<T> list = new ArrayList<>();
@@ -2287,9 +2759,4031 @@ public class ArraysSupport {
         }
         T[] intersectionArr = generator.apply(list.size());
         list.toArray(intersectionArr);
+        if (probe != null)
+            probe.end("intersection", "T[]", arr1.length + arr2.length, -1, "boxed-hash");
         return intersectionArr;
     }
 
+    /**
+     * <p>
+     * Takes all elements from both arrays and only puts 1 of each into a new array,
+     * using a 64-bit key instead of {@code equals} and {@code hashCode} to decide
+     * which elements are the same.
+     * </P>
+     * <p>
+     * Keys are extracted once per element and hashed into a primitive open-addressing
+     * table of indices, so nothing is boxed and no node is allocated per element.
+     * The first element seen with a given key is kept, elements of the first array
+     * before those of the second, in encounter order.
+     * </P>
+     * @param arr1 The first array
+     * @param arr2 The second array
+     * @param key The key extractor; elements with equal keys are treated as equal
+     * @param generator The generator to create an array with. Looks like <code>Integer[]::new</code>
+     * @return The new array with only 1 element per key
+     * @param <T> The type to deal with
+     * @throws IllegalArgumentException If the arrays together are longer than an array can be
+     */
+    public static <T> T[] union(@NonNull T[] arr1, @NonNull T[] arr2, @NonNull ToLongFunction<? super T> key, @NonNull IntFunction<T[]> generator) {
+        Metrics.Probe probe = Metrics.begin();
+        T[] result = SetOperations.union(arr1, arr2, key, generator);
+        if (probe != null)
+            probe.end("union", "T[]", arr1.length + arr2.length, -1, "hash");
+        return result;
+    }
+
+    /**
+     * <p>
+     * Takes all elements from both arrays and only puts 1 of each into a new array,
+     * using a comparator to decide which elements are the same.
+     * </P>
+     * <p>
+     * Both arrays are sort-merged through arrays of their indices, so the original
+     * objects are kept and no wrapper is allocated. The result is sorted by the comparator
+     * and elements of the first array win ties.
+     * </P>
+     * @param arr1 The first array
+     * @param arr2 The second array
+     * @param comparator The comparator; elements comparing as 0 are treated as equal
+     * @param generator The generator to create an array with. Looks like <code>Integer[]::new</code>
+     * @return The new sorted array with only 1 of each element
+     * @param <T> The type to deal with
+     */
+    public static <T> T[] union(@NonNull T[] arr1, @NonNull T[] arr2, @NonNull Comparator<? super T> comparator, @NonNull IntFunction<T[]> generator) {
+        Metrics.Probe probe = Metrics.begin();
+        T[] result = SetOperations.union(arr1, arr2, comparator, generator);
+        if (probe != null)
+            probe.end("union", "T[]", arr1.length + arr2.length, -1, "sort-merge");
+        return result;
+    }
+
+    /**
+     * <p>
+     * Gets all intersecting elements into an array, using a 64-bit key instead of
+     * {@code equals} and {@code hashCode} to decide which elements are the same.
+     * </P>
+     * <p>
+     * The keys of the second array are hashed into a primitive open-addressing table
+     * which the first array is probed against. Elements are taken from the first array,
+     * 1 per key, in encounter order.
+     * </P>
+     * @param arr1 The first array
+     * @param arr2 The second array
+     * @param key The key extractor; elements with equal keys are treated as equal
+     * @param generator The generator to create an array with. Looks like <code>Integer[]::new</code>
+     * @return A new array with only elements whose key is in both arrays
+     * @param <T> The type to deal with
+     */
+    public static <T> T[] intersection(@NonNull T[] arr1, @NonNull T[] arr2, @NonNull ToLongFunction<? super T> key, @NonNull IntFunction<T[]> generator) {
+        Metrics.Probe probe = Metrics.begin();
+        T[] result = SetOperations.intersection(arr1, arr2, key, generator);
+        if (probe != null)
+            probe.end("intersection", "T[]", arr1.length + arr2.length, -1, "hash");
+        return result;
+    }
+
+    /**
+     * <p>
+     * Gets all intersecting elements into an array, using a comparator to decide
+     * which elements are the same.
+     * </P>
+     * <p>
+     * Both arrays are sort-merged through arrays of their indices, so the original
+     * objects are kept and no wrapper is allocated. Elements are taken from the first array
+     * and the result is sorted by the comparator.
+     * </P>
+     * @param arr1 The first array
+     * @param arr2 The second array
+     * @param comparator The comparator; elements comparing as 0 are treated as equal
+     * @param generator The generator to create an array with. Looks like <code>Integer[]::new</code>
+     * @return A new sorted array with only elements that are in both arrays
+     * @param <T> The type to deal with
+     */
+    public static <T> T[] intersection(@NonNull T[] arr1, @NonNull T[] arr2, @NonNull Comparator<? super T> comparator, @NonNull IntFunction<T[]> generator) {
+        Metrics.Probe probe = Metrics.begin();
+        T[] result = SetOperations.intersection(arr1, arr2, comparator, generator);
+        if (probe != null)
+            probe.end("intersection", "T[]", arr1.length + arr2.length, -1, "sort-merge");
+        return result;
+    }
+
+    /**
+     * <p>
+     * Merges any amount of sorted arrays into one new sorted array, keeping duplicates.
+     * </P>
+     * <p>
+     * A loser tree (tournament tree) is used, so each element costs O(log k) comparisons
+     * for k arrays and no intermediate array is allocated. Equal elements keep the order
+     * of the arrays they came from.
+     * </P>
+     *
+     * @param arrs The arrays to merge, each sorted in ascending order
+     * @return A new sorted array with every element of every array
+     */
+    public static int[] mergeSorted(@NonNull int[]... arrs) {
+        return Merge.merge(arrs, new int[arrs.length], Merge.lengths(arrs), false);
+    }
+
+    /**
+     * <p>
+     * Merges the given ranges of any amount of sorted arrays into one new sorted array,
+     * keeping duplicates.
+     * </P>
+     * <p>
+     * A loser tree (tournament tree) is used, so each element costs O(log k) comparisons
+     * for k arrays and no intermediate array is allocated.
+     * </P>
+     *
+     * @param arrs The arrays to merge, each range sorted in ascending order
+     * @param from The inclusive index to begin from, one per array
+     * @param to   The exclusive index to merge up to, one per array
+     * @return A new sorted array with every element of every range
+     */
+    public static int[] mergeSorted(@NonNull int[][] arrs, @NonNull int[] from, @NonNull int[] to) {
+        return Merge.merge(arrs, from, to, false);
+    }
+
+    /**
+     * <p>
+     * Takes all elements from any amount of sorted arrays and only puts 1 of each
+     * into a new sorted array.
+     * </P>
+     * <p>
+     * This is a single k-way merge through a loser tree that drops repeated elements
+     * as they come out, rather than a chain of pairwise unions.
+     * </P>
+     *
+     * @param arrs The arrays, each sorted in ascending order
+     * @return The new sorted array with only 1 of each element
+     */
+    public static int[] unionSorted(@NonNull int[]... arrs) {
+        return Merge.merge(arrs, new int[arrs.length], Merge.lengths(arrs), true);
+    }
+
+    /**
+     * <p>
+     * Takes all elements from the given ranges of any amount of sorted arrays
+     * and only puts 1 of each into a new sorted array.
+     * </P>
+     *
+     * @param arrs The arrays, each range sorted in ascending order
+     * @param from The inclusive index to begin from, one per array
+     * @param to   The exclusive index to take up to, one per array
+     * @return The new sorted array with only 1 of each element
+     */
+    public static int[] unionSorted(@NonNull int[][] arrs, @NonNull int[] from, @NonNull int[] to) {
+        return Merge.merge(arrs, from, to, true);
+    }
+
+    /**
+     * <p>
+     * Gets the elements found in every one of any amount of sorted arrays
+     * into a new sorted array, 1 of each.
+     * </P>
+     * <p>
+     * Candidates are taken from the smallest array and the others are probed by galloping
+     * (exponential then binary search) forward from where the last probe ended, so large
+     * arrays are mostly skipped over rather than scanned.
+     * </P>
+     *
+     * @param arrs The arrays, each sorted in ascending order
+     * @return A new sorted array with only elements that are in every array
+     */
+    public static int[] intersectionSorted(@NonNull int[]... arrs) {
+        return Merge.intersection(arrs, new int[arrs.length], Merge.lengths(arrs));
+    }
+
+    /**
+     * <p>
+     * Gets the elements found in every one of the given ranges of any amount
+     * of sorted arrays into a new sorted array, 1 of each.
+     * </P>
+     *
+     * @param arrs The arrays, each range sorted in ascending order
+     * @param from The inclusive index to begin from, one per array
+     * @param to   The exclusive index to search up to, one per array
+     * @return A new sorted array with only elements that are in every range
+     */
+    public static int[] intersectionSorted(@NonNull int[][] arrs, @NonNull int[] from, @NonNull int[] to) {
+        return Merge.intersection(arrs, from, to);
+    }
+
+    /**
+     * <p>
+     * Merges any amount of sorted arrays into one new sorted array, keeping duplicates.
+     * </P>
+     * <p>
+     * A loser tree (tournament tree) is used, so each element costs O(log k) comparisons
+     * for k arrays and no intermediate array is allocated. Equal elements keep the order
+     * of the arrays they came from.
+     * </P>
+     *
+     * @param arrs The arrays to merge, each sorted in ascending order
+     * @return A new sorted array with every element of every array
+     */
+    public static long[] mergeSorted(@NonNull long[]... arrs) {
+        return Merge.merge(arrs, new int[arrs.length], Merge.lengths(arrs), false);
+    }
+
+    /**
+     * <p>
+     * Merges the given ranges of any amount of sorted arrays into one new sorted array,
+     * keeping duplicates.
+     * </P>
+     * <p>
+     * A loser tree (tournament tree) is used, so each element costs O(log k) comparisons
+     * for k arrays and no intermediate array is allocated.
+     * </P>
+     *
+     * @param arrs The arrays to merge, each range sorted in ascending order
+     * @param from The inclusive index to begin from, one per array
+     * @param to   The exclusive index to merge up to, one per array
+     * @return A new sorted array with every element of every range
+     */
+    public static long[] mergeSorted(@NonNull long[][] arrs, @NonNull int[] from, @NonNull int[] to) {
+        return Merge.merge(arrs, from, to, false);
+    }
+
+    /**
+     * <p>
+     * Takes all elements from any amount of sorted arrays and only puts 1 of each
+     * into a new sorted array.
+     * </P>
+     * <p>
+     * This is a single k-way merge through a loser tree that drops repeated elements
+     * as they come out, rather than a chain of pairwise unions.
+     * </P>
+     *
+     * @param arrs The arrays, each sorted in ascending order
+     * @return The new sorted array with only 1 of each element
+     */
+    public static long[] unionSorted(@NonNull long[]... arrs) {
+        return Merge.merge(arrs, new int[arrs.length], Merge.lengths(arrs), true);
+    }
+
+    /**
+     * <p>
+     * Takes all elements from the given ranges of any amount of sorted arrays
+     * and only puts 1 of each into a new sorted array.
+     * </P>
+     *
+     * @param arrs The arrays, each range sorted in ascending order
+     * @param from The inclusive index to begin from, one per array
+     * @param to   The exclusive index to take up to, one per array
+     * @return The new sorted array with only 1 of each element
+     */
+    public static long[] unionSorted(@NonNull long[][] arrs, @NonNull int[] from, @NonNull int[] to) {
+        return Merge.merge(arrs, from, to, true);
+    }
+
+    /**
+     * <p>
+     * Gets the elements found in every one of any amount of sorted arrays
+     * into a new sorted array, 1 of each.
+     * </P>
+     * <p>
+     * Candidates are taken from the smallest array and the others are probed by galloping
+     * (exponential then binary search) forward from where the last probe ended, so large
+     * arrays are mostly skipped over rather than scanned.
+     * </P>
+     *
+     * @param arrs The arrays, each sorted in ascending order
+     * @return A new sorted array with only elements that are in every array
+     */
+    public static long[] intersectionSorted(@NonNull long[]... arrs) {
+        return Merge.intersection(arrs, new int[arrs.length], Merge.lengths(arrs));
+    }
+
+    /**
+     * <p>
+     * Gets the elements found in every one of the given ranges of any amount
+     * of sorted arrays into a new sorted array, 1 of each.
+     * </P>
+     *
+     * @param arrs The arrays, each range sorted in ascending order
+     * @param from The inclusive index to begin from, one per array
+     * @param to   The exclusive index to search up to, one per array
+     * @return A new sorted array with only elements that are in every range
+     */
+    public static long[] intersectionSorted(@NonNull long[][] arrs, @NonNull int[] from, @NonNull int[] to) {
+        return Merge.intersection(arrs, from, to);
+    }
+
+    /**
+     * <p>
+     * Rearranges the array so the element at index k is the one that would be there
+     * if the array were sorted, every element before it is not greater and every element
+     * after it is not smaller. Neither side is sorted.
+     * </P>
+     * <p>
+     * This is an introselect: quickselect with three-way partitioning that switches
+     * to a median-of-medians pivot if it recurses too deep, so it runs in O(n)
+     * even on adversarial input.
+     * </P>
+     *
+     * @param arr The array to select in
+     * @param k   The index to place the k-th smallest element at
+     */
+    public static void nthElement(@NonNull int[] arr, int k) {
+        Select.nthElement(arr, 0, arr.length, k);
+    }
+
+    /**
+     * Rearranges the given part of an array so the element at index k is the one that
+     * would be there if that part were sorted, using the same introselect as
+     * {@code nthElement} on a whole array.
+     *
+     * @param arr  The array to select in
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to select up to
+     * @param k    The index to place the element at, within the range
+     */
+    public static void nthElement(@NonNull int[] arr, int from, int to, int k) {
+        Select.nthElement(arr, from, to, k);
+    }
+
+    /**
+     * Sorts only the k smallest elements into the first k positions of the array.
+     * The rest of the array is left in no particular order. This selects in O(n)
+     * and then sorts k elements, rather than sorting the whole array.
+     *
+     * @param arr The array to partially sort
+     * @param k   The amount of smallest elements to sort to the front
+     */
+    public static void partialSort(@NonNull int[] arr, int k) {
+        Select.partialSort(arr, k);
+    }
+
+    /**
+     * <p>
+     * Gets the k largest elements of the array into a new array, largest first.
+     * The given array is not modified.
+     * </P>
+     * <p>
+     * When k is much smaller than the array, a single pass keeps a bounded heap of
+     * the best elements so far; otherwise a copy is selected on and only its k
+     * largest elements are sorted.
+     * </P>
+     *
+     * @param arr The array
+     * @param k   The amount of elements to get
+     * @return A new array with the k largest elements, largest first
+     */
+    public static int[] topK(@NonNull int[] arr, int k) {
+        return Select.topK(arr, k);
+    }
+
+    /**
+     * Gets the k smallest elements of the array into a new array, smallest first.
+     * The given array is not modified. This works the same as {@code topK}.
+     *
+     * @param arr The array
+     * @param k   The amount of elements to get
+     * @return A new array with the k smallest elements, smallest first
+     */
+    public static int[] bottomK(@NonNull int[] arr, int k) {
+        return Select.bottomK(arr, k);
+    }
+
+    /**
+     * Gets the indices of the k largest elements of the array, in a single pass
+     * with a bounded heap. The given array is not modified.
+     *
+     * @param arr The array
+     * @param k   The amount of indices to get
+     * @return The indices of the k largest elements, largest first with ties going to the lower index
+     */
+    public static int[] topKIndices(@NonNull int[] arr, int k) {
+        return Select.topKIndices(arr, k);
+    }
+
+    /**
+     * Gets the indices of the k smallest elements of the array, in a single pass
+     * with a bounded heap. The given array is not modified.
+     *
+     * @param arr The array
+     * @param k   The amount of indices to get
+     * @return The indices of the k smallest elements, smallest first with ties going to the lower index
+     */
+    public static int[] bottomKIndices(@NonNull int[] arr, int k) {
+        return Select.bottomKIndices(arr, k);
+    }
+
+    /**
+     * <p>
+     * Rearranges the array so the element at index k is the one that would be there
+     * if the array were sorted, every element before it is not greater and every element
+     * after it is not smaller. Neither side is sorted.
+     * </P>
+     * <p>
+     * This is an introselect: quickselect with three-way partitioning that switches
+     * to a median-of-medians pivot if it recurses too deep, so it runs in O(n)
+     * even on adversarial input.
+     * </P>
+     *
+     * @param arr The array to select in
+     * @param k   The index to place the k-th smallest element at
+     */
+    public static void nthElement(@NonNull long[] arr, int k) {
+        Select.nthElement(arr, 0, arr.length, k);
+    }
+
+    /**
+     * Rearranges the given part of an array so the element at index k is the one that
+     * would be there if that part were sorted, using the same introselect as
+     * {@code nthElement} on a whole array.
+     *
+     * @param arr  The array to select in
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to select up to
+     * @param k    The index to place the element at, within the range
+     */
+    public static void nthElement(@NonNull long[] arr, int from, int to, int k) {
+        Select.nthElement(arr, from, to, k);
+    }
+
+    /**
+     * Sorts only the k smallest elements into the first k positions of the array.
+     * The rest of the array is left in no particular order. This selects in O(n)
+     * and then sorts k elements, rather than sorting the whole array.
+     *
+     * @param arr The array to partially sort
+     * @param k   The amount of smallest elements to sort to the front
+     */
+    public static void partialSort(@NonNull long[] arr, int k) {
+        Select.partialSort(arr, k);
+    }
+
+    /**
+     * <p>
+     * Gets the k largest elements of the array into a new array, largest first.
+     * The given array is not modified.
+     * </P>
+     * <p>
+     * When k is much smaller than the array, a single pass keeps a bounded heap of
+     * the best elements so far; otherwise a copy is selected on and only its k
+     * largest elements are sorted.
+     * </P>
+     *
+     * @param arr The array
+     * @param k   The amount of elements to get
+     * @return A new array with the k largest elements, largest first
+     */
+    public static long[] topK(@NonNull long[] arr, int k) {
+        return Select.topK(arr, k);
+    }
+
+    /**
+     * Gets the k smallest elements of the array into a new array, smallest first.
+     * The given array is not modified. This works the same as {@code topK}.
+     *
+     * @param arr The array
+     * @param k   The amount of elements to get
+     * @return A new array with the k smallest elements, smallest first
+     */
+    public static long[] bottomK(@NonNull long[] arr, int k) {
+        return Select.bottomK(arr, k);
+    }
+
+    /**
+     * Gets the indices of the k largest elements of the array, in a single pass
+     * with a bounded heap. The given array is not modified.
+     *
+     * @param arr The array
+     * @param k   The amount of indices to get
+     * @return The indices of the k largest elements, largest first with ties going to the lower index
+     */
+    public static int[] topKIndices(@NonNull long[] arr, int k) {
+        return Select.topKIndices(arr, k);
+    }
+
+    /**
+     * Gets the indices of the k smallest elements of the array, in a single pass
+     * with a bounded heap. The given array is not modified.
+     *
+     * @param arr The array
+     * @param k   The amount of indices to get
+     * @return The indices of the k smallest elements, smallest first with ties going to the lower index
+     */
+    public static int[] bottomKIndices(@NonNull long[] arr, int k) {
+        return Select.bottomKIndices(arr, k);
+    }
+
+    /**
+     * <p>
+     * Rearranges the array so the element at index k is the one that would be there
+     * if the array were sorted, every element before it is not greater and every element
+     * after it is not smaller. Neither side is sorted.
+     * </P>
+     * <p>
+     * This is an introselect: quickselect with three-way partitioning that switches
+     * to a median-of-medians pivot if it recurses too deep, so it runs in O(n)
+     * even on adversarial input.
+     * </P>
+     *
+     * @param arr The array to select in
+     * @param k   The index to place the k-th smallest element at
+     */
+    public static void nthElement(@NonNull short[] arr, int k) {
+        Select.nthElement(arr, 0, arr.length, k);
+    }
+
+    /**
+     * Rearranges the given part of an array so the element at index k is the one that
+     * would be there if that part were sorted, using the same introselect as
+     * {@code nthElement} on a whole array.
+     *
+     * @param arr  The array to select in
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to select up to
+     * @param k    The index to place the element at, within the range
+     */
+    public static void nthElement(@NonNull short[] arr, int from, int to, int k) {
+        Select.nthElement(arr, from, to, k);
+    }
+
+    /**
+     * Sorts only the k smallest elements into the first k positions of the array.
+     * The rest of the array is left in no particular order. This selects in O(n)
+     * and then sorts k elements, rather than sorting the whole array.
+     *
+     * @param arr The array to partially sort
+     * @param k   The amount of smallest elements to sort to the front
+     */
+    public static void partialSort(@NonNull short[] arr, int k) {
+        Select.partialSort(arr, k);
+    }
+
+    /**
+     * <p>
+     * Gets the k largest elements of the array into a new array, largest first.
+     * The given array is not modified.
+     * </P>
+     * <p>
+     * When k is much smaller than the array, a single pass keeps a bounded heap of
+     * the best elements so far; otherwise a copy is selected on and only its k
+     * largest elements are sorted.
+     * </P>
+     *
+     * @param arr The array
+     * @param k   The amount of elements to get
+     * @return A new array with the k largest elements, largest first
+     */
+    public static short[] topK(@NonNull short[] arr, int k) {
+        return Select.topK(arr, k);
+    }
+
+    /**
+     * Gets the k smallest elements of the array into a new array, smallest first.
+     * The given array is not modified. This works the same as {@code topK}.
+     *
+     * @param arr The array
+     * @param k   The amount of elements to get
+     * @return A new array with the k smallest elements, smallest first
+     */
+    public static short[] bottomK(@NonNull short[] arr, int k) {
+        return Select.bottomK(arr, k);
+    }
+
+    /**
+     * Gets the indices of the k largest elements of the array, in a single pass
+     * with a bounded heap. The given array is not modified.
+     *
+     * @param arr The array
+     * @param k   The amount of indices to get
+     * @return The indices of the k largest elements, largest first with ties going to the lower index
+     */
+    public static int[] topKIndices(@NonNull short[] arr, int k) {
+        return Select.topKIndices(arr, k);
+    }
+
+    /**
+     * Gets the indices of the k smallest elements of the array, in a single pass
+     * with a bounded heap. The given array is not modified.
+     *
+     * @param arr The array
+     * @param k   The amount of indices to get
+     * @return The indices of the k smallest elements, smallest first with ties going to the lower index
+     */
+    public static int[] bottomKIndices(@NonNull short[] arr, int k) {
+        return Select.bottomKIndices(arr, k);
+    }
+
+    /**
+     * <p>
+     * Rearranges the array so the element at index k is the one that would be there
+     * if the array were sorted, every element before it is not greater and every element
+     * after it is not smaller. Neither side is sorted.
+     * </P>
+     * <p>
+     * This is an introselect: quickselect with three-way partitioning that switches
+     * to a median-of-medians pivot if it recurses too deep, so it runs in O(n)
+     * even on adversarial input.
+     * </P>
+     *
+     * @param arr The array to select in
+     * @param k   The index to place the k-th smallest element at
+     */
+    public static void nthElement(@NonNull byte[] arr, int k) {
+        Select.nthElement(arr, 0, arr.length, k);
+    }
+
+    /**
+     * Rearranges the given part of an array so the element at index k is the one that
+     * would be there if that part were sorted, using the same introselect as
+     * {@code nthElement} on a whole array.
+     *
+     * @param arr  The array to select in
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to select up to
+     * @param k    The index to place the element at, within the range
+     */
+    public static void nthElement(@NonNull byte[] arr, int from, int to, int k) {
+        Select.nthElement(arr, from, to, k);
+    }
+
+    /**
+     * Sorts only the k smallest elements into the first k positions of the array.
+     * The rest of the array is left in no particular order. This selects in O(n)
+     * and then sorts k elements, rather than sorting the whole array.
+     *
+     * @param arr The array to partially sort
+     * @param k   The amount of smallest elements to sort to the front
+     */
+    public static void partialSort(@NonNull byte[] arr, int k) {
+        Select.partialSort(arr, k);
+    }
+
+    /**
+     * <p>
+     * Gets the k largest elements of the array into a new array, largest first.
+     * The given array is not modified.
+     * </P>
+     * <p>
+     * When k is much smaller than the array, a single pass keeps a bounded heap of
+     * the best elements so far; otherwise a copy is selected on and only its k
+     * largest elements are sorted.
+     * </P>
+     *
+     * @param arr The array
+     * @param k   The amount of elements to get
+     * @return A new array with the k largest elements, largest first
+     */
+    public static byte[] topK(@NonNull byte[] arr, int k) {
+        return Select.topK(arr, k);
+    }
+
+    /**
+     * Gets the k smallest elements of the array into a new array, smallest first.
+     * The given array is not modified. This works the same as {@code topK}.
+     *
+     * @param arr The array
+     * @param k   The amount of elements to get
+     * @return A new array with the k smallest elements, smallest first
+     */
+    public static byte[] bottomK(@NonNull byte[] arr, int k) {
+        return Select.bottomK(arr, k);
+    }
+
+    /**
+     * Gets the indices of the k largest elements of the array, in a single pass
+     * with a bounded heap. The given array is not modified.
+     *
+     * @param arr The array
+     * @param k   The amount of indices to get
+     * @return The indices of the k largest elements, largest first with ties going to the lower index
+     */
+    public static int[] topKIndices(@NonNull byte[] arr, int k) {
+        return Select.topKIndices(arr, k);
+    }
+
+    /**
+     * Gets the indices of the k smallest elements of the array, in a single pass
+     * with a bounded heap. The given array is not modified.
+     *
+     * @param arr The array
+     * @param k   The amount of indices to get
+     * @return The indices of the k smallest elements, smallest first with ties going to the lower index
+     */
+    public static int[] bottomKIndices(@NonNull byte[] arr, int k) {
+        return Select.bottomKIndices(arr, k);
+    }
+
+    /**
+     * <p>
+     * Rearranges the array so the element at index k is the one that would be there
+     * if the array were sorted, every element before it is not greater and every element
+     * after it is not smaller. Neither side is sorted.
+     * </P>
+     * <p>
+     * This is an introselect: quickselect with three-way partitioning that switches
+     * to a median-of-medians pivot if it recurses too deep, so it runs in O(n)
+     * even on adversarial input.
+     * </P>
+     *
+     * @param arr The array to select in
+     * @param k   The index to place the k-th smallest element at
+     */
+    public static void nthElement(@NonNull char[] arr, int k) {
+        Select.nthElement(arr, 0, arr.length, k);
+    }
+
+    /**
+     * Rearranges the given part of an array so the element at index k is the one that
+     * would be there if that part were sorted, using the same introselect as
+     * {@code nthElement} on a whole array.
+     *
+     * @param arr  The array to select in
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to select up to
+     * @param k    The index to place the element at, within the range
+     */
+    public static void nthElement(@NonNull char[] arr, int from, int to, int k) {
+        Select.nthElement(arr, from, to, k);
+    }
+
+    /**
+     * Sorts only the k smallest elements into the first k positions of the array.
+     * The rest of the array is left in no particular order. This selects in O(n)
+     * and then sorts k elements, rather than sorting the whole array.
+     *
+     * @param arr The array to partially sort
+     * @param k   The amount of smallest elements to sort to the front
+     */
+    public static void partialSort(@NonNull char[] arr, int k) {
+        Select.partialSort(arr, k);
+    }
+
+    /**
+     * <p>
+     * Gets the k largest elements of the array into a new array, largest first.
+     * The given array is not modified.
+     * </P>
+     * <p>
+     * When k is much smaller than the array, a single pass keeps a bounded heap of
+     * the best elements so far; otherwise a copy is selected on and only its k
+     * largest elements are sorted.
+     * </P>
+     *
+     * @param arr The array
+     * @param k   The amount of elements to get
+     * @return A new array with the k largest elements, largest first
+     */
+    public static char[] topK(@NonNull char[] arr, int k) {
+        return Select.topK(arr, k);
+    }
+
+    /**
+     * Gets the k smallest elements of the array into a new array, smallest first.
+     * The given array is not modified. This works the same as {@code topK}.
+     *
+     * @param arr The array
+     * @param k   The amount of elements to get
+     * @return A new array with the k smallest elements, smallest first
+     */
+    public static char[] bottomK(@NonNull char[] arr, int k) {
+        return Select.bottomK(arr, k);
+    }
+
+    /**
+     * Gets the indices of the k largest elements of the array, in a single pass
+     * with a bounded heap. The given array is not modified.
+     *
+     * @param arr The array
+     * @param k   The amount of indices to get
+     * @return The indices of the k largest elements, largest first with ties going to the lower index
+     */
+    public static int[] topKIndices(@NonNull char[] arr, int k) {
+        return Select.topKIndices(arr, k);
+    }
+
+    /**
+     * Gets the indices of the k smallest elements of the array, in a single pass
+     * with a bounded heap. The given array is not modified.
+     *
+     * @param arr The array
+     * @param k   The amount of indices to get
+     * @return The indices of the k smallest elements, smallest first with ties going to the lower index
+     */
+    public static int[] bottomKIndices(@NonNull char[] arr, int k) {
+        return Select.bottomKIndices(arr, k);
+    }
+
+    /**
+     * <p>
+     * Rearranges the array so the element at index k is the one that would be there
+     * if the array were sorted, every element before it is not greater and every element
+     * after it is not smaller. Neither side is sorted.
+     * </P>
+     * <p>
+     * This is an introselect: quickselect with three-way partitioning that switches
+     * to a median-of-medians pivot if it recurses too deep, so it runs in O(n)
+     * even on adversarial input. Elements are ordered the same way as {@link Arrays#sort(float[])}.
+     * </P>
+     *
+     * @param arr The array to select in
+     * @param k   The index to place the k-th smallest element at
+     */
+    public static void nthElement(@NonNull float[] arr, int k) {
+        Select.nthElement(arr, 0, arr.length, k);
+    }
+
+    /**
+     * Rearranges the given part of an array so the element at index k is the one that
+     * would be there if that part were sorted, using the same introselect as
+     * {@code nthElement} on a whole array.
+     *
+     * @param arr  The array to select in
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to select up to
+     * @param k    The index to place the element at, within the range
+     */
+    public static void nthElement(@NonNull float[] arr, int from, int to, int k) {
+        Select.nthElement(arr, from, to, k);
+    }
+
+    /**
+     * Sorts only the k smallest elements into the first k positions of the array.
+     * The rest of the array is left in no particular order. This selects in O(n)
+     * and then sorts k elements, rather than sorting the whole array.
+     *
+     * @param arr The array to partially sort
+     * @param k   The amount of smallest elements to sort to the front
+     */
+    public static void partialSort(@NonNull float[] arr, int k) {
+        Select.partialSort(arr, k);
+    }
+
+    /**
+     * <p>
+     * Gets the k largest elements of the array into a new array, largest first.
+     * The given array is not modified.
+     * </P>
+     * <p>
+     * When k is much smaller than the array, a single pass keeps a bounded heap of
+     * the best elements so far; otherwise a copy is selected on and only its k
+     * largest elements are sorted.
+     * </P>
+     *
+     * @param arr The array
+     * @param k   The amount of elements to get
+     * @return A new array with the k largest elements, largest first
+     */
+    public static float[] topK(@NonNull float[] arr, int k) {
+        return Select.topK(arr, k);
+    }
+
+    /**
+     * Gets the k smallest elements of the array into a new array, smallest first.
+     * The given array is not modified. This works the same as {@code topK}.
+     *
+     * @param arr The array
+     * @param k   The amount of elements to get
+     * @return A new array with the k smallest elements, smallest first
+     */
+    public static float[] bottomK(@NonNull float[] arr, int k) {
+        return Select.bottomK(arr, k);
+    }
+
+    /**
+     * Gets the indices of the k largest elements of the array, in a single pass
+     * with a bounded heap. The given array is not modified.
+     *
+     * @param arr The array
+     * @param k   The amount of indices to get
+     * @return The indices of the k largest elements, largest first with ties going to the lower index
+     */
+    public static int[] topKIndices(@NonNull float[] arr, int k) {
+        return Select.topKIndices(arr, k);
+    }
+
+    /**
+     * Gets the indices of the k smallest elements of the array, in a single pass
+     * with a bounded heap. The given array is not modified.
+     *
+     * @param arr The array
+     * @param k   The amount of indices to get
+     * @return The indices of the k smallest elements, smallest first with ties going to the lower index
+     */
+    public static int[] bottomKIndices(@NonNull float[] arr, int k) {
+        return Select.bottomKIndices(arr, k);
+    }
+
+    /**
+     * <p>
+     * Rearranges the array so the element at index k is the one that would be there
+     * if the array were sorted, every element before it is not greater and every element
+     * after it is not smaller. Neither side is sorted.
+     * </P>
+     * <p>
+     * This is an introselect: quickselect with three-way partitioning that switches
+     * to a median-of-medians pivot if it recurses too deep, so it runs in O(n)
+     * even on adversarial input. Elements are ordered the same way as {@link Arrays#sort(double[])}.
+     * </P>
+     *
+     * @param arr The array to select in
+     * @param k   The index to place the k-th smallest element at
+     */
+    public static void nthElement(@NonNull double[] arr, int k) {
+        Select.nthElement(arr, 0, arr.length, k);
+    }
+
+    /**
+     * Rearranges the given part of an array so the element at index k is the one that
+     * would be there if that part were sorted, using the same introselect as
+     * {@code nthElement} on a whole array.
+     *
+     * @param arr  The array to select in
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to select up to
+     * @param k    The index to place the element at, within the range
+     */
+    public static void nthElement(@NonNull double[] arr, int from, int to, int k) {
+        Select.nthElement(arr, from, to, k);
+    }
+
+    /**
+     * Sorts only the k smallest elements into the first k positions of the array.
+     * The rest of the array is left in no particular order. This selects in O(n)
+     * and then sorts k elements, rather than sorting the whole array.
+     *
+     * @param arr The array to partially sort
+     * @param k   The amount of smallest elements to sort to the front
+     */
+    public static void partialSort(@NonNull double[] arr, int k) {
+        Select.partialSort(arr, k);
+    }
+
+    /**
+     * <p>
+     * Gets the k largest elements of the array into a new array, largest first.
+     * The given array is not modified.
+     * </P>
+     * <p>
+     * When k is much smaller than the array, a single pass keeps a bounded heap of
+     * the best elements so far; otherwise a copy is selected on and only its k
+     * largest elements are sorted.
+     * </P>
+     *
+     * @param arr The array
+     * @param k   The amount of elements to get
+     * @return A new array with the k largest elements, largest first
+     */
+    public static double[] topK(@NonNull double[] arr, int k) {
+        return Select.topK(arr, k);
+    }
+
+    /**
+     * Gets the k smallest elements of the array into a new array, smallest first.
+     * The given array is not modified. This works the same as {@code topK}.
+     *
+     * @param arr The array
+     * @param k   The amount of elements to get
+     * @return A new array with the k smallest elements, smallest first
+     */
+    public static double[] bottomK(@NonNull double[] arr, int k) {
+        return Select.bottomK(arr, k);
+    }
+
+    /**
+     * Gets the indices of the k largest elements of the array, in a single pass
+     * with a bounded heap. The given array is not modified.
+     *
+     * @param arr The array
+     * @param k   The amount of indices to get
+     * @return The indices of the k largest elements, largest first with ties going to the lower index
+     */
+    public static int[] topKIndices(@NonNull double[] arr, int k) {
+        return Select.topKIndices(arr, k);
+    }
+
+    /**
+     * Gets the indices of the k smallest elements of the array, in a single pass
+     * with a bounded heap. The given array is not modified.
+     *
+     * @param arr The array
+     * @param k   The amount of indices to get
+     * @return The indices of the k smallest elements, smallest first with ties going to the lower index
+     */
+    public static int[] bottomKIndices(@NonNull double[] arr, int k) {
+        return Select.bottomKIndices(arr, k);
+    }
+
+    /**
+     * <p>
+     * Rearranges the array so the element at index k is the one that would be there
+     * if the array were sorted, every element before it is not greater and every element
+     * after it is not smaller. Neither side is sorted.
+     * </P>
+     * <p>
+     * This is an introselect: quickselect with three-way partitioning that switches
+     * to a median-of-medians pivot if it recurses too deep, so it runs in O(n)
+     * even on adversarial input.
+     * </P>
+     *
+     * @param <T> the type parameter
+     * @param arr The array to select in
+     * @param k   The index to place the k-th smallest element at
+     * @param comparator The comparator deciding the order of the elements
+     */
+    public static <T> void nthElement(@NonNull T[] arr, int k, @NonNull Comparator<? super T> comparator) {
+        Select.nthElement(arr, 0, arr.length, k, comparator);
+    }
+
+    /**
+     * Rearranges the given part of an array so the element at index k is the one that
+     * would be there if that part were sorted, using the same introselect as
+     * {@code nthElement} on a whole array.
+     *
+     * @param <T> the type parameter
+     * @param arr  The array to select in
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to select up to
+     * @param k    The index to place the element at, within the range
+     * @param comparator The comparator deciding the order of the elements
+     */
+    public static <T> void nthElement(@NonNull T[] arr, int from, int to, int k, @NonNull Comparator<? super T> comparator) {
+        Select.nthElement(arr, from, to, k, comparator);
+    }
+
+    /**
+     * Sorts only the k smallest elements into the first k positions of the array.
+     * The rest of the array is left in no particular order. This selects in O(n)
+     * and then sorts k elements, rather than sorting the whole array.
+     *
+     * @param <T> the type parameter
+     * @param arr The array to partially sort
+     * @param k   The amount of smallest elements to sort to the front
+     * @param comparator The comparator deciding the order of the elements
+     */
+    public static <T> void partialSort(@NonNull T[] arr, int k, @NonNull Comparator<? super T> comparator) {
+        Select.partialSort(arr, k, comparator);
+    }
+
+    /**
+     * <p>
+     * Gets the k largest elements of the array into a new array, largest first.
+     * The given array is not modified.
+     * </P>
+     * <p>
+     * When k is much smaller than the array, a single pass keeps a bounded heap of
+     * the best elements so far; otherwise a copy is selected on and only its k
+     * largest elements are sorted.
+     * </P>
+     *
+     * @param <T> the type parameter
+     * @param arr The array
+     * @param k   The amount of elements to get
+     * @param comparator The comparator deciding the order of the elements
+     * @return A new array with the k largest elements, largest first
+     */
+    public static <T> T[] topK(@NonNull T[] arr, int k, @NonNull Comparator<? super T> comparator) {
+        return Select.topK(arr, k, comparator);
+    }
+
+    /**
+     * Gets the k smallest elements of the array into a new array, smallest first.
+     * The given array is not modified. This works the same as {@code topK}.
+     *
+     * @param <T> the type parameter
+     * @param arr The array
+     * @param k   The amount of elements to get
+     * @param comparator The comparator deciding the order of the elements
+     * @return A new array with the k smallest elements, smallest first
+     */
+    public static <T> T[] bottomK(@NonNull T[] arr, int k, @NonNull Comparator<? super T> comparator) {
+        return Select.bottomK(arr, k, comparator);
+    }
+
+    /**
+     * Gets the indices of the k largest elements of the array, in a single pass
+     * with a bounded heap. The given array is not modified.
+     *
+     * @param <T> the type parameter
+     * @param arr The array
+     * @param k   The amount of indices to get
+     * @param comparator The comparator deciding the order of the elements
+     * @return The indices of the k largest elements, largest first with ties going to the lower index
+     */
+    public static <T> int[] topKIndices(@NonNull T[] arr, int k, @NonNull Comparator<? super T> comparator) {
+        return Select.topKIndices(arr, k, comparator);
+    }
+
+    /**
+     * Gets the indices of the k smallest elements of the array, in a single pass
+     * with a bounded heap. The given array is not modified.
+     *
+     * @param <T> the type parameter
+     * @param arr The array
+     * @param k   The amount of indices to get
+     * @param comparator The comparator deciding the order of the elements
+     * @return The indices of the k smallest elements, smallest first with ties going to the lower index
+     */
+    public static <T> int[] bottomKIndices(@NonNull T[] arr, int k, @NonNull Comparator<? super T> comparator) {
+        return Select.bottomKIndices(arr, k, comparator);
+    }
+
+    /**
+     * <p>
+     * Finds the exact median of an array without modifying it.
+     * For an even amount of elements this is the mean of the two middle elements.
+     * </P>
+     * <p>
+     * The middle elements are found by selection in O(n) rather than by sorting.
+     * When the value range is no larger than the array, the counting histogram of
+     * {@code countingSort} is used instead, which is O(n) without touching the order.
+     * </P>
+     *
+     * @param arr The array
+     * @return The median
+     */
+    public static double median(@NonNull int[] arr) {
+        return Quantiles.quantiles(arr, new double[]{0.5}, null, false)[0];
+    }
+
+    /**
+     * Finds the exact median of an array like {@code median}, but selects within the
+     * array itself instead of a copy, leaving its elements rearranged.
+     *
+     * @param arr The array, which is rearranged
+     * @return The median
+     */
+    public static double medianInPlace(@NonNull int[] arr) {
+        return Quantiles.quantiles(arr, new double[]{0.5}, null, true)[0];
+    }
+
+    /**
+     * <p>
+     * Finds the exact q-quantile of an array without modifying it, interpolating
+     * linearly between the closest ranks (R's type 7, NumPy's default).
+     * </P>
+     * <p>
+     * The ranks are found by selection in O(n) rather than by sorting.
+     * When the value range is no larger than the array, the counting histogram of
+     * {@code countingSort} is used instead, which is O(n) without touching the order.
+     * </P>
+     *
+     * @param arr The array
+     * @param q   The quantile, between 0 and 1. For example, 0.99 for the 99th percentile
+     * @return The q-quantile
+     */
+    public static double quantile(@NonNull int[] arr, double q) {
+        return Quantiles.quantiles(arr, new double[]{q}, null, false)[0];
+    }
+
+    /**
+     * Finds the exact q-quantile of an array like {@code quantile}, but selects within
+     * the array itself instead of a copy, leaving its elements rearranged.
+     *
+     * @param arr The array, which is rearranged
+     * @param q   The quantile, between 0 and 1
+     * @return The q-quantile
+     */
+    public static double quantileInPlace(@NonNull int[] arr, double q) {
+        return Quantiles.quantiles(arr, new double[]{q}, null, true)[0];
+    }
+
+    /**
+     * <p>
+     * Finds several exact quantiles of an array at once without modifying it,
+     * interpolating linearly between the closest ranks (R's type 7, NumPy's default).
+     * </P>
+     * <p>
+     * Every rank needed is found in a single multi-select, each selection only
+     * partitioning what is left between its neighbouring ranks, so several quantiles
+     * cost about as much as one.
+     * When the value range is no larger than the array, the counting histogram of
+     * {@code countingSort} is used instead, which is O(n) without touching the order.
+     * </P>
+     *
+     * @param arr The array
+     * @param qs  The quantiles, each between 0 and 1, in any order
+     * @return The quantiles, in the same order as requested
+     */
+    public static double[] quantiles(@NonNull int[] arr, @NonNull double[] qs) {
+        return Quantiles.quantiles(arr, qs, null, false);
+    }
+
+    /**
+     * Finds several exact quantiles of an array at once like {@code quantiles}, copying
+     * the array into the given scratch buffer to select in instead of allocating a copy.
+     *
+     * @param arr     The array, which is not modified
+     * @param qs      The quantiles, each between 0 and 1, in any order
+     * @param scratch A buffer at least as long as the array, whose contents are overwritten
+     * @return The quantiles, in the same order as requested
+     */
+    public static double[] quantiles(@NonNull int[] arr, @NonNull double[] qs, @NonNull int[] scratch) {
+        return Quantiles.quantiles(arr, qs, scratch, false);
+    }
+
+    /**
+     * Finds several exact quantiles of an array at once like {@code quantiles}, but selects
+     * within the array itself instead of a copy, leaving its elements rearranged.
+     *
+     * @param arr The array, which is rearranged
+     * @param qs  The quantiles, each between 0 and 1, in any order
+     * @return The quantiles, in the same order as requested
+     */
+    public static double[] quantilesInPlace(@NonNull int[] arr, @NonNull double[] qs) {
+        return Quantiles.quantiles(arr, qs, null, true);
+    }
+
+    /**
+     * <p>
+     * Finds the exact median of an array without modifying it.
+     * For an even amount of elements this is the mean of the two middle elements.
+     * </P>
+     * <p>
+     * The middle elements are found by selection in O(n) rather than by sorting.
+     * When the value range is no larger than the array, the counting histogram of
+     * {@code countingSort} is used instead, which is O(n) without touching the order.
+     * </P>
+     *
+     * @param arr The array
+     * @return The median
+     */
+    public static double median(@NonNull long[] arr) {
+        return Quantiles.quantiles(arr, new double[]{0.5}, null, false)[0];
+    }
+
+    /**
+     * Finds the exact median of an array like {@code median}, but selects within the
+     * array itself instead of a copy, leaving its elements rearranged.
+     *
+     * @param arr The array, which is rearranged
+     * @return The median
+     */
+    public static double medianInPlace(@NonNull long[] arr) {
+        return Quantiles.quantiles(arr, new double[]{0.5}, null, true)[0];
+    }
+
+    /**
+     * <p>
+     * Finds the exact q-quantile of an array without modifying it, interpolating
+     * linearly between the closest ranks (R's type 7, NumPy's default).
+     * </P>
+     * <p>
+     * The ranks are found by selection in O(n) rather than by sorting.
+     * When the value range is no larger than the array, the counting histogram of
+     * {@code countingSort} is used instead, which is O(n) without touching the order.
+     * </P>
+     *
+     * @param arr The array
+     * @param q   The quantile, between 0 and 1. For example, 0.99 for the 99th percentile
+     * @return The q-quantile
+     */
+    public static double quantile(@NonNull long[] arr, double q) {
+        return Quantiles.quantiles(arr, new double[]{q}, null, false)[0];
+    }
+
+    /**
+     * Finds the exact q-quantile of an array like {@code quantile}, but selects within
+     * the array itself instead of a copy, leaving its elements rearranged.
+     *
+     * @param arr The array, which is rearranged
+     * @param q   The quantile, between 0 and 1
+     * @return The q-quantile
+     */
+    public static double quantileInPlace(@NonNull long[] arr, double q) {
+        return Quantiles.quantiles(arr, new double[]{q}, null, true)[0];
+    }
+
+    /**
+     * <p>
+     * Finds several exact quantiles of an array at once without modifying it,
+     * interpolating linearly between the closest ranks (R's type 7, NumPy's default).
+     * </P>
+     * <p>
+     * Every rank needed is found in a single multi-select, each selection only
+     * partitioning what is left between its neighbouring ranks, so several quantiles
+     * cost about as much as one.
+     * When the value range is no larger than the array, the counting histogram of
+     * {@code countingSort} is used instead, which is O(n) without touching the order.
+     * </P>
+     *
+     * @param arr The array
+     * @param qs  The quantiles, each between 0 and 1, in any order
+     * @return The quantiles, in the same order as requested
+     */
+    public static double[] quantiles(@NonNull long[] arr, @NonNull double[] qs) {
+        return Quantiles.quantiles(arr, qs, null, false);
+    }
+
+    /**
+     * Finds several exact quantiles of an array at once like {@code quantiles}, copying
+     * the array into the given scratch buffer to select in instead of allocating a copy.
+     *
+     * @param arr     The array, which is not modified
+     * @param qs      The quantiles, each between 0 and 1, in any order
+     * @param scratch A buffer at least as long as the array, whose contents are overwritten
+     * @return The quantiles, in the same order as requested
+     */
+    public static double[] quantiles(@NonNull long[] arr, @NonNull double[] qs, @NonNull long[] scratch) {
+        return Quantiles.quantiles(arr, qs, scratch, false);
+    }
+
+    /**
+     * Finds several exact quantiles of an array at once like {@code quantiles}, but selects
+     * within the array itself instead of a copy, leaving its elements rearranged.
+     *
+     * @param arr The array, which is rearranged
+     * @param qs  The quantiles, each between 0 and 1, in any order
+     * @return The quantiles, in the same order as requested
+     */
+    public static double[] quantilesInPlace(@NonNull long[] arr, @NonNull double[] qs) {
+        return Quantiles.quantiles(arr, qs, null, true);
+    }
+
+    /**
+     * <p>
+     * Finds the exact median of an array without modifying it.
+     * For an even amount of elements this is the mean of the two middle elements.
+     * </P>
+     * <p>
+     * The middle elements are found by selection in O(n) rather than by sorting.
+     * </P>
+     *
+     * @param arr The array
+     * @return The median
+     */
+    public static double median(@NonNull float[] arr) {
+        return Quantiles.quantiles(arr, new double[]{0.5}, null, false)[0];
+    }
+
+    /**
+     * Finds the exact median of an array like {@code median}, but selects within the
+     * array itself instead of a copy, leaving its elements rearranged.
+     *
+     * @param arr The array, which is rearranged
+     * @return The median
+     */
+    public static double medianInPlace(@NonNull float[] arr) {
+        return Quantiles.quantiles(arr, new double[]{0.5}, null, true)[0];
+    }
+
+    /**
+     * <p>
+     * Finds the exact q-quantile of an array without modifying it, interpolating
+     * linearly between the closest ranks (R's type 7, NumPy's default).
+     * </P>
+     * <p>
+     * The ranks are found by selection in O(n) rather than by sorting.
+     * </P>
+     *
+     * @param arr The array
+     * @param q   The quantile, between 0 and 1. For example, 0.99 for the 99th percentile
+     * @return The q-quantile
+     */
+    public static double quantile(@NonNull float[] arr, double q) {
+        return Quantiles.quantiles(arr, new double[]{q}, null, false)[0];
+    }
+
+    /**
+     * Finds the exact q-quantile of an array like {@code quantile}, but selects within
+     * the array itself instead of a copy, leaving its elements rearranged.
+     *
+     * @param arr The array, which is rearranged
+     * @param q   The quantile, between 0 and 1
+     * @return The q-quantile
+     */
+    public static double quantileInPlace(@NonNull float[] arr, double q) {
+        return Quantiles.quantiles(arr, new double[]{q}, null, true)[0];
+    }
+
+    /**
+     * <p>
+     * Finds several exact quantiles of an array at once without modifying it,
+     * interpolating linearly between the closest ranks (R's type 7, NumPy's default).
+     * </P>
+     * <p>
+     * Every rank needed is found in a single multi-select, each selection only
+     * partitioning what is left between its neighbouring ranks, so several quantiles
+     * cost about as much as one.
+     * </P>
+     *
+     * @param arr The array
+     * @param qs  The quantiles, each between 0 and 1, in any order
+     * @return The quantiles, in the same order as requested
+     */
+    public static double[] quantiles(@NonNull float[] arr, @NonNull double[] qs) {
+        return Quantiles.quantiles(arr, qs, null, false);
+    }
+
+    /**
+     * Finds several exact quantiles of an array at once like {@code quantiles}, copying
+     * the array into the given scratch buffer to select in instead of allocating a copy.
+     *
+     * @param arr     The array, which is not modified
+     * @param qs      The quantiles, each between 0 and 1, in any order
+     * @param scratch A buffer at least as long as the array, whose contents are overwritten
+     * @return The quantiles, in the same order as requested
+     */
+    public static double[] quantiles(@NonNull float[] arr, @NonNull double[] qs, @NonNull float[] scratch) {
+        return Quantiles.quantiles(arr, qs, scratch, false);
+    }
+
+    /**
+     * Finds several exact quantiles of an array at once like {@code quantiles}, but selects
+     * within the array itself instead of a copy, leaving its elements rearranged.
+     *
+     * @param arr The array, which is rearranged
+     * @param qs  The quantiles, each between 0 and 1, in any order
+     * @return The quantiles, in the same order as requested
+     */
+    public static double[] quantilesInPlace(@NonNull float[] arr, @NonNull double[] qs) {
+        return Quantiles.quantiles(arr, qs, null, true);
+    }
+
+    /**
+     * <p>
+     * Finds the exact median of an array without modifying it.
+     * For an even amount of elements this is the mean of the two middle elements.
+     * </P>
+     * <p>
+     * The middle elements are found by selection in O(n) rather than by sorting.
+     * </P>
+     *
+     * @param arr The array
+     * @return The median
+     */
+    public static double median(@NonNull double[] arr) {
+        return Quantiles.quantiles(arr, new double[]{0.5}, null, false)[0];
+    }
+
+    /**
+     * Finds the exact median of an array like {@code median}, but selects within the
+     * array itself instead of a copy, leaving its elements rearranged.
+     *
+     * @param arr The array, which is rearranged
+     * @return The median
+     */
+    public static double medianInPlace(@NonNull double[] arr) {
+        return Quantiles.quantiles(arr, new double[]{0.5}, null, true)[0];
+    }
+
+    /**
+     * <p>
+     * Finds the exact q-quantile of an array without modifying it, interpolating
+     * linearly between the closest ranks (R's type 7, NumPy's default).
+     * </P>
+     * <p>
+     * The ranks are found by selection in O(n) rather than by sorting.
+     * </P>
+     *
+     * @param arr The array
+     * @param q   The quantile, between 0 and 1. For example, 0.99 for the 99th percentile
+     * @return The q-quantile
+     */
+    public static double quantile(@NonNull double[] arr, double q) {
+        return Quantiles.quantiles(arr, new double[]{q}, null, false)[0];
+    }
+
+    /**
+     * Finds the exact q-quantile of an array like {@code quantile}, but selects within
+     * the array itself instead of a copy, leaving its elements rearranged.
+     *
+     * @param arr The array, which is rearranged
+     * @param q   The quantile, between 0 and 1
+     * @return The q-quantile
+     */
+    public static double quantileInPlace(@NonNull double[] arr, double q) {
+        return Quantiles.quantiles(arr, new double[]{q}, null, true)[0];
+    }
+
+    /**
+     * <p>
+     * Finds several exact quantiles of an array at once without modifying it,
+     * interpolating linearly between the closest ranks (R's type 7, NumPy's default).
+     * </P>
+     * <p>
+     * Every rank needed is found in a single multi-select, each selection only
+     * partitioning what is left between its neighbouring ranks, so several quantiles
+     * cost about as much as one.
+     * </P>
+     *
+     * @param arr The array
+     * @param qs  The quantiles, each between 0 and 1, in any order
+     * @return The quantiles, in the same order as requested
+     */
+    public static double[] quantiles(@NonNull double[] arr, @NonNull double[] qs) {
+        return Quantiles.quantiles(arr, qs, null, false);
+    }
+
+    /**
+     * Finds several exact quantiles of an array at once like {@code quantiles}, copying
+     * the array into the given scratch buffer to select in instead of allocating a copy.
+     *
+     * @param arr     The array, which is not modified
+     * @param qs      The quantiles, each between 0 and 1, in any order
+     * @param scratch A buffer at least as long as the array, whose contents are overwritten
+     * @return The quantiles, in the same order as requested
+     */
+    public static double[] quantiles(@NonNull double[] arr, @NonNull double[] qs, @NonNull double[] scratch) {
+        return Quantiles.quantiles(arr, qs, scratch, false);
+    }
+
+    /**
+     * Finds several exact quantiles of an array at once like {@code quantiles}, but selects
+     * within the array itself instead of a copy, leaving its elements rearranged.
+     *
+     * @param arr The array, which is rearranged
+     * @param qs  The quantiles, each between 0 and 1, in any order
+     * @return The quantiles, in the same order as requested
+     */
+    public static double[] quantilesInPlace(@NonNull double[] arr, @NonNull double[] qs) {
+        return Quantiles.quantiles(arr, qs, null, true);
+    }
+
+    /**
+     * <p>
+     * Gets the distinct elements of an array into a new array. The given array is not modified.
+     * </P>
+     * <p>
+     * Elements keep the order of their first occurrence. See {@code distinctInPlace} for how
+     * repeats are found.
+     * </P>
+     *
+     * @param arr The array
+     * @return A new array with only 1 of each element
+     */
+    public static int[] distinct(@NonNull int[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        int[] copy = arr.clone();
+        int len = Distinct.distinctInPlace(copy);
+        int[] result = len == copy.length ? copy : Arrays.copyOf(copy, len);
+        if (probe != null)
+            probe.end("distinct", "int[]", arr.length);
+        return result;
+    }
+
+    /**
+     * <p>
+     * Moves the distinct elements of an array to its front, in the order of their
+     * first occurrence, and returns how many there are. Elements past that length are
+     * left over and should be ignored.
+     * </P>
+     * <p>
+     * A first pass checks whether the array is sorted and finds its range. Sorted arrays
+     * are compacted in one more sequential pass, arrays whose range is dense enough are
+     * tracked with a bitmap and the rest go through a primitive open-addressing hash table,
+     * all in O(n) without boxing.
+     * </P>
+     *
+     * @param arr The array to remove repeats from
+     * @return The amount of distinct elements, now at the front of the array
+     */
+    public static int distinctInPlace(@NonNull int[] arr) {
+        return Distinct.distinctInPlace(arr);
+    }
+
+    /**
+     * <p>
+     * Gets the distinct elements of an array into a new array. The given array is not modified.
+     * </P>
+     * <p>
+     * Elements keep the order of their first occurrence. See {@code distinctInPlace} for how
+     * repeats are found.
+     * </P>
+     *
+     * @param arr The array
+     * @return A new array with only 1 of each element
+     */
+    public static long[] distinct(@NonNull long[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        long[] copy = arr.clone();
+        int len = Distinct.distinctInPlace(copy);
+        long[] result = len == copy.length ? copy : Arrays.copyOf(copy, len);
+        if (probe != null)
+            probe.end("distinct", "long[]", arr.length);
+        return result;
+    }
+
+    /**
+     * <p>
+     * Moves the distinct elements of an array to its front, in the order of their
+     * first occurrence, and returns how many there are. Elements past that length are
+     * left over and should be ignored.
+     * </P>
+     * <p>
+     * A first pass checks whether the array is sorted and finds its range. Sorted arrays
+     * are compacted in one more sequential pass, arrays whose range is dense enough are
+     * tracked with a bitmap and the rest go through a primitive open-addressing hash table,
+     * all in O(n) without boxing.
+     * </P>
+     *
+     * @param arr The array to remove repeats from
+     * @return The amount of distinct elements, now at the front of the array
+     */
+    public static int distinctInPlace(@NonNull long[] arr) {
+        return Distinct.distinctInPlace(arr);
+    }
+
+    /**
+     * <p>
+     * Gets the distinct elements of an array into a new array. The given array is not modified.
+     * </P>
+     * <p>
+     * Elements keep the order of their first occurrence. See {@code distinctInPlace} for how
+     * repeats are found.
+     * </P>
+     *
+     * @param arr The array
+     * @return A new array with only 1 of each element
+     */
+    public static short[] distinct(@NonNull short[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        short[] copy = arr.clone();
+        int len = Distinct.distinctInPlace(copy);
+        short[] result = len == copy.length ? copy : Arrays.copyOf(copy, len);
+        if (probe != null)
+            probe.end("distinct", "short[]", arr.length);
+        return result;
+    }
+
+    /**
+     * <p>
+     * Moves the distinct elements of an array to its front, in the order of their
+     * first occurrence, and returns how many there are. Elements past that length are
+     * left over and should be ignored.
+     * </P>
+     * <p>
+     * Sorted arrays are compacted in one sequential pass and the rest are tracked with a
+     * bitmap covering every possible value, in O(n) without boxing.
+     * </P>
+     *
+     * @param arr The array to remove repeats from
+     * @return The amount of distinct elements, now at the front of the array
+     */
+    public static int distinctInPlace(@NonNull short[] arr) {
+        return Distinct.distinctInPlace(arr);
+    }
+
+    /**
+     * <p>
+     * Gets the distinct elements of an array into a new array. The given array is not modified.
+     * </P>
+     * <p>
+     * Elements keep the order of their first occurrence. See {@code distinctInPlace} for how
+     * repeats are found.
+     * </P>
+     *
+     * @param arr The array
+     * @return A new array with only 1 of each element
+     */
+    public static byte[] distinct(@NonNull byte[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        byte[] copy = arr.clone();
+        int len = Distinct.distinctInPlace(copy);
+        byte[] result = len == copy.length ? copy : Arrays.copyOf(copy, len);
+        if (probe != null)
+            probe.end("distinct", "byte[]", arr.length);
+        return result;
+    }
+
+    /**
+     * <p>
+     * Moves the distinct elements of an array to its front, in the order of their
+     * first occurrence, and returns how many there are. Elements past that length are
+     * left over and should be ignored.
+     * </P>
+     * <p>
+     * Sorted arrays are compacted in one sequential pass and the rest are tracked with a
+     * bitmap covering every possible value, in O(n) without boxing.
+     * </P>
+     *
+     * @param arr The array to remove repeats from
+     * @return The amount of distinct elements, now at the front of the array
+     */
+    public static int distinctInPlace(@NonNull byte[] arr) {
+        return Distinct.distinctInPlace(arr);
+    }
+
+    /**
+     * <p>
+     * Gets the distinct elements of an array into a new array. The given array is not modified.
+     * </P>
+     * <p>
+     * Elements keep the order of their first occurrence. See {@code distinctInPlace} for how
+     * repeats are found.
+     * </P>
+     *
+     * @param arr The array
+     * @return A new array with only 1 of each element
+     */
+    public static char[] distinct(@NonNull char[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        char[] copy = arr.clone();
+        int len = Distinct.distinctInPlace(copy);
+        char[] result = len == copy.length ? copy : Arrays.copyOf(copy, len);
+        if (probe != null)
+            probe.end("distinct", "char[]", arr.length);
+        return result;
+    }
+
+    /**
+     * <p>
+     * Moves the distinct elements of an array to its front, in the order of their
+     * first occurrence, and returns how many there are. Elements past that length are
+     * left over and should be ignored.
+     * </P>
+     * <p>
+     * Sorted arrays are compacted in one sequential pass and the rest are tracked with a
+     * bitmap covering every possible value, in O(n) without boxing.
+     * </P>
+     *
+     * @param arr The array to remove repeats from
+     * @return The amount of distinct elements, now at the front of the array
+     */
+    public static int distinctInPlace(@NonNull char[] arr) {
+        return Distinct.distinctInPlace(arr);
+    }
+
+    /**
+     * <p>
+     * Gets the distinct elements of an array into a new array. The given array is not modified.
+     * </P>
+     * <p>
+     * Elements keep the order of their first occurrence. See {@code distinctInPlace} for how
+     * repeats are found.
+     * </P>
+     *
+     * @param arr The array
+     * @return A new array with only 1 of each element
+     */
+    public static float[] distinct(@NonNull float[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        float[] copy = arr.clone();
+        int len = Distinct.distinctInPlace(copy);
+        float[] result = len == copy.length ? copy : Arrays.copyOf(copy, len);
+        if (probe != null)
+            probe.end("distinct", "float[]", arr.length);
+        return result;
+    }
+
+    /**
+     * <p>
+     * Moves the distinct elements of an array to its front, in the order of their
+     * first occurrence, and returns how many there are. Elements past that length are
+     * left over and should be ignored.
+     * </P>
+     * <p>
+     * Sorted arrays are compacted in one sequential pass and the rest go through a primitive
+     * open-addressing hash table of the elements' bits, in O(n) without boxing. Elements are
+     * the same when their bits are, like {@link Float#equals(Object)}.
+     * </P>
+     *
+     * @param arr The array to remove repeats from
+     * @return The amount of distinct elements, now at the front of the array
+     */
+    public static int distinctInPlace(@NonNull float[] arr) {
+        return Distinct.distinctInPlace(arr);
+    }
+
+    /**
+     * <p>
+     * Gets the distinct elements of an array into a new array. The given array is not modified.
+     * </P>
+     * <p>
+     * Elements keep the order of their first occurrence. See {@code distinctInPlace} for how
+     * repeats are found.
+     * </P>
+     *
+     * @param arr The array
+     * @return A new array with only 1 of each element
+     */
+    public static double[] distinct(@NonNull double[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        double[] copy = arr.clone();
+        int len = Distinct.distinctInPlace(copy);
+        double[] result = len == copy.length ? copy : Arrays.copyOf(copy, len);
+        if (probe != null)
+            probe.end("distinct", "double[]", arr.length);
+        return result;
+    }
+
+    /**
+     * <p>
+     * Moves the distinct elements of an array to its front, in the order of their
+     * first occurrence, and returns how many there are. Elements past that length are
+     * left over and should be ignored.
+     * </P>
+     * <p>
+     * Sorted arrays are compacted in one sequential pass and the rest go through a primitive
+     * open-addressing hash table of the elements' bits, in O(n) without boxing. Elements are
+     * the same when their bits are, like {@link Double#equals(Object)}.
+     * </P>
+     *
+     * @param arr The array to remove repeats from
+     * @return The amount of distinct elements, now at the front of the array
+     */
+    public static int distinctInPlace(@NonNull double[] arr) {
+        return Distinct.distinctInPlace(arr);
+    }
+
+    /**
+     * <p>
+     * Gets the distinct elements of an array into a new array. The given array is not modified.
+     * </P>
+     * <p>
+     * Elements keep the order of their first occurrence. See {@code distinctInPlace} for how
+     * repeats are found.
+     * </P>
+     *
+     * @param arr The array
+     * @return A new array with only 1 of each element
+     */
+    public static boolean[] distinct(@NonNull boolean[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        boolean[] copy = arr.clone();
+        int len = Distinct.distinctInPlace(copy);
+        boolean[] result = len == copy.length ? copy : Arrays.copyOf(copy, len);
+        if (probe != null)
+            probe.end("distinct", "boolean[]", arr.length);
+        return result;
+    }
+
+    /**
+     * <p>
+     * Moves the distinct elements of an array to its front, in the order of their
+     * first occurrence, and returns how many there are. Elements past that length are
+     * left over and should be ignored.
+     * </P>
+     * <p>
+     * There are at most 2 distinct booleans, so this stops as soon as it has seen both.
+     * </P>
+     *
+     * @param arr The array to remove repeats from
+     * @return The amount of distinct elements, now at the front of the array
+     */
+    public static int distinctInPlace(@NonNull boolean[] arr) {
+        return Distinct.distinctInPlace(arr);
+    }
+
+    /**
+     * Replaces every element with the sum of itself and every element before it
+     * (an inclusive prefix sum).
+     * Sums overflow the same way {@code +} does.
+     *
+     * @param arr The array to sum in place
+     */
+    public static void prefixSum(@NonNull int[] arr) {
+        Scan.scan(arr, arr, false, null);
+    }
+
+    /**
+     * Replaces every element with the sum of every element before it, not including itself
+     * (an exclusive prefix sum). The first element becomes 0.
+     * Sums overflow the same way {@code +} does.
+     *
+     * @param arr The array to sum in place
+     */
+    public static void exclusivePrefixSum(@NonNull int[] arr) {
+        Scan.scan(arr, arr, true, null);
+    }
+
+    /**
+     * Writes the prefix sums of an array into another array.
+     * Sums overflow the same way {@code +} does.
+     *
+     * @param src       The array to sum
+     * @param dst       The array to write the sums to, at least as long as the source. May be the source itself
+     * @param exclusive True to leave each element out of its own sum, starting from 0
+     */
+    public static void prefixSum(@NonNull int[] src, @NonNull int[] dst, boolean exclusive) {
+        Scan.scan(src, dst, exclusive, null);
+    }
+
+    /**
+     * <p>
+     * Writes the prefix sums of an array into another array using the given pool.
+     * Sums overflow the same way {@code +} does.
+     * </P>
+     * <p>
+     * This is a two-pass blocked scan: the array is split into a few blocks per thread,
+     * each block is summed in parallel, the block sums are turned into offsets, then each
+     * block is scanned in parallel starting from its offset. Small arrays are scanned
+     * sequentially.
+     * </P>
+     *
+     * @param src       The array to sum
+     * @param dst       The array to write the sums to, at least as long as the source. May be the source itself
+     * @param exclusive True to leave each element out of its own sum, starting from 0
+     * @param pool      The pool to run the blocks on
+     */
+    public static void parallelPrefixSum(@NonNull int[] src, @NonNull int[] dst, boolean exclusive, @NonNull ForkJoinPool pool) {
+        Scan.scan(src, dst, exclusive, pool);
+    }
+
+    /**
+     * Replaces every element with the sum of itself and every element before it
+     * (an inclusive prefix sum).
+     * Sums overflow the same way {@code +} does.
+     *
+     * @param arr The array to sum in place
+     */
+    public static void prefixSum(@NonNull long[] arr) {
+        Scan.scan(arr, arr, false, null);
+    }
+
+    /**
+     * Replaces every element with the sum of every element before it, not including itself
+     * (an exclusive prefix sum). The first element becomes 0.
+     * Sums overflow the same way {@code +} does.
+     *
+     * @param arr The array to sum in place
+     */
+    public static void exclusivePrefixSum(@NonNull long[] arr) {
+        Scan.scan(arr, arr, true, null);
+    }
+
+    /**
+     * Writes the prefix sums of an array into another array.
+     * Sums overflow the same way {@code +} does.
+     *
+     * @param src       The array to sum
+     * @param dst       The array to write the sums to, at least as long as the source. May be the source itself
+     * @param exclusive True to leave each element out of its own sum, starting from 0
+     */
+    public static void prefixSum(@NonNull long[] src, @NonNull long[] dst, boolean exclusive) {
+        Scan.scan(src, dst, exclusive, null);
+    }
+
+    /**
+     * <p>
+     * Writes the prefix sums of an array into another array using the given pool.
+     * Sums overflow the same way {@code +} does.
+     * </P>
+     * <p>
+     * This is a two-pass blocked scan: the array is split into a few blocks per thread,
+     * each block is summed in parallel, the block sums are turned into offsets, then each
+     * block is scanned in parallel starting from its offset. Small arrays are scanned
+     * sequentially.
+     * </P>
+     *
+     * @param src       The array to sum
+     * @param dst       The array to write the sums to, at least as long as the source. May be the source itself
+     * @param exclusive True to leave each element out of its own sum, starting from 0
+     * @param pool      The pool to run the blocks on
+     */
+    public static void parallelPrefixSum(@NonNull long[] src, @NonNull long[] dst, boolean exclusive, @NonNull ForkJoinPool pool) {
+        Scan.scan(src, dst, exclusive, pool);
+    }
+
+    /**
+     * Replaces every element with the sum of itself and every element before it
+     * (an inclusive prefix sum).
+     *
+     * @param arr The array to sum in place
+     */
+    public static void prefixSum(@NonNull float[] arr) {
+        Scan.scan(arr, arr, false, false, null);
+    }
+
+    /**
+     * Replaces every element with the sum of every element before it, not including itself
+     * (an exclusive prefix sum). The first element becomes 0.
+     *
+     * @param arr The array to sum in place
+     */
+    public static void exclusivePrefixSum(@NonNull float[] arr) {
+        Scan.scan(arr, arr, true, false, null);
+    }
+
+    /**
+     * Writes the prefix sums of an array into another array.
+     *
+     * @param src       The array to sum
+     * @param dst       The array to write the sums to, at least as long as the source. May be the source itself
+     * @param exclusive True to leave each element out of its own sum, starting from 0
+     */
+    public static void prefixSum(@NonNull float[] src, @NonNull float[] dst, boolean exclusive) {
+        Scan.scan(src, dst, exclusive, false, null);
+    }
+
+    /**
+     * <p>
+     * Writes the prefix sums of an array into another array, optionally with Kahan
+     * compensation.
+     * </P>
+     * <p>
+     * Compensated summation carries the low-order bits lost by every addition into the next one,
+     * so the error of each sum stays close to that of a single rounding instead of growing with
+     * the length of the array. It costs a few more additions per element.
+     * </P>
+     *
+     * @param src         The array to sum
+     * @param dst         The array to write the sums to, at least as long as the source. May be the source itself
+     * @param exclusive   True to leave each element out of its own sum, starting from 0
+     * @param compensated True to use Kahan summation
+     */
+    public static void prefixSum(@NonNull float[] src, @NonNull float[] dst, boolean exclusive, boolean compensated) {
+        Scan.scan(src, dst, exclusive, compensated, null);
+    }
+
+    /**
+     * <p>
+     * Writes the prefix sums of an array into another array using the given pool.
+     * </P>
+     * <p>
+     * This is a two-pass blocked scan: the array is split into a few blocks per thread,
+     * each block is summed in parallel, the block sums are turned into offsets, then each
+     * block is scanned in parallel starting from its offset. Small arrays are scanned
+     * sequentially.
+     * </P>
+     *
+     * @param src       The array to sum
+     * @param dst       The array to write the sums to, at least as long as the source. May be the source itself
+     * @param exclusive True to leave each element out of its own sum, starting from 0
+     * @param pool      The pool to run the blocks on
+     */
+    public static void parallelPrefixSum(@NonNull float[] src, @NonNull float[] dst, boolean exclusive, @NonNull ForkJoinPool pool) {
+        Scan.scan(src, dst, exclusive, false, pool);
+    }
+
+    /**
+     * Writes the prefix sums of an array into another array using the given pool like
+     * {@code parallelPrefixSum}, optionally with Kahan compensation. The compensation of
+     * each block's sum and offset is carried into the second pass.
+     *
+     * @param src         The array to sum
+     * @param dst         The array to write the sums to, at least as long as the source. May be the source itself
+     * @param exclusive   True to leave each element out of its own sum, starting from 0
+     * @param compensated True to use Kahan summation
+     * @param pool        The pool to run the blocks on
+     */
+    public static void parallelPrefixSum(@NonNull float[] src, @NonNull float[] dst, boolean exclusive, boolean compensated, @NonNull ForkJoinPool pool) {
+        Scan.scan(src, dst, exclusive, compensated, pool);
+    }
+
+    /**
+     * Replaces every element with the sum of itself and every element before it
+     * (an inclusive prefix sum).
+     *
+     * @param arr The array to sum in place
+     */
+    public static void prefixSum(@NonNull double[] arr) {
+        Scan.scan(arr, arr, false, false, null);
+    }
+
+    /**
+     * Replaces every element with the sum of every element before it, not including itself
+     * (an exclusive prefix sum). The first element becomes 0.
+     *
+     * @param arr The array to sum in place
+     */
+    public static void exclusivePrefixSum(@NonNull double[] arr) {
+        Scan.scan(arr, arr, true, false, null);
+    }
+
+    /**
+     * Writes the prefix sums of an array into another array.
+     *
+     * @param src       The array to sum
+     * @param dst       The array to write the sums to, at least as long as the source. May be the source itself
+     * @param exclusive True to leave each element out of its own sum, starting from 0
+     */
+    public static void prefixSum(@NonNull double[] src, @NonNull double[] dst, boolean exclusive) {
+        Scan.scan(src, dst, exclusive, false, null);
+    }
+
+    /**
+     * <p>
+     * Writes the prefix sums of an array into another array, optionally with Kahan
+     * compensation.
+     * </P>
+     * <p>
+     * Compensated summation carries the low-order bits lost by every addition into the next one,
+     * so the error of each sum stays close to that of a single rounding instead of growing with
+     * the length of the array. It costs a few more additions per element.
+     * </P>
+     *
+     * @param src         The array to sum
+     * @param dst         The array to write the sums to, at least as long as the source. May be the source itself
+     * @param exclusive   True to leave each element out of its own sum, starting from 0
+     * @param compensated True to use Kahan summation
+     */
+    public static void prefixSum(@NonNull double[] src, @NonNull double[] dst, boolean exclusive, boolean compensated) {
+        Scan.scan(src, dst, exclusive, compensated, null);
+    }
+
+    /**
+     * <p>
+     * Writes the prefix sums of an array into another array using the given pool.
+     * </P>
+     * <p>
+     * This is a two-pass blocked scan: the array is split into a few blocks per thread,
+     * each block is summed in parallel, the block sums are turned into offsets, then each
+     * block is scanned in parallel starting from its offset. Small arrays are scanned
+     * sequentially.
+     * </P>
+     *
+     * @param src       The array to sum
+     * @param dst       The array to write the sums to, at least as long as the source. May be the source itself
+     * @param exclusive True to leave each element out of its own sum, starting from 0
+     * @param pool      The pool to run the blocks on
+     */
+    public static void parallelPrefixSum(@NonNull double[] src, @NonNull double[] dst, boolean exclusive, @NonNull ForkJoinPool pool) {
+        Scan.scan(src, dst, exclusive, false, pool);
+    }
+
+    /**
+     * Writes the prefix sums of an array into another array using the given pool like
+     * {@code parallelPrefixSum}, optionally with Kahan compensation. The compensation of
+     * each block's sum and offset is carried into the second pass.
+     *
+     * @param src         The array to sum
+     * @param dst         The array to write the sums to, at least as long as the source. May be the source itself
+     * @param exclusive   True to leave each element out of its own sum, starting from 0
+     * @param compensated True to use Kahan summation
+     * @param pool        The pool to run the blocks on
+     */
+    public static void parallelPrefixSum(@NonNull double[] src, @NonNull double[] dst, boolean exclusive, boolean compensated, @NonNull ForkJoinPool pool) {
+        Scan.scan(src, dst, exclusive, compensated, pool);
+    }
+
+    /**
+     * <p>
+     * Summarizes an array in a single pass: count, sum, min, max, mean and variance.
+     * This replaces separate calls to {@code min}, {@code max} and a sum, which each
+     * read the whole array.
+     * </P>
+     * <p>
+     * The sum is kept exactly in 128 bits, so it never overflows. Summaries of chunks
+     * can be combined with {@code merge}.
+     * </P>
+     *
+     * @param arr The array to summarize
+     * @return The summary of the array
+     */
+    public static LongStats stats(@NonNull byte[] arr) {
+        return LongStats.of(arr, 0, arr.length);
+    }
+
+    /**
+     * Summarizes the given part of an array in a single pass like {@code stats}.
+     * Summaries of chunks can be combined with {@code merge}, so chunks of one array
+     * can be summarized in parallel.
+     *
+     * @param arr  The array to summarize
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to summarize up to
+     * @return The summary of the part of the array
+     */
+    public static LongStats stats(@NonNull byte[] arr, int from, int to) {
+        return LongStats.of(arr, from, to);
+    }
+
+    /**
+     * <p>
+     * Summarizes an array in a single pass: count, sum, min, max, mean and variance.
+     * This replaces separate calls to {@code min}, {@code max} and a sum, which each
+     * read the whole array.
+     * </P>
+     * <p>
+     * The sum is kept exactly in 128 bits, so it never overflows. Summaries of chunks
+     * can be combined with {@code merge}.
+     * </P>
+     *
+     * @param arr The array to summarize
+     * @return The summary of the array
+     */
+    public static LongStats stats(@NonNull short[] arr) {
+        return LongStats.of(arr, 0, arr.length);
+    }
+
+    /**
+     * Summarizes the given part of an array in a single pass like {@code stats}.
+     * Summaries of chunks can be combined with {@code merge}, so chunks of one array
+     * can be summarized in parallel.
+     *
+     * @param arr  The array to summarize
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to summarize up to
+     * @return The summary of the part of the array
+     */
+    public static LongStats stats(@NonNull short[] arr, int from, int to) {
+        return LongStats.of(arr, from, to);
+    }
+
+    /**
+     * <p>
+     * Summarizes an array in a single pass: count, sum, min, max, mean and variance.
+     * This replaces separate calls to {@code min}, {@code max} and a sum, which each
+     * read the whole array.
+     * </P>
+     * <p>
+     * The sum is kept exactly in 128 bits, so it never overflows. Summaries of chunks
+     * can be combined with {@code merge}.
+     * </P>
+     *
+     * @param arr The array to summarize
+     * @return The summary of the array
+     */
+    public static LongStats stats(@NonNull int[] arr) {
+        return LongStats.of(arr, 0, arr.length);
+    }
+
+    /**
+     * Summarizes the given part of an array in a single pass like {@code stats}.
+     * Summaries of chunks can be combined with {@code merge}, so chunks of one array
+     * can be summarized in parallel.
+     *
+     * @param arr  The array to summarize
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to summarize up to
+     * @return The summary of the part of the array
+     */
+    public static LongStats stats(@NonNull int[] arr, int from, int to) {
+        return LongStats.of(arr, from, to);
+    }
+
+    /**
+     * <p>
+     * Summarizes an array in a single pass: count, sum, min, max, mean and variance.
+     * This replaces separate calls to {@code min}, {@code max} and a sum, which each
+     * read the whole array.
+     * </P>
+     * <p>
+     * The sum is kept exactly in 128 bits, so it never overflows. Summaries of chunks
+     * can be combined with {@code merge}.
+     * </P>
+     *
+     * @param arr The array to summarize
+     * @return The summary of the array
+     */
+    public static LongStats stats(@NonNull long[] arr) {
+        return LongStats.of(arr, 0, arr.length);
+    }
+
+    /**
+     * Summarizes the given part of an array in a single pass like {@code stats}.
+     * Summaries of chunks can be combined with {@code merge}, so chunks of one array
+     * can be summarized in parallel.
+     *
+     * @param arr  The array to summarize
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to summarize up to
+     * @return The summary of the part of the array
+     */
+    public static LongStats stats(@NonNull long[] arr, int from, int to) {
+        return LongStats.of(arr, from, to);
+    }
+
+    /**
+     * <p>
+     * Summarizes an array in a single pass: count, sum, min, max, mean and variance.
+     * This replaces separate calls to {@code min}, {@code max} and a sum, which each
+     * read the whole array.
+     * </P>
+     * <p>
+     * The sum is Kahan-compensated and the variance uses Welford's algorithm, so both
+     * stay accurate over long arrays of finite values. A sum that overflows, or any infinite
+     * value, falls back to plain addition. Summaries of chunks can be combined with {@code merge}.
+     * </P>
+     *
+     * @param arr The array to summarize
+     * @return The summary of the array
+     */
+    public static DoubleStats stats(@NonNull float[] arr) {
+        return DoubleStats.of(arr, 0, arr.length);
+    }
+
+    /**
+     * Summarizes the given part of an array in a single pass like {@code stats}.
+     * Summaries of chunks can be combined with {@code merge}, so chunks of one array
+     * can be summarized in parallel.
+     *
+     * @param arr  The array to summarize
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to summarize up to
+     * @return The summary of the part of the array
+     */
+    public static DoubleStats stats(@NonNull float[] arr, int from, int to) {
+        return DoubleStats.of(arr, from, to);
+    }
+
+    /**
+     * <p>
+     * Summarizes an array in a single pass: count, sum, min, max, mean and variance.
+     * This replaces separate calls to {@code min}, {@code max} and a sum, which each
+     * read the whole array.
+     * </P>
+     * <p>
+     * The sum is Kahan-compensated and the variance uses Welford's algorithm, so both
+     * stay accurate over long arrays of finite values. A sum that overflows, or any infinite
+     * value, falls back to plain addition. Summaries of chunks can be combined with {@code merge}.
+     * </P>
+     *
+     * @param arr The array to summarize
+     * @return The summary of the array
+     */
+    public static DoubleStats stats(@NonNull double[] arr) {
+        return DoubleStats.of(arr, 0, arr.length);
+    }
+
+    /**
+     * Summarizes the given part of an array in a single pass like {@code stats}.
+     * Summaries of chunks can be combined with {@code merge}, so chunks of one array
+     * can be summarized in parallel.
+     *
+     * @param arr  The array to summarize
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to summarize up to
+     * @return The summary of the part of the array
+     */
+    public static DoubleStats stats(@NonNull double[] arr, int from, int to) {
+        return DoubleStats.of(arr, from, to);
+    }
+
+    /**
+     * <p>
+     * Stably sorts an array of objects by an int key, extracted once per element.
+     * </P>
+     * <p>
+     * Instead of comparing elements, the keys are gathered into an int array and sorted
+     * into a permutation by counting sort when their range is small, or by an LSD radix
+     * sort (11-bit digits, skipping digits every key shares) when it is wide. The elements
+     * are then moved in one pass. This is O(n) for any key distribution and never calls
+     * the key function more than once per element. Elements with equal keys keep their order.
+     * </P>
+     *
+     * @param <T> the type parameter
+     * @param arr The array to sort
+     * @param key The key extractor
+     */
+    public static <T> void sortByKey(@NonNull T[] arr, @NonNull ToIntFunction<? super T> key) {
+        Sort.sortByKey(arr, key);
+    }
+
+    /**
+     * <p>
+     * Stably sorts an array of objects by a long key, extracted once per element,
+     * the same way as {@code sortByKey}. Timestamps are a good fit: only the digits
+     * that differ between the smallest and largest key are sorted on.
+     * </P>
+     *
+     * @param <T> the type parameter
+     * @param arr The array to sort
+     * @param key The key extractor
+     */
+    public static <T> void sortByLongKey(@NonNull T[] arr, @NonNull ToLongFunction<? super T> key) {
+        Sort.sortByLongKey(arr, key);
+    }
+
+    /**
+     * <p>
+     * Finds the indices that would sort an array, without modifying it: the i-th smallest
+     * element is <code>arr[result[i]]</code>. The same indices can then reorder other arrays
+     * alongside this one. Equal elements keep their original order.
+     * </P>
+     * <p>
+     * Keys are sorted together with their indices, so ties always keep their original order.
+     * Large arrays go through an LSD radix sort; small ones pack each key and index into a long
+     * and sort those, which also breaks ties by index.
+     * </P>
+     *
+     * @param arr The array
+     * @return The sorting permutation of the array
+     */
+    public static int[] argsort(@NonNull int[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        int[] result = ArgSort.argsort(arr);
+        if (probe != null)
+            probe.end("argsort", "int[]", arr.length);
+        return result;
+    }
+
+    /**
+     * Finds the indices that would sort an array, without modifying it, like {@code argsort}.
+     * An unstable sort may put equal elements in any order, in exchange for less memory.
+     * Int and float keys are always sorted stably, so the flag makes no difference for them.
+     *
+     * @param arr    The array
+     * @param stable True if equal elements must keep their original order
+     * @return The sorting permutation of the array
+     */
+    public static int[] argsort(@NonNull int[] arr, boolean stable) {
+        Metrics.Probe probe = Metrics.begin();
+        int[] result = ArgSort.argsort(arr);
+        if (probe != null)
+            probe.end("argsort", "int[]", arr.length);
+        return result;
+    }
+
+    /**
+     * Finds the indices that would sort an array, without modifying it, using the common
+     * {@link ForkJoinPool}. The result is the same as the stable {@code argsort}.
+     *
+     * @param arr The array
+     * @return The sorting permutation of the array
+     */
+    public static int[] parallelArgsort(@NonNull int[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        int[] result = ArgSort.parallelArgsort(arr);
+        if (probe != null)
+            probe.end("parallelArgsort", "int[]", arr.length);
+        return result;
+    }
+
+    /**
+     * <p>
+     * Finds the indices that would sort an array, without modifying it: the i-th smallest
+     * element is <code>arr[result[i]]</code>. The same indices can then reorder other arrays
+     * alongside this one. Equal elements keep their original order.
+     * </P>
+     * <p>
+     * A stable sort runs an LSD radix sort over the keys relative to their minimum. An unstable
+     * sort quicksorts a copy of the keys while moving the indices with them (falling back to heapsort),
+     * which needs less memory.
+     * </P>
+     *
+     * @param arr The array
+     * @return The sorting permutation of the array
+     */
+    public static int[] argsort(@NonNull long[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        int[] result = ArgSort.argsort(arr, true);
+        if (probe != null)
+            probe.end("argsort", "long[]", arr.length);
+        return result;
+    }
+
+    /**
+     * Finds the indices that would sort an array, without modifying it, like {@code argsort}.
+     * An unstable sort may put equal elements in any order, in exchange for less memory.
+     *
+     * @param arr    The array
+     * @param stable True if equal elements must keep their original order
+     * @return The sorting permutation of the array
+     */
+    public static int[] argsort(@NonNull long[] arr, boolean stable) {
+        Metrics.Probe probe = Metrics.begin();
+        int[] result = ArgSort.argsort(arr, stable);
+        if (probe != null)
+            probe.end("argsort", "long[]", arr.length);
+        return result;
+    }
+
+    /**
+     * Finds the indices that would sort an array, without modifying it, using the common
+     * {@link ForkJoinPool}. The result is the same as the stable {@code argsort}.
+     *
+     * @param arr The array
+     * @return The sorting permutation of the array
+     */
+    public static int[] parallelArgsort(@NonNull long[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        int[] result = ArgSort.parallelArgsort(arr);
+        if (probe != null)
+            probe.end("parallelArgsort", "long[]", arr.length);
+        return result;
+    }
+
+    /**
+     * <p>
+     * Finds the indices that would sort an array, without modifying it: the i-th smallest
+     * element is <code>arr[result[i]]</code>. The same indices can then reorder other arrays
+     * alongside this one. Equal elements keep their original order.
+     * </P>
+     * <p>
+     * Floats are mapped to ints that sort the same way as {@link Float#compare(float, float)}
+     * and sorted like an int array, so ties always keep their original order.
+     * </P>
+     *
+     * @param arr The array
+     * @return The sorting permutation of the array
+     */
+    public static int[] argsort(@NonNull float[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        int[] result = ArgSort.argsort(arr);
+        if (probe != null)
+            probe.end("argsort", "float[]", arr.length);
+        return result;
+    }
+
+    /**
+     * Finds the indices that would sort an array, without modifying it, like {@code argsort}.
+     * An unstable sort may put equal elements in any order, in exchange for less memory.
+     * Int and float keys are always sorted stably, so the flag makes no difference for them.
+     *
+     * @param arr    The array
+     * @param stable True if equal elements must keep their original order
+     * @return The sorting permutation of the array
+     */
+    public static int[] argsort(@NonNull float[] arr, boolean stable) {
+        Metrics.Probe probe = Metrics.begin();
+        int[] result = ArgSort.argsort(arr);
+        if (probe != null)
+            probe.end("argsort", "float[]", arr.length);
+        return result;
+    }
+
+    /**
+     * Finds the indices that would sort an array, without modifying it, using the common
+     * {@link ForkJoinPool}. The result is the same as the stable {@code argsort}.
+     *
+     * @param arr The array
+     * @return The sorting permutation of the array
+     */
+    public static int[] parallelArgsort(@NonNull float[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        int[] result = ArgSort.parallelArgsort(arr);
+        if (probe != null)
+            probe.end("parallelArgsort", "float[]", arr.length);
+        return result;
+    }
+
+    /**
+     * <p>
+     * Finds the indices that would sort an array, without modifying it: the i-th smallest
+     * element is <code>arr[result[i]]</code>. The same indices can then reorder other arrays
+     * alongside this one. Equal elements keep their original order.
+     * </P>
+     * <p>
+     * A stable sort maps doubles to longs that sort the same way as
+     * {@link Double#compare(double, double)} and runs an LSD radix sort over the keys relative to their minimum. An unstable
+     * sort quicksorts a copy of the keys while moving the indices with them (falling back to heapsort),
+     * which needs less memory.
+     * </P>
+     *
+     * @param arr The array
+     * @return The sorting permutation of the array
+     */
+    public static int[] argsort(@NonNull double[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        int[] result = ArgSort.argsort(arr, true);
+        if (probe != null)
+            probe.end("argsort", "double[]", arr.length);
+        return result;
+    }
+
+    /**
+     * Finds the indices that would sort an array, without modifying it, like {@code argsort}.
+     * An unstable sort may put equal elements in any order, in exchange for less memory.
+     *
+     * @param arr    The array
+     * @param stable True if equal elements must keep their original order
+     * @return The sorting permutation of the array
+     */
+    public static int[] argsort(@NonNull double[] arr, boolean stable) {
+        Metrics.Probe probe = Metrics.begin();
+        int[] result = ArgSort.argsort(arr, stable);
+        if (probe != null)
+            probe.end("argsort", "double[]", arr.length);
+        return result;
+    }
+
+    /**
+     * Finds the indices that would sort an array, without modifying it, using the common
+     * {@link ForkJoinPool}. The result is the same as the stable {@code argsort}.
+     *
+     * @param arr The array
+     * @return The sorting permutation of the array
+     */
+    public static int[] parallelArgsort(@NonNull double[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        int[] result = ArgSort.parallelArgsort(arr);
+        if (probe != null)
+            probe.end("parallelArgsort", "double[]", arr.length);
+        return result;
+    }
+
+    /**
+     * Linearly searches through an array
+     * to find the index of the min.
+     *
+     * @param arr The array to be searched for the min
+     * @return The index of the first occurrence of the min, or -1 if the array is empty
+     */
+    public static int argmin(@NonNull final int[] arr) {
+        int best = arr.length == 0 ? -1 : 0;
+        for (int i = 1; i < arr.length; i++)
+            if (arr[i] < arr[best])
+                best = i;
+        return best;
+    }
+
+    /**
+     * Linearly searches through an array
+     * to find the index of the max.
+     *
+     * @param arr The array to be searched for the max
+     * @return The index of the first occurrence of the max, or -1 if the array is empty
+     */
+    public static int argmax(@NonNull final int[] arr) {
+        int best = arr.length == 0 ? -1 : 0;
+        for (int i = 1; i < arr.length; i++)
+            if (arr[i] > arr[best])
+                best = i;
+        return best;
+    }
+
+    /**
+     * Linearly searches through an array
+     * to find the index of the min.
+     *
+     * @param arr The array to be searched for the min
+     * @return The index of the first occurrence of the min, or -1 if the array is empty
+     */
+    public static int argmin(@NonNull final long[] arr) {
+        int best = arr.length == 0 ? -1 : 0;
+        for (int i = 1; i < arr.length; i++)
+            if (arr[i] < arr[best])
+                best = i;
+        return best;
+    }
+
+    /**
+     * Linearly searches through an array
+     * to find the index of the max.
+     *
+     * @param arr The array to be searched for the max
+     * @return The index of the first occurrence of the max, or -1 if the array is empty
+     */
+    public static int argmax(@NonNull final long[] arr) {
+        int best = arr.length == 0 ? -1 : 0;
+        for (int i = 1; i < arr.length; i++)
+            if (arr[i] > arr[best])
+                best = i;
+        return best;
+    }
+
+    /**
+     * Linearly searches through an array
+     * to find the index of the min.
+     *
+     * @param arr The array to be searched for the min
+     * @return The index of the first occurrence of the min, or -1 if the array is empty
+     */
+    public static int argmin(@NonNull final short[] arr) {
+        int best = arr.length == 0 ? -1 : 0;
+        for (int i = 1; i < arr.length; i++)
+            if (arr[i] < arr[best])
+                best = i;
+        return best;
+    }
+
+    /**
+     * Linearly searches through an array
+     * to find the index of the max.
+     *
+     * @param arr The array to be searched for the max
+     * @return The index of the first occurrence of the max, or -1 if the array is empty
+     */
+    public static int argmax(@NonNull final short[] arr) {
+        int best = arr.length == 0 ? -1 : 0;
+        for (int i = 1; i < arr.length; i++)
+            if (arr[i] > arr[best])
+                best = i;
+        return best;
+    }
+
+    /**
+     * Linearly searches through an array
+     * to find the index of the min.
+     *
+     * @param arr The array to be searched for the min
+     * @return The index of the first occurrence of the min, or -1 if the array is empty
+     */
+    public static int argmin(@NonNull final byte[] arr) {
+        int best = arr.length == 0 ? -1 : 0;
+        for (int i = 1; i < arr.length; i++)
+            if (arr[i] < arr[best])
+                best = i;
+        return best;
+    }
+
+    /**
+     * Linearly searches through an array
+     * to find the index of the max.
+     *
+     * @param arr The array to be searched for the max
+     * @return The index of the first occurrence of the max, or -1 if the array is empty
+     */
+    public static int argmax(@NonNull final byte[] arr) {
+        int best = arr.length == 0 ? -1 : 0;
+        for (int i = 1; i < arr.length; i++)
+            if (arr[i] > arr[best])
+                best = i;
+        return best;
+    }
+
+    /**
+     * Linearly searches through an array
+     * to find the index of the min.
+     *
+     * @param arr The array to be searched for the min
+     * @return The index of the first occurrence of the min, or -1 if the array is empty
+     */
+    public static int argmin(@NonNull final char[] arr) {
+        int best = arr.length == 0 ? -1 : 0;
+        for (int i = 1; i < arr.length; i++)
+            if (arr[i] < arr[best])
+                best = i;
+        return best;
+    }
+
+    /**
+     * Linearly searches through an array
+     * to find the index of the max.
+     *
+     * @param arr The array to be searched for the max
+     * @return The index of the first occurrence of the max, or -1 if the array is empty
+     */
+    public static int argmax(@NonNull final char[] arr) {
+        int best = arr.length == 0 ? -1 : 0;
+        for (int i = 1; i < arr.length; i++)
+            if (arr[i] > arr[best])
+                best = i;
+        return best;
+    }
+
+    /**
+     * Linearly searches through an array using {@link Float#compare(float, float)}
+     * to find the index of the min. A NaN is the min as it is for {@link #min(float[])},
+     * so the index of the first NaN is returned if there is one; otherwise -0.0 is less than 0.0.
+     *
+     * @param arr The array to be searched for the min
+     * @return The index of the first occurrence of the min, or -1 if the array is empty
+     */
+    public static int argmin(@NonNull final float[] arr) {
+        int best = arr.length == 0 ? -1 : 0;
+        for (int i = 0; i < arr.length; i++) {
+            if (Float.isNaN(arr[i]))
+                return i;
+            if (Float.compare(arr[i], arr[best]) < 0)
+                best = i;
+        }
+        return best;
+    }
+
+    /**
+     * Linearly searches through an array using {@link Float#compare(float, float)}
+     * to find the index of the max. A NaN is the max as it is for {@link #max(float[])},
+     * so the index of the first NaN is returned if there is one; otherwise -0.0 is less than 0.0.
+     *
+     * @param arr The array to be searched for the max
+     * @return The index of the first occurrence of the max, or -1 if the array is empty
+     */
+    public static int argmax(@NonNull final float[] arr) {
+        int best = arr.length == 0 ? -1 : 0;
+        for (int i = 0; i < arr.length; i++) {
+            if (Float.isNaN(arr[i]))
+                return i;
+            if (Float.compare(arr[i], arr[best]) > 0)
+                best = i;
+        }
+        return best;
+    }
+
+    /**
+     * Linearly searches through an array using {@link Double#compare(double, double)}
+     * to find the index of the min. A NaN is the min as it is for {@link #min(double[])},
+     * so the index of the first NaN is returned if there is one; otherwise -0.0 is less than 0.0.
+     *
+     * @param arr The array to be searched for the min
+     * @return The index of the first occurrence of the min, or -1 if the array is empty
+     */
+    public static int argmin(@NonNull final double[] arr) {
+        int best = arr.length == 0 ? -1 : 0;
+        for (int i = 0; i < arr.length; i++) {
+            if (Double.isNaN(arr[i]))
+                return i;
+            if (Double.compare(arr[i], arr[best]) < 0)
+                best = i;
+        }
+        return best;
+    }
+
+    /**
+     * Linearly searches through an array using {@link Double#compare(double, double)}
+     * to find the index of the max. A NaN is the max as it is for {@link #max(double[])},
+     * so the index of the first NaN is returned if there is one; otherwise -0.0 is less than 0.0.
+     *
+     * @param arr The array to be searched for the max
+     * @return The index of the first occurrence of the max, or -1 if the array is empty
+     */
+    public static int argmax(@NonNull final double[] arr) {
+        int best = arr.length == 0 ? -1 : 0;
+        for (int i = 0; i < arr.length; i++) {
+            if (Double.isNaN(arr[i]))
+                return i;
+            if (Double.compare(arr[i], arr[best]) > 0)
+                best = i;
+        }
+        return best;
+    }
+
+    /**
+     * Linearly searches through an array using the
+     * object's <code>compareTo(o)</code> method
+     * to find the index of the min.
+     *
+     * @param <T> the type parameter
+     * @param arr The array to be searched for the min
+     * @return The index of the first occurrence of the min, or -1 if the array is empty
+     */
+    public static <T extends Comparable<T>> int argmin(@NonNull final T[] arr) {
+        int best = arr.length == 0 ? -1 : 0;
+        for (int i = 1; i < arr.length; i++)
+            if (arr[i].compareTo(arr[best]) < 0)
+                best = i;
+        return best;
+    }
+
+    /**
+     * Linearly searches through an array using the
+     * object's <code>compareTo(o)</code> method
+     * to find the index of the max.
+     *
+     * @param <T> the type parameter
+     * @param arr The array to be searched for the max
+     * @return The index of the first occurrence of the max, or -1 if the array is empty
+     */
+    public static <T extends Comparable<T>> int argmax(@NonNull final T[] arr) {
+        int best = arr.length == 0 ? -1 : 0;
+        for (int i = 1; i < arr.length; i++)
+            if (arr[i].compareTo(arr[best]) > 0)
+                best = i;
+        return best;
+    }
+
+    /**
+     * <p>
+     * Reorders an array in place by a permutation, so that afterwards <code>arr[i]</code>
+     * holds what was at <code>arr[perm[i]]</code>. This is the form {@code argsort} returns,
+     * so the same permutation can reorder any amount of arrays alongside the sorted one.
+     * </P>
+     * <p>
+     * Every cycle of the permutation is followed once, moving each element a single time with
+     * O(1) extra memory. Visited entries are marked by temporarily flipping their bits in the
+     * permutation itself, which is restored before returning, so the permutation must not be
+     * shared with another thread during the call; see the overload taking a bitmap for that.
+     * </P>
+     *
+     * @param arr  The array to reorder
+     * @param perm The permutation, which must contain every index of the array once
+     */
+    public static void applyPermutation(@NonNull int[] arr, @NonNull int[] perm) {
+        Permutation.apply(arr, perm);
+    }
+
+    /**
+     * Reorders an array in place by a permutation like {@code applyPermutation}, marking visited
+     * entries in the given bitmap instead of in the permutation. The permutation is only read,
+     * so it can be applied to several arrays from several threads at once.
+     *
+     * @param arr     The array to reorder
+     * @param perm    The permutation, which must contain every index of the array once
+     * @param visited A bitmap of at least <code>(arr.length + 63) / 64</code> words, which is overwritten
+     * @throws IllegalArgumentException If the permutation repeats an index
+     */
+    public static void applyPermutation(@NonNull int[] arr, @NonNull int[] perm, @NonNull long[] visited) {
+        Permutation.apply(arr, perm, visited);
+    }
+
+    /**
+     * Gets a new array reordered by a permutation, so that <code>result[i]</code> is
+     * <code>arr[perm[i]]</code>, filling it in parallel. The given array is not modified.
+     *
+     * @param arr  The array to reorder
+     * @param perm The permutation
+     * @return A new, reordered array
+     */
+    public static int[] parallelApplyPermutation(@NonNull int[] arr, @NonNull int[] perm) {
+        return Permutation.parallelApply(arr, perm);
+    }
+
+    /**
+     * <p>
+     * Reorders an array in place by a permutation, so that afterwards <code>arr[i]</code>
+     * holds what was at <code>arr[perm[i]]</code>. This is the form {@code argsort} returns,
+     * so the same permutation can reorder any amount of arrays alongside the sorted one.
+     * </P>
+     * <p>
+     * Every cycle of the permutation is followed once, moving each element a single time with
+     * O(1) extra memory. Visited entries are marked by temporarily flipping their bits in the
+     * permutation itself, which is restored before returning, so the permutation must not be
+     * shared with another thread during the call; see the overload taking a bitmap for that.
+     * </P>
+     *
+     * @param arr  The array to reorder
+     * @param perm The permutation, which must contain every index of the array once
+     */
+    public static void applyPermutation(@NonNull long[] arr, @NonNull int[] perm) {
+        Permutation.apply(arr, perm);
+    }
+
+    /**
+     * Reorders an array in place by a permutation like {@code applyPermutation}, marking visited
+     * entries in the given bitmap instead of in the permutation. The permutation is only read,
+     * so it can be applied to several arrays from several threads at once.
+     *
+     * @param arr     The array to reorder
+     * @param perm    The permutation, which must contain every index of the array once
+     * @param visited A bitmap of at least <code>(arr.length + 63) / 64</code> words, which is overwritten
+     * @throws IllegalArgumentException If the permutation repeats an index
+     */
+    public static void applyPermutation(@NonNull long[] arr, @NonNull int[] perm, @NonNull long[] visited) {
+        Permutation.apply(arr, perm, visited);
+    }
+
+    /**
+     * Gets a new array reordered by a permutation, so that <code>result[i]</code> is
+     * <code>arr[perm[i]]</code>, filling it in parallel. The given array is not modified.
+     *
+     * @param arr  The array to reorder
+     * @param perm The permutation
+     * @return A new, reordered array
+     */
+    public static long[] parallelApplyPermutation(@NonNull long[] arr, @NonNull int[] perm) {
+        return Permutation.parallelApply(arr, perm);
+    }
+
+    /**
+     * <p>
+     * Reorders an array in place by a permutation, so that afterwards <code>arr[i]</code>
+     * holds what was at <code>arr[perm[i]]</code>. This is the form {@code argsort} returns,
+     * so the same permutation can reorder any amount of arrays alongside the sorted one.
+     * </P>
+     * <p>
+     * Every cycle of the permutation is followed once, moving each element a single time with
+     * O(1) extra memory. Visited entries are marked by temporarily flipping their bits in the
+     * permutation itself, which is restored before returning, so the permutation must not be
+     * shared with another thread during the call; see the overload taking a bitmap for that.
+     * </P>
+     *
+     * @param arr  The array to reorder
+     * @param perm The permutation, which must contain every index of the array once
+     */
+    public static void applyPermutation(@NonNull short[] arr, @NonNull int[] perm) {
+        Permutation.apply(arr, perm);
+    }
+
+    /**
+     * Reorders an array in place by a permutation like {@code applyPermutation}, marking visited
+     * entries in the given bitmap instead of in the permutation. The permutation is only read,
+     * so it can be applied to several arrays from several threads at once.
+     *
+     * @param arr     The array to reorder
+     * @param perm    The permutation, which must contain every index of the array once
+     * @param visited A bitmap of at least <code>(arr.length + 63) / 64</code> words, which is overwritten
+     * @throws IllegalArgumentException If the permutation repeats an index
+     */
+    public static void applyPermutation(@NonNull short[] arr, @NonNull int[] perm, @NonNull long[] visited) {
+        Permutation.apply(arr, perm, visited);
+    }
+
+    /**
+     * Gets a new array reordered by a permutation, so that <code>result[i]</code> is
+     * <code>arr[perm[i]]</code>, filling it in parallel. The given array is not modified.
+     *
+     * @param arr  The array to reorder
+     * @param perm The permutation
+     * @return A new, reordered array
+     */
+    public static short[] parallelApplyPermutation(@NonNull short[] arr, @NonNull int[] perm) {
+        return Permutation.parallelApply(arr, perm);
+    }
+
+    /**
+     * <p>
+     * Reorders an array in place by a permutation, so that afterwards <code>arr[i]</code>
+     * holds what was at <code>arr[perm[i]]</code>. This is the form {@code argsort} returns,
+     * so the same permutation can reorder any amount of arrays alongside the sorted one.
+     * </P>
+     * <p>
+     * Every cycle of the permutation is followed once, moving each element a single time with
+     * O(1) extra memory. Visited entries are marked by temporarily flipping their bits in the
+     * permutation itself, which is restored before returning, so the permutation must not be
+     * shared with another thread during the call; see the overload taking a bitmap for that.
+     * </P>
+     *
+     * @param arr  The array to reorder
+     * @param perm The permutation, which must contain every index of the array once
+     */
+    public static void applyPermutation(@NonNull byte[] arr, @NonNull int[] perm) {
+        Permutation.apply(arr, perm);
+    }
+
+    /**
+     * Reorders an array in place by a permutation like {@code applyPermutation}, marking visited
+     * entries in the given bitmap instead of in the permutation. The permutation is only read,
+     * so it can be applied to several arrays from several threads at once.
+     *
+     * @param arr     The array to reorder
+     * @param perm    The permutation, which must contain every index of the array once
+     * @param visited A bitmap of at least <code>(arr.length + 63) / 64</code> words, which is overwritten
+     * @throws IllegalArgumentException If the permutation repeats an index
+     */
+    public static void applyPermutation(@NonNull byte[] arr, @NonNull int[] perm, @NonNull long[] visited) {
+        Permutation.apply(arr, perm, visited);
+    }
+
+    /**
+     * Gets a new array reordered by a permutation, so that <code>result[i]</code> is
+     * <code>arr[perm[i]]</code>, filling it in parallel. The given array is not modified.
+     *
+     * @param arr  The array to reorder
+     * @param perm The permutation
+     * @return A new, reordered array
+     */
+    public static byte[] parallelApplyPermutation(@NonNull byte[] arr, @NonNull int[] perm) {
+        return Permutation.parallelApply(arr, perm);
+    }
+
+    /**
+     * <p>
+     * Reorders an array in place by a permutation, so that afterwards <code>arr[i]</code>
+     * holds what was at <code>arr[perm[i]]</code>. This is the form {@code argsort} returns,
+     * so the same permutation can reorder any amount of arrays alongside the sorted one.
+     * </P>
+     * <p>
+     * Every cycle of the permutation is followed once, moving each element a single time with
+     * O(1) extra memory. Visited entries are marked by temporarily flipping their bits in the
+     * permutation itself, which is restored before returning, so the permutation must not be
+     * shared with another thread during the call; see the overload taking a bitmap for that.
+     * </P>
+     *
+     * @param arr  The array to reorder
+     * @param perm The permutation, which must contain every index of the array once
+     */
+    public static void applyPermutation(@NonNull char[] arr, @NonNull int[] perm) {
+        Permutation.apply(arr, perm);
+    }
+
+    /**
+     * Reorders an array in place by a permutation like {@code applyPermutation}, marking visited
+     * entries in the given bitmap instead of in the permutation. The permutation is only read,
+     * so it can be applied to several arrays from several threads at once.
+     *
+     * @param arr     The array to reorder
+     * @param perm    The permutation, which must contain every index of the array once
+     * @param visited A bitmap of at least <code>(arr.length + 63) / 64</code> words, which is overwritten
+     * @throws IllegalArgumentException If the permutation repeats an index
+     */
+    public static void applyPermutation(@NonNull char[] arr, @NonNull int[] perm, @NonNull long[] visited) {
+        Permutation.apply(arr, perm, visited);
+    }
+
+    /**
+     * Gets a new array reordered by a permutation, so that <code>result[i]</code> is
+     * <code>arr[perm[i]]</code>, filling it in parallel. The given array is not modified.
+     *
+     * @param arr  The array to reorder
+     * @param perm The permutation
+     * @return A new, reordered array
+     */
+    public static char[] parallelApplyPermutation(@NonNull char[] arr, @NonNull int[] perm) {
+        return Permutation.parallelApply(arr, perm);
+    }
+
+    /**
+     * <p>
+     * Reorders an array in place by a permutation, so that afterwards <code>arr[i]</code>
+     * holds what was at <code>arr[perm[i]]</code>. This is the form {@code argsort} returns,
+     * so the same permutation can reorder any amount of arrays alongside the sorted one.
+     * </P>
+     * <p>
+     * Every cycle of the permutation is followed once, moving each element a single time with
+     * O(1) extra memory. Visited entries are marked by temporarily flipping their bits in the
+     * permutation itself, which is restored before returning, so the permutation must not be
+     * shared with another thread during the call; see the overload taking a bitmap for that.
+     * </P>
+     *
+     * @param arr  The array to reorder
+     * @param perm The permutation, which must contain every index of the array once
+     */
+    public static void applyPermutation(@NonNull float[] arr, @NonNull int[] perm) {
+        Permutation.apply(arr, perm);
+    }
+
+    /**
+     * Reorders an array in place by a permutation like {@code applyPermutation}, marking visited
+     * entries in the given bitmap instead of in the permutation. The permutation is only read,
+     * so it can be applied to several arrays from several threads at once.
+     *
+     * @param arr     The array to reorder
+     * @param perm    The permutation, which must contain every index of the array once
+     * @param visited A bitmap of at least <code>(arr.length + 63) / 64</code> words, which is overwritten
+     * @throws IllegalArgumentException If the permutation repeats an index
+     */
+    public static void applyPermutation(@NonNull float[] arr, @NonNull int[] perm, @NonNull long[] visited) {
+        Permutation.apply(arr, perm, visited);
+    }
+
+    /**
+     * Gets a new array reordered by a permutation, so that <code>result[i]</code> is
+     * <code>arr[perm[i]]</code>, filling it in parallel. The given array is not modified.
+     *
+     * @param arr  The array to reorder
+     * @param perm The permutation
+     * @return A new, reordered array
+     */
+    public static float[] parallelApplyPermutation(@NonNull float[] arr, @NonNull int[] perm) {
+        return Permutation.parallelApply(arr, perm);
+    }
+
+    /**
+     * <p>
+     * Reorders an array in place by a permutation, so that afterwards <code>arr[i]</code>
+     * holds what was at <code>arr[perm[i]]</code>. This is the form {@code argsort} returns,
+     * so the same permutation can reorder any amount of arrays alongside the sorted one.
+     * </P>
+     * <p>
+     * Every cycle of the permutation is followed once, moving each element a single time with
+     * O(1) extra memory. Visited entries are marked by temporarily flipping their bits in the
+     * permutation itself, which is restored before returning, so the permutation must not be
+     * shared with another thread during the call; see the overload taking a bitmap for that.
+     * </P>
+     *
+     * @param arr  The array to reorder
+     * @param perm The permutation, which must contain every index of the array once
+     */
+    public static void applyPermutation(@NonNull double[] arr, @NonNull int[] perm) {
+        Permutation.apply(arr, perm);
+    }
+
+    /**
+     * Reorders an array in place by a permutation like {@code applyPermutation}, marking visited
+     * entries in the given bitmap instead of in the permutation. The permutation is only read,
+     * so it can be applied to several arrays from several threads at once.
+     *
+     * @param arr     The array to reorder
+     * @param perm    The permutation, which must contain every index of the array once
+     * @param visited A bitmap of at least <code>(arr.length + 63) / 64</code> words, which is overwritten
+     * @throws IllegalArgumentException If the permutation repeats an index
+     */
+    public static void applyPermutation(@NonNull double[] arr, @NonNull int[] perm, @NonNull long[] visited) {
+        Permutation.apply(arr, perm, visited);
+    }
+
+    /**
+     * Gets a new array reordered by a permutation, so that <code>result[i]</code> is
+     * <code>arr[perm[i]]</code>, filling it in parallel. The given array is not modified.
+     *
+     * @param arr  The array to reorder
+     * @param perm The permutation
+     * @return A new, reordered array
+     */
+    public static double[] parallelApplyPermutation(@NonNull double[] arr, @NonNull int[] perm) {
+        return Permutation.parallelApply(arr, perm);
+    }
+
+    /**
+     * <p>
+     * Reorders an array in place by a permutation, so that afterwards <code>arr[i]</code>
+     * holds what was at <code>arr[perm[i]]</code>. This is the form {@code argsort} returns,
+     * so the same permutation can reorder any amount of arrays alongside the sorted one.
+     * </P>
+     * <p>
+     * Every cycle of the permutation is followed once, moving each element a single time with
+     * O(1) extra memory. Visited entries are marked by temporarily flipping their bits in the
+     * permutation itself, which is restored before returning, so the permutation must not be
+     * shared with another thread during the call; see the overload taking a bitmap for that.
+     * </P>
+     *
+     * @param arr  The array to reorder
+     * @param perm The permutation, which must contain every index of the array once
+     */
+    public static void applyPermutation(@NonNull boolean[] arr, @NonNull int[] perm) {
+        Permutation.apply(arr, perm);
+    }
+
+    /**
+     * Reorders an array in place by a permutation like {@code applyPermutation}, marking visited
+     * entries in the given bitmap instead of in the permutation. The permutation is only read,
+     * so it can be applied to several arrays from several threads at once.
+     *
+     * @param arr     The array to reorder
+     * @param perm    The permutation, which must contain every index of the array once
+     * @param visited A bitmap of at least <code>(arr.length + 63) / 64</code> words, which is overwritten
+     * @throws IllegalArgumentException If the permutation repeats an index
+     */
+    public static void applyPermutation(@NonNull boolean[] arr, @NonNull int[] perm, @NonNull long[] visited) {
+        Permutation.apply(arr, perm, visited);
+    }
+
+    /**
+     * Gets a new array reordered by a permutation, so that <code>result[i]</code> is
+     * <code>arr[perm[i]]</code>, filling it in parallel. The given array is not modified.
+     *
+     * @param arr  The array to reorder
+     * @param perm The permutation
+     * @return A new, reordered array
+     */
+    public static boolean[] parallelApplyPermutation(@NonNull boolean[] arr, @NonNull int[] perm) {
+        return Permutation.parallelApply(arr, perm);
+    }
+
+    /**
+     * <p>
+     * Reorders an array in place by a permutation, so that afterwards <code>arr[i]</code>
+     * holds what was at <code>arr[perm[i]]</code>. This is the form {@code argsort} returns,
+     * so the same permutation can reorder any amount of arrays alongside the sorted one.
+     * </P>
+     * <p>
+     * Every cycle of the permutation is followed once, moving each element a single time with
+     * O(1) extra memory. Visited entries are marked by temporarily flipping their bits in the
+     * permutation itself, which is restored before returning, so the permutation must not be
+     * shared with another thread during the call; see the overload taking a bitmap for that.
+     * </P>
+     *
+     * @param arr  The array to reorder
+     * @param perm The permutation, which must contain every index of the array once
+     */
+    public static <T> void applyPermutation(@NonNull T[] arr, @NonNull int[] perm) {
+        Permutation.apply(arr, perm);
+    }
+
+    /**
+     * Reorders an array in place by a permutation like {@code applyPermutation}, marking visited
+     * entries in the given bitmap instead of in the permutation. The permutation is only read,
+     * so it can be applied to several arrays from several threads at once.
+     *
+     * @param arr     The array to reorder
+     * @param perm    The permutation, which must contain every index of the array once
+     * @param visited A bitmap of at least <code>(arr.length + 63) / 64</code> words, which is overwritten
+     * @throws IllegalArgumentException If the permutation repeats an index
+     */
+    public static <T> void applyPermutation(@NonNull T[] arr, @NonNull int[] perm, @NonNull long[] visited) {
+        Permutation.apply(arr, perm, visited);
+    }
+
+    /**
+     * Gets a new array reordered by a permutation, so that <code>result[i]</code> is
+     * <code>arr[perm[i]]</code>, filling it in parallel. The given array is not modified.
+     *
+     * @param arr  The array to reorder
+     * @param perm The permutation
+     * @return A new, reordered array
+     */
+    public static <T> T[] parallelApplyPermutation(@NonNull T[] arr, @NonNull int[] perm) {
+        return Permutation.parallelApply(arr, perm);
+    }
+
+    /**
+     * Inverts a permutation: if <code>perm[i] == j</code> then <code>result[j] == i</code>.
+     * Applying the inverse undoes applying the permutation.
+     *
+     * @param perm The permutation
+     * @return A new array with the inverse permutation
+     */
+    public static int[] invertPermutation(@NonNull int[] perm) {
+        return Permutation.invert(perm);
+    }
+
+    /**
+     * Checks that an array contains every index from 0 up to its length exactly once,
+     * using a bitmap of seen indices.
+     *
+     * @param perm The array to check
+     * @return True if the array is a permutation
+     */
+    public static boolean isPermutation(@NonNull int[] perm) {
+        return Permutation.isPermutation(perm);
+    }
+
+    /**
+     * Checks if an array is sorted in ascending order, stopping at the first descent. False comes before true.
+     *
+     * @param arr The array to check
+     * @return True if every element is not less than the one before it
+     */
+    public static boolean isSorted(@NonNull boolean[] arr) {
+        return Sortedness.sortedPrefixLength(arr, false) == arr.length;
+    }
+
+    /**
+     * Checks if an array is sorted in strictly ascending order, which also means it has no duplicates. False comes before true.
+     *
+     * @param arr The array to check
+     * @return True if every element is greater than the one before it
+     */
+    public static boolean isStrictlySorted(@NonNull boolean[] arr) {
+        return Sortedness.sortedPrefixLength(arr, true) == arr.length;
+    }
+
+    /**
+     * Finds how far an array is sorted in ascending order from its start. False comes before true.
+     *
+     * @param arr The array to check
+     * @return The length of the longest sorted prefix, which is the array's length if it is all sorted
+     */
+    public static int sortedPrefixLength(@NonNull boolean[] arr) {
+        return Sortedness.sortedPrefixLength(arr, false);
+    }
+
+    /**
+     * Checks if an array is sorted in ascending order, stopping at the first descent.
+     *
+     * @param arr The array to check
+     * @return True if every element is not less than the one before it
+     */
+    public static boolean isSorted(@NonNull byte[] arr) {
+        return Sortedness.sortedPrefixLength(arr, false) == arr.length;
+    }
+
+    /**
+     * Checks if an array is sorted in strictly ascending order, which also means it has no duplicates.
+     *
+     * @param arr The array to check
+     * @return True if every element is greater than the one before it
+     */
+    public static boolean isStrictlySorted(@NonNull byte[] arr) {
+        return Sortedness.sortedPrefixLength(arr, true) == arr.length;
+    }
+
+    /**
+     * Finds how far an array is sorted in ascending order from its start.
+     *
+     * @param arr The array to check
+     * @return The length of the longest sorted prefix, which is the array's length if it is all sorted
+     */
+    public static int sortedPrefixLength(@NonNull byte[] arr) {
+        return Sortedness.sortedPrefixLength(arr, false);
+    }
+
+    /**
+     * Checks if an array is sorted in ascending order, stopping at the first descent.
+     *
+     * @param arr The array to check
+     * @return True if every element is not less than the one before it
+     */
+    public static boolean isSorted(@NonNull short[] arr) {
+        return Sortedness.sortedPrefixLength(arr, false) == arr.length;
+    }
+
+    /**
+     * Checks if an array is sorted in strictly ascending order, which also means it has no duplicates.
+     *
+     * @param arr The array to check
+     * @return True if every element is greater than the one before it
+     */
+    public static boolean isStrictlySorted(@NonNull short[] arr) {
+        return Sortedness.sortedPrefixLength(arr, true) == arr.length;
+    }
+
+    /**
+     * Finds how far an array is sorted in ascending order from its start.
+     *
+     * @param arr The array to check
+     * @return The length of the longest sorted prefix, which is the array's length if it is all sorted
+     */
+    public static int sortedPrefixLength(@NonNull short[] arr) {
+        return Sortedness.sortedPrefixLength(arr, false);
+    }
+
+    /**
+     * Checks if an array is sorted in ascending order, stopping at the first descent.
+     *
+     * @param arr The array to check
+     * @return True if every element is not less than the one before it
+     */
+    public static boolean isSorted(@NonNull char[] arr) {
+        return Sortedness.sortedPrefixLength(arr, false) == arr.length;
+    }
+
+    /**
+     * Checks if an array is sorted in strictly ascending order, which also means it has no duplicates.
+     *
+     * @param arr The array to check
+     * @return True if every element is greater than the one before it
+     */
+    public static boolean isStrictlySorted(@NonNull char[] arr) {
+        return Sortedness.sortedPrefixLength(arr, true) == arr.length;
+    }
+
+    /**
+     * Finds how far an array is sorted in ascending order from its start.
+     *
+     * @param arr The array to check
+     * @return The length of the longest sorted prefix, which is the array's length if it is all sorted
+     */
+    public static int sortedPrefixLength(@NonNull char[] arr) {
+        return Sortedness.sortedPrefixLength(arr, false);
+    }
+
+    /**
+     * Checks if an array is sorted in ascending order, stopping at the first descent.
+     *
+     * @param arr The array to check
+     * @return True if every element is not less than the one before it
+     */
+    public static boolean isSorted(@NonNull int[] arr) {
+        return Sortedness.sortedPrefixLength(arr, false) == arr.length;
+    }
+
+    /**
+     * Checks if an array is sorted in strictly ascending order, which also means it has no duplicates.
+     *
+     * @param arr The array to check
+     * @return True if every element is greater than the one before it
+     */
+    public static boolean isStrictlySorted(@NonNull int[] arr) {
+        return Sortedness.sortedPrefixLength(arr, true) == arr.length;
+    }
+
+    /**
+     * Finds how far an array is sorted in ascending order from its start.
+     *
+     * @param arr The array to check
+     * @return The length of the longest sorted prefix, which is the array's length if it is all sorted
+     */
+    public static int sortedPrefixLength(@NonNull int[] arr) {
+        return Sortedness.sortedPrefixLength(arr, false);
+    }
+
+    /**
+     * Checks if an array is sorted in ascending order, stopping at the first descent.
+     *
+     * @param arr The array to check
+     * @return True if every element is not less than the one before it
+     */
+    public static boolean isSorted(@NonNull long[] arr) {
+        return Sortedness.sortedPrefixLength(arr, false) == arr.length;
+    }
+
+    /**
+     * Checks if an array is sorted in strictly ascending order, which also means it has no duplicates.
+     *
+     * @param arr The array to check
+     * @return True if every element is greater than the one before it
+     */
+    public static boolean isStrictlySorted(@NonNull long[] arr) {
+        return Sortedness.sortedPrefixLength(arr, true) == arr.length;
+    }
+
+    /**
+     * Finds how far an array is sorted in ascending order from its start.
+     *
+     * @param arr The array to check
+     * @return The length of the longest sorted prefix, which is the array's length if it is all sorted
+     */
+    public static int sortedPrefixLength(@NonNull long[] arr) {
+        return Sortedness.sortedPrefixLength(arr, false);
+    }
+
+    /**
+     * Checks if an array is sorted in ascending order, stopping at the first descent. Elements are ordered like {@link Float#compare}, so -0.0 comes before 0.0 and NaN last.
+     *
+     * @param arr The array to check
+     * @return True if every element is not less than the one before it
+     */
+    public static boolean isSorted(@NonNull float[] arr) {
+        return Sortedness.sortedPrefixLength(arr, false) == arr.length;
+    }
+
+    /**
+     * Checks if an array is sorted in strictly ascending order, which also means it has no duplicates. Elements are ordered like {@link Float#compare}, so -0.0 comes before 0.0 and NaN last.
+     *
+     * @param arr The array to check
+     * @return True if every element is greater than the one before it
+     */
+    public static boolean isStrictlySorted(@NonNull float[] arr) {
+        return Sortedness.sortedPrefixLength(arr, true) == arr.length;
+    }
+
+    /**
+     * Finds how far an array is sorted in ascending order from its start. Elements are ordered like {@link Float#compare}, so -0.0 comes before 0.0 and NaN last.
+     *
+     * @param arr The array to check
+     * @return The length of the longest sorted prefix, which is the array's length if it is all sorted
+     */
+    public static int sortedPrefixLength(@NonNull float[] arr) {
+        return Sortedness.sortedPrefixLength(arr, false);
+    }
+
+    /**
+     * Checks if an array is sorted in ascending order, stopping at the first descent. Elements are ordered like {@link Double#compare}, so -0.0 comes before 0.0 and NaN last.
+     *
+     * @param arr The array to check
+     * @return True if every element is not less than the one before it
+     */
+    public static boolean isSorted(@NonNull double[] arr) {
+        return Sortedness.sortedPrefixLength(arr, false) == arr.length;
+    }
+
+    /**
+     * Checks if an array is sorted in strictly ascending order, which also means it has no duplicates. Elements are ordered like {@link Double#compare}, so -0.0 comes before 0.0 and NaN last.
+     *
+     * @param arr The array to check
+     * @return True if every element is greater than the one before it
+     */
+    public static boolean isStrictlySorted(@NonNull double[] arr) {
+        return Sortedness.sortedPrefixLength(arr, true) == arr.length;
+    }
+
+    /**
+     * Finds how far an array is sorted in ascending order from its start. Elements are ordered like {@link Double#compare}, so -0.0 comes before 0.0 and NaN last.
+     *
+     * @param arr The array to check
+     * @return The length of the longest sorted prefix, which is the array's length if it is all sorted
+     */
+    public static int sortedPrefixLength(@NonNull double[] arr) {
+        return Sortedness.sortedPrefixLength(arr, false);
+    }
+
+    /**
+     * Checks if an array is sorted in ascending order, stopping at the first descent.
+     *
+     * @param <T> the type parameter
+     * @param arr The array to check
+     * @return True if every element is not less than the one before it
+     */
+    public static <T extends Comparable<? super T>> boolean isSorted(@NonNull T[] arr) {
+        return Sortedness.sortedPrefixLength(arr, false) == arr.length;
+    }
+
+    /**
+     * Checks if an array is sorted in strictly ascending order, which also means it has no duplicates.
+     *
+     * @param <T> the type parameter
+     * @param arr The array to check
+     * @return True if every element is greater than the one before it
+     */
+    public static <T extends Comparable<? super T>> boolean isStrictlySorted(@NonNull T[] arr) {
+        return Sortedness.sortedPrefixLength(arr, true) == arr.length;
+    }
+
+    /**
+     * Finds how far an array is sorted in ascending order from its start.
+     *
+     * @param <T> the type parameter
+     * @param arr The array to check
+     * @return The length of the longest sorted prefix, which is the array's length if it is all sorted
+     */
+    public static <T extends Comparable<? super T>> int sortedPrefixLength(@NonNull T[] arr) {
+        return Sortedness.sortedPrefixLength(arr, false);
+    }
+
+    /**
+     * Checks if an array is sorted by a comparator, stopping at the first descent.
+     *
+     * @param <T>        the type parameter
+     * @param arr        The array to check
+     * @param comparator The order the array should be in
+     * @return True if every element is not less than the one before it
+     */
+    public static <T> boolean isSorted(@NonNull T[] arr, @NonNull Comparator<? super T> comparator) {
+        return Sortedness.sortedPrefixLength(arr, comparator, false) == arr.length;
+    }
+
+    /**
+     * Checks if an array is sorted in strictly ascending order by a comparator, which also means it has no duplicates.
+     *
+     * @param <T>        the type parameter
+     * @param arr        The array to check
+     * @param comparator The order the array should be in
+     * @return True if every element is greater than the one before it
+     */
+    public static <T> boolean isStrictlySorted(@NonNull T[] arr, @NonNull Comparator<? super T> comparator) {
+        return Sortedness.sortedPrefixLength(arr, comparator, true) == arr.length;
+    }
+
+    /**
+     * Finds how far an array is sorted by a comparator from its start.
+     *
+     * @param <T>        the type parameter
+     * @param arr        The array to check
+     * @param comparator The order the array should be in
+     * @return The length of the longest sorted prefix, which is the array's length if it is all sorted
+     */
+    public static <T> int sortedPrefixLength(@NonNull T[] arr, @NonNull Comparator<? super T> comparator) {
+        return Sortedness.sortedPrefixLength(arr, comparator, false);
+    }
+
+    /**
+     * Takes all elements from both sorted arrays and only puts 1 of each into a new sorted array,
+     * merging them in O(n + m) rather than hashing.
+     *
+     * @param arr1 The first sorted array
+     * @param arr2 The second sorted array
+     * @return The new sorted array with only 1 of each element
+     */
+    public static int[] union(@NonNull Sorted.OfInt arr1, @NonNull Sorted.OfInt arr2) {
+        return Merge.merge(new int[][]{arr1.arr, arr2.arr}, new int[2], new int[]{arr1.length(), arr2.length()}, true);
+    }
+
+    /**
+     * Gets the elements found in both sorted arrays into a new sorted array, 1 of each,
+     * galloping through the larger one rather than hashing.
+     *
+     * @param arr1 The first sorted array
+     * @param arr2 The second sorted array
+     * @return A new sorted array with only elements that are in both arrays
+     */
+    public static int[] intersection(@NonNull Sorted.OfInt arr1, @NonNull Sorted.OfInt arr2) {
+        return Merge.intersection(new int[][]{arr1.arr, arr2.arr}, new int[2], new int[]{arr1.length(), arr2.length()});
+    }
+
+    /**
+     * Returns true if the two sorted arrays have no elements in common. Both are walked together,
+     * galloping over runs of whichever is behind, and the walk stops at the first common element.
+     *
+     * @param arr1 The first sorted array
+     * @param arr2 The second sorted array
+     * @return True if both arrays have no elements in common
+     */
+    public static boolean disjoint(@NonNull Sorted.OfInt arr1, @NonNull Sorted.OfInt arr2) {
+        return Sortedness.disjoint(arr1.arr, arr2.arr);
+    }
+
+    /**
+     * Counts the appearances of the target in a sorted array with two binary searches, in O(log n).
+     *
+     * @param arr    The sorted array to search
+     * @param target The target to search for
+     * @return The amount of appearances of the target in the given array
+     */
+    public static int frequency(@NonNull Sorted.OfInt arr, int target) {
+        return Sortedness.upperBound(arr.arr, target) - Sortedness.lowerBound(arr.arr, target);
+    }
+
+    /**
+     * Finds the first occurrence of the target in a sorted array with a binary search, in O(log n).
+     *
+     * @param arr    The sorted array to find the target in
+     * @param target The target to find
+     * @return The index of the first occurrence of the target, or -1 if it doesn't exist.
+     */
+    public static int indexOf(@NonNull Sorted.OfInt arr, int target) {
+        int i = Sortedness.lowerBound(arr.arr, target);
+        return i < arr.length() && arr.arr[i] == target ? i : -1;
+    }
+
+    /**
+     * Takes all elements from both sorted arrays and only puts 1 of each into a new sorted array,
+     * merging them in O(n + m) rather than hashing.
+     *
+     * @param arr1 The first sorted array
+     * @param arr2 The second sorted array
+     * @return The new sorted array with only 1 of each element
+     */
+    public static long[] union(@NonNull Sorted.OfLong arr1, @NonNull Sorted.OfLong arr2) {
+        return Merge.merge(new long[][]{arr1.arr, arr2.arr}, new int[2], new int[]{arr1.length(), arr2.length()}, true);
+    }
+
+    /**
+     * Gets the elements found in both sorted arrays into a new sorted array, 1 of each,
+     * galloping through the larger one rather than hashing.
+     *
+     * @param arr1 The first sorted array
+     * @param arr2 The second sorted array
+     * @return A new sorted array with only elements that are in both arrays
+     */
+    public static long[] intersection(@NonNull Sorted.OfLong arr1, @NonNull Sorted.OfLong arr2) {
+        return Merge.intersection(new long[][]{arr1.arr, arr2.arr}, new int[2], new int[]{arr1.length(), arr2.length()});
+    }
+
+    /**
+     * Returns true if the two sorted arrays have no elements in common. Both are walked together,
+     * galloping over runs of whichever is behind, and the walk stops at the first common element.
+     *
+     * @param arr1 The first sorted array
+     * @param arr2 The second sorted array
+     * @return True if both arrays have no elements in common
+     */
+    public static boolean disjoint(@NonNull Sorted.OfLong arr1, @NonNull Sorted.OfLong arr2) {
+        return Sortedness.disjoint(arr1.arr, arr2.arr);
+    }
+
+    /**
+     * Counts the appearances of the target in a sorted array with two binary searches, in O(log n).
+     *
+     * @param arr    The sorted array to search
+     * @param target The target to search for
+     * @return The amount of appearances of the target in the given array
+     */
+    public static int frequency(@NonNull Sorted.OfLong arr, long target) {
+        return Sortedness.upperBound(arr.arr, target) - Sortedness.lowerBound(arr.arr, target);
+    }
+
+    /**
+     * Finds the first occurrence of the target in a sorted array with a binary search, in O(log n).
+     *
+     * @param arr    The sorted array to find the target in
+     * @param target The target to find
+     * @return The index of the first occurrence of the target, or -1 if it doesn't exist.
+     */
+    public static int indexOf(@NonNull Sorted.OfLong arr, long target) {
+        int i = Sortedness.lowerBound(arr.arr, target);
+        return i < arr.length() && arr.arr[i] == target ? i : -1;
+    }
+
+    /**
+     * <p>
+     * Sorts an array in ascending order with whichever algorithm suits its contents.
+     * One pass measures the exact span of values and how many ascending runs the array is
+     * made of, and a small sample estimates how often values repeat. Sorted and reversed
+     * arrays are only checked or reversed, narrow spans are counting sorted, a few long
+     * runs are merged, large arrays of mostly distinct values are LSD radix sorted, and
+     * the rest goes to {@link Arrays#sort}. Scratch space comes from {@link ScratchArena#local()}.
+     * </P>
+     *
+     * @param arr The array to sort
+     * @return The strategy that was chosen
+     */
+    public static SortStrategy sort(@NonNull int[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        SortStrategy strategy = AdaptiveSort.sort(arr);
+        if (probe != null)
+            probe.end("sort", "int[]", arr.length, -1, strategy.name());
+        return strategy;
+    }
+
+    /**
+     * <p>
+     * Sorts an array in ascending order with whichever algorithm suits its contents.
+     * One pass measures the exact span of values and how many ascending runs the array is
+     * made of, and a small sample estimates how often values repeat. Sorted and reversed
+     * arrays are only checked or reversed, narrow spans are counting sorted, a few long
+     * runs are merged, large arrays of mostly distinct values are LSD radix sorted, and
+     * the rest goes to {@link Arrays#sort}. Scratch space comes from {@link ScratchArena#local()}.
+     * </P>
+     *
+     * @param arr The array to sort
+     * @return The strategy that was chosen
+     */
+    public static SortStrategy sort(@NonNull long[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        SortStrategy strategy = AdaptiveSort.sort(arr);
+        if (probe != null)
+            probe.end("sort", "long[]", arr.length, -1, strategy.name());
+        return strategy;
+    }
+
+    /**
+     * <p>
+     * Sorts an array in ascending order with whichever algorithm suits its contents.
+     * One pass measures the exact span of values and whether the array is already sorted
+     * or reversed. Sorted and reversed arrays are only checked or reversed, and spans no
+     * larger than the array are counting sorted with a map from {@link ScratchArena#local()}.
+     * Anything else goes to {@link Arrays#sort}.
+     * </P>
+     *
+     * @param arr The array to sort
+     * @return The strategy that was chosen
+     */
+    public static SortStrategy sort(@NonNull short[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        SortStrategy strategy = AdaptiveSort.sort(arr);
+        if (probe != null)
+            probe.end("sort", "short[]", arr.length, -1, strategy.name());
+        return strategy;
+    }
+
+    /**
+     * <p>
+     * Sorts an array in ascending order with whichever algorithm suits its contents.
+     * One pass measures the exact span of values and whether the array is already sorted
+     * or reversed. Sorted and reversed arrays are only checked or reversed, and spans no
+     * larger than the array are counting sorted with a map from {@link ScratchArena#local()}.
+     * Anything else goes to {@link Arrays#sort}.
+     * </P>
+     *
+     * @param arr The array to sort
+     * @return The strategy that was chosen
+     */
+    public static SortStrategy sort(@NonNull char[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        SortStrategy strategy = AdaptiveSort.sort(arr);
+        if (probe != null)
+            probe.end("sort", "char[]", arr.length, -1, strategy.name());
+        return strategy;
+    }
+
+    /**
+     * <p>
+     * Sorts an array in ascending order with whichever algorithm suits its contents.
+     * One pass measures the exact span of values and whether the array is already sorted
+     * or reversed. Sorted and reversed arrays are only checked or reversed, and spans no
+     * larger than the array are counting sorted with a map from {@link ScratchArena#local()}.
+     * Anything else goes to {@link Arrays#sort}.
+     * </P>
+     *
+     * @param arr The array to sort
+     * @return The strategy that was chosen
+     */
+    public static SortStrategy sort(@NonNull byte[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        SortStrategy strategy = AdaptiveSort.sort(arr);
+        if (probe != null)
+            probe.end("sort", "byte[]", arr.length, -1, strategy.name());
+        return strategy;
+    }
+
+    /**
+     * <p>
+     * Sorts an array in ascending order with whichever algorithm suits its contents.
+     * One pass counts how many ascending runs the array is made of: sorted and reversed
+     * arrays are only checked or reversed, a few long runs are merged, and the rest goes
+     * to {@link Arrays#sort}.
+     * </P>
+     * <p>
+     * Elements are ordered like {@link Arrays#sort(float[])}, so -0.0 comes before 0.0 and NaN last.
+     * </P>
+     *
+     * @param arr The array to sort
+     * @return The strategy that was chosen
+     */
+    public static SortStrategy sort(@NonNull float[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        SortStrategy strategy = AdaptiveSort.sort(arr);
+        if (probe != null)
+            probe.end("sort", "float[]", arr.length, -1, strategy.name());
+        return strategy;
+    }
+
+    /**
+     * <p>
+     * Sorts an array in ascending order with whichever algorithm suits its contents.
+     * One pass counts how many ascending runs the array is made of: sorted and reversed
+     * arrays are only checked or reversed, a few long runs are merged, and the rest goes
+     * to {@link Arrays#sort}.
+     * </P>
+     * <p>
+     * Elements are ordered like {@link Arrays#sort(double[])}, so -0.0 comes before 0.0 and NaN last.
+     * </P>
+     *
+     * @param arr The array to sort
+     * @return The strategy that was chosen
+     */
+    public static SortStrategy sort(@NonNull double[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        SortStrategy strategy = AdaptiveSort.sort(arr);
+        if (probe != null)
+            probe.end("sort", "double[]", arr.length, -1, strategy.name());
+        return strategy;
+    }
+
+    /**
+     * <p>
+     * Sorts an array with false before true, only counting it if it is not already sorted.
+     * </P>
+     *
+     * @param arr The array to sort
+     * @return The strategy that was chosen
+     */
+    public static SortStrategy sort(@NonNull boolean[] arr) {
+        Metrics.Probe probe = Metrics.begin();
+        SortStrategy strategy = AdaptiveSort.sort(arr);
+        if (probe != null)
+            probe.end("sort", "boolean[]", arr.length, -1, strategy.name());
+        return strategy;
+    }
+
+    /**
+     * <p>
+     * Sorts an array of keys in ascending order and reorders any amount of payload arrays the
+     * same way, as if each row of keys and payloads were sorted together by its key, without
+     * boxing rows into objects. Payloads may be arrays of any primitive or object type.
+     * Rows with equal keys keep their original order.
+     * </P>
+     * <p>
+     * The sorting permutation is found with {@code argsort}, by radix sort on larger arrays,
+     * then every column is reordered in place by following the permutation's cycles.
+     * </P>
+     *
+     * @param keys     The keys to sort
+     * @param payload  An array of any element type, as long as the keys, to reorder with them
+     * @param more     More such arrays to reorder with the keys
+     * @return The permutation that was applied, so more columns can be reordered later with {@code applyPermutation}
+     * @throws IllegalArgumentException If a payload is not an array or its length differs from the keys'
+     */
+    public static int[] sortWith(@NonNull int[] keys, @NonNull Object payload, @NonNull Object... more) {
+        return CoSort.sortWith(keys, CoSort.columns(payload, more), false);
+    }
+
+    /**
+     * Sorts keys and reorders payloads with them like {@code sortWith}, which is already stable
+     * for int keys.
+     *
+     * @param keys     The keys to sort
+     * @param payload  An array of any element type, as long as the keys, to reorder with them
+     * @param more     More such arrays to reorder with the keys
+     * @return The permutation that was applied, so more columns can be reordered later with {@code applyPermutation}
+     * @throws IllegalArgumentException If a payload is not an array or its length differs from the keys'
+     */
+    public static int[] stableSortWith(@NonNull int[] keys, @NonNull Object payload, @NonNull Object... more) {
+        return CoSort.sortWith(keys, CoSort.columns(payload, more), false);
+    }
+
+    /**
+     * Sorts keys and reorders payloads with them like {@code sortWith}, using the common
+     * {@link ForkJoinPool} both to sort and to reorder the columns, one task per column.
+     * Rows with equal keys keep their original order.
+     *
+     * @param keys     The keys to sort
+     * @param payload  An array of any element type, as long as the keys, to reorder with them
+     * @param more     More such arrays to reorder with the keys
+     * @return The permutation that was applied, so more columns can be reordered later with {@code applyPermutation}
+     * @throws IllegalArgumentException If a payload is not an array or its length differs from the keys'
+     */
+    public static int[] parallelSortWith(@NonNull int[] keys, @NonNull Object payload, @NonNull Object... more) {
+        return CoSort.sortWith(keys, CoSort.columns(payload, more), true);
+    }
+
+    /**
+     * <p>
+     * Sorts an array of keys in ascending order and reorders any amount of payload arrays the
+     * same way, as if each row of keys and payloads were sorted together by its key, without
+     * boxing rows into objects. Payloads may be arrays of any primitive or object type.
+     * </P>
+     * <p>
+     * The sorting permutation is found by an introsort that swaps a copy of the keys together
+     * with their indices, then every column is reordered in place by following its cycles.
+     * Rows with equal keys may end up in any order; see {@code stableSortWith}.
+     * </P>
+     *
+     * @param keys     The keys to sort
+     * @param payload  An array of any element type, as long as the keys, to reorder with them
+     * @param more     More such arrays to reorder with the keys
+     * @return The permutation that was applied, so more columns can be reordered later with {@code applyPermutation}
+     * @throws IllegalArgumentException If a payload is not an array or its length differs from the keys'
+     */
+    public static int[] sortWith(@NonNull long[] keys, @NonNull Object payload, @NonNull Object... more) {
+        return CoSort.sortWith(keys, CoSort.columns(payload, more), false, false);
+    }
+
+    /**
+     * Sorts keys and reorders payloads with them like {@code sortWith}, but rows with equal keys
+     * keep their original order. The sorting permutation is found by LSD radix sort.
+     *
+     * @param keys     The keys to sort
+     * @param payload  An array of any element type, as long as the keys, to reorder with them
+     * @param more     More such arrays to reorder with the keys
+     * @return The permutation that was applied, so more columns can be reordered later with {@code applyPermutation}
+     * @throws IllegalArgumentException If a payload is not an array or its length differs from the keys'
+     */
+    public static int[] stableSortWith(@NonNull long[] keys, @NonNull Object payload, @NonNull Object... more) {
+        return CoSort.sortWith(keys, CoSort.columns(payload, more), true, false);
+    }
+
+    /**
+     * Sorts keys and reorders payloads with them like {@code sortWith}, using the common
+     * {@link ForkJoinPool} both to sort and to reorder the columns, one task per column.
+     * Rows with equal keys keep their original order.
+     *
+     * @param keys     The keys to sort
+     * @param payload  An array of any element type, as long as the keys, to reorder with them
+     * @param more     More such arrays to reorder with the keys
+     * @return The permutation that was applied, so more columns can be reordered later with {@code applyPermutation}
+     * @throws IllegalArgumentException If a payload is not an array or its length differs from the keys'
+     */
+    public static int[] parallelSortWith(@NonNull long[] keys, @NonNull Object payload, @NonNull Object... more) {
+        return CoSort.sortWith(keys, CoSort.columns(payload, more), true, true);
+    }
+
+    /**
+     * Takes all elements from two delta-encoded sorted arrays and only puts 1 of each into a new
+     * sorted array, merging them as they are decoded, without decoding either into an array first.
+     *
+     * @param src1 A decoder over the first encoded array
+     * @param src2 A decoder over the second encoded array
+     * @return The new sorted array with only 1 of each element
+     */
+    public static int[] union(@NonNull DeltaCodec.IntDecoder src1, @NonNull DeltaCodec.IntDecoder src2) {
+        return SetOperations.union(src1, src2);
+    }
+
+    /**
+     * Gets the elements found in both delta-encoded sorted arrays into a new sorted array, 1 of each,
+     * merging them as they are decoded, without decoding either into an array first.
+     *
+     * @param src1 A decoder over the first encoded array
+     * @param src2 A decoder over the second encoded array
+     * @return A new sorted array with only elements that are in both arrays
+     */
+    public static int[] intersection(@NonNull DeltaCodec.IntDecoder src1, @NonNull DeltaCodec.IntDecoder src2) {
+        return SetOperations.intersection(src1, src2);
+    }
+
+    /**
+     * Takes all elements from two delta-encoded sorted arrays and only puts 1 of each into a new
+     * sorted array, merging them as they are decoded, without decoding either into an array first.
+     *
+     * @param src1 A decoder over the first encoded array
+     * @param src2 A decoder over the second encoded array
+     * @return The new sorted array with only 1 of each element
+     */
+    public static long[] union(@NonNull DeltaCodec.LongDecoder src1, @NonNull DeltaCodec.LongDecoder src2) {
+        return SetOperations.union(src1, src2);
+    }
+
+    /**
+     * Gets the elements found in both delta-encoded sorted arrays into a new sorted array, 1 of each,
+     * merging them as they are decoded, without decoding either into an array first.
+     *
+     * @param src1 A decoder over the first encoded array
+     * @param src2 A decoder over the second encoded array
+     * @return A new sorted array with only elements that are in both arrays
+     */
+    public static long[] intersection(@NonNull DeltaCodec.LongDecoder src1, @NonNull DeltaCodec.LongDecoder src2) {
+        return SetOperations.intersection(src1, src2);
+    }
+
     // append?
     // prepend?
     // insert?
@@ -0,0 +1,53 @@
+package github.grovre;
+
+/**
+ * <p>
+ * A hook that is told about every instrumented call into {@link ArraysSupport}:
+ * which operation ran on which element type, how many elements it was given,
+ * how long it took and how many bytes the calling thread allocated meanwhile.
+ * </P>
+ * <p>
+ * At most one implementation is registered at a time, for the whole JVM. While none is
+ * registered an instrumented call only reads one static field and skips everything else,
+ * which the JIT reduces to a single predictable branch. Implementations are called on the
+ * thread that ran the operation, concurrently from many threads, so they must be
+ * thread-safe and should be cheap. {@link RecordingMetrics} is a ready-made one.
+ * </P>
+ */
+public interface ArraysSupportMetrics {
+
+    /**
+     * Records one finished call. Calls that throw are not recorded.
+     *
+     * @param operation      The name of the operation, such as {@code "countingSort"}
+     * @param type           The array type operated on, such as {@code "int[]"}
+     * @param length         The amount of input elements
+     * @param nanos          How long the call took, in nanoseconds
+     * @param allocatedBytes The bytes allocated by the thread during the call,
+     *                       or -1 if the JVM cannot measure it
+     */
+    void record(String operation, String type, int length, long nanos, long allocatedBytes);
+
+    /**
+     * Registers metrics for every instrumented call from now on, replacing any registered before.
+     *
+     * @param metrics The metrics to register, or null to unregister
+     */
+    static void register(final ArraysSupportMetrics metrics) {
+        Metrics.registered = metrics;
+    }
+
+    /**
+     * Stops recording instrumented calls.
+     */
+    static void unregister() {
+        Metrics.registered = null;
+    }
+
+    /**
+     * @return The registered metrics, or null if there are none
+     */
+    static ArraysSupportMetrics registered() {
+        return Metrics.registered;
+    }
+}
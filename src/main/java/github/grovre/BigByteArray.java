@@ -0,0 +1,497 @@
+package github.grovre;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * A byte array indexed by {@code long}, for data sets past the 2^31 elements a Java
+ * array can hold. The elements live in segments of a power-of-two length, so
+ * finding an element is a shift and a mask; every segment is full but the last.
+ * </P>
+ * <p>
+ * Scans, fills, copies and sorts run in parallel across the segments on the
+ * common fork/join pool. Reversing and rotating split the array into blocks of
+ * one segment's length and swap those in parallel. Shuffling and the set
+ * operations' merges are sequential.
+ * </P>
+ */
+public final class BigByteArray {
+
+    /**
+     * The segment shift of arrays created without one: 2^27 elements per segment.
+     */
+    public static final int DEFAULT_SEGMENT_SHIFT = 27;
+
+    private static final int MIN_SEGMENT_SHIFT = 4;
+    private static final int MAX_SEGMENT_SHIFT = 30;
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+    // The most bytes the per-block maps of a counting sort may take together
+    private static final long MAX_COUNTING_BYTES = 1L << 28;
+
+    private final byte[][] segments;
+    private final int shift;
+    private final int mask;
+    private final long length;
+
+    /**
+     * Creates a zeroed array with segments of 2^{@link #DEFAULT_SEGMENT_SHIFT} elements.
+     *
+     * @param length The amount of elements
+     */
+    public BigByteArray(final long length) {
+        this(length, DEFAULT_SEGMENT_SHIFT);
+    }
+
+    /**
+     * Creates a zeroed array.
+     *
+     * @param length       The amount of elements
+     * @param segmentShift The log2 of the segment length, from 4 to 30
+     */
+    public BigByteArray(final long length, final int segmentShift) {
+        if (length < 0)
+            throw new NegativeArraySizeException(Long.toString(length));
+        if (segmentShift < MIN_SEGMENT_SHIFT || segmentShift > MAX_SEGMENT_SHIFT)
+            throw new IllegalArgumentException("Segment shift " + segmentShift + " is not within ["
+                    + MIN_SEGMENT_SHIFT + ", " + MAX_SEGMENT_SHIFT + "]");
+        final long count = (length + (1L << segmentShift) - 1) >>> segmentShift;
+        if (count > MAX_ARRAY_LENGTH)
+            throw new IllegalArgumentException("Length " + length + " needs too many segments of 2^" + segmentShift);
+        this.shift = segmentShift;
+        this.mask = (1 << segmentShift) - 1;
+        this.length = length;
+        this.segments = new byte[(int) count][];
+        for (int s = 0; s < segments.length; s++)
+            segments[s] = new byte[(int) Math.min(1L << shift, length - ((long) s << shift))];
+    }
+
+    /**
+     * @param arr The array to copy
+     * @return A big array with the same elements as the given array
+     */
+    public static BigByteArray of(@NonNull final byte[] arr) {
+        return of(arr, DEFAULT_SEGMENT_SHIFT);
+    }
+
+    /**
+     * @param arr          The array to copy
+     * @param segmentShift The log2 of the segment length, from 4 to 30
+     * @return A big array with the same elements as the given array
+     */
+    public static BigByteArray of(@NonNull final byte[] arr, final int segmentShift) {
+        BigByteArray big = new BigByteArray(arr.length, segmentShift);
+        for (int s = 0; s < big.segments.length; s++)
+            System.arraycopy(arr, s << big.shift, big.segments[s], 0, big.segments[s].length);
+        return big;
+    }
+
+    /**
+     * @return The amount of elements
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * @return The log2 of the segment length
+     */
+    public int segmentShift() {
+        return shift;
+    }
+
+    /**
+     * @param index The index of the element
+     * @return The element at the index
+     */
+    public byte get(final long index) {
+        checkIndex(index);
+        return segments[(int) (index >>> shift)][(int) index & mask];
+    }
+
+    /**
+     * @param index The index of the element
+     * @param value The new element
+     */
+    public void set(final long index, final byte value) {
+        checkIndex(index);
+        segments[(int) (index >>> shift)][(int) index & mask] = value;
+    }
+
+    /**
+     * Sets every element, filling the segments in parallel.
+     *
+     * @param value The value to fill with
+     */
+    public void fill(final byte value) {
+        IntStream.range(0, segments.length).parallel().forEach(s -> Arrays.fill(segments[s], value));
+    }
+
+    /**
+     * @return A copy of this array with the same segment length, copied in parallel
+     */
+    public BigByteArray copy() {
+        return new BigByteArray(this);
+    }
+
+    private BigByteArray(final BigByteArray source) {
+        this.shift = source.shift;
+        this.mask = source.mask;
+        this.length = source.length;
+        this.segments = new byte[source.segments.length][];
+        IntStream.range(0, segments.length).parallel().forEach(s -> segments[s] = source.segments[s].clone());
+    }
+
+    /**
+     * @return The elements in a plain array
+     * @throws IllegalStateException If there are more elements than an array can hold
+     */
+    public byte[] toArray() {
+        if (length > MAX_ARRAY_LENGTH)
+            throw new IllegalStateException("Length " + length + " does not fit in an array");
+        byte[] arr = new byte[(int) length];
+        for (int s = 0; s < segments.length; s++)
+            System.arraycopy(segments[s], 0, arr, s << shift, segments[s].length);
+        return arr;
+    }
+
+    /**
+     * Finds the minimum and maximum in a single pass over each segment,
+     * with the segments scanned in parallel.
+     *
+     * @return An array with minimum and maximum, respectively
+     * @throws NoSuchElementException If the array is empty
+     */
+    public byte[] minmax() {
+        if (length == 0)
+            throw new NoSuchElementException("Empty array");
+        byte[][] perSegment = new byte[segments.length][];
+        IntStream.range(0, segments.length).parallel().forEach(s -> {
+            byte[] seg = segments[s];
+            byte min = seg[0], max = seg[0];
+            for (byte v : seg) {
+                if (v < min)
+                    min = v;
+                if (v > max)
+                    max = v;
+            }
+            perSegment[s] = new byte[]{min, max};
+        });
+        byte min = perSegment[0][0], max = perSegment[0][1];
+        for (byte[] mm : perSegment) {
+            if (mm[0] < min)
+                min = mm[0];
+            if (mm[1] > max)
+                max = mm[1];
+        }
+        return new byte[]{min, max};
+    }
+
+    /**
+     * @param target The element to count
+     * @return How many times the element occurs, counted in parallel across segments
+     */
+    public long frequency(final byte target) {
+        return IntStream.range(0, segments.length).parallel().mapToLong(s -> {
+            long count = 0;
+            for (byte v : segments[s])
+                if (v == target)
+                    count++;
+            return count;
+        }).sum();
+    }
+
+    /**
+     * @param target The element to find
+     * @return The first index of the element, or -1 if it does not occur
+     */
+    public long indexOf(final byte target) {
+        for (int s = 0; s < segments.length; s++) {
+            byte[] seg = segments[s];
+            for (int i = 0; i < seg.length; i++)
+                if (seg[i] == target)
+                    return ((long) s << shift) + i;
+        }
+        return -1;
+    }
+
+    /**
+     * @param target The element to find
+     * @return The last index of the element, or -1 if it does not occur
+     */
+    public long lastIndexOf(final byte target) {
+        for (int s = segments.length - 1; s >= 0; s--) {
+            byte[] seg = segments[s];
+            for (int i = seg.length - 1; i >= 0; i--)
+                if (seg[i] == target)
+                    return ((long) s << shift) + i;
+        }
+        return -1;
+    }
+
+    /**
+     * Reverses the whole array.
+     */
+    public void reverse() {
+        reverse(0, length);
+    }
+
+    /**
+     * Reverses part of the array, swapping blocks of one segment's length in parallel.
+     *
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to reverse up to
+     */
+    public void reverse(final long from, final long to) {
+        if (from < 0 || to > length || from > to)
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + length);
+        final long half = (to - from) >>> 1;
+        final int blocks = (int) ((half + mask) >>> shift);
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            final long lo = from + ((long) b << shift);
+            final long hi = Math.min(from + half, lo + mask + 1);
+            for (long i = lo, j = to - 1 - (lo - from); i < hi; i++, j--) {
+                byte[] si = segments[(int) (i >>> shift)], sj = segments[(int) (j >>> shift)];
+                byte tmp = si[(int) i & mask];
+                si[(int) i & mask] = sj[(int) j & mask];
+                sj[(int) j & mask] = tmp;
+            }
+        });
+    }
+
+    /**
+     * Rotates the array by reversing thrice, the same way
+     * {@link ArraysSupport#rotate(byte[], int)} does.
+     *
+     * @param distance The distance to rotate the array
+     */
+    public void rotate(final long distance) {
+        if (length <= 1)
+            return;
+        final long r = distance % length;
+        final long mid = r <= 0 ? -r : length - r;
+        if (mid == 0)
+            return;
+        reverse(0, mid);
+        reverse(mid, length);
+        reverse();
+    }
+
+    /**
+     * Shuffles the array with a Fisher-Yates shuffle over ThreadLocalRandom.
+     */
+    public void shuffle() {
+        ThreadLocalRandom tlr = ThreadLocalRandom.current();
+        for (long i = length - 1; i > 0; i--) {
+            long j = tlr.nextLong(i + 1);
+            byte[] si = segments[(int) (i >>> shift)], sj = segments[(int) (j >>> shift)];
+            byte tmp = si[(int) i & mask];
+            si[(int) i & mask] = sj[(int) j & mask];
+            sj[(int) j & mask] = tmp;
+        }
+    }
+
+    /**
+     * <p>
+     * Sorts the array in ascending order by counting every value in the range of the
+     * minimum and maximum. Groups of segments are counted in parallel into their own
+     * maps, which are then summed; the segments are then filled in parallel, each
+     * finding its first value by a binary search over the running totals.
+     * </P>
+     * <p>
+     * Fewer groups are counted at once when the maps would take more than 256 MiB together.
+     * </P>
+     *
+     * @throws IllegalArgumentException If the range of values is too wide to count
+     */
+    public void countingSort() {
+        if (length <= 1)
+            return;
+        final byte[] minmax = minmax();
+        final byte min = minmax[0];
+        final long span = (long) minmax[1] - min + 1;
+        if (span <= 0 || span > MAX_ARRAY_LENGTH)
+            throw new IllegalArgumentException("Range of " + (span <= 0 ? "more than 2^63" : span) + " values is too wide to count");
+
+        final int groups = (int) Math.max(1, Math.min(Math.min(segments.length, ForkJoinPool.getCommonPoolParallelism()),
+                MAX_COUNTING_BYTES / (span * Long.BYTES)));
+        final long[][] maps = new long[groups][];
+        IntStream.range(0, groups).parallel().forEach(g -> {
+            long[] map = new long[(int) span];
+            int end = (int) ((long) (g + 1) * segments.length / groups);
+            for (int s = (int) ((long) g * segments.length / groups); s < end; s++)
+                for (byte v : segments[s])
+                    map[v - min]++;
+            maps[g] = map;
+        });
+
+        // Running totals: ends[v] is the index just past the last copy of min + v
+        final long[] ends = maps[0];
+        for (int g = 1; g < groups; g++)
+            for (int v = 0; v < ends.length; v++)
+                ends[v] += maps[g][v];
+        for (int v = 1; v < ends.length; v++)
+            ends[v] += ends[v - 1];
+
+        IntStream.range(0, segments.length).parallel().forEach(s -> {
+            byte[] seg = segments[s];
+            final long base = (long) s << shift;
+            int v = upperBound(ends, base);
+            for (int i = 0; i < seg.length; v++) {
+                int end = (int) Math.min(seg.length, ends[v] - base);
+                Arrays.fill(seg, i, end, (byte) (min + v));
+                i = end;
+            }
+        });
+    }
+
+    /**
+     * Sorts the array in ascending order. The segments are sorted in parallel
+     * with {@link ArraysSupport#sort(byte[])}, then merged with a k-way merge
+     * into new segments; for a while the array takes twice its memory.
+     */
+    public void sort() {
+        IntStream.range(0, segments.length).parallel().forEach(s -> AdaptiveSort.sort(segments[s]));
+        if (segments.length > 1)
+            mergeSegments();
+    }
+
+    /**
+     * @param other The array to unite with
+     * @return The distinct elements of both arrays in ascending order,
+     * with this array's segment length
+     */
+    public BigByteArray union(@NonNull final BigByteArray other) {
+        return combine(other, true);
+    }
+
+    /**
+     * @param other The array to intersect with
+     * @return The distinct elements found in both arrays in ascending order,
+     * with this array's segment length
+     */
+    public BigByteArray intersection(@NonNull final BigByteArray other) {
+        return combine(other, false);
+    }
+
+    /**
+     * Sorts copies of both arrays, counts the result with a first merge
+     * and writes it with a second.
+     */
+    private BigByteArray combine(final BigByteArray other, final boolean union) {
+        BigByteArray a = copy(), b = other.copy();
+        a.sort();
+        b.sort();
+        BigByteArray result = new BigByteArray(merge(a, b, null, union), shift);
+        merge(a, b, result, union);
+        return result;
+    }
+
+    /**
+     * @param out The array to write the result to, or null to only count it
+     * @return The length of the result
+     */
+    private static long merge(final BigByteArray a, final BigByteArray b, final BigByteArray out, final boolean union) {
+        long i = 0, j = 0, count = 0;
+        byte last = 0;
+        while (union ? i < a.length || j < b.length : i < a.length && j < b.length) {
+            byte v;
+            if (j >= b.length || i < a.length && a.at(i) < b.at(j)) {
+                v = a.at(i++);
+                if (!union)
+                    continue;
+            } else if (i >= a.length || b.at(j) < a.at(i)) {
+                v = b.at(j++);
+                if (!union)
+                    continue;
+            } else {
+                v = a.at(i++);
+                j++;
+            }
+            if (count > 0 && v == last)
+                continue;
+            last = v;
+            if (out != null)
+                out.segments[(int) (count >>> out.shift)][(int) count & out.mask] = v;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Merges the sorted segments through a binary min-heap of segment numbers,
+     * ordered by the next element of each.
+     */
+    private void mergeSegments() {
+        final int k = segments.length;
+        final byte[][] out = new BigByteArray(length, shift).segments;
+        final int[] pos = new int[k];
+        final int[] heap = new int[k];
+        int size = 0;
+        for (int s = 0; s < k; s++)
+            heap[size++] = s;
+        for (int i = size / 2 - 1; i >= 0; i--)
+            siftDown(heap, i, size, pos);
+
+        int os = 0, oi = 0;
+        while (size > 0) {
+            int s = heap[0];
+            out[os][oi++] = segments[s][pos[s]++];
+            if (oi == out[os].length) {
+                os++;
+                oi = 0;
+            }
+            if (pos[s] == segments[s].length)
+                heap[0] = heap[--size];
+            siftDown(heap, 0, size, pos);
+        }
+        System.arraycopy(out, 0, segments, 0, k);
+    }
+
+    private void siftDown(final int[] heap, int i, final int size, final int[] pos) {
+        final int s = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && head(heap[child + 1], pos) < head(heap[child], pos))
+                child++;
+            if (head(s, pos) <= head(heap[child], pos))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = s;
+    }
+
+    private byte head(final int s, final int[] pos) {
+        return segments[s][pos[s]];
+    }
+
+    // The first index whose running total is past the position
+    private static int upperBound(final long[] ends, final long position) {
+        int lo = 0, hi = ends.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ends[mid] > position)
+                hi = mid;
+            else
+                lo = mid + 1;
+        }
+        return lo;
+    }
+
+    private byte at(final long index) {
+        return segments[(int) (index >>> shift)][(int) index & mask];
+    }
+
+    private void checkIndex(final long index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+    }
+}
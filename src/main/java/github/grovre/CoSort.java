@@ -0,0 +1,127 @@
+package github.grovre;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.lang.reflect.Array;
+import java.util.stream.IntStream;
+
+/**
+ * Sorting a key column together with payload columns. The sorting permutation of the keys
+ * is found once, by radix sort or a dual-array introsort of keys and indices, then every
+ * column is reordered by following the permutation's cycles, so no element is boxed and
+ * nothing but the permutation is allocated. In parallel the permutation is found with a
+ * parallel merge sort and the columns are reordered concurrently, one task per column.
+ */
+@UtilityClass
+class CoSort {
+
+    public static int[] sortWith(@NonNull final int[] keys, @NonNull final Object[] payloads, final boolean parallel) {
+        checkPayloads(keys.length, payloads);
+        int[] perm = parallel ? ArgSort.parallelArgsort(keys) : ArgSort.argsort(keys);
+        reorder(keys, payloads, perm, parallel);
+        return perm;
+    }
+
+    public static int[] sortWith(@NonNull final long[] keys, @NonNull final Object[] payloads, final boolean stable, final boolean parallel) {
+        checkPayloads(keys.length, payloads);
+        int[] perm = parallel ? ArgSort.parallelArgsort(keys) : ArgSort.argsort(keys, stable);
+        reorder(keys, payloads, perm, parallel);
+        return perm;
+    }
+
+    /**
+     * @return The first payload followed by the rest, as one array of columns
+     */
+    static Object[] columns(final Object payload, final Object[] more) {
+        Object[] payloads = new Object[more.length + 1];
+        payloads[0] = payload;
+        System.arraycopy(more, 0, payloads, 1, more.length);
+        return payloads;
+    }
+
+    private static void checkPayloads(final int length, final Object[] payloads) {
+        for (int c = 0; c < payloads.length; c++) {
+            Object payload = payloads[c];
+            if (payload == null || !payload.getClass().isArray())
+                throw new IllegalArgumentException("Payload " + c + " is not an array");
+            if (Array.getLength(payload) != length)
+                throw new IllegalArgumentException("Payload " + c + " of length " + Array.getLength(payload) + " does not match the keys of length " + length);
+        }
+    }
+
+    private static void reorder(final Object keys, final Object[] payloads, final int[] perm, final boolean parallel) {
+        if (!parallel) {
+            // The permutation is our own, so the cycles can be marked in it rather than in a bitmap
+            apply(keys, perm, null);
+            for (Object payload : payloads)
+                apply(payload, perm, null);
+            return;
+        }
+        final int words = (perm.length + 63) >>> 6;
+        IntStream.range(0, payloads.length + 1).parallel()
+                .forEach(c -> apply(c == 0 ? keys : payloads[c - 1], perm, new long[words]));
+    }
+
+    /**
+     * Reorders any array by the permutation, marking visited entries in the bitmap,
+     * or in the permutation itself if there is no bitmap.
+     */
+    private static void apply(final Object column, final int[] perm, final long[] visited) {
+        if (column instanceof int[]) {
+            int[] arr = (int[]) column;
+            if (visited == null)
+                Permutation.apply(arr, perm);
+            else
+                Permutation.apply(arr, perm, visited);
+        } else if (column instanceof long[]) {
+            long[] arr = (long[]) column;
+            if (visited == null)
+                Permutation.apply(arr, perm);
+            else
+                Permutation.apply(arr, perm, visited);
+        } else if (column instanceof double[]) {
+            double[] arr = (double[]) column;
+            if (visited == null)
+                Permutation.apply(arr, perm);
+            else
+                Permutation.apply(arr, perm, visited);
+        } else if (column instanceof float[]) {
+            float[] arr = (float[]) column;
+            if (visited == null)
+                Permutation.apply(arr, perm);
+            else
+                Permutation.apply(arr, perm, visited);
+        } else if (column instanceof short[]) {
+            short[] arr = (short[]) column;
+            if (visited == null)
+                Permutation.apply(arr, perm);
+            else
+                Permutation.apply(arr, perm, visited);
+        } else if (column instanceof byte[]) {
+            byte[] arr = (byte[]) column;
+            if (visited == null)
+                Permutation.apply(arr, perm);
+            else
+                Permutation.apply(arr, perm, visited);
+        } else if (column instanceof char[]) {
+            char[] arr = (char[]) column;
+            if (visited == null)
+                Permutation.apply(arr, perm);
+            else
+                Permutation.apply(arr, perm, visited);
+        } else if (column instanceof boolean[]) {
+            boolean[] arr = (boolean[]) column;
+            if (visited == null)
+                Permutation.apply(arr, perm);
+            else
+                Permutation.apply(arr, perm, visited);
+        } else {
+            Object[] arr = (Object[]) column;
+            if (visited == null)
+                Permutation.apply(arr, perm);
+            else
+                Permutation.apply(arr, perm, visited);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package github.grovre;
+
+import lombok.NonNull;
+
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * Encodes sorted int and long arrays compactly as the gaps between neighbouring
+ * elements, each gap written as a varint: 7 bits per byte, with the high bit set
+ * on every byte but the last. Dense sorted ids, such as posting lists or the output
+ * of {@code countingSort} and {@code union}, mostly take 1 or 2 bytes per element.
+ * </P>
+ * <p>
+ * The encoding starts with the element count as a varint, then the first element
+ * zigzag-encoded so negative values stay short, then the gaps. Sorted means ascending;
+ * duplicates are allowed and cost a zero byte each.
+ * </P>
+ * <p>
+ * The decoders stream the elements one at a time, and
+ * {@link ArraysSupport#union(IntDecoder, IntDecoder)} and
+ * {@link ArraysSupport#intersection(IntDecoder, IntDecoder)} merge two encodings
+ * straight from their decoders without decoding either into an array first.
+ * </P>
+ */
+public final class DeltaCodec {
+
+    private DeltaCodec() {
+    }
+
+    /**
+     * @param arr The array, sorted in ascending order
+     * @return The exact amount of bytes {@link #encode(int[])} writes for the array
+     * @throws IllegalArgumentException If the array is not sorted
+     */
+    public static int encodedLength(@NonNull final int[] arr) {
+        long bytes = varintLength(arr.length);
+        if (arr.length > 0)
+            bytes += varintLength(zigzag(arr[0]));
+        for (int i = 1; i < arr.length; i++)
+            bytes += varintLength(gap(arr, i));
+        return Math.toIntExact(bytes);
+    }
+
+    /**
+     * @param arr The array, sorted in ascending order
+     * @return The encoded array
+     * @throws IllegalArgumentException If the array is not sorted
+     */
+    public static byte[] encode(@NonNull final int[] arr) {
+        byte[] bytes = new byte[encodedLength(arr)];
+        encode(arr, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Writes the encoded array at the buffer's position, advancing it.
+     *
+     * @param arr The array, sorted in ascending order
+     * @param dst The buffer to write to
+     * @throws IllegalArgumentException         If the array is not sorted
+     * @throws java.nio.BufferOverflowException If the buffer runs out of room
+     */
+    public static void encode(@NonNull final int[] arr, @NonNull final ByteBuffer dst) {
+        putVarint(dst, arr.length);
+        if (arr.length > 0)
+            putVarint(dst, zigzag(arr[0]));
+        for (int i = 1; i < arr.length; i++)
+            putVarint(dst, gap(arr, i));
+    }
+
+    /**
+     * @param arr The array, sorted in ascending order
+     * @return The exact amount of bytes {@link #encode(long[])} writes for the array
+     * @throws IllegalArgumentException If the array is not sorted
+     */
+    public static int encodedLength(@NonNull final long[] arr) {
+        long bytes = varintLength(arr.length);
+        if (arr.length > 0)
+            bytes += varintLength(zigzag(arr[0]));
+        for (int i = 1; i < arr.length; i++)
+            bytes += varintLength(gap(arr, i));
+        return Math.toIntExact(bytes);
+    }
+
+    /**
+     * @param arr The array, sorted in ascending order
+     * @return The encoded array
+     * @throws IllegalArgumentException If the array is not sorted
+     */
+    public static byte[] encode(@NonNull final long[] arr) {
+        byte[] bytes = new byte[encodedLength(arr)];
+        encode(arr, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Writes the encoded array at the buffer's position, advancing it.
+     *
+     * @param arr The array, sorted in ascending order
+     * @param dst The buffer to write to
+     * @throws IllegalArgumentException         If the array is not sorted
+     * @throws java.nio.BufferOverflowException If the buffer runs out of room
+     */
+    public static void encode(@NonNull final long[] arr, @NonNull final ByteBuffer dst) {
+        putVarint(dst, arr.length);
+        if (arr.length > 0)
+            putVarint(dst, zigzag(arr[0]));
+        for (int i = 1; i < arr.length; i++)
+            putVarint(dst, gap(arr, i));
+    }
+
+    /**
+     * @param bytes An encoded int array
+     * @return The decoded array
+     */
+    public static int[] decodeInts(@NonNull final byte[] bytes) {
+        return ints(bytes).toArray();
+    }
+
+    /**
+     * @param src A buffer holding an encoded int array at its position, which is advanced past it
+     * @return The decoded array
+     */
+    public static int[] decodeInts(@NonNull final ByteBuffer src) {
+        return ints(src).toArray();
+    }
+
+    /**
+     * @param bytes An encoded long array
+     * @return The decoded array
+     */
+    public static long[] decodeLongs(@NonNull final byte[] bytes) {
+        return longs(bytes).toArray();
+    }
+
+    /**
+     * @param src A buffer holding an encoded long array at its position, which is advanced past it
+     * @return The decoded array
+     */
+    public static long[] decodeLongs(@NonNull final ByteBuffer src) {
+        return longs(src).toArray();
+    }
+
+    /**
+     * @param bytes An encoded int array
+     * @return A decoder streaming its elements
+     */
+    public static IntDecoder ints(@NonNull final byte[] bytes) {
+        return new IntDecoder(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * @param src A buffer holding an encoded int array at its position,
+     *            which the decoder advances as elements are read
+     * @return A decoder streaming its elements
+     */
+    public static IntDecoder ints(@NonNull final ByteBuffer src) {
+        return new IntDecoder(src);
+    }
+
+    /**
+     * @param bytes An encoded long array
+     * @return A decoder streaming its elements
+     */
+    public static LongDecoder longs(@NonNull final byte[] bytes) {
+        return new LongDecoder(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * @param src A buffer holding an encoded long array at its position,
+     *            which the decoder advances as elements are read
+     * @return A decoder streaming its elements
+     */
+    public static LongDecoder longs(@NonNull final ByteBuffer src) {
+        return new LongDecoder(src);
+    }
+
+    private static long gap(final int[] arr, final int i) {
+        long gap = (long) arr[i] - arr[i - 1];
+        if (gap < 0)
+            throw new IllegalArgumentException("Array is not sorted at index " + i);
+        return gap;
+    }
+
+    // The gap is unsigned, so it may use all 64 bits
+    private static long gap(final long[] arr, final int i) {
+        if (arr[i] < arr[i - 1])
+            throw new IllegalArgumentException("Array is not sorted at index " + i);
+        return arr[i] - arr[i - 1];
+    }
+
+    private static long zigzag(final long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static int varintLength(final long v) {
+        // One byte per started 7 bits, and one for zero
+        return Math.max(1, (64 - Long.numberOfLeadingZeros(v) + 6) / 7);
+    }
+
+    private static void putVarint(final ByteBuffer dst, long v) {
+        while ((v & ~0x7FL) != 0) {
+            dst.put((byte) (v | 0x80));
+            v >>>= 7;
+        }
+        dst.put((byte) v);
+    }
+
+    private static long getVarint(final ByteBuffer src) {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = src.get();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0)
+                return v;
+        }
+        throw new IllegalArgumentException("Malformed varint ending at position " + src.position());
+    }
+
+    // Every element takes at least a byte, so a count past the bytes left cannot be right
+    private static int getCount(final ByteBuffer src) {
+        long count = getVarint(src);
+        if (count < 0 || count > src.remaining())
+            throw new IllegalArgumentException("Malformed element count " + count + " with " + src.remaining() + " bytes left");
+        return (int) count;
+    }
+
+    /**
+     * Streams the elements of an encoded int array in ascending order.
+     */
+    public static final class IntDecoder {
+
+        private final ByteBuffer src;
+        private int remaining;
+        private boolean started;
+        private int last;
+
+        private IntDecoder(final ByteBuffer src) {
+            this.src = src;
+            this.remaining = getCount(src);
+        }
+
+        /**
+         * @return The amount of elements not read yet
+         */
+        public int remaining() {
+            return remaining;
+        }
+
+        /**
+         * @return True if there are elements not read yet
+         */
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        /**
+         * @return The next element
+         * @throws NoSuchElementException If every element has been read
+         */
+        public int next() {
+            if (remaining == 0)
+                throw new NoSuchElementException();
+            remaining--;
+            long v = getVarint(src);
+            if (!started) {
+                started = true;
+                v = (v >>> 1) ^ -(v & 1);
+            } else {
+                v += last;
+            }
+            if (v < Integer.MIN_VALUE || v > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Malformed element " + v + " does not fit in an int");
+            return last = (int) v;
+        }
+
+        /**
+         * @return The elements not read yet, reading them all
+         */
+        public int[] toArray() {
+            int[] arr = new int[remaining];
+            for (int i = 0; i < arr.length; i++)
+                arr[i] = next();
+            return arr;
+        }
+    }
+
+    /**
+     * Streams the elements of an encoded long array in ascending order.
+     */
+    public static final class LongDecoder {
+
+        private final ByteBuffer src;
+        private int remaining;
+        private boolean started;
+        private long last;
+
+        private LongDecoder(final ByteBuffer src) {
+            this.src = src;
+            this.remaining = getCount(src);
+        }
+
+        /**
+         * @return The amount of elements not read yet
+         */
+        public int remaining() {
+            return remaining;
+        }
+
+        /**
+         * @return True if there are elements not read yet
+         */
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        /**
+         * @return The next element
+         * @throws NoSuchElementException If every element has been read
+         */
+        public long next() {
+            if (remaining == 0)
+                throw new NoSuchElementException();
+            remaining--;
+            long v = getVarint(src);
+            if (!started) {
+                started = true;
+                return last = (v >>> 1) ^ -(v & 1);
+            }
+            return last += v;
+        }
+
+        /**
+         * @return The elements not read yet, reading them all
+         */
+        public long[] toArray() {
+            long[] arr = new long[remaining];
+            for (int i = 0; i < arr.length; i++)
+                arr[i] = next();
+            return arr;
+        }
+    }
+}
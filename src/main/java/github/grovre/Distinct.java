@@ -0,0 +1,272 @@
+package github.grovre;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Removal of repeated elements. Sorted input is compacted in a single
+ * sequential pass, dense value ranges are tracked with a bitmap and
+ * anything else goes through a primitive hash table. Apart from the sorted
+ * path, elements keep the order of their first occurrence.
+ */
+@UtilityClass
+class Distinct {
+
+    // A bitmap is used while it costs at most 64 bits per element
+    private static final int BITMAP_BITS_PER_ELEMENT_SHIFT = 6;
+
+    public static int distinctInPlace(@NonNull final int[] arr) {
+        final int n = arr.length;
+        if (n < 2)
+            return n;
+
+        // One pass decides the path: sorted input, a dense value range or neither
+        boolean sorted = true;
+        int min = arr[0], max = arr[0];
+        for (int i = 1; i < n; i++) {
+            int v = arr[i];
+            if (v < arr[i - 1])
+                sorted = false;
+            if (v < min)
+                min = v;
+            else if (v > max)
+                max = v;
+        }
+
+        int len = 0;
+        if (sorted) {
+            for (int i = 0; i < n; i++)
+                if (len == 0 || arr[len - 1] != arr[i])
+                    arr[len++] = arr[i];
+            return len;
+        }
+
+        long range = (long) max - min + 1;
+        if (range > 0 && range <= Integer.MAX_VALUE && range <= (long) n << BITMAP_BITS_PER_ELEMENT_SHIFT) {
+            long[] seen = new long[(int) ((range + 63) >>> 6)];
+            for (int i = 0; i < n; i++) {
+                int v = arr[i];
+                int bit = v - min;
+                long mask = 1L << bit;
+                if ((seen[bit >>> 6] & mask) == 0) {
+                    seen[bit >>> 6] |= mask;
+                    arr[len++] = v;
+                }
+            }
+            return len;
+        }
+
+        LongIndexTable seen = new LongIndexTable(n);
+        for (int i = 0; i < n; i++) {
+            int v = arr[i];
+            if (seen.putIfAbsent(v, 0) < 0)
+                arr[len++] = v;
+        }
+        return len;
+    }
+
+    public static int distinctInPlace(@NonNull final long[] arr) {
+        final int n = arr.length;
+        if (n < 2)
+            return n;
+
+        // One pass decides the path: sorted input, a dense value range or neither
+        boolean sorted = true;
+        long min = arr[0], max = arr[0];
+        for (int i = 1; i < n; i++) {
+            long v = arr[i];
+            if (v < arr[i - 1])
+                sorted = false;
+            if (v < min)
+                min = v;
+            else if (v > max)
+                max = v;
+        }
+
+        int len = 0;
+        if (sorted) {
+            for (int i = 0; i < n; i++)
+                if (len == 0 || arr[len - 1] != arr[i])
+                    arr[len++] = arr[i];
+            return len;
+        }
+
+        long range = max - min + 1;
+        if (range > 0 && range <= Integer.MAX_VALUE && range <= (long) n << BITMAP_BITS_PER_ELEMENT_SHIFT) {
+            long[] seen = new long[(int) ((range + 63) >>> 6)];
+            for (int i = 0; i < n; i++) {
+                long v = arr[i];
+                int bit = (int) (v - min);
+                long mask = 1L << bit;
+                if ((seen[bit >>> 6] & mask) == 0) {
+                    seen[bit >>> 6] |= mask;
+                    arr[len++] = v;
+                }
+            }
+            return len;
+        }
+
+        LongIndexTable seen = new LongIndexTable(n);
+        for (int i = 0; i < n; i++) {
+            long v = arr[i];
+            if (seen.putIfAbsent(v, 0) < 0)
+                arr[len++] = v;
+        }
+        return len;
+    }
+
+    public static int distinctInPlace(@NonNull final short[] arr) {
+        final int n = arr.length;
+        if (n < 2)
+            return n;
+
+        boolean sorted = true;
+        for (int i = 1; i < n && sorted; i++)
+            sorted = arr[i] >= arr[i - 1];
+
+        int len = 0;
+        if (sorted) {
+            for (int i = 0; i < n; i++)
+                if (len == 0 || arr[len - 1] != arr[i])
+                    arr[len++] = arr[i];
+            return len;
+        }
+
+        // The whole value range always fits a small bitmap
+        long[] seen = new long[1 << 10];
+        for (int i = 0; i < n; i++) {
+            short v = arr[i];
+            int bit = v - Short.MIN_VALUE;
+            long mask = 1L << bit;
+            if ((seen[bit >>> 6] & mask) == 0) {
+                seen[bit >>> 6] |= mask;
+                arr[len++] = v;
+            }
+        }
+        return len;
+    }
+
+    public static int distinctInPlace(@NonNull final char[] arr) {
+        final int n = arr.length;
+        if (n < 2)
+            return n;
+
+        boolean sorted = true;
+        for (int i = 1; i < n && sorted; i++)
+            sorted = arr[i] >= arr[i - 1];
+
+        int len = 0;
+        if (sorted) {
+            for (int i = 0; i < n; i++)
+                if (len == 0 || arr[len - 1] != arr[i])
+                    arr[len++] = arr[i];
+            return len;
+        }
+
+        // The whole value range always fits a small bitmap
+        long[] seen = new long[1 << 10];
+        for (int i = 0; i < n; i++) {
+            char v = arr[i];
+            int bit = v;
+            long mask = 1L << bit;
+            if ((seen[bit >>> 6] & mask) == 0) {
+                seen[bit >>> 6] |= mask;
+                arr[len++] = v;
+            }
+        }
+        return len;
+    }
+
+    public static int distinctInPlace(@NonNull final byte[] arr) {
+        final int n = arr.length;
+        if (n < 2)
+            return n;
+
+        boolean sorted = true;
+        for (int i = 1; i < n && sorted; i++)
+            sorted = arr[i] >= arr[i - 1];
+
+        int len = 0;
+        if (sorted) {
+            for (int i = 0; i < n; i++)
+                if (len == 0 || arr[len - 1] != arr[i])
+                    arr[len++] = arr[i];
+            return len;
+        }
+
+        // The whole value range always fits a small bitmap
+        long[] seen = new long[4];
+        for (int i = 0; i < n; i++) {
+            byte v = arr[i];
+            int bit = v - Byte.MIN_VALUE;
+            long mask = 1L << bit;
+            if ((seen[bit >>> 6] & mask) == 0) {
+                seen[bit >>> 6] |= mask;
+                arr[len++] = v;
+            }
+        }
+        return len;
+    }
+
+    public static int distinctInPlace(@NonNull final float[] arr) {
+        final int n = arr.length;
+        if (n < 2)
+            return n;
+
+        boolean sorted = true;
+        for (int i = 1; i < n && sorted; i++)
+            sorted = Float.compare(arr[i - 1], arr[i]) <= 0;
+
+        // Elements are the same when their bits are, like Float.equals
+        int len = 0;
+        if (sorted) {
+            for (int i = 0; i < n; i++)
+                if (len == 0 || Float.floatToIntBits(arr[len - 1]) != Float.floatToIntBits(arr[i]))
+                    arr[len++] = arr[i];
+            return len;
+        }
+
+        LongIndexTable seen = new LongIndexTable(n);
+        for (int i = 0; i < n; i++) {
+            float v = arr[i];
+            if (seen.putIfAbsent(Float.floatToIntBits(v), 0) < 0)
+                arr[len++] = v;
+        }
+        return len;
+    }
+
+    public static int distinctInPlace(@NonNull final double[] arr) {
+        final int n = arr.length;
+        if (n < 2)
+            return n;
+
+        boolean sorted = true;
+        for (int i = 1; i < n && sorted; i++)
+            sorted = Double.compare(arr[i - 1], arr[i]) <= 0;
+
+        // Elements are the same when their bits are, like Double.equals
+        int len = 0;
+        if (sorted) {
+            for (int i = 0; i < n; i++)
+                if (len == 0 || Double.doubleToLongBits(arr[len - 1]) != Double.doubleToLongBits(arr[i]))
+                    arr[len++] = arr[i];
+            return len;
+        }
+
+        LongIndexTable seen = new LongIndexTable(n);
+        for (int i = 0; i < n; i++) {
+            double v = arr[i];
+            if (seen.putIfAbsent(Double.doubleToLongBits(v), 0) < 0)
+                arr[len++] = v;
+        }
+        return len;
+    }
+
+    public static int distinctInPlace(@NonNull final boolean[] arr) {
+        int len = 0;
+        for (int i = 0; i < arr.length && len < 2; i++)
+            if (len == 0 || arr[0] != arr[i])
+                arr[len++] = arr[i];
+        return len;
+    }
+}
@@ -0,0 +1,177 @@
+package github.grovre;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * An immutable summary of floating-point values: count, sum, min, max, mean and
+ * variance, all gathered in a single pass. Values are accumulated as doubles with
+ * Kahan-compensated summation, and the variance uses Welford's algorithm so it stays
+ * accurate when the mean is large compared to the spread. Summaries of separate
+ * chunks or batches can be combined with {@link #merge(DoubleStats)} as if they had
+ * been gathered in one pass. NaN values make the sum, mean, min and max NaN.
+ * Infinite values make the sum and mean infinite, or NaN if both signs occur, and the
+ * variance NaN; a sum that overflows is infinite like a plain sum.
+ *
+ * @see ArraysSupport#stats(double[])
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class DoubleStats {
+
+    /**
+     * The summary of no values at all.
+     */
+    public static final DoubleStats EMPTY = new DoubleStats(0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0, 0, 0);
+
+    /**
+     * The amount of values.
+     */
+    long count;
+    /**
+     * The sum of the values.
+     */
+    double sum;
+    /**
+     * The smallest value, or positive infinity if there are none.
+     */
+    double min;
+    /**
+     * The largest value, or negative infinity if there are none.
+     */
+    double max;
+    /**
+     * The arithmetic mean of the values, or 0 if there are none.
+     */
+    double mean;
+    @Getter(AccessLevel.NONE)
+    double m2;
+    // The running Kahan compensation of the sum: the true sum is about sum - compensation
+    @Getter(AccessLevel.NONE)
+    double compensation;
+
+    /**
+     * @return The population variance of the values, or 0 if there are none
+     */
+    public double getVariance() {
+        return count == 0 ? 0 : m2 / count;
+    }
+
+    /**
+     * @return The sample variance of the values, with Bessel's correction, or 0 if there are fewer than 2
+     */
+    public double getSampleVariance() {
+        return count < 2 ? 0 : m2 / (count - 1);
+    }
+
+    /**
+     * @return The population standard deviation of the values
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Combines this summary with another, as if both sets of values had been
+     * summarized together. Neither summary is modified.
+     *
+     * @param other The other summary
+     * @return A new summary of both
+     */
+    public DoubleStats merge(@NonNull final DoubleStats other) {
+        if (other.count == 0)
+            return this;
+        if (count == 0)
+            return other;
+        long n = count + other.count;
+        double delta = other.mean - mean;
+        double mergedMean = mean + delta * other.count / n;
+        double mergedM2 = m2 + other.m2 + delta * delta * ((double) count * other.count / n);
+        // Adds the other sum and then its own correction, both carrying this summary's compensation
+        double s = sum, c = compensation;
+        double y = other.sum - c;
+        double t = s + y;
+        c = (t - s) - y;
+        s = t;
+        y = -other.compensation - c;
+        t = s + y;
+        c = (t - s) - y;
+        s = t;
+        if (!Double.isFinite(s)) {
+            s = sum + other.sum;
+            c = 0;
+        }
+        return summary(n, s, Math.min(min, other.min), Math.max(max, other.max), mergedMean, mergedM2, c);
+    }
+
+    static DoubleStats of(final float[] arr, final int from, final int to) {
+        LongStats.checkRange(arr.length, from, to);
+        long count = 0;
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        double sum = 0, c = 0, mean = 0, m2 = 0;
+        for (int i = from; i < to; i++) {
+            double x = arr[i];
+            count++;
+            double y = x - c;
+            double t = sum + y;
+            if (Double.isFinite(t)) {
+                c = (t - sum) - y;
+                sum = t;
+            } else {
+                // The compensation of an infinite sum is NaN, so from here on the sum is plain
+                sum += x;
+                c = 0;
+            }
+            min = Math.min(min, x);
+            max = Math.max(max, x);
+            double delta = x - mean;
+            mean += delta / count;
+            m2 += delta * (x - mean);
+        }
+        return summary(count, sum, min, max, mean, m2, c);
+    }
+
+    static DoubleStats of(final double[] arr, final int from, final int to) {
+        LongStats.checkRange(arr.length, from, to);
+        long count = 0;
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        double sum = 0, c = 0, mean = 0, m2 = 0;
+        for (int i = from; i < to; i++) {
+            double x = arr[i];
+            count++;
+            double y = x - c;
+            double t = sum + y;
+            if (Double.isFinite(t)) {
+                c = (t - sum) - y;
+                sum = t;
+            } else {
+                // The compensation of an infinite sum is NaN, so from here on the sum is plain
+                sum += x;
+                c = 0;
+            }
+            min = Math.min(min, x);
+            max = Math.max(max, x);
+            double delta = x - mean;
+            mean += delta / count;
+            m2 += delta * (x - mean);
+        }
+        return summary(count, sum, min, max, mean, m2, c);
+    }
+
+    /**
+     * Welford's update turns infinite values into NaN, so when there are any the mean is
+     * set to the infinity they share, or NaN if both signs occur, and the variance to NaN.
+     */
+    private static DoubleStats summary(final long count, final double sum, final double min, final double max,
+                                       double mean, double m2, final double compensation) {
+        if (min == Double.NEGATIVE_INFINITY || max == Double.POSITIVE_INFINITY) {
+            mean = (min == Double.NEGATIVE_INFINITY ? Double.NEGATIVE_INFINITY : 0)
+                    + (max == Double.POSITIVE_INFINITY ? Double.POSITIVE_INFINITY : 0);
+            m2 = Double.NaN;
+        }
+        return new DoubleStats(count, sum, min, max, mean, m2, compensation);
+    }
+}
@@ -0,0 +1,574 @@
+package github.grovre;
+
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ * Sorts binary files of int or long values that are too large to sort in memory.
+ * The input is read in chunks of at most half the memory budget; each chunk is sorted
+ * with {@link ArraysSupport#sort(int[])}, which counts or radix sorts whenever the values
+ * allow, and written to a temporary run file. Those sorts may borrow a second buffer, of
+ * values or of counts, no longer than the chunk, so the chunk and that buffer together stay
+ * within the budget; only small buffers for radix digits, run bounds and I/O come on top.
+ * The runs are then merged k at a time through buffered direct-buffer reads into the
+ * output. A file that fits in one chunk is sorted in memory and never touches a run file.
+ * </P>
+ * <p>
+ * A sorter is immutable: each setting returns a new sorter, so one configured sorter
+ * can be shared. Runs can be generated by several threads at once, each with its own
+ * share of the budget, and can optionally drop repeated values, in which case the
+ * merge drops repeats across runs too. Runs go to the output's directory unless
+ * another is set, and are deleted once merged.
+ * </P>
+ */
+public final class ExternalSort {
+
+    /**
+     * The memory budget of sorters created without one, in bytes.
+     */
+    public static final long DEFAULT_MEMORY_BYTES = 256L << 20;
+
+    private static final long MIN_MEMORY_BYTES = 1L << 12;
+    private static final int MAX_CHUNK_LENGTH = 1 << 30;
+    // Runs merged at once; past this, runs are merged in groups over more passes
+    private static final int MAX_FAN_IN = 512;
+    private static final int MIN_BUFFER_BYTES = 1 << 12;
+    private static final int MAX_BUFFER_BYTES = 1 << 20;
+
+    private final long memoryBytes;
+    private final boolean distinct;
+    private final int parallelism;
+    private final Path tempDirectory;
+    private final ByteOrder order;
+
+    /**
+     * Creates a sequential sorter of big-endian values that keeps repeats,
+     * with a budget of {@link #DEFAULT_MEMORY_BYTES}.
+     */
+    public ExternalSort() {
+        this(DEFAULT_MEMORY_BYTES, false, 1, null, ByteOrder.BIG_ENDIAN);
+    }
+
+    private ExternalSort(final long memoryBytes, final boolean distinct, final int parallelism,
+                         final Path tempDirectory, final ByteOrder order) {
+        this.memoryBytes = memoryBytes;
+        this.distinct = distinct;
+        this.parallelism = parallelism;
+        this.tempDirectory = tempDirectory;
+        this.order = order;
+    }
+
+    /**
+     * @param bytes The most bytes of values and sorting buffers to hold in memory at once,
+     *              shared by the threads generating runs, and the budget for the merge's buffers
+     * @return A sorter with the given budget
+     */
+    public ExternalSort memory(final long bytes) {
+        if (bytes < MIN_MEMORY_BYTES)
+            throw new IllegalArgumentException("Memory budget " + bytes + " is below " + MIN_MEMORY_BYTES + " bytes");
+        return new ExternalSort(bytes, distinct, parallelism, tempDirectory, order);
+    }
+
+    /**
+     * @param distinct True to write only 1 of each value
+     * @return A sorter that does or does not drop repeated values
+     */
+    public ExternalSort distinct(final boolean distinct) {
+        return new ExternalSort(memoryBytes, distinct, parallelism, tempDirectory, order);
+    }
+
+    /**
+     * @param threads The amount of threads reading, sorting and writing runs at once
+     * @return A sorter generating runs with the given amount of threads
+     */
+    public ExternalSort parallelism(final int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Parallelism " + threads + " is below 1");
+        return new ExternalSort(memoryBytes, distinct, threads, tempDirectory, order);
+    }
+
+    /**
+     * @param directory The directory to write runs to
+     * @return A sorter writing its runs to the given directory
+     */
+    public ExternalSort tempDirectory(@NonNull final Path directory) {
+        return new ExternalSort(memoryBytes, distinct, parallelism, directory, order);
+    }
+
+    /**
+     * @param order The byte order of the values in the input, the output and the runs
+     * @return A sorter reading and writing values in the given byte order
+     */
+    public ExternalSort order(@NonNull final ByteOrder order) {
+        return new ExternalSort(memoryBytes, distinct, parallelism, tempDirectory, order);
+    }
+
+    /**
+     * Sorts a file of int values into another file, which is created or truncated.
+     * The output may be the input file itself.
+     *
+     * @param input  The file to sort, a whole number of int values in this sorter's byte order
+     * @param output The file to write the sorted values to
+     * @return The amount of values written, which is fewer than read only when deduplicating
+     * @throws IllegalArgumentException If the input is not a whole number of int values
+     * @throws IOException              If reading or writing a file fails
+     */
+    public long sortInts(@NonNull final Path input, @NonNull final Path output) throws IOException {
+        final long n = length(input, Integer.BYTES);
+        final int chunk = chunkLength(n, Integer.BYTES);
+        final Path[] runs = new Path[runCount(n, chunk)];
+        final List<Path> temps = Collections.synchronizedList(new ArrayList<>());
+        try {
+            if (runs.length <= 1) {
+                int[] arr = new int[(int) n];
+                try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+                    ArrayIO.read(in, arr, order);
+                }
+                int len = sortRun(arr);
+                try (FileChannel out = create(output)) {
+                    ArrayIO.write(arr, 0, len, out, order);
+                }
+                return len;
+            }
+
+            final int workers = Math.min(parallelism, runs.length);
+            forEachWorker(workers, w -> {
+                int[] buf = new int[chunk];
+                try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+                    for (int r = w; r < runs.length; r += workers) {
+                        long from = (long) r * chunk;
+                        // Only the last run may be short
+                        if (n - from < chunk)
+                            buf = new int[(int) (n - from)];
+                        in.position(from * Integer.BYTES);
+                        ArrayIO.read(in, buf, order);
+                        int len = sortRun(buf);
+                        runs[r] = tempFile(output, temps);
+                        try (FileChannel out = create(runs[r])) {
+                            ArrayIO.write(buf, 0, len, out, order);
+                        }
+                    }
+                }
+            });
+
+            List<Path> level = Arrays.asList(runs);
+            while (level.size() > MAX_FAN_IN) {
+                List<Path> next = new ArrayList<>();
+                for (int i = 0; i < level.size(); i += MAX_FAN_IN) {
+                    List<Path> group = level.subList(i, Math.min(level.size(), i + MAX_FAN_IN));
+                    Path merged = tempFile(output, temps);
+                    mergeInts(group, merged);
+                    for (Path run : group)
+                        Files.delete(run);
+                    next.add(merged);
+                }
+                level = next;
+            }
+            return mergeInts(level, output);
+        } finally {
+            for (Path temp : temps)
+                Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Sorts a run with {@link ArraysSupport#sort(int[])}, which counts or radix sorts
+     * whenever the values allow, then drops repeats in place if deduplicating.
+     *
+     * @return The length of the run to write
+     */
+    private int sortRun(final int[] run) {
+        AdaptiveSort.sort(run);
+        if (!distinct)
+            return run.length;
+        int count = 0;
+        for (int i = 0; i < run.length; i++)
+            if (count == 0 || run[count - 1] != run[i])
+                run[count++] = run[i];
+        return count;
+    }
+
+    /**
+     * Merges sorted runs through a binary min-heap of readers, ordered by their heads.
+     */
+    private long mergeInts(final List<Path> runs, final Path output) throws IOException {
+        final int k = runs.size();
+        final int bufferBytes = bufferBytes(k);
+        final IntRunReader[] readers = new IntRunReader[k];
+        try (FileChannel out = create(output)) {
+            final int[] heap = new int[k];
+            int size = 0;
+            for (int r = 0; r < k; r++) {
+                readers[r] = new IntRunReader(runs.get(r), bufferBytes, order);
+                if (readers[r].advance())
+                    heap[size++] = r;
+            }
+            for (int i = size / 2 - 1; i >= 0; i--)
+                siftDown(heap, i, size, readers);
+
+            final ByteBuffer buf = ByteBuffer.allocateDirect(bufferBytes).order(order);
+            long count = 0;
+            int last = 0;
+            while (size > 0) {
+                IntRunReader reader = readers[heap[0]];
+                int v = reader.head;
+                if (!distinct || count == 0 || v != last) {
+                    if (buf.remaining() < Integer.BYTES)
+                        drain(out, buf);
+                    buf.putInt(v);
+                    last = v;
+                    count++;
+                }
+                if (!reader.advance())
+                    heap[0] = heap[--size];
+                siftDown(heap, 0, size, readers);
+            }
+            drain(out, buf);
+            return count;
+        } finally {
+            for (IntRunReader reader : readers)
+                if (reader != null)
+                    reader.close();
+        }
+    }
+
+    private static void siftDown(final int[] heap, int i, final int size, final IntRunReader[] readers) {
+        final int r = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && readers[heap[child + 1]].head < readers[heap[child]].head)
+                child++;
+            if (readers[r].head <= readers[heap[child]].head)
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = r;
+    }
+
+    /**
+     * Reads a sorted run through a direct buffer, refilled a buffer at a time.
+     */
+    private static final class IntRunReader implements Closeable {
+
+        private final FileChannel ch;
+        private final ByteBuffer buf;
+        private int head;
+
+        private IntRunReader(final Path run, final int bufferBytes, final ByteOrder order) throws IOException {
+            this.ch = FileChannel.open(run, StandardOpenOption.READ);
+            this.buf = ByteBuffer.allocateDirect(bufferBytes).order(order);
+            ArrayIO.limit(buf, 0);
+        }
+
+        /**
+         * @return True if the next value was read into the head, false if the run is done
+         */
+        private boolean advance() throws IOException {
+            if (buf.remaining() < Integer.BYTES && !fill(ch, buf, Integer.BYTES))
+                return false;
+            head = buf.getInt();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            ch.close();
+        }
+    }
+
+    /**
+     * Sorts a file of long values into another file, which is created or truncated.
+     * The output may be the input file itself.
+     *
+     * @param input  The file to sort, a whole number of long values in this sorter's byte order
+     * @param output The file to write the sorted values to
+     * @return The amount of values written, which is fewer than read only when deduplicating
+     * @throws IllegalArgumentException If the input is not a whole number of long values
+     * @throws IOException              If reading or writing a file fails
+     */
+    public long sortLongs(@NonNull final Path input, @NonNull final Path output) throws IOException {
+        final long n = length(input, Long.BYTES);
+        final int chunk = chunkLength(n, Long.BYTES);
+        final Path[] runs = new Path[runCount(n, chunk)];
+        final List<Path> temps = Collections.synchronizedList(new ArrayList<>());
+        try {
+            if (runs.length <= 1) {
+                long[] arr = new long[(int) n];
+                try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+                    ArrayIO.read(in, arr, order);
+                }
+                int len = sortRun(arr);
+                try (FileChannel out = create(output)) {
+                    ArrayIO.write(arr, 0, len, out, order);
+                }
+                return len;
+            }
+
+            final int workers = Math.min(parallelism, runs.length);
+            forEachWorker(workers, w -> {
+                long[] buf = new long[chunk];
+                try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+                    for (int r = w; r < runs.length; r += workers) {
+                        long from = (long) r * chunk;
+                        // Only the last run may be short
+                        if (n - from < chunk)
+                            buf = new long[(int) (n - from)];
+                        in.position(from * Long.BYTES);
+                        ArrayIO.read(in, buf, order);
+                        int len = sortRun(buf);
+                        runs[r] = tempFile(output, temps);
+                        try (FileChannel out = create(runs[r])) {
+                            ArrayIO.write(buf, 0, len, out, order);
+                        }
+                    }
+                }
+            });
+
+            List<Path> level = Arrays.asList(runs);
+            while (level.size() > MAX_FAN_IN) {
+                List<Path> next = new ArrayList<>();
+                for (int i = 0; i < level.size(); i += MAX_FAN_IN) {
+                    List<Path> group = level.subList(i, Math.min(level.size(), i + MAX_FAN_IN));
+                    Path merged = tempFile(output, temps);
+                    mergeLongs(group, merged);
+                    for (Path run : group)
+                        Files.delete(run);
+                    next.add(merged);
+                }
+                level = next;
+            }
+            return mergeLongs(level, output);
+        } finally {
+            for (Path temp : temps)
+                Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Sorts a run with {@link ArraysSupport#sort(long[])}, which counts or radix sorts
+     * whenever the values allow, then drops repeats in place if deduplicating.
+     *
+     * @return The length of the run to write
+     */
+    private int sortRun(final long[] run) {
+        AdaptiveSort.sort(run);
+        if (!distinct)
+            return run.length;
+        int count = 0;
+        for (int i = 0; i < run.length; i++)
+            if (count == 0 || run[count - 1] != run[i])
+                run[count++] = run[i];
+        return count;
+    }
+
+    /**
+     * Merges sorted runs through a binary min-heap of readers, ordered by their heads.
+     */
+    private long mergeLongs(final List<Path> runs, final Path output) throws IOException {
+        final int k = runs.size();
+        final int bufferBytes = bufferBytes(k);
+        final LongRunReader[] readers = new LongRunReader[k];
+        try (FileChannel out = create(output)) {
+            final int[] heap = new int[k];
+            int size = 0;
+            for (int r = 0; r < k; r++) {
+                readers[r] = new LongRunReader(runs.get(r), bufferBytes, order);
+                if (readers[r].advance())
+                    heap[size++] = r;
+            }
+            for (int i = size / 2 - 1; i >= 0; i--)
+                siftDown(heap, i, size, readers);
+
+            final ByteBuffer buf = ByteBuffer.allocateDirect(bufferBytes).order(order);
+            long count = 0;
+            long last = 0;
+            while (size > 0) {
+                LongRunReader reader = readers[heap[0]];
+                long v = reader.head;
+                if (!distinct || count == 0 || v != last) {
+                    if (buf.remaining() < Long.BYTES)
+                        drain(out, buf);
+                    buf.putLong(v);
+                    last = v;
+                    count++;
+                }
+                if (!reader.advance())
+                    heap[0] = heap[--size];
+                siftDown(heap, 0, size, readers);
+            }
+            drain(out, buf);
+            return count;
+        } finally {
+            for (LongRunReader reader : readers)
+                if (reader != null)
+                    reader.close();
+        }
+    }
+
+    private static void siftDown(final int[] heap, int i, final int size, final LongRunReader[] readers) {
+        final int r = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && readers[heap[child + 1]].head < readers[heap[child]].head)
+                child++;
+            if (readers[r].head <= readers[heap[child]].head)
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = r;
+    }
+
+    /**
+     * Reads a sorted run through a direct buffer, refilled a buffer at a time.
+     */
+    private static final class LongRunReader implements Closeable {
+
+        private final FileChannel ch;
+        private final ByteBuffer buf;
+        private long head;
+
+        private LongRunReader(final Path run, final int bufferBytes, final ByteOrder order) throws IOException {
+            this.ch = FileChannel.open(run, StandardOpenOption.READ);
+            this.buf = ByteBuffer.allocateDirect(bufferBytes).order(order);
+            ArrayIO.limit(buf, 0);
+        }
+
+        /**
+         * @return True if the next value was read into the head, false if the run is done
+         */
+        private boolean advance() throws IOException {
+            if (buf.remaining() < Long.BYTES && !fill(ch, buf, Long.BYTES))
+                return false;
+            head = buf.getLong();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            ch.close();
+        }
+    }
+
+    private static long length(final Path input, final int size) throws IOException {
+        long bytes = Files.size(input);
+        if (bytes % size != 0)
+            throw new IllegalArgumentException("File of " + bytes + " bytes is not a whole number of " + size + "-byte values");
+        return bytes / size;
+    }
+
+    // Each thread generating runs gets an equal share of the budget, half for its chunk and half for
+    // the buffer sorting the chunk may borrow. The chunk is a power of two, since the scratch arena
+    // rounds what it hands out up to one, so the borrowed buffer is never longer than the chunk
+    private int chunkLength(final long n, final int size) {
+        long half = Math.max(1, memoryBytes / parallelism / size / 2);
+        return (int) Math.max(1, Math.min(n, Long.highestOneBit(Math.min(half, MAX_CHUNK_LENGTH))));
+    }
+
+    private static int runCount(final long n, final int chunk) {
+        return Math.toIntExact((n + chunk - 1) / chunk);
+    }
+
+    // Every run's reader and the output get an equal share of the budget, in whole longs
+    private int bufferBytes(final int runs) {
+        long share = memoryBytes / (runs + 1) & ~7L;
+        return (int) Math.max(MIN_BUFFER_BYTES, Math.min(MAX_BUFFER_BYTES, share));
+    }
+
+    private Path tempFile(final Path output, final List<Path> temps) throws IOException {
+        Path parent = output.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(tempDirectory != null ? tempDirectory : parent, "run", ".bin");
+        temps.add(temp);
+        return temp;
+    }
+
+    private static FileChannel create(final Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static void drain(final FileChannel out, final ByteBuffer buf) throws IOException {
+        ArrayIO.flip(buf);
+        while (buf.hasRemaining())
+            out.write(buf);
+        ArrayIO.clear(buf);
+    }
+
+    /**
+     * Moves what is left in the buffer to its front and reads until the buffer is full or the file ends.
+     *
+     * @return True if the buffer holds at least one whole value
+     */
+    private static boolean fill(final FileChannel ch, final ByteBuffer buf, final int size) throws IOException {
+        buf.compact();
+        while (buf.hasRemaining())
+            if (ch.read(buf) < 0)
+                break;
+        ArrayIO.flip(buf);
+        return buf.remaining() >= size;
+    }
+
+    /**
+     * Runs the body once per worker, on a thread of its own unless there is only one.
+     */
+    private static void forEachWorker(final int workers, final Worker body) throws IOException {
+        if (workers == 1) {
+            body.run(0);
+            return;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int w = 0; w < workers; w++) {
+                final int worker = w;
+                futures.add(pool.submit(() -> {
+                    body.run(worker);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while generating runs");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IOException(cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Worker {
+        void run(int worker) throws IOException;
+    }
+}
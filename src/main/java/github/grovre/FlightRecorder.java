@@ -0,0 +1,27 @@
+package github.grovre;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * JDK Flight Recorder hooks for instrumented calls. This is the Java 8 version, where
+ * there is no Flight Recorder API, so nothing is recorded and {@link #begin()} always
+ * returns null. The multi-release layer in <code>META-INF/versions/11</code> replaces
+ * this class with one that emits {@code github.grovre.Operation} events.
+ */
+@UtilityClass
+class FlightRecorder {
+
+    /**
+     * @return A started event, or null if nothing would be recorded
+     */
+    static Object begin() {
+        return null;
+    }
+
+    /**
+     * Commits a started event if the call was slow enough or allocated enough.
+     */
+    static void end(final Object event, final String operation, final String type, final int length,
+                    final long range, final String strategy, final long nanos, final long scratchBytes) {
+    }
+}
@@ -0,0 +1,33 @@
+package github.grovre;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+@UtilityClass
+class Generate {
+
+    // Fixed so that the elements drawn from each split generator never depend on the machine
+    static final int RANDOM_CHUNK_SIZE = 1 << 16;
+
+    interface ChunkBody {
+        void fill(SplittableRandom random, int from, int to);
+    }
+
+    /**
+     * Splits the generator once per chunk, in chunk order, then fills the chunks in parallel.
+     */
+    static void parallelChunks(final int len, final SplittableRandom random, final ChunkBody body) {
+        if (len < 0)
+            throw new NegativeArraySizeException(Integer.toString(len));
+        int chunks = (int) (((long) len + RANDOM_CHUNK_SIZE - 1) / RANDOM_CHUNK_SIZE);
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++)
+            randoms[c] = random.split();
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int from = c * RANDOM_CHUNK_SIZE;
+            body.fill(randoms[c], from, (int) Math.min(len, (long) from + RANDOM_CHUNK_SIZE));
+        });
+    }
+}
@@ -0,0 +1,546 @@
+package github.grovre;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * <p>
+ * A lightweight, zero-copy view over int arrays. Slicing, reversing, rotating,
+ * concatenating and mapping a view only wraps it in O(1) and never copies
+ * an element; the elements are only read (or written) through the view when asked for.
+ * </P>
+ * <p>
+ * Writes through a view go to the backing array, except through mapped views,
+ * which are read-only. Bulk reads and the searching and summarizing operations
+ * copy the elements out in chunks, where whole runs of a backing array are copied
+ * with {@link System#arraycopy}, so they do not pay a virtual call per element.
+ * Materializing a view into its own array is only done by {@link #toArray()}.
+ * </P>
+ */
+public abstract class IntArrayView {
+
+    // Elements copied out per chunk by the bulk operations, small enough to stay in L1
+    private static final int CHUNK = 1 << 10;
+
+    IntArrayView() {
+    }
+
+    /**
+     * @param arr The array to view
+     * @return A view over the whole array
+     */
+    public static IntArrayView of(@NonNull final int[] arr) {
+        return new Backed(arr, 0, arr.length);
+    }
+
+    /**
+     * @param arr  The array to view
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to view up to
+     * @return A view over the given part of the array
+     */
+    public static IntArrayView of(@NonNull final int[] arr, final int from, final int to) {
+        checkRange(arr.length, from, to);
+        return new Backed(arr, from, to - from);
+    }
+
+    /**
+     * @param views The views to put one after another
+     * @return A view over every element of the given views, in order
+     */
+    public static IntArrayView concat(@NonNull final IntArrayView... views) {
+        if (views.length == 1)
+            return views[0];
+        return new Concat(views.clone());
+    }
+
+    /**
+     * @return The amount of elements in this view
+     */
+    public abstract int length();
+
+    /**
+     * @param i The index within this view
+     * @return The element at the index
+     */
+    public abstract int get(int i);
+
+    /**
+     * Writes an element through to the backing array.
+     *
+     * @param i The index within this view
+     * @param v The new element
+     * @throws UnsupportedOperationException If this view is mapped
+     */
+    public abstract void set(int i, int v);
+
+    /**
+     * Copies part of this view into an array. Subclasses copy whole runs of their
+     * backing arrays at once.
+     */
+    abstract void copyRange(int from, int to, int[] dst, int dstPos);
+
+    /**
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to view up to
+     * @return A view over part of this view
+     */
+    public IntArrayView slice(final int from, final int to) {
+        checkRange(length(), from, to);
+        return new Slice(this, from, to - from);
+    }
+
+    /**
+     * @return A view of this view's elements in reverse order
+     */
+    public IntArrayView reversed() {
+        return new Reversed(this);
+    }
+
+    /**
+     * Views the elements rotated the same way {@link ArraysSupport#rotate(int[], int)}
+     * would move them: the element at index i is seen at <code>(i + distance) % length</code>.
+     *
+     * @param distance The distance to rotate by, which may be negative
+     * @return A rotated view of this view
+     */
+    public IntArrayView rotated(final int distance) {
+        int n = length();
+        if (n == 0)
+            return this;
+        int shift = distance % n;
+        if (shift < 0)
+            shift += n;
+        return shift == 0 ? this : new Rotated(this, shift);
+    }
+
+    /**
+     * Views every element through an operator, applied each time it is read.
+     * The mapped view is read-only.
+     *
+     * @param op The operator to apply
+     * @return A read-only mapped view of this view
+     */
+    public IntArrayView mapped(@NonNull final IntUnaryOperator op) {
+        return new Mapped(this, op);
+    }
+
+    /**
+     * Copies every element of this view into an array.
+     *
+     * @param dst    The array to copy into
+     * @param dstPos The index in the array to start at
+     */
+    public void copyTo(@NonNull final int[] dst, final int dstPos) {
+        checkRange(dst.length, dstPos, dstPos + length());
+        copyRange(0, length(), dst, dstPos);
+    }
+
+    /**
+     * @return A new array with every element of this view
+     */
+    public int[] toArray() {
+        int[] arr = new int[length()];
+        copyRange(0, arr.length, arr, 0);
+        return arr;
+    }
+
+    /**
+     * @return The smallest element
+     * @throws ArrayIndexOutOfBoundsException If the view is empty
+     */
+    public int min() {
+        return minmax()[0];
+    }
+
+    /**
+     * @return The largest element
+     * @throws ArrayIndexOutOfBoundsException If the view is empty
+     */
+    public int max() {
+        return minmax()[1];
+    }
+
+    /**
+     * Finds the minimum and maximum in a single pass.
+     *
+     * @return A sorted array with minimum and maximum, respectively.
+     * @throws ArrayIndexOutOfBoundsException If the view is empty
+     */
+    public int[] minmax() {
+        final int n = length();
+        if (n == 0)
+            throw new ArrayIndexOutOfBoundsException("Empty view");
+        int[] buf = new int[Math.min(CHUNK, n)];
+        int min = get(0), max = min;
+        for (int from = 0; from < n; from += buf.length) {
+            int len = Math.min(buf.length, n - from);
+            copyRange(from, from + len, buf, 0);
+            for (int i = 0; i < len; i++) {
+                min = Math.min(min, buf[i]);
+                max = Math.max(max, buf[i]);
+            }
+        }
+        return new int[]{min, max};
+    }
+
+    /**
+     * @param target The target to search for
+     * @return The amount of appearances of the target in this view
+     */
+    public int frequency(final int target) {
+        final int n = length();
+        int[] buf = new int[Math.min(CHUNK, n)];
+        int count = 0;
+        for (int from = 0; from < n; from += buf.length) {
+            int len = Math.min(buf.length, n - from);
+            copyRange(from, from + len, buf, 0);
+            for (int i = 0; i < len; i++)
+                if (buf[i] == target)
+                    count++;
+        }
+        return count;
+    }
+
+    /**
+     * @param target The target to find
+     * @return The index of the first occurrence of the target, or -1 if it doesn't exist.
+     */
+    public int indexOf(final int target) {
+        final int n = length();
+        int[] buf = new int[Math.min(CHUNK, n)];
+        for (int from = 0; from < n; from += buf.length) {
+            int len = Math.min(buf.length, n - from);
+            copyRange(from, from + len, buf, 0);
+            for (int i = 0; i < len; i++)
+                if (buf[i] == target)
+                    return from + i;
+        }
+        return -1;
+    }
+
+    /**
+     * @param target The target to find
+     * @return The index of the last occurrence of the target, or -1 if it doesn't exist.
+     */
+    public int lastIndexOf(final int target) {
+        final int n = length();
+        int[] buf = new int[Math.min(CHUNK, n)];
+        for (int to = n; to > 0; to -= buf.length) {
+            int from = Math.max(0, to - buf.length);
+            copyRange(from, to, buf, 0);
+            for (int i = to - from - 1; i >= 0; i--)
+                if (buf[i] == target)
+                    return from + i;
+        }
+        return -1;
+    }
+
+    /**
+     * @param target The target to find
+     * @return True if the target is in this view
+     */
+    public boolean contains(final int target) {
+        return indexOf(target) >= 0;
+    }
+
+    /**
+     * Summarizes this view in a single pass, like {@link ArraysSupport#stats(int[])}.
+     *
+     * @return The summary of this view
+     */
+    public LongStats stats() {
+        final int n = length();
+        int[] buf = new int[Math.min(CHUNK, n)];
+        LongStats stats = LongStats.EMPTY;
+        for (int from = 0; from < n; from += buf.length) {
+            int len = Math.min(buf.length, n - from);
+            copyRange(from, from + len, buf, 0);
+            stats = stats.merge(LongStats.of(buf, 0, len));
+        }
+        return stats;
+    }
+
+    static void checkRange(final int length, final int from, final int to) {
+        if (from < 0 || to > length || from > to)
+            throw new ArrayIndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + length);
+    }
+
+    private static final class Backed extends IntArrayView {
+
+        private final int[] arr;
+        private final int offset, length;
+
+        Backed(final int[] arr, final int offset, final int length) {
+            this.arr = arr;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public int get(final int i) {
+            checkIndex(i, length);
+            return arr[offset + i];
+        }
+
+        @Override
+        public void set(final int i, final int v) {
+            checkIndex(i, length);
+            arr[offset + i] = v;
+        }
+
+        @Override
+        void copyRange(final int from, final int to, final int[] dst, final int dstPos) {
+            System.arraycopy(arr, offset + from, dst, dstPos, to - from);
+        }
+
+        @Override
+        public IntArrayView slice(final int from, final int to) {
+            checkRange(length, from, to);
+            return new Backed(arr, offset + from, to - from);
+        }
+    }
+
+    private static final class Slice extends IntArrayView {
+
+        private final IntArrayView base;
+        private final int offset, length;
+
+        Slice(final IntArrayView base, final int offset, final int length) {
+            this.base = base;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public int get(final int i) {
+            checkIndex(i, length);
+            return base.get(offset + i);
+        }
+
+        @Override
+        public void set(final int i, final int v) {
+            checkIndex(i, length);
+            base.set(offset + i, v);
+        }
+
+        @Override
+        void copyRange(final int from, final int to, final int[] dst, final int dstPos) {
+            base.copyRange(offset + from, offset + to, dst, dstPos);
+        }
+
+        @Override
+        public IntArrayView slice(final int from, final int to) {
+            checkRange(length, from, to);
+            return new Slice(base, offset + from, to - from);
+        }
+    }
+
+    private static final class Reversed extends IntArrayView {
+
+        private final IntArrayView base;
+
+        Reversed(final IntArrayView base) {
+            this.base = base;
+        }
+
+        @Override
+        public int length() {
+            return base.length();
+        }
+
+        @Override
+        public int get(final int i) {
+            checkIndex(i, base.length());
+            return base.get(base.length() - 1 - i);
+        }
+
+        @Override
+        public void set(final int i, final int v) {
+            checkIndex(i, base.length());
+            base.set(base.length() - 1 - i, v);
+        }
+
+        @Override
+        void copyRange(final int from, final int to, final int[] dst, final int dstPos) {
+            int n = base.length();
+            base.copyRange(n - to, n - from, dst, dstPos);
+            ArraysSupport.reverse(dst, dstPos, dstPos + to - from);
+        }
+
+        @Override
+        public IntArrayView reversed() {
+            return base;
+        }
+    }
+
+    private static final class Rotated extends IntArrayView {
+
+        private final IntArrayView base;
+        // Elements of the base from this index on are seen first
+        private final int start;
+
+        Rotated(final IntArrayView base, final int shift) {
+            this.base = base;
+            this.start = base.length() - shift;
+        }
+
+        private int physical(final int i) {
+            int p = start + i;
+            int n = base.length();
+            return p >= n ? p - n : p;
+        }
+
+        @Override
+        public int length() {
+            return base.length();
+        }
+
+        @Override
+        public int get(final int i) {
+            checkIndex(i, base.length());
+            return base.get(physical(i));
+        }
+
+        @Override
+        public void set(final int i, final int v) {
+            checkIndex(i, base.length());
+            base.set(physical(i), v);
+        }
+
+        @Override
+        void copyRange(final int from, final int to, final int[] dst, final int dstPos) {
+            // At most two runs of the base: up to its end, then from its start
+            int n = base.length();
+            int wrap = n - start;
+            if (to <= wrap || from >= wrap) {
+                int p = physical(from);
+                base.copyRange(p, p + to - from, dst, dstPos);
+                return;
+            }
+            base.copyRange(start + from, n, dst, dstPos);
+            base.copyRange(0, to - wrap, dst, dstPos + wrap - from);
+        }
+
+        @Override
+        public IntArrayView rotated(final int distance) {
+            return base.rotated((int) (((long) base.length() - start + distance) % base.length()));
+        }
+    }
+
+    private static final class Concat extends IntArrayView {
+
+        private final IntArrayView[] parts;
+        // starts[p] is the index of the first element of part p, starts[parts.length] the length
+        private final int[] starts;
+
+        Concat(final IntArrayView[] parts) {
+            this.parts = parts;
+            this.starts = new int[parts.length + 1];
+            long total = 0;
+            for (int p = 0; p < parts.length; p++) {
+                starts[p] = (int) total;
+                total += parts[p].length();
+            }
+            if (total > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Concatenated length " + total + " does not fit in an int");
+            starts[parts.length] = (int) total;
+        }
+
+        private int part(final int i) {
+            int p = Arrays.binarySearch(starts, 0, parts.length, i);
+            if (p < 0)
+                return -p - 2;
+            // Skip empty parts sharing the same start
+            while (p + 1 < parts.length && starts[p + 1] == i)
+                p++;
+            return p;
+        }
+
+        @Override
+        public int length() {
+            return starts[parts.length];
+        }
+
+        @Override
+        public int get(final int i) {
+            checkIndex(i, length());
+            int p = part(i);
+            return parts[p].get(i - starts[p]);
+        }
+
+        @Override
+        public void set(final int i, final int v) {
+            checkIndex(i, length());
+            int p = part(i);
+            parts[p].set(i - starts[p], v);
+        }
+
+        @Override
+        void copyRange(int from, final int to, final int[] dst, int dstPos) {
+            for (int p = from < to ? part(from) : parts.length; from < to; p++) {
+                int end = Math.min(to, starts[p + 1]);
+                if (end > from) {
+                    parts[p].copyRange(from - starts[p], end - starts[p], dst, dstPos);
+                    dstPos += end - from;
+                    from = end;
+                }
+            }
+        }
+    }
+
+    private static final class Mapped extends IntArrayView {
+
+        private final IntArrayView base;
+        private final IntUnaryOperator op;
+
+        Mapped(final IntArrayView base, final IntUnaryOperator op) {
+            this.base = base;
+            this.op = op;
+        }
+
+        @Override
+        public int length() {
+            return base.length();
+        }
+
+        @Override
+        public int get(final int i) {
+            return op.applyAsInt(base.get(i));
+        }
+
+        @Override
+        public void set(final int i, final int v) {
+            throw new UnsupportedOperationException("Mapped views are read-only");
+        }
+
+        @Override
+        void copyRange(final int from, final int to, final int[] dst, final int dstPos) {
+            base.copyRange(from, to, dst, dstPos);
+            for (int i = dstPos, end = dstPos + to - from; i < end; i++)
+                dst[i] = op.applyAsInt(dst[i]);
+        }
+
+        @Override
+        public IntArrayView mapped(@NonNull final IntUnaryOperator next) {
+            return new Mapped(base, op.andThen(next));
+        }
+    }
+
+    private static void checkIndex(final int i, final int length) {
+        if (i < 0 || i >= length)
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + length);
+    }
+}
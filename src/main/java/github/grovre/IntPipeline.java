@@ -0,0 +1,466 @@
+package github.grovre;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * <p>
+ * A fused filter/map pipeline over int arrays, without the boxing, spliterators and
+ * sink allocation of a {@link java.util.stream.IntStream}. Pipelines are immutable:
+ * every stage returns a new pipeline and a pipeline can be run any number of times.
+ * </P>
+ * <p>
+ * Neighbouring stages of the same kind are fused into one function as they are added,
+ * and each terminal operation runs the whole pipeline as a single loop over the array.
+ * The common shapes (no stages, one filter, one map, a filter then a map) are run
+ * directly with no intermediate sink. In parallel mode the range is cut into blocks
+ * which are run on a {@link ForkJoinPool}, and their results combined in order.
+ * </P>
+ * <pre>{@code
+ * long score = IntPipeline.of(weights).filter(w -> w > 0).map(w -> w * 3).sum();
+ * }</pre>
+ */
+public final class IntPipeline {
+
+    private static final Stage[] NO_STAGES = new Stage[0];
+
+    private final int[] arr;
+    private final int from, to;
+    private final Stage[] stages;
+    // Null when sequential
+    private final ForkJoinPool pool;
+
+    private IntPipeline(final int[] arr, final int from, final int to, final Stage[] stages, final ForkJoinPool pool) {
+        this.arr = arr;
+        this.from = from;
+        this.to = to;
+        this.stages = stages;
+        this.pool = pool;
+    }
+
+    /**
+     * @param arr The array to run over
+     * @return A sequential pipeline over every element of the array
+     */
+    public static IntPipeline of(@NonNull final int[] arr) {
+        return new IntPipeline(arr, 0, arr.length, NO_STAGES, null);
+    }
+
+    /**
+     * @param arr  The array to run over
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to run up to
+     * @return A sequential pipeline over the given part of the array
+     */
+    public static IntPipeline of(@NonNull final int[] arr, final int from, final int to) {
+        if (from < 0 || to > arr.length || from > to)
+            throw new ArrayIndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + arr.length);
+        return new IntPipeline(arr, from, to, NO_STAGES, null);
+    }
+
+    /**
+     * @param predicate The predicate elements must pass to continue down the pipeline
+     * @return A new pipeline with the filter appended
+     */
+    public IntPipeline filter(@NonNull final IntPredicate predicate) {
+        int last = stages.length - 1;
+        if (last >= 0 && stages[last].filter != null)
+            return with(last, new Stage(stages[last].filter.and(predicate), null));
+        return with(stages.length, new Stage(predicate, null));
+    }
+
+    /**
+     * @param op The operator to apply to every element
+     * @return A new pipeline with the map appended
+     */
+    public IntPipeline map(@NonNull final IntUnaryOperator op) {
+        int last = stages.length - 1;
+        if (last >= 0 && stages[last].map != null)
+            return with(last, new Stage(null, stages[last].map.andThen(op)));
+        return with(stages.length, new Stage(null, op));
+    }
+
+    /**
+     * @return A pipeline that runs its terminal operations on the common pool
+     */
+    public IntPipeline parallel() {
+        return parallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool The pool to run terminal operations on
+     * @return A pipeline that runs its terminal operations on the given pool
+     */
+    public IntPipeline parallel(@NonNull final ForkJoinPool pool) {
+        return new IntPipeline(arr, from, to, stages, pool);
+    }
+
+    /**
+     * @return A pipeline that runs its terminal operations on the calling thread
+     */
+    public IntPipeline sequential() {
+        return pool == null ? this : new IntPipeline(arr, from, to, stages, null);
+    }
+
+    /**
+     * @return The sum of every element reaching the end of the pipeline
+     */
+    public long sum() {
+        long[] sums = new long[blocks()];
+        run(sums.length, (b, f, t) -> {
+            Sum sink = new Sum();
+            drive(f, t, sink);
+            sums[b] = sink.sum;
+        });
+        long sum = 0;
+        for (long s : sums)
+            sum += s;
+        return sum;
+    }
+
+    /**
+     * @return The amount of elements reaching the end of the pipeline
+     */
+    public int count() {
+        if (!hasFilter())
+            return to - from;
+        int[] counts = new int[blocks()];
+        run(counts.length, (b, f, t) -> {
+            Count sink = new Count();
+            drive(f, t, sink);
+            counts[b] = sink.count;
+        });
+        int count = 0;
+        for (int c : counts)
+            count += c;
+        return count;
+    }
+
+    /**
+     * Finds the minimum and maximum of the elements reaching the end of the pipeline in a single pass.
+     *
+     * @return A sorted array with minimum and maximum, respectively.
+     * @throws NoSuchElementException If no element reaches the end of the pipeline
+     */
+    public int[] minmax() {
+        MinMax[] parts = new MinMax[blocks()];
+        run(parts.length, (b, f, t) -> {
+            MinMax sink = new MinMax();
+            drive(f, t, sink);
+            parts[b] = sink;
+        });
+        MinMax result = new MinMax();
+        for (MinMax part : parts) {
+            if (part.empty)
+                continue;
+            result.accept(part.min);
+            result.accept(part.max);
+        }
+        if (result.empty)
+            throw new NoSuchElementException("No element reached the end of the pipeline");
+        return new int[]{result.min, result.max};
+    }
+
+    /**
+     * Reduces the elements reaching the end of the pipeline. In parallel mode every block
+     * is reduced from the identity and the block results are then reduced in order,
+     * so the operator must be associative.
+     *
+     * @param identity The identity of the operator
+     * @param op       The operator to reduce with
+     * @return The reduced value, or the identity if no element reaches the end of the pipeline
+     */
+    public int reduce(final int identity, @NonNull final IntBinaryOperator op) {
+        int[] parts = new int[blocks()];
+        run(parts.length, (b, f, t) -> {
+            Reduce sink = new Reduce(identity, op);
+            drive(f, t, sink);
+            parts[b] = sink.result;
+        });
+        int result = identity;
+        for (int part : parts)
+            result = op.applyAsInt(result, part);
+        return result;
+    }
+
+    /**
+     * Runs an action for every element reaching the end of the pipeline.
+     * In parallel mode the action is run concurrently and out of order.
+     *
+     * @param action The action to run
+     */
+    public void forEach(@NonNull final IntConsumer action) {
+        run(blocks(), (b, f, t) -> drive(f, t, action));
+    }
+
+    /**
+     * @return A new array with every element reaching the end of the pipeline, in order
+     */
+    public int[] toArray() {
+        if (!hasFilter()) {
+            int[] result = new int[to - from];
+            into(result, 0);
+            return result;
+        }
+        int[][] parts = new int[blocks()][];
+        run(parts.length, (b, f, t) -> {
+            Collect sink = new Collect(Math.min(t - f, 16));
+            drive(f, t, sink);
+            parts[b] = sink.buffer.length == sink.size ? sink.buffer : Arrays.copyOf(sink.buffer, sink.size);
+        });
+        if (parts.length == 1)
+            return parts[0];
+        int size = 0;
+        for (int[] part : parts)
+            size += part.length;
+        int[] result = new int[size];
+        int pos = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, result, pos, part.length);
+            pos += part.length;
+        }
+        return result;
+    }
+
+    /**
+     * Writes every element reaching the end of the pipeline into an existing array,
+     * in order, so that a buffer can be reused between runs.
+     *
+     * @param dst    The array to write into
+     * @param dstPos The index in the array to start at
+     * @return The amount of elements written
+     * @throws ArrayIndexOutOfBoundsException If the elements do not fit in the array, in which case a
+     *                                        sequential pipeline with a filter has written those that fit
+     */
+    public int into(@NonNull final int[] dst, final int dstPos) {
+        if (dstPos < 0 || dstPos > dst.length)
+            throw new ArrayIndexOutOfBoundsException("Index " + dstPos + " out of bounds for length " + dst.length);
+        if (hasFilter())
+            return filteredInto(dst, dstPos);
+        if (to - from > dst.length - dstPos)
+            throw new ArrayIndexOutOfBoundsException("Results of length " + (to - from) + " do not fit at " + dstPos + " in length " + dst.length);
+        final IntUnaryOperator op = stages.length == 0 ? null : stages[0].map;
+        run(blocks(), (b, f, t) -> {
+            int offset = dstPos - from;
+            if (op == null) {
+                System.arraycopy(arr, f, dst, f + offset, t - f);
+                return;
+            }
+            for (int i = f; i < t; i++)
+                dst[i + offset] = op.applyAsInt(arr[i]);
+        });
+        return to - from;
+    }
+
+    /**
+     * Sequentially the elements are written as they pass, checking the bounds on each one.
+     * In parallel every block is counted first, so that each block can then write from
+     * its own offset, and nothing is written unless every element fits.
+     */
+    private int filteredInto(final int[] dst, final int dstPos) {
+        final int blocks = blocks();
+        if (blocks == 1) {
+            Write sink = new Write(dst, dstPos);
+            drive(from, to, sink);
+            return sink.pos - dstPos;
+        }
+        final int[] offsets = new int[blocks + 1];
+        run(blocks, (b, f, t) -> {
+            Count sink = new Count();
+            drive(f, t, sink);
+            offsets[b + 1] = sink.count;
+        });
+        offsets[0] = dstPos;
+        for (int b = 0; b < blocks; b++)
+            offsets[b + 1] += offsets[b];
+        if (offsets[blocks] - dstPos > dst.length - dstPos)
+            throw new ArrayIndexOutOfBoundsException("Results of length " + (offsets[blocks] - dstPos) + " do not fit at " + dstPos + " in length " + dst.length);
+        run(blocks, (b, f, t) -> drive(f, t, new Write(dst, offsets[b])));
+        return offsets[blocks] - dstPos;
+    }
+
+    private IntPipeline with(final int index, final Stage stage) {
+        Stage[] next = Arrays.copyOf(stages, index + 1);
+        next[index] = stage;
+        return new IntPipeline(arr, from, to, next, pool);
+    }
+
+    private boolean hasFilter() {
+        for (Stage stage : stages)
+            if (stage.filter != null)
+                return true;
+        return false;
+    }
+
+    private int blocks() {
+        return pool == null ? 1 : Math.max(1, Scan.blocks(to - from, pool));
+    }
+
+    private interface BlockBody {
+        void run(int block, int from, int to);
+    }
+
+    private void run(final int blocks, final BlockBody body) {
+        if (blocks == 1) {
+            body.run(0, from, to);
+            return;
+        }
+        final long n = to - from;
+        pool.invoke(new Scan.Blocks(0, blocks, b -> body.run(b, from + (int) (n * b / blocks), from + (int) (n * (b + 1) / blocks))));
+    }
+
+    /**
+     * Pushes every element of [from, to) through the stages into the sink.
+     */
+    private void drive(final int from, final int to, final IntConsumer sink) {
+        final int[] arr = this.arr;
+        final Stage[] stages = this.stages;
+        if (stages.length == 0) {
+            for (int i = from; i < to; i++)
+                sink.accept(arr[i]);
+        } else if (stages.length == 1 && stages[0].map != null) {
+            final IntUnaryOperator op = stages[0].map;
+            for (int i = from; i < to; i++)
+                sink.accept(op.applyAsInt(arr[i]));
+        } else if (stages.length == 1) {
+            final IntPredicate predicate = stages[0].filter;
+            for (int i = from; i < to; i++) {
+                int v = arr[i];
+                if (predicate.test(v))
+                    sink.accept(v);
+            }
+        } else if (stages.length == 2 && stages[0].filter != null) {
+            final IntPredicate predicate = stages[0].filter;
+            final IntUnaryOperator op = stages[1].map;
+            for (int i = from; i < to; i++) {
+                int v = arr[i];
+                if (predicate.test(v))
+                    sink.accept(op.applyAsInt(v));
+            }
+        } else {
+            IntConsumer chain = sink;
+            for (int s = stages.length - 1; s >= 0; s--)
+                chain = stages[s].wrap(chain);
+            for (int i = from; i < to; i++)
+                chain.accept(arr[i]);
+        }
+    }
+
+    /**
+     * Exactly one of filter and map is set.
+     */
+    private static final class Stage {
+
+        final IntPredicate filter;
+        final IntUnaryOperator map;
+
+        Stage(final IntPredicate filter, final IntUnaryOperator map) {
+            this.filter = filter;
+            this.map = map;
+        }
+
+        IntConsumer wrap(final IntConsumer downstream) {
+            final IntPredicate filter = this.filter;
+            final IntUnaryOperator map = this.map;
+            if (filter != null)
+                return v -> {
+                    if (filter.test(v))
+                        downstream.accept(v);
+                };
+            return v -> downstream.accept(map.applyAsInt(v));
+        }
+    }
+
+    private static final class Sum implements IntConsumer {
+
+        long sum;
+
+        @Override
+        public void accept(final int v) {
+            sum += v;
+        }
+    }
+
+    private static final class Count implements IntConsumer {
+
+        int count;
+
+        @Override
+        public void accept(final int v) {
+            count++;
+        }
+    }
+
+    private static final class MinMax implements IntConsumer {
+
+        boolean empty = true;
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+
+        @Override
+        public void accept(final int v) {
+            empty = false;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+    }
+
+    private static final class Reduce implements IntConsumer {
+
+        private final IntBinaryOperator op;
+        int result;
+
+        Reduce(final int identity, final IntBinaryOperator op) {
+            this.result = identity;
+            this.op = op;
+        }
+
+        @Override
+        public void accept(final int v) {
+            result = op.applyAsInt(result, v);
+        }
+    }
+
+    private static final class Collect implements IntConsumer {
+
+        int[] buffer;
+        int size;
+
+        Collect(final int capacity) {
+            buffer = new int[Math.max(capacity, 1)];
+        }
+
+        @Override
+        public void accept(final int v) {
+            if (size == buffer.length)
+                buffer = Arrays.copyOf(buffer, buffer.length + (buffer.length >> 1) + 1);
+            buffer[size++] = v;
+        }
+    }
+
+    private static final class Write implements IntConsumer {
+
+        private final int[] dst;
+        private final int start;
+        int pos;
+
+        Write(final int[] dst, final int pos) {
+            this.dst = dst;
+            this.start = pos;
+            this.pos = pos;
+        }
+
+        @Override
+        public void accept(final int v) {
+            if (pos == dst.length)
+                throw new ArrayIndexOutOfBoundsException("Results do not fit at " + start + " in length " + dst.length);
+            dst[pos++] = v;
+        }
+    }
+}
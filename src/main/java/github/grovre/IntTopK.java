@@ -0,0 +1,125 @@
+package github.grovre;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Keeps the k largest ints offered to it in a bounded binary heap,
+ * so a stream of any length can be ranked in O(n log k) time and O(k) memory.
+ * This is meant for k much smaller than the amount of ints offered; to rank
+ * an array that is already in memory see {@link ArraysSupport#topK(int[], int)}.
+ * This class is not thread-safe.
+ */
+public final class IntTopK {
+
+    private final int[] heap;
+    private int size;
+
+    /**
+     * @param k The amount of ints to keep
+     */
+    public IntTopK(final int k) {
+        if (k < 0)
+            throw new IllegalArgumentException("k must not be negative but was " + k);
+        this.heap = new int[k];
+    }
+
+    /**
+     * Offers an element, keeping it if it is among the k largest seen so far.
+     *
+     * @param v The element
+     * @return True if the element was kept
+     */
+    public boolean offer(final int v) {
+        if (size < heap.length) {
+            heap[size] = v;
+            siftUp(size++);
+            return true;
+        }
+        if (size == 0 || heap[0] >= v)
+            return false;
+        heap[0] = v;
+        siftDown(0, size);
+        return true;
+    }
+
+    /**
+     * Offers every element of an array.
+     *
+     * @param arr The elements to offer
+     */
+    public void offerAll(final int[] arr) {
+        for (int v : arr)
+            offer(v);
+    }
+
+    /**
+     * @return The amount of elements kept, at most k
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The smallest element kept, which any new element has to beat once k are kept.
+     *
+     * @return The smallest element kept
+     */
+    public int threshold() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return heap[0];
+    }
+
+    /**
+     * @return A new array of the elements kept, largest first
+     */
+    public int[] toArray() {
+        int[] sorted = Arrays.copyOf(heap, size);
+        for (int end = size - 1; end > 0; end--) {
+            int tmp = sorted[0];
+            sorted[0] = sorted[end];
+            sorted[end] = tmp;
+            siftDown(sorted, 0, end);
+        }
+        return sorted;
+    }
+
+    /**
+     * Forgets every element kept.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        int v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (v >= heap[parent])
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private void siftDown(final int i, final int size) {
+        siftDown(heap, i, size);
+    }
+
+    private void siftDown(final int[] heap, int i, final int size) {
+        int v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child])
+                child++;
+            if (heap[child] >= v)
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+}
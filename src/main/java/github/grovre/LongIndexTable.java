@@ -0,0 +1,130 @@
+package github.grovre;
+
+import java.util.Arrays;
+
+/**
+ * A small open-addressing hash table mapping primitive {@code long} keys
+ * to non-negative {@code int} values, usually indices into an array.
+ * Linear probing is used over power-of-two sized parallel arrays so
+ * nothing is boxed and no node is allocated per entry.
+ */
+final class LongIndexTable {
+
+    private static final int EMPTY = -1;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * Creates a table that can hold at least {@code expected} keys
+     * while staying at or below half full. It grows past that as keys are added.
+     *
+     * @param expected The expected amount of keys
+     */
+    LongIndexTable(long expected) {
+        long capacity = Long.highestOneBit(Math.max(expected, 8) - 1) << 2;
+        allocate((int) Math.min(capacity, MAX_CAPACITY));
+    }
+
+    /**
+     * Maps the key to the value unless the key is already present.
+     *
+     * @param key   The key
+     * @param value The value, must not be negative
+     * @return The value already mapped to the key, or -1 if the key was inserted
+     * @throws IllegalArgumentException If the table is full
+     */
+    int putIfAbsent(long key, int value) {
+        int slot = slot(key);
+        if (values[slot] != EMPTY)
+            return values[slot];
+        if (size >= keys.length >>> 1 && grow())
+            slot = slot(key);
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return EMPTY;
+    }
+
+    /**
+     * Replaces the value of a key that is already present.
+     *
+     * @param key   The key
+     * @param value The new value, must not be negative
+     * @return True if the key was present and its value was replaced
+     */
+    boolean replace(long key, int value) {
+        int slot = slot(key);
+        if (values[slot] == EMPTY)
+            return false;
+        values[slot] = value;
+        return true;
+    }
+
+    /**
+     * @param key The key to look up
+     * @return The value mapped to the key, or -1 if there is none
+     */
+    int get(long key) {
+        return values[slot(key)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return The slot holding the key, or the empty slot its probe ends at
+     */
+    private int slot(long key) {
+        int slot = mix(key) & mask;
+        while (values[slot] != EMPTY && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * Doubles the table, or at the largest capacity lets it fill past half
+     * as long as one slot stays empty, so that every probe still ends.
+     *
+     * @return True if the table was rehashed
+     */
+    private boolean grow() {
+        if (keys.length == MAX_CAPACITY) {
+            if (size + 1 >= MAX_CAPACITY)
+                throw new IllegalArgumentException("More than " + (MAX_CAPACITY - 1) + " distinct keys do not fit in the table");
+            return false;
+        }
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(keys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == EMPTY)
+                continue;
+            int slot = slot(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+        return true;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, EMPTY);
+        mask = capacity - 1;
+    }
+
+    // Murmur3's 64-bit finalizer so sequential ids spread over the table
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
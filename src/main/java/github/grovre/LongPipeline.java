@@ -0,0 +1,466 @@
+package github.grovre;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * <p>
+ * A fused filter/map pipeline over long arrays, without the boxing, spliterators and
+ * sink allocation of a {@link java.util.stream.LongStream}. Pipelines are immutable:
+ * every stage returns a new pipeline and a pipeline can be run any number of times.
+ * </P>
+ * <p>
+ * Neighbouring stages of the same kind are fused into one function as they are added,
+ * and each terminal operation runs the whole pipeline as a single loop over the array.
+ * The common shapes (no stages, one filter, one map, a filter then a map) are run
+ * directly with no intermediate sink. In parallel mode the range is cut into blocks
+ * which are run on a {@link ForkJoinPool}, and their results combined in order.
+ * </P>
+ * <pre>{@code
+ * long score = LongPipeline.of(weights).filter(w -> w > 0).map(w -> w * 3).sum();
+ * }</pre>
+ */
+public final class LongPipeline {
+
+    private static final Stage[] NO_STAGES = new Stage[0];
+
+    private final long[] arr;
+    private final int from, to;
+    private final Stage[] stages;
+    // Null when sequential
+    private final ForkJoinPool pool;
+
+    private LongPipeline(final long[] arr, final int from, final int to, final Stage[] stages, final ForkJoinPool pool) {
+        this.arr = arr;
+        this.from = from;
+        this.to = to;
+        this.stages = stages;
+        this.pool = pool;
+    }
+
+    /**
+     * @param arr The array to run over
+     * @return A sequential pipeline over every element of the array
+     */
+    public static LongPipeline of(@NonNull final long[] arr) {
+        return new LongPipeline(arr, 0, arr.length, NO_STAGES, null);
+    }
+
+    /**
+     * @param arr  The array to run over
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to run up to
+     * @return A sequential pipeline over the given part of the array
+     */
+    public static LongPipeline of(@NonNull final long[] arr, final int from, final int to) {
+        if (from < 0 || to > arr.length || from > to)
+            throw new ArrayIndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + arr.length);
+        return new LongPipeline(arr, from, to, NO_STAGES, null);
+    }
+
+    /**
+     * @param predicate The predicate elements must pass to continue down the pipeline
+     * @return A new pipeline with the filter appended
+     */
+    public LongPipeline filter(@NonNull final LongPredicate predicate) {
+        int last = stages.length - 1;
+        if (last >= 0 && stages[last].filter != null)
+            return with(last, new Stage(stages[last].filter.and(predicate), null));
+        return with(stages.length, new Stage(predicate, null));
+    }
+
+    /**
+     * @param op The operator to apply to every element
+     * @return A new pipeline with the map appended
+     */
+    public LongPipeline map(@NonNull final LongUnaryOperator op) {
+        int last = stages.length - 1;
+        if (last >= 0 && stages[last].map != null)
+            return with(last, new Stage(null, stages[last].map.andThen(op)));
+        return with(stages.length, new Stage(null, op));
+    }
+
+    /**
+     * @return A pipeline that runs its terminal operations on the common pool
+     */
+    public LongPipeline parallel() {
+        return parallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool The pool to run terminal operations on
+     * @return A pipeline that runs its terminal operations on the given pool
+     */
+    public LongPipeline parallel(@NonNull final ForkJoinPool pool) {
+        return new LongPipeline(arr, from, to, stages, pool);
+    }
+
+    /**
+     * @return A pipeline that runs its terminal operations on the calling thread
+     */
+    public LongPipeline sequential() {
+        return pool == null ? this : new LongPipeline(arr, from, to, stages, null);
+    }
+
+    /**
+     * @return The sum of every element reaching the end of the pipeline
+     */
+    public long sum() {
+        long[] sums = new long[blocks()];
+        run(sums.length, (b, f, t) -> {
+            Sum sink = new Sum();
+            drive(f, t, sink);
+            sums[b] = sink.sum;
+        });
+        long sum = 0;
+        for (long s : sums)
+            sum += s;
+        return sum;
+    }
+
+    /**
+     * @return The amount of elements reaching the end of the pipeline
+     */
+    public int count() {
+        if (!hasFilter())
+            return to - from;
+        int[] counts = new int[blocks()];
+        run(counts.length, (b, f, t) -> {
+            Count sink = new Count();
+            drive(f, t, sink);
+            counts[b] = sink.count;
+        });
+        int count = 0;
+        for (int c : counts)
+            count += c;
+        return count;
+    }
+
+    /**
+     * Finds the minimum and maximum of the elements reaching the end of the pipeline in a single pass.
+     *
+     * @return A sorted array with minimum and maximum, respectively.
+     * @throws NoSuchElementException If no element reaches the end of the pipeline
+     */
+    public long[] minmax() {
+        MinMax[] parts = new MinMax[blocks()];
+        run(parts.length, (b, f, t) -> {
+            MinMax sink = new MinMax();
+            drive(f, t, sink);
+            parts[b] = sink;
+        });
+        MinMax result = new MinMax();
+        for (MinMax part : parts) {
+            if (part.empty)
+                continue;
+            result.accept(part.min);
+            result.accept(part.max);
+        }
+        if (result.empty)
+            throw new NoSuchElementException("No element reached the end of the pipeline");
+        return new long[]{result.min, result.max};
+    }
+
+    /**
+     * Reduces the elements reaching the end of the pipeline. In parallel mode every block
+     * is reduced from the identity and the block results are then reduced in order,
+     * so the operator must be associative.
+     *
+     * @param identity The identity of the operator
+     * @param op       The operator to reduce with
+     * @return The reduced value, or the identity if no element reaches the end of the pipeline
+     */
+    public long reduce(final long identity, @NonNull final LongBinaryOperator op) {
+        long[] parts = new long[blocks()];
+        run(parts.length, (b, f, t) -> {
+            Reduce sink = new Reduce(identity, op);
+            drive(f, t, sink);
+            parts[b] = sink.result;
+        });
+        long result = identity;
+        for (long part : parts)
+            result = op.applyAsLong(result, part);
+        return result;
+    }
+
+    /**
+     * Runs an action for every element reaching the end of the pipeline.
+     * In parallel mode the action is run concurrently and out of order.
+     *
+     * @param action The action to run
+     */
+    public void forEach(@NonNull final LongConsumer action) {
+        run(blocks(), (b, f, t) -> drive(f, t, action));
+    }
+
+    /**
+     * @return A new array with every element reaching the end of the pipeline, in order
+     */
+    public long[] toArray() {
+        if (!hasFilter()) {
+            long[] result = new long[to - from];
+            into(result, 0);
+            return result;
+        }
+        long[][] parts = new long[blocks()][];
+        run(parts.length, (b, f, t) -> {
+            Collect sink = new Collect(Math.min(t - f, 16));
+            drive(f, t, sink);
+            parts[b] = sink.buffer.length == sink.size ? sink.buffer : Arrays.copyOf(sink.buffer, sink.size);
+        });
+        if (parts.length == 1)
+            return parts[0];
+        int size = 0;
+        for (long[] part : parts)
+            size += part.length;
+        long[] result = new long[size];
+        int pos = 0;
+        for (long[] part : parts) {
+            System.arraycopy(part, 0, result, pos, part.length);
+            pos += part.length;
+        }
+        return result;
+    }
+
+    /**
+     * Writes every element reaching the end of the pipeline into an existing array,
+     * in order, so that a buffer can be reused between runs.
+     *
+     * @param dst    The array to write into
+     * @param dstPos The index in the array to start at
+     * @return The amount of elements written
+     * @throws ArrayIndexOutOfBoundsException If the elements do not fit in the array, in which case a
+     *                                        sequential pipeline with a filter has written those that fit
+     */
+    public int into(@NonNull final long[] dst, final int dstPos) {
+        if (dstPos < 0 || dstPos > dst.length)
+            throw new ArrayIndexOutOfBoundsException("Index " + dstPos + " out of bounds for length " + dst.length);
+        if (hasFilter())
+            return filteredInto(dst, dstPos);
+        if (to - from > dst.length - dstPos)
+            throw new ArrayIndexOutOfBoundsException("Results of length " + (to - from) + " do not fit at " + dstPos + " in length " + dst.length);
+        final LongUnaryOperator op = stages.length == 0 ? null : stages[0].map;
+        run(blocks(), (b, f, t) -> {
+            int offset = dstPos - from;
+            if (op == null) {
+                System.arraycopy(arr, f, dst, f + offset, t - f);
+                return;
+            }
+            for (int i = f; i < t; i++)
+                dst[i + offset] = op.applyAsLong(arr[i]);
+        });
+        return to - from;
+    }
+
+    /**
+     * Sequentially the elements are written as they pass, checking the bounds on each one.
+     * In parallel every block is counted first, so that each block can then write from
+     * its own offset, and nothing is written unless every element fits.
+     */
+    private int filteredInto(final long[] dst, final int dstPos) {
+        final int blocks = blocks();
+        if (blocks == 1) {
+            Write sink = new Write(dst, dstPos);
+            drive(from, to, sink);
+            return sink.pos - dstPos;
+        }
+        final int[] offsets = new int[blocks + 1];
+        run(blocks, (b, f, t) -> {
+            Count sink = new Count();
+            drive(f, t, sink);
+            offsets[b + 1] = sink.count;
+        });
+        offsets[0] = dstPos;
+        for (int b = 0; b < blocks; b++)
+            offsets[b + 1] += offsets[b];
+        if (offsets[blocks] - dstPos > dst.length - dstPos)
+            throw new ArrayIndexOutOfBoundsException("Results of length " + (offsets[blocks] - dstPos) + " do not fit at " + dstPos + " in length " + dst.length);
+        run(blocks, (b, f, t) -> drive(f, t, new Write(dst, offsets[b])));
+        return offsets[blocks] - dstPos;
+    }
+
+    private LongPipeline with(final int index, final Stage stage) {
+        Stage[] next = Arrays.copyOf(stages, index + 1);
+        next[index] = stage;
+        return new LongPipeline(arr, from, to, next, pool);
+    }
+
+    private boolean hasFilter() {
+        for (Stage stage : stages)
+            if (stage.filter != null)
+                return true;
+        return false;
+    }
+
+    private int blocks() {
+        return pool == null ? 1 : Math.max(1, Scan.blocks(to - from, pool));
+    }
+
+    private interface BlockBody {
+        void run(int block, int from, int to);
+    }
+
+    private void run(final int blocks, final BlockBody body) {
+        if (blocks == 1) {
+            body.run(0, from, to);
+            return;
+        }
+        final long n = to - from;
+        pool.invoke(new Scan.Blocks(0, blocks, b -> body.run(b, from + (int) (n * b / blocks), from + (int) (n * (b + 1) / blocks))));
+    }
+
+    /**
+     * Pushes every element of [from, to) through the stages into the sink.
+     */
+    private void drive(final int from, final int to, final LongConsumer sink) {
+        final long[] arr = this.arr;
+        final Stage[] stages = this.stages;
+        if (stages.length == 0) {
+            for (int i = from; i < to; i++)
+                sink.accept(arr[i]);
+        } else if (stages.length == 1 && stages[0].map != null) {
+            final LongUnaryOperator op = stages[0].map;
+            for (int i = from; i < to; i++)
+                sink.accept(op.applyAsLong(arr[i]));
+        } else if (stages.length == 1) {
+            final LongPredicate predicate = stages[0].filter;
+            for (int i = from; i < to; i++) {
+                long v = arr[i];
+                if (predicate.test(v))
+                    sink.accept(v);
+            }
+        } else if (stages.length == 2 && stages[0].filter != null) {
+            final LongPredicate predicate = stages[0].filter;
+            final LongUnaryOperator op = stages[1].map;
+            for (int i = from; i < to; i++) {
+                long v = arr[i];
+                if (predicate.test(v))
+                    sink.accept(op.applyAsLong(v));
+            }
+        } else {
+            LongConsumer chain = sink;
+            for (int s = stages.length - 1; s >= 0; s--)
+                chain = stages[s].wrap(chain);
+            for (int i = from; i < to; i++)
+                chain.accept(arr[i]);
+        }
+    }
+
+    /**
+     * Exactly one of filter and map is set.
+     */
+    private static final class Stage {
+
+        final LongPredicate filter;
+        final LongUnaryOperator map;
+
+        Stage(final LongPredicate filter, final LongUnaryOperator map) {
+            this.filter = filter;
+            this.map = map;
+        }
+
+        LongConsumer wrap(final LongConsumer downstream) {
+            final LongPredicate filter = this.filter;
+            final LongUnaryOperator map = this.map;
+            if (filter != null)
+                return v -> {
+                    if (filter.test(v))
+                        downstream.accept(v);
+                };
+            return v -> downstream.accept(map.applyAsLong(v));
+        }
+    }
+
+    private static final class Sum implements LongConsumer {
+
+        long sum;
+
+        @Override
+        public void accept(final long v) {
+            sum += v;
+        }
+    }
+
+    private static final class Count implements LongConsumer {
+
+        int count;
+
+        @Override
+        public void accept(final long v) {
+            count++;
+        }
+    }
+
+    private static final class MinMax implements LongConsumer {
+
+        boolean empty = true;
+        long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+
+        @Override
+        public void accept(final long v) {
+            empty = false;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+    }
+
+    private static final class Reduce implements LongConsumer {
+
+        private final LongBinaryOperator op;
+        long result;
+
+        Reduce(final long identity, final LongBinaryOperator op) {
+            this.result = identity;
+            this.op = op;
+        }
+
+        @Override
+        public void accept(final long v) {
+            result = op.applyAsLong(result, v);
+        }
+    }
+
+    private static final class Collect implements LongConsumer {
+
+        long[] buffer;
+        int size;
+
+        Collect(final int capacity) {
+            buffer = new long[Math.max(capacity, 1)];
+        }
+
+        @Override
+        public void accept(final long v) {
+            if (size == buffer.length)
+                buffer = Arrays.copyOf(buffer, buffer.length + (buffer.length >> 1) + 1);
+            buffer[size++] = v;
+        }
+    }
+
+    private static final class Write implements LongConsumer {
+
+        private final long[] dst;
+        private final int start;
+        int pos;
+
+        Write(final long[] dst, final int pos) {
+            this.dst = dst;
+            this.start = pos;
+            this.pos = pos;
+        }
+
+        @Override
+        public void accept(final long v) {
+            if (pos == dst.length)
+                throw new ArrayIndexOutOfBoundsException("Results do not fit at " + start + " in length " + dst.length);
+            dst[pos++] = v;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package github.grovre;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.math.BigInteger;
+
+/**
+ * An immutable summary of integral values: count, sum, min, max, mean and variance,
+ * all gathered in a single pass. The sum is kept exactly in 128 bits so it never
+ * overflows, and the variance uses Welford's algorithm so it stays accurate for
+ * large values. Summaries of separate chunks or batches can be combined with
+ * {@link #merge(LongStats)} as if they had been gathered in one pass.
+ *
+ * @see ArraysSupport#stats(long[])
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class LongStats {
+
+    /**
+     * The summary of no values at all.
+     */
+    public static final LongStats EMPTY = new LongStats(0, Long.MAX_VALUE, Long.MIN_VALUE, 0, 0, 0, 0);
+
+    /**
+     * The amount of values.
+     */
+    long count;
+    /**
+     * The smallest value, or {@link Long#MAX_VALUE} if there are none.
+     */
+    long min;
+    /**
+     * The largest value, or {@link Long#MIN_VALUE} if there are none.
+     */
+    long max;
+    /**
+     * The arithmetic mean of the values, or 0 if there are none.
+     */
+    double mean;
+    @Getter(AccessLevel.NONE)
+    double m2;
+    @Getter(AccessLevel.NONE)
+    long sumLow;
+    @Getter(AccessLevel.NONE)
+    long sumHigh;
+
+    /**
+     * @return The sum of the values
+     * @throws ArithmeticException If the sum does not fit in a long; see {@link #getExactSum()}
+     */
+    public long getSum() {
+        if (sumHigh != sumLow >> 63)
+            throw new ArithmeticException("Sum overflows a long");
+        return sumLow;
+    }
+
+    /**
+     * @return The sum of the values, however large
+     */
+    public BigInteger getExactSum() {
+        return BigInteger.valueOf(sumHigh).shiftLeft(64).add(new BigInteger(Long.toUnsignedString(sumLow)));
+    }
+
+    /**
+     * @return The population variance of the values, or 0 if there are none
+     */
+    public double getVariance() {
+        return count == 0 ? 0 : m2 / count;
+    }
+
+    /**
+     * @return The sample variance of the values, with Bessel's correction, or 0 if there are fewer than 2
+     */
+    public double getSampleVariance() {
+        return count < 2 ? 0 : m2 / (count - 1);
+    }
+
+    /**
+     * @return The population standard deviation of the values
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Combines this summary with another, as if both sets of values had been
+     * summarized together. Neither summary is modified.
+     *
+     * @param other The other summary
+     * @return A new summary of both
+     */
+    public LongStats merge(@NonNull final LongStats other) {
+        if (other.count == 0)
+            return this;
+        if (count == 0)
+            return other;
+        long n = count + other.count;
+        double delta = other.mean - mean;
+        double mergedMean = mean + delta * other.count / n;
+        double mergedM2 = m2 + other.m2 + delta * delta * ((double) count * other.count / n);
+        long low = sumLow + other.sumLow;
+        long high = sumHigh + other.sumHigh + (Long.compareUnsigned(low, sumLow) < 0 ? 1 : 0);
+        return new LongStats(n, Math.min(min, other.min), Math.max(max, other.max), mergedMean, mergedM2, low, high);
+    }
+
+    static void checkRange(final int length, final int from, final int to) {
+        if (from < 0 || to > length || from > to)
+            throw new ArrayIndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + length);
+    }
+
+    static LongStats of(final byte[] arr, final int from, final int to) {
+        checkRange(arr.length, from, to);
+        long count = 0, min = Long.MAX_VALUE, max = Long.MIN_VALUE, sum = 0;
+        double mean = 0, m2 = 0;
+        for (int i = from; i < to; i++) {
+            long x = arr[i];
+            count++;
+            sum += x;
+            min = Math.min(min, x);
+            max = Math.max(max, x);
+            double delta = x - mean;
+            mean += delta / count;
+            m2 += delta * (x - mean);
+        }
+        // Fewer than 2^32 elements of 32 bits or less cannot overflow a long sum
+        return new LongStats(count, min, max, mean, m2, sum, sum >> 63);
+    }
+
+    static LongStats of(final short[] arr, final int from, final int to) {
+        checkRange(arr.length, from, to);
+        long count = 0, min = Long.MAX_VALUE, max = Long.MIN_VALUE, sum = 0;
+        double mean = 0, m2 = 0;
+        for (int i = from; i < to; i++) {
+            long x = arr[i];
+            count++;
+            sum += x;
+            min = Math.min(min, x);
+            max = Math.max(max, x);
+            double delta = x - mean;
+            mean += delta / count;
+            m2 += delta * (x - mean);
+        }
+        // Fewer than 2^32 elements of 32 bits or less cannot overflow a long sum
+        return new LongStats(count, min, max, mean, m2, sum, sum >> 63);
+    }
+
+    static LongStats of(final int[] arr, final int from, final int to) {
+        checkRange(arr.length, from, to);
+        long count = 0, min = Long.MAX_VALUE, max = Long.MIN_VALUE, sum = 0;
+        double mean = 0, m2 = 0;
+        for (int i = from; i < to; i++) {
+            long x = arr[i];
+            count++;
+            sum += x;
+            min = Math.min(min, x);
+            max = Math.max(max, x);
+            double delta = x - mean;
+            mean += delta / count;
+            m2 += delta * (x - mean);
+        }
+        // Fewer than 2^32 elements of 32 bits or less cannot overflow a long sum
+        return new LongStats(count, min, max, mean, m2, sum, sum >> 63);
+    }
+
+    static LongStats of(final long[] arr, final int from, final int to) {
+        checkRange(arr.length, from, to);
+        long count = 0, min = Long.MAX_VALUE, max = Long.MIN_VALUE, low = 0, high = 0;
+        double mean = 0, m2 = 0;
+        for (int i = from; i < to; i++) {
+            long x = arr[i];
+            count++;
+            // 128-bit sum: the sign-extended high word plus the carry out of the low word
+            long sum = low + x;
+            high += (x >> 63) + (Long.compareUnsigned(sum, low) < 0 ? 1 : 0);
+            low = sum;
+            min = Math.min(min, x);
+            max = Math.max(max, x);
+            double delta = x - mean;
+            mean += delta / count;
+            m2 += delta * (x - mean);
+        }
+        return new LongStats(count, min, max, mean, m2, low, high);
+    }
+}
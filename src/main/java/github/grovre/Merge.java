@@ -0,0 +1,318 @@
+package github.grovre;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+
+/**
+ * K-way operations over already sorted arrays. Merging uses a loser tree
+ * (tournament tree) so each output element costs O(log k) comparisons,
+ * and intersection gallops through the larger inputs from the smallest one.
+ */
+@UtilityClass
+class Merge {
+
+    /**
+     * Validates per-input range bounds against the lengths of the inputs.
+     *
+     * @return The total amount of elements in all ranges
+     */
+    static int checkRanges(final int[] lengths, final int[] from, final int[] to) {
+        final int k = lengths.length;
+        if (from.length != k || to.length != k)
+            throw new IllegalArgumentException("Expected " + k + " range bounds but got " + from.length + " and " + to.length);
+        long total = 0;
+        for (int i = 0; i < k; i++) {
+            if (from[i] < 0 || to[i] > lengths[i] || from[i] > to[i])
+                throw new ArrayIndexOutOfBoundsException("Range [" + from[i] + ", " + to[i] + ") out of bounds for length " + lengths[i]);
+            total += to[i] - from[i];
+        }
+        if (total > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Merged length " + total + " does not fit in an array");
+        return (int) total;
+    }
+
+    // Input indices ordered by the size of their range, smallest first
+    private static int[] bySize(final int[] from, final int[] to) {
+        int[] order = new int[from.length];
+        for (int i = 0; i < order.length; i++) {
+            int size = to[i] - from[i];
+            int j = i - 1;
+            while (j >= 0 && to[order[j]] - from[order[j]] > size) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = i;
+        }
+        return order;
+    }
+
+    static int[] lengths(final int[][] arrs) {
+        int[] lengths = new int[arrs.length];
+        for (int i = 0; i < arrs.length; i++)
+            lengths[i] = arrs[i].length;
+        return lengths;
+    }
+
+    public static int[] merge(@NonNull final int[][] arrs, @NonNull final int[] from, @NonNull final int[] to, final boolean distinct) {
+        final int k = arrs.length;
+        final int total = checkRanges(lengths(arrs), from, to);
+        if (k == 0 || total == 0)
+            return ArraysSupport.EMPTY_INT_ARRAY;
+
+        final int[] head = new int[k];
+        final int[] pos = from.clone();
+        for (int i = 0; i < k; i++)
+            if (pos[i] < to[i])
+                head[i] = arrs[i][pos[i]];
+
+        // Losers live in tree[1..k-1], the overall winner in tree[0]
+        final int[] tree = new int[k];
+        final int[] winners = new int[2 * k];
+        for (int i = 0; i < k; i++)
+            winners[k + i] = i;
+        for (int t = k - 1; t > 0; t--) {
+            int l = winners[2 * t], r = winners[2 * t + 1];
+            if (beats(head, pos, to, l, r)) {
+                winners[t] = l;
+                tree[t] = r;
+            } else {
+                winners[t] = r;
+                tree[t] = l;
+            }
+        }
+        tree[0] = winners[1];
+
+        int[] out = new int[total];
+        int n = 0;
+        for (int remaining = total; remaining > 0; remaining--) {
+            int s = tree[0];
+            int v = head[s];
+            if (!distinct || n == 0 || out[n - 1] != v)
+                out[n++] = v;
+            if (++pos[s] < to[s])
+                head[s] = arrs[s][pos[s]];
+
+            // Replay the winner's path against the losers stored on it
+            for (int t = (s + k) >>> 1; t > 0; t >>>= 1) {
+                if (beats(head, pos, to, tree[t], s)) {
+                    int tmp = tree[t];
+                    tree[t] = s;
+                    s = tmp;
+                }
+            }
+            tree[0] = s;
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    // Whether source a should be taken before source b; exhausted sources always lose and ties go to the lower index
+    private static boolean beats(final int[] head, final int[] pos, final int[] to, final int a, final int b) {
+        if (pos[a] >= to[a])
+            return false;
+        if (pos[b] >= to[b])
+            return true;
+        if (head[a] != head[b])
+            return head[a] < head[b];
+        return a < b;
+    }
+
+    public static int[] intersection(@NonNull final int[][] arrs, @NonNull final int[] from, @NonNull final int[] to) {
+        final int k = arrs.length;
+        checkRanges(lengths(arrs), from, to);
+        if (k == 0)
+            return ArraysSupport.EMPTY_INT_ARRAY;
+
+        // Drive from the smallest input and probe the others in increasing size
+        final int[] order = bySize(from, to);
+        final int smallest = order[0];
+        final int[] driver = arrs[smallest];
+
+        final int[] pos = from.clone();
+        int[] out = new int[to[smallest] - from[smallest]];
+        int n = 0;
+        candidates:
+        for (int i = from[smallest]; i < to[smallest]; i++) {
+            int v = driver[i];
+            if (n > 0 && out[n - 1] == v)
+                continue;
+            for (int o = 1; o < k; o++) {
+                int j = order[o];
+                pos[j] = gallop(arrs[j], pos[j], to[j], v);
+                if (pos[j] == to[j])
+                    break candidates;
+                if (arrs[j][pos[j]] != v)
+                    continue candidates;
+            }
+            out[n++] = v;
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Exponential search from lo followed by a binary search,
+     * so probing for nearby keys costs O(log distance).
+     *
+     * @return The first index in [lo, hi) whose element is not less than the key, or hi
+     */
+    static int gallop(final int[] arr, final int lo, final int hi, final int key) {
+        if (lo >= hi || arr[lo] >= key)
+            return lo;
+
+        final int span = hi - lo;
+        int bound = 1;
+        while (bound < span && arr[lo + bound] < key) {
+            // Doubling past half the span would pass hi, and overflows once the span is past 2^30
+            if (bound > span >>> 1) {
+                bound = span;
+                break;
+            }
+            bound <<= 1;
+        }
+        int left = lo + (bound >>> 1) + 1;
+        int right = bound < span ? lo + bound : hi;
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (arr[mid] < key)
+                left = mid + 1;
+            else
+                right = mid;
+        }
+        return left;
+    }
+
+    static int[] lengths(final long[][] arrs) {
+        int[] lengths = new int[arrs.length];
+        for (int i = 0; i < arrs.length; i++)
+            lengths[i] = arrs[i].length;
+        return lengths;
+    }
+
+    public static long[] merge(@NonNull final long[][] arrs, @NonNull final int[] from, @NonNull final int[] to, final boolean distinct) {
+        final int k = arrs.length;
+        final int total = checkRanges(lengths(arrs), from, to);
+        if (k == 0 || total == 0)
+            return ArraysSupport.EMPTY_LONG_ARRAY;
+
+        final long[] head = new long[k];
+        final int[] pos = from.clone();
+        for (int i = 0; i < k; i++)
+            if (pos[i] < to[i])
+                head[i] = arrs[i][pos[i]];
+
+        // Losers live in tree[1..k-1], the overall winner in tree[0]
+        final int[] tree = new int[k];
+        final int[] winners = new int[2 * k];
+        for (int i = 0; i < k; i++)
+            winners[k + i] = i;
+        for (int t = k - 1; t > 0; t--) {
+            int l = winners[2 * t], r = winners[2 * t + 1];
+            if (beats(head, pos, to, l, r)) {
+                winners[t] = l;
+                tree[t] = r;
+            } else {
+                winners[t] = r;
+                tree[t] = l;
+            }
+        }
+        tree[0] = winners[1];
+
+        long[] out = new long[total];
+        int n = 0;
+        for (int remaining = total; remaining > 0; remaining--) {
+            int s = tree[0];
+            long v = head[s];
+            if (!distinct || n == 0 || out[n - 1] != v)
+                out[n++] = v;
+            if (++pos[s] < to[s])
+                head[s] = arrs[s][pos[s]];
+
+            // Replay the winner's path against the losers stored on it
+            for (int t = (s + k) >>> 1; t > 0; t >>>= 1) {
+                if (beats(head, pos, to, tree[t], s)) {
+                    int tmp = tree[t];
+                    tree[t] = s;
+                    s = tmp;
+                }
+            }
+            tree[0] = s;
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    // Whether source a should be taken before source b; exhausted sources always lose and ties go to the lower index
+    private static boolean beats(final long[] head, final int[] pos, final int[] to, final int a, final int b) {
+        if (pos[a] >= to[a])
+            return false;
+        if (pos[b] >= to[b])
+            return true;
+        if (head[a] != head[b])
+            return head[a] < head[b];
+        return a < b;
+    }
+
+    public static long[] intersection(@NonNull final long[][] arrs, @NonNull final int[] from, @NonNull final int[] to) {
+        final int k = arrs.length;
+        checkRanges(lengths(arrs), from, to);
+        if (k == 0)
+            return ArraysSupport.EMPTY_LONG_ARRAY;
+
+        // Drive from the smallest input and probe the others in increasing size
+        final int[] order = bySize(from, to);
+        final int smallest = order[0];
+        final long[] driver = arrs[smallest];
+
+        final int[] pos = from.clone();
+        long[] out = new long[to[smallest] - from[smallest]];
+        int n = 0;
+        candidates:
+        for (int i = from[smallest]; i < to[smallest]; i++) {
+            long v = driver[i];
+            if (n > 0 && out[n - 1] == v)
+                continue;
+            for (int o = 1; o < k; o++) {
+                int j = order[o];
+                pos[j] = gallop(arrs[j], pos[j], to[j], v);
+                if (pos[j] == to[j])
+                    break candidates;
+                if (arrs[j][pos[j]] != v)
+                    continue candidates;
+            }
+            out[n++] = v;
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Exponential search from lo followed by a binary search,
+     * so probing for nearby keys costs O(log distance).
+     *
+     * @return The first index in [lo, hi) whose element is not less than the key, or hi
+     */
+    static int gallop(final long[] arr, final int lo, final int hi, final long key) {
+        if (lo >= hi || arr[lo] >= key)
+            return lo;
+
+        final int span = hi - lo;
+        int bound = 1;
+        while (bound < span && arr[lo + bound] < key) {
+            // Doubling past half the span would pass hi, and overflows once the span is past 2^30
+            if (bound > span >>> 1) {
+                bound = span;
+                break;
+            }
+            bound <<= 1;
+        }
+        int left = lo + (bound >>> 1) + 1;
+        int right = bound < span ? lo + bound : hi;
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (arr[mid] < key)
+                left = mid + 1;
+            else
+                right = mid;
+        }
+        return left;
+    }
+}
@@ -0,0 +1,91 @@
+package github.grovre;
+
+import lombok.experimental.UtilityClass;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Holds the registered {@link ArraysSupportMetrics}. Instrumented calls look like
+ * <pre>{@code
+ * Metrics.Probe probe = Metrics.begin();
+ * ...
+ * if (probe != null)
+ *     probe.end("countingSort", "int[]", arr.length);
+ * }</pre>
+ * so nothing but the null check is paid while no metrics are registered
+ * and no Flight Recorder event is enabled.
+ */
+@UtilityClass
+class Metrics {
+
+    static volatile ArraysSupportMetrics registered;
+
+    // Null when the JVM cannot count allocated bytes per thread
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private static com.sun.management.ThreadMXBean threads() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+                if (threads.isThreadAllocatedMemorySupported()) {
+                    threads.setThreadAllocatedMemoryEnabled(true);
+                    return threads;
+                }
+            }
+        } catch (LinkageError | RuntimeException ignored) {
+            // Not a HotSpot-like JVM, or management is restricted
+        }
+        return null;
+    }
+
+    /**
+     * @return The bytes allocated by the current thread so far, or -1 if that cannot be measured
+     */
+    static long allocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * @return A started probe, or null if no metrics are registered and no Flight Recorder event is enabled
+     */
+    static Probe begin() {
+        ArraysSupportMetrics metrics = registered;
+        Object event = FlightRecorder.begin();
+        return metrics == null && event == null ? null : new Probe(metrics, event);
+    }
+
+    static final class Probe {
+
+        // Either may be null, but not both
+        private final ArraysSupportMetrics metrics;
+        private final Object event;
+        private final long allocated;
+        private final long start;
+
+        private Probe(final ArraysSupportMetrics metrics, final Object event) {
+            this.metrics = metrics;
+            this.event = event;
+            // Read after this probe itself has been allocated, so it is not counted
+            this.allocated = allocatedBytes();
+            this.start = System.nanoTime();
+        }
+
+        void end(final String operation, final String type, final int length) {
+            end(operation, type, length, -1, null);
+        }
+
+        /**
+         * @param range    The span of values the operation allocated for, or -1 if it does not depend on it
+         * @param strategy The name of the strategy the operation chose, or null if it has only one
+         */
+        void end(final String operation, final String type, final int length, final long range, final String strategy) {
+            long nanos = System.nanoTime() - start;
+            long bytes = allocated < 0 ? -1 : allocatedBytes() - allocated;
+            if (metrics != null)
+                metrics.record(operation, type, length, nanos, bytes);
+            if (event != null)
+                FlightRecorder.end(event, operation, type, length, range, strategy, nanos, bytes);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package github.grovre;
+
+import lombok.NonNull;
+
+/**
+ * <p>
+ * An immutable, frame-of-reference packed int array. Every element is stored as its
+ * distance from the minimum in just enough bits to hold the distance of the maximum,
+ * back to back in {@code long} words, so an array of values within a range of 1,000
+ * takes 10 bits per element instead of 32.
+ * </P>
+ * <p>
+ * Reading an element is a multiply, two shifts and a mask with no branch, and
+ * {@link #decode(int, int, int[])} unpacks runs sequentially. Counting and searching
+ * run on the packed words themselves: values outside the range are rejected without a
+ * scan, and when the bit width divides 64 a whole word of elements is compared at once.
+ * </P>
+ */
+public final class PackedIntArray {
+
+    // Elements unpacked per chunk by the scans that cannot compare whole words
+    private static final int CHUNK = 1 << 10;
+
+    // One extra word at the end, so reading an element may always touch the word after its own
+    private final long[] words;
+    private final int length;
+    private final int bits;
+    private final long mask;
+    private final int min, max;
+    // For bit widths that divide 64: the lowest bit of every field, and every bit but the highest
+    private final long ones, low;
+
+    private PackedIntArray(final long[] words, final int length, final int bits, final int min, final int max) {
+        this.words = words;
+        this.length = length;
+        this.bits = bits;
+        this.mask = bits == 0 ? 0 : -1L >>> (64 - bits);
+        this.min = min;
+        this.max = max;
+        this.ones = bits != 0 && 64 % bits == 0 ? Long.divideUnsigned(-1L, mask) : 0;
+        this.low = ~(ones << Math.max(bits - 1, 0));
+    }
+
+    /**
+     * @param arr The array to pack
+     * @return A packed copy of the whole array
+     */
+    public static PackedIntArray of(@NonNull final int[] arr) {
+        return of(arr, 0, arr.length);
+    }
+
+    /**
+     * @param arr  The array to pack
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to pack up to
+     * @return A packed copy of the given part of the array
+     */
+    public static PackedIntArray of(@NonNull final int[] arr, final int from, final int to) {
+        IntArrayView.checkRange(arr.length, from, to);
+        int min = 0, max = 0;
+        if (from < to) {
+            min = max = arr[from];
+            for (int i = from; i < to; i++) {
+                min = Math.min(min, arr[i]);
+                max = Math.max(max, arr[i]);
+            }
+        }
+        final int bits = 64 - Long.numberOfLeadingZeros((long) max - min);
+        final long[] words = new long[(int) Math.max(1, ((long) (to - from) * bits + 63) >>> 6) + 1];
+        long position = 0;
+        for (int i = from; i < to; i++, position += bits) {
+            long v = (long) arr[i] - min;
+            int w = (int) (position >>> 6), offset = (int) position & 63;
+            words[w] |= v << offset;
+            if (offset + bits > 64)
+                words[w + 1] |= v >>> (64 - offset);
+        }
+        return new PackedIntArray(words, to - from, bits, min, max);
+    }
+
+    /**
+     * @return The amount of elements
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return The bits each element is stored in, from 0 when every element is equal up to 32
+     */
+    public int bitsPerValue() {
+        return bits;
+    }
+
+    /**
+     * @param i The index of the element
+     * @return The element at the index
+     */
+    public int get(final int i) {
+        if (i < 0 || i >= length)
+            throw new ArrayIndexOutOfBoundsException("Index " + i + " out of bounds for length " + length);
+        final long position = (long) i * bits;
+        final int w = (int) (position >>> 6), offset = (int) position & 63;
+        // Shifting the next word by 1 and then 63 - offset moves it out entirely when offset is 0
+        return (int) (min + ((words[w] >>> offset | (words[w + 1] << 1) << (63 - offset)) & mask));
+    }
+
+    /**
+     * Unpacks part of the array in one sequential pass over the words.
+     *
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to decode up to
+     * @param dst  The array to write to, from index 0
+     */
+    public void decode(final int from, final int to, @NonNull final int[] dst) {
+        IntArrayView.checkRange(length, from, to);
+        if (dst.length < to - from)
+            throw new ArrayIndexOutOfBoundsException("Destination of length " + dst.length + " cannot hold " + (to - from) + " elements");
+        unpack(from, to, dst, min);
+    }
+
+    /**
+     * @return A plain array of every element
+     */
+    public int[] toArray() {
+        int[] arr = new int[length];
+        unpack(0, length, arr, min);
+        return arr;
+    }
+
+    /**
+     * Runs in O(1): the minimum is the frame of reference, and the maximum is kept with it.
+     *
+     * @return A sorted array with minimum and maximum, respectively.
+     * @throws ArrayIndexOutOfBoundsException If the array is empty
+     */
+    public int[] minmax() {
+        if (length == 0)
+            throw new ArrayIndexOutOfBoundsException("Empty array");
+        return new int[]{min, max};
+    }
+
+    /**
+     * Finds the minimum and maximum of part of the array, comparing the packed
+     * distances from the minimum rather than the elements.
+     *
+     * @param from The inclusive index to begin from
+     * @param to   The exclusive index to search up to
+     * @return A sorted array with minimum and maximum, respectively.
+     * @throws ArrayIndexOutOfBoundsException If the range is empty
+     */
+    public int[] minmax(final int from, final int to) {
+        IntArrayView.checkRange(length, from, to);
+        if (from == to)
+            throw new ArrayIndexOutOfBoundsException("Empty range");
+        if (from == 0 && to == length)
+            return minmax();
+        final int[] buf = new int[Math.min(CHUNK, to - from)];
+        // Distances are unsigned, so they are compared with the sign bit flipped
+        int lo = Integer.MAX_VALUE, hi = Integer.MIN_VALUE;
+        for (int i = from; i < to; i += buf.length) {
+            int end = Math.min(to, i + buf.length);
+            unpack(i, end, buf, Integer.MIN_VALUE);
+            for (int j = 0; j < end - i; j++) {
+                lo = Math.min(lo, buf[j]);
+                hi = Math.max(hi, buf[j]);
+            }
+        }
+        return new int[]{(int) (min + (lo - (long) Integer.MIN_VALUE)), (int) (min + (hi - (long) Integer.MIN_VALUE))};
+    }
+
+    /**
+     * @param target The element to count
+     * @return How many times the element occurs
+     */
+    public int frequency(final int target) {
+        if (length == 0 || target < min || target > max)
+            return 0;
+        if (bits == 0)
+            return length;
+        final long t = (long) target - min;
+        int count = 0;
+        if (64 % bits == 0) {
+            final int perWord = 64 / bits;
+            final int fullWords = length / perWord;
+            for (int w = 0; w < fullWords; w++)
+                count += Long.bitCount(matches(words[w], t));
+            int rest = length - fullWords * perWord;
+            if (rest > 0)
+                count += Long.bitCount(matches(words[fullWords], t) & ((1L << (rest * bits)) - 1));
+            return count;
+        }
+        final int[] buf = new int[Math.min(CHUNK, length)];
+        for (int i = 0; i < length; i += buf.length) {
+            int end = Math.min(length, i + buf.length);
+            unpack(i, end, buf, 0);
+            for (int j = 0; j < end - i; j++)
+                if (buf[j] == (int) t)
+                    count++;
+        }
+        return count;
+    }
+
+    /**
+     * @param target The element to find
+     * @return The first index of the element, or -1 if it does not occur
+     */
+    public int indexOf(final int target) {
+        if (length == 0 || target < min || target > max)
+            return -1;
+        if (bits == 0)
+            return 0;
+        final long t = (long) target - min;
+        if (64 % bits == 0) {
+            final int perWord = 64 / bits;
+            for (int w = 0, base = 0; base < length; w++, base += perWord) {
+                long found = matches(words[w], t);
+                if (found != 0) {
+                    int i = base + Long.numberOfTrailingZeros(found) / bits;
+                    return i < length ? i : -1;
+                }
+            }
+            return -1;
+        }
+        final int[] buf = new int[Math.min(CHUNK, length)];
+        for (int i = 0; i < length; i += buf.length) {
+            int end = Math.min(length, i + buf.length);
+            unpack(i, end, buf, 0);
+            for (int j = 0; j < end - i; j++)
+                if (buf[j] == (int) t)
+                    return i + j;
+        }
+        return -1;
+    }
+
+    /**
+     * Compares every field of a word to a distance at once, for bit widths that divide 64.
+     *
+     * @return A word with the top bit of each field set where the field equals the distance
+     */
+    private long matches(final long word, final long t) {
+        final long x = word ^ (t * ones);
+        // Adding the low bits carries into the top bit of every nonzero field, never across fields
+        return ~(((x & low) + low) | x | low);
+    }
+
+    /**
+     * Unpacks elements sequentially, carrying the current word and bit offset
+     * instead of recomputing them per element.
+     *
+     * @param bias Added to each distance before it is stored
+     */
+    private void unpack(final int from, final int to, final int[] dst, final int bias) {
+        final long position = (long) from * bits;
+        int w = (int) (position >>> 6), offset = (int) position & 63;
+        long word = words[w];
+        for (int i = 0; i < to - from; i++) {
+            long v = word >>> offset;
+            offset += bits;
+            if (offset >= 64) {
+                word = words[++w];
+                offset -= 64;
+                if (offset > 0)
+                    v |= word << (bits - offset);
+            }
+            dst[i] = (int) (bias + (v & mask));
+        }
+    }
+}
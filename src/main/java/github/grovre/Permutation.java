@@ -0,0 +1,548 @@
+package github.grovre;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Reordering arrays by a permutation in gather form, the form returned by
+ * {@code argsort}: afterwards <code>arr[i]</code> holds what was at
+ * <code>arr[perm[i]]</code>. In place, every cycle of the permutation is
+ * followed once, moving each element a single time.
+ */
+@UtilityClass
+class Permutation {
+
+    private static void checkLengths(final int arrLength, final int permLength) {
+        if (arrLength != permLength)
+            throw new IllegalArgumentException("Permutation of length " + permLength + " does not match the array of length " + arrLength);
+    }
+
+    private static void clearVisited(final long[] visited, final int n) {
+        int words = (n + 63) >>> 6;
+        if (visited.length < words)
+            throw new IllegalArgumentException("Visited bitmap of " + visited.length + " words is smaller than the " + words + " needed");
+        Arrays.fill(visited, 0, words, 0L);
+    }
+
+    // Restores every entry flipped to mark it visited, even if a broken permutation stopped the walk early
+    private static void unmark(final int[] perm) {
+        for (int i = 0; i < perm.length; i++)
+            if (perm[i] < 0)
+                perm[i] = ~perm[i];
+    }
+
+    public static boolean isPermutation(@NonNull final int[] perm) {
+        long[] seen = new long[(perm.length + 63) >>> 6];
+        for (int p : perm) {
+            if (p < 0 || p >= perm.length || (seen[p >>> 6] & (1L << p)) != 0)
+                return false;
+            seen[p >>> 6] |= 1L << p;
+        }
+        return true;
+    }
+
+    public static int[] invert(@NonNull final int[] perm) {
+        int[] inverse = new int[perm.length];
+        for (int i = 0; i < perm.length; i++)
+            inverse[perm[i]] = i;
+        return inverse;
+    }
+
+    public static void apply(@NonNull final int[] arr, @NonNull final int[] perm) {
+        checkLengths(arr.length, perm.length);
+        try {
+            for (int i = 0; i < arr.length; i++) {
+                if (perm[i] < 0)
+                    continue;
+                // Follow the cycle through i, marking each visited entry by flipping its bits
+                int first = arr[i];
+                int j = i;
+                while (true) {
+                    int k = perm[j];
+                    perm[j] = ~k;
+                    if (k == i) {
+                        arr[j] = first;
+                        break;
+                    }
+                    arr[j] = arr[k];
+                    j = k;
+                }
+            }
+        } finally {
+            unmark(perm);
+        }
+    }
+
+    public static void apply(@NonNull final int[] arr, @NonNull final int[] perm, @NonNull final long[] visited) {
+        checkLengths(arr.length, perm.length);
+        clearVisited(visited, arr.length);
+        for (int i = 0; i < arr.length; i++) {
+            if ((visited[i >>> 6] & (1L << i)) != 0)
+                continue;
+            int first = arr[i];
+            int j = i;
+            while (true) {
+                visited[j >>> 6] |= 1L << j;
+                int k = perm[j];
+                if (k == i) {
+                    arr[j] = first;
+                    break;
+                }
+                if ((visited[k >>> 6] & (1L << k)) != 0)
+                    throw new IllegalArgumentException("Not a permutation: index " + k + " appears more than once");
+                arr[j] = arr[k];
+                j = k;
+            }
+        }
+    }
+
+    public static int[] parallelApply(@NonNull final int[] arr, @NonNull final int[] perm) {
+        checkLengths(arr.length, perm.length);
+        int[] result = new int[arr.length];
+        IntStream.range(0, arr.length).parallel().forEach(i -> result[i] = arr[perm[i]]);
+        return result;
+    }
+
+    public static void apply(@NonNull final long[] arr, @NonNull final int[] perm) {
+        checkLengths(arr.length, perm.length);
+        try {
+            for (int i = 0; i < arr.length; i++) {
+                if (perm[i] < 0)
+                    continue;
+                // Follow the cycle through i, marking each visited entry by flipping its bits
+                long first = arr[i];
+                int j = i;
+                while (true) {
+                    int k = perm[j];
+                    perm[j] = ~k;
+                    if (k == i) {
+                        arr[j] = first;
+                        break;
+                    }
+                    arr[j] = arr[k];
+                    j = k;
+                }
+            }
+        } finally {
+            unmark(perm);
+        }
+    }
+
+    public static void apply(@NonNull final long[] arr, @NonNull final int[] perm, @NonNull final long[] visited) {
+        checkLengths(arr.length, perm.length);
+        clearVisited(visited, arr.length);
+        for (int i = 0; i < arr.length; i++) {
+            if ((visited[i >>> 6] & (1L << i)) != 0)
+                continue;
+            long first = arr[i];
+            int j = i;
+            while (true) {
+                visited[j >>> 6] |= 1L << j;
+                int k = perm[j];
+                if (k == i) {
+                    arr[j] = first;
+                    break;
+                }
+                if ((visited[k >>> 6] & (1L << k)) != 0)
+                    throw new IllegalArgumentException("Not a permutation: index " + k + " appears more than once");
+                arr[j] = arr[k];
+                j = k;
+            }
+        }
+    }
+
+    public static long[] parallelApply(@NonNull final long[] arr, @NonNull final int[] perm) {
+        checkLengths(arr.length, perm.length);
+        long[] result = new long[arr.length];
+        IntStream.range(0, arr.length).parallel().forEach(i -> result[i] = arr[perm[i]]);
+        return result;
+    }
+
+    public static void apply(@NonNull final short[] arr, @NonNull final int[] perm) {
+        checkLengths(arr.length, perm.length);
+        try {
+            for (int i = 0; i < arr.length; i++) {
+                if (perm[i] < 0)
+                    continue;
+                // Follow the cycle through i, marking each visited entry by flipping its bits
+                short first = arr[i];
+                int j = i;
+                while (true) {
+                    int k = perm[j];
+                    perm[j] = ~k;
+                    if (k == i) {
+                        arr[j] = first;
+                        break;
+                    }
+                    arr[j] = arr[k];
+                    j = k;
+                }
+            }
+        } finally {
+            unmark(perm);
+        }
+    }
+
+    public static void apply(@NonNull final short[] arr, @NonNull final int[] perm, @NonNull final long[] visited) {
+        checkLengths(arr.length, perm.length);
+        clearVisited(visited, arr.length);
+        for (int i = 0; i < arr.length; i++) {
+            if ((visited[i >>> 6] & (1L << i)) != 0)
+                continue;
+            short first = arr[i];
+            int j = i;
+            while (true) {
+                visited[j >>> 6] |= 1L << j;
+                int k = perm[j];
+                if (k == i) {
+                    arr[j] = first;
+                    break;
+                }
+                if ((visited[k >>> 6] & (1L << k)) != 0)
+                    throw new IllegalArgumentException("Not a permutation: index " + k + " appears more than once");
+                arr[j] = arr[k];
+                j = k;
+            }
+        }
+    }
+
+    public static short[] parallelApply(@NonNull final short[] arr, @NonNull final int[] perm) {
+        checkLengths(arr.length, perm.length);
+        short[] result = new short[arr.length];
+        IntStream.range(0, arr.length).parallel().forEach(i -> result[i] = arr[perm[i]]);
+        return result;
+    }
+
+    public static void apply(@NonNull final byte[] arr, @NonNull final int[] perm) {
+        checkLengths(arr.length, perm.length);
+        try {
+            for (int i = 0; i < arr.length; i++) {
+                if (perm[i] < 0)
+                    continue;
+                // Follow the cycle through i, marking each visited entry by flipping its bits
+                byte first = arr[i];
+                int j = i;
+                while (true) {
+                    int k = perm[j];
+                    perm[j] = ~k;
+                    if (k == i) {
+                        arr[j] = first;
+                        break;
+                    }
+                    arr[j] = arr[k];
+                    j = k;
+                }
+            }
+        } finally {
+            unmark(perm);
+        }
+    }
+
+    public static void apply(@NonNull final byte[] arr, @NonNull final int[] perm, @NonNull final long[] visited) {
+        checkLengths(arr.length, perm.length);
+        clearVisited(visited, arr.length);
+        for (int i = 0; i < arr.length; i++) {
+            if ((visited[i >>> 6] & (1L << i)) != 0)
+                continue;
+            byte first = arr[i];
+            int j = i;
+            while (true) {
+                visited[j >>> 6] |= 1L << j;
+                int k = perm[j];
+                if (k == i) {
+                    arr[j] = first;
+                    break;
+                }
+                if ((visited[k >>> 6] & (1L << k)) != 0)
+                    throw new IllegalArgumentException("Not a permutation: index " + k + " appears more than once");
+                arr[j] = arr[k];
+                j = k;
+            }
+        }
+    }
+
+    public static byte[] parallelApply(@NonNull final byte[] arr, @NonNull final int[] perm) {
+        checkLengths(arr.length, perm.length);
+        byte[] result = new byte[arr.length];
+        IntStream.range(0, arr.length).parallel().forEach(i -> result[i] = arr[perm[i]]);
+        return result;
+    }
+
+    public static void apply(@NonNull final char[] arr, @NonNull final int[] perm) {
+        checkLengths(arr.length, perm.length);
+        try {
+            for (int i = 0; i < arr.length; i++) {
+                if (perm[i] < 0)
+                    continue;
+                // Follow the cycle through i, marking each visited entry by flipping its bits
+                char first = arr[i];
+                int j = i;
+                while (true) {
+                    int k = perm[j];
+                    perm[j] = ~k;
+                    if (k == i) {
+                        arr[j] = first;
+                        break;
+                    }
+                    arr[j] = arr[k];
+                    j = k;
+                }
+            }
+        } finally {
+            unmark(perm);
+        }
+    }
+
+    public static void apply(@NonNull final char[] arr, @NonNull final int[] perm, @NonNull final long[] visited) {
+        checkLengths(arr.length, perm.length);
+        clearVisited(visited, arr.length);
+        for (int i = 0; i < arr.length; i++) {
+            if ((visited[i >>> 6] & (1L << i)) != 0)
+                continue;
+            char first = arr[i];
+            int j = i;
+            while (true) {
+                visited[j >>> 6] |= 1L << j;
+                int k = perm[j];
+                if (k == i) {
+                    arr[j] = first;
+                    break;
+                }
+                if ((visited[k >>> 6] & (1L << k)) != 0)
+                    throw new IllegalArgumentException("Not a permutation: index " + k + " appears more than once");
+                arr[j] = arr[k];
+                j = k;
+            }
+        }
+    }
+
+    public static char[] parallelApply(@NonNull final char[] arr, @NonNull final int[] perm) {
+        checkLengths(arr.length, perm.length);
+        char[] result = new char[arr.length];
+        IntStream.range(0, arr.length).parallel().forEach(i -> result[i] = arr[perm[i]]);
+        return result;
+    }
+
+    public static void apply(@NonNull final float[] arr, @NonNull final int[] perm) {
+        checkLengths(arr.length, perm.length);
+        try {
+            for (int i = 0; i < arr.length; i++) {
+                if (perm[i] < 0)
+                    continue;
+                // Follow the cycle through i, marking each visited entry by flipping its bits
+                float first = arr[i];
+                int j = i;
+                while (true) {
+                    int k = perm[j];
+                    perm[j] = ~k;
+                    if (k == i) {
+                        arr[j] = first;
+                        break;
+                    }
+                    arr[j] = arr[k];
+                    j = k;
+                }
+            }
+        } finally {
+            unmark(perm);
+        }
+    }
+
+    public static void apply(@NonNull final float[] arr, @NonNull final int[] perm, @NonNull final long[] visited) {
+        checkLengths(arr.length, perm.length);
+        clearVisited(visited, arr.length);
+        for (int i = 0; i < arr.length; i++) {
+            if ((visited[i >>> 6] & (1L << i)) != 0)
+                continue;
+            float first = arr[i];
+            int j = i;
+            while (true) {
+                visited[j >>> 6] |= 1L << j;
+                int k = perm[j];
+                if (k == i) {
+                    arr[j] = first;
+                    break;
+                }
+                if ((visited[k >>> 6] & (1L << k)) != 0)
+                    throw new IllegalArgumentException("Not a permutation: index " + k + " appears more than once");
+                arr[j] = arr[k];
+                j = k;
+            }
+        }
+    }
+
+    public static float[] parallelApply(@NonNull final float[] arr, @NonNull final int[] perm) {
+        checkLengths(arr.length, perm.length);
+        float[] result = new float[arr.length];
+        IntStream.range(0, arr.length).parallel().forEach(i -> result[i] = arr[perm[i]]);
+        return result;
+    }
+
+    public static void apply(@NonNull final double[] arr, @NonNull final int[] perm) {
+        checkLengths(arr.length, perm.length);
+        try {
+            for (int i = 0; i < arr.length; i++) {
+                if (perm[i] < 0)
+                    continue;
+                // Follow the cycle through i, marking each visited entry by flipping its bits
+                double first = arr[i];
+                int j = i;
+                while (true) {
+                    int k = perm[j];
+                    perm[j] = ~k;
+                    if (k == i) {
+                        arr[j] = first;
+                        break;
+                    }
+                    arr[j] = arr[k];
+                    j = k;
+                }
+            }
+        } finally {
+            unmark(perm);
+        }
+    }
+
+    public static void apply(@NonNull final double[] arr, @NonNull final int[] perm, @NonNull final long[] visited) {
+        checkLengths(arr.length, perm.length);
+        clearVisited(visited, arr.length);
+        for (int i = 0; i < arr.length; i++) {
+            if ((visited[i >>> 6] & (1L << i)) != 0)
+                continue;
+            double first = arr[i];
+            int j = i;
+            while (true) {
+                visited[j >>> 6] |= 1L << j;
+                int k = perm[j];
+                if (k == i) {
+                    arr[j] = first;
+                    break;
+                }
+                if ((visited[k >>> 6] & (1L << k)) != 0)
+                    throw new IllegalArgumentException("Not a permutation: index " + k + " appears more than once");
+                arr[j] = arr[k];
+                j = k;
+            }
+        }
+    }
+
+    public static double[] parallelApply(@NonNull final double[] arr, @NonNull final int[] perm) {
+        checkLengths(arr.length, perm.length);
+        double[] result = new double[arr.length];
+        IntStream.range(0, arr.length).parallel().forEach(i -> result[i] = arr[perm[i]]);
+        return result;
+    }
+
+    public static void apply(@NonNull final boolean[] arr, @NonNull final int[] perm) {
+        checkLengths(arr.length, perm.length);
+        try {
+            for (int i = 0; i < arr.length; i++) {
+                if (perm[i] < 0)
+                    continue;
+                // Follow the cycle through i, marking each visited entry by flipping its bits
+                boolean first = arr[i];
+                int j = i;
+                while (true) {
+                    int k = perm[j];
+                    perm[j] = ~k;
+                    if (k == i) {
+                        arr[j] = first;
+                        break;
+                    }
+                    arr[j] = arr[k];
+                    j = k;
+                }
+            }
+        } finally {
+            unmark(perm);
+        }
+    }
+
+    public static void apply(@NonNull final boolean[] arr, @NonNull final int[] perm, @NonNull final long[] visited) {
+        checkLengths(arr.length, perm.length);
+        clearVisited(visited, arr.length);
+        for (int i = 0; i < arr.length; i++) {
+            if ((visited[i >>> 6] & (1L << i)) != 0)
+                continue;
+            boolean first = arr[i];
+            int j = i;
+            while (true) {
+                visited[j >>> 6] |= 1L << j;
+                int k = perm[j];
+                if (k == i) {
+                    arr[j] = first;
+                    break;
+                }
+                if ((visited[k >>> 6] & (1L << k)) != 0)
+                    throw new IllegalArgumentException("Not a permutation: index " + k + " appears more than once");
+                arr[j] = arr[k];
+                j = k;
+            }
+        }
+    }
+
+    public static boolean[] parallelApply(@NonNull final boolean[] arr, @NonNull final int[] perm) {
+        checkLengths(arr.length, perm.length);
+        boolean[] result = new boolean[arr.length];
+        IntStream.range(0, arr.length).parallel().forEach(i -> result[i] = arr[perm[i]]);
+        return result;
+    }
+
+    public static <T> void apply(@NonNull final T[] arr, @NonNull final int[] perm) {
+        checkLengths(arr.length, perm.length);
+        try {
+            for (int i = 0; i < arr.length; i++) {
+                if (perm[i] < 0)
+                    continue;
+                // Follow the cycle through i, marking each visited entry by flipping its bits
+                T first = arr[i];
+                int j = i;
+                while (true) {
+                    int k = perm[j];
+                    perm[j] = ~k;
+                    if (k == i) {
+                        arr[j] = first;
+                        break;
+                    }
+                    arr[j] = arr[k];
+                    j = k;
+                }
+            }
+        } finally {
+            unmark(perm);
+        }
+    }
+
+    public static <T> void apply(@NonNull final T[] arr, @NonNull final int[] perm, @NonNull final long[] visited) {
+        checkLengths(arr.length, perm.length);
+        clearVisited(visited, arr.length);
+        for (int i = 0; i < arr.length; i++) {
+            if ((visited[i >>> 6] & (1L << i)) != 0)
+                continue;
+            T first = arr[i];
+            int j = i;
+            while (true) {
+                visited[j >>> 6] |= 1L << j;
+                int k = perm[j];
+                if (k == i) {
+                    arr[j] = first;
+                    break;
+                }
+                if ((visited[k >>> 6] & (1L << k)) != 0)
+                    throw new IllegalArgumentException("Not a permutation: index " + k + " appears more than once");
+                arr[j] = arr[k];
+                j = k;
+            }
+        }
+    }
+
+    public static <T> T[] parallelApply(@NonNull final T[] arr, @NonNull final int[] perm) {
+        checkLengths(arr.length, perm.length);
+        T[] result = arr.clone();
+        IntStream.range(0, arr.length).parallel().forEach(i -> result[i] = arr[perm[i]]);
+        return result;
+    }
+}
@@ -0,0 +1,208 @@
+package github.grovre;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Exact quantiles by selection rather than sorting. All order statistics
+ * needed for a set of quantiles are found in one multi-select, so asking
+ * for p50, p90 and p99 at once costs about one partitioning pass.
+ * Quantiles interpolate linearly between the closest ranks, the same
+ * definition as R's type 7 and NumPy's default.
+ */
+@UtilityClass
+class Quantiles {
+
+    /**
+     * @return The sorted, distinct ranks needed to interpolate every quantile
+     */
+    static int[] ranks(final int n, final double[] qs) {
+        int[] ranks = new int[qs.length * 2];
+        int count = 0;
+        for (double q : qs) {
+            if (!(q >= 0 && q <= 1))
+                throw new IllegalArgumentException("Quantile must be between 0 and 1 but was " + q);
+            double h = (n - 1) * q;
+            int lo = (int) h;
+            ranks[count++] = lo;
+            if (h > lo)
+                ranks[count++] = lo + 1;
+        }
+        Arrays.sort(ranks, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++)
+            if (distinct == 0 || ranks[distinct - 1] != ranks[i])
+                ranks[distinct++] = ranks[i];
+        return Arrays.copyOf(ranks, distinct);
+    }
+
+    private static double[] interpolate(final int n, final double[] qs, final IntToDoubleFunction valueAtRank) {
+        double[] result = new double[qs.length];
+        for (int i = 0; i < qs.length; i++) {
+            double h = (n - 1) * qs[i];
+            int lo = (int) h;
+            double v = valueAtRank.applyAsDouble(lo);
+            result[i] = h > lo ? v + (h - lo) * (valueAtRank.applyAsDouble(lo + 1) - v) : v;
+        }
+        return result;
+    }
+
+    public static double[] quantiles(@NonNull final int[] arr, @NonNull final double[] qs, final int[] scratch, final boolean inPlace) {
+        final int n = arr.length;
+        if (n == 0)
+            throw new IllegalArgumentException("Quantiles of an empty array are undefined");
+        final int[] ranks = ranks(n, qs);
+
+        int[] minmax = ArraysSupport.minmax(arr);
+        // A value range no larger than the array makes a histogram cheaper than selecting
+        if (minmax[1] - minmax[0] >= 0 && minmax[1] - minmax[0] < n) {
+            int[] map = Sort.histogram(arr, minmax[0], minmax[1]);
+            double[] values = new double[ranks.length];
+            int r = 0;
+            long seen = 0;
+            for (int mapI = 0; mapI < map.length && r < ranks.length; mapI++) {
+                seen += map[mapI];
+                while (r < ranks.length && ranks[r] < seen)
+                    values[r++] = minmax[0] + mapI;
+            }
+            return interpolate(n, qs, rank -> values[Arrays.binarySearch(ranks, rank)]);
+        }
+        int[] work;
+        if (inPlace) {
+            work = arr;
+        } else if (scratch != null) {
+            if (scratch.length < n)
+                throw new IllegalArgumentException("Scratch buffer of length " + scratch.length + " is smaller than the array of length " + n);
+            System.arraycopy(arr, 0, scratch, 0, n);
+            work = scratch;
+        } else {
+            work = arr.clone();
+        }
+        multiSelect(work, 0, n, ranks, 0, ranks.length - 1);
+        return interpolate(n, qs, rank -> work[rank]);
+    }
+
+    // Every rank is selected by partitioning only the range left between its neighbours
+    private static void multiSelect(final int[] arr, final int from, final int to, final int[] ranks, final int rlo, final int rhi) {
+        if (rlo > rhi || from >= to)
+            return;
+        int m = (rlo + rhi) >>> 1;
+        int rank = ranks[m];
+        Select.nthElement(arr, from, to, rank);
+        multiSelect(arr, from, rank, ranks, rlo, m - 1);
+        multiSelect(arr, rank + 1, to, ranks, m + 1, rhi);
+    }
+
+    public static double[] quantiles(@NonNull final long[] arr, @NonNull final double[] qs, final long[] scratch, final boolean inPlace) {
+        final int n = arr.length;
+        if (n == 0)
+            throw new IllegalArgumentException("Quantiles of an empty array are undefined");
+        final int[] ranks = ranks(n, qs);
+
+        long[] minmax = ArraysSupport.minmax(arr);
+        // A value range no larger than the array makes a histogram cheaper than selecting
+        if (minmax[1] - minmax[0] >= 0 && minmax[1] - minmax[0] < n) {
+            int[] map = Sort.histogram(arr, minmax[0], minmax[1]);
+            double[] values = new double[ranks.length];
+            int r = 0;
+            long seen = 0;
+            for (int mapI = 0; mapI < map.length && r < ranks.length; mapI++) {
+                seen += map[mapI];
+                while (r < ranks.length && ranks[r] < seen)
+                    values[r++] = minmax[0] + mapI;
+            }
+            return interpolate(n, qs, rank -> values[Arrays.binarySearch(ranks, rank)]);
+        }
+        long[] work;
+        if (inPlace) {
+            work = arr;
+        } else if (scratch != null) {
+            if (scratch.length < n)
+                throw new IllegalArgumentException("Scratch buffer of length " + scratch.length + " is smaller than the array of length " + n);
+            System.arraycopy(arr, 0, scratch, 0, n);
+            work = scratch;
+        } else {
+            work = arr.clone();
+        }
+        multiSelect(work, 0, n, ranks, 0, ranks.length - 1);
+        return interpolate(n, qs, rank -> work[rank]);
+    }
+
+    // Every rank is selected by partitioning only the range left between its neighbours
+    private static void multiSelect(final long[] arr, final int from, final int to, final int[] ranks, final int rlo, final int rhi) {
+        if (rlo > rhi || from >= to)
+            return;
+        int m = (rlo + rhi) >>> 1;
+        int rank = ranks[m];
+        Select.nthElement(arr, from, to, rank);
+        multiSelect(arr, from, rank, ranks, rlo, m - 1);
+        multiSelect(arr, rank + 1, to, ranks, m + 1, rhi);
+    }
+
+    public static double[] quantiles(@NonNull final float[] arr, @NonNull final double[] qs, final float[] scratch, final boolean inPlace) {
+        final int n = arr.length;
+        if (n == 0)
+            throw new IllegalArgumentException("Quantiles of an empty array are undefined");
+        final int[] ranks = ranks(n, qs);
+
+        float[] work;
+        if (inPlace) {
+            work = arr;
+        } else if (scratch != null) {
+            if (scratch.length < n)
+                throw new IllegalArgumentException("Scratch buffer of length " + scratch.length + " is smaller than the array of length " + n);
+            System.arraycopy(arr, 0, scratch, 0, n);
+            work = scratch;
+        } else {
+            work = arr.clone();
+        }
+        multiSelect(work, 0, n, ranks, 0, ranks.length - 1);
+        return interpolate(n, qs, rank -> work[rank]);
+    }
+
+    // Every rank is selected by partitioning only the range left between its neighbours
+    private static void multiSelect(final float[] arr, final int from, final int to, final int[] ranks, final int rlo, final int rhi) {
+        if (rlo > rhi || from >= to)
+            return;
+        int m = (rlo + rhi) >>> 1;
+        int rank = ranks[m];
+        Select.nthElement(arr, from, to, rank);
+        multiSelect(arr, from, rank, ranks, rlo, m - 1);
+        multiSelect(arr, rank + 1, to, ranks, m + 1, rhi);
+    }
+
+    public static double[] quantiles(@NonNull final double[] arr, @NonNull final double[] qs, final double[] scratch, final boolean inPlace) {
+        final int n = arr.length;
+        if (n == 0)
+            throw new IllegalArgumentException("Quantiles of an empty array are undefined");
+        final int[] ranks = ranks(n, qs);
+
+        double[] work;
+        if (inPlace) {
+            work = arr;
+        } else if (scratch != null) {
+            if (scratch.length < n)
+                throw new IllegalArgumentException("Scratch buffer of length " + scratch.length + " is smaller than the array of length " + n);
+            System.arraycopy(arr, 0, scratch, 0, n);
+            work = scratch;
+        } else {
+            work = arr.clone();
+        }
+        multiSelect(work, 0, n, ranks, 0, ranks.length - 1);
+        return interpolate(n, qs, rank -> work[rank]);
+    }
+
+    // Every rank is selected by partitioning only the range left between its neighbours
+    private static void multiSelect(final double[] arr, final int from, final int to, final int[] ranks, final int rlo, final int rhi) {
+        if (rlo > rhi || from >= to)
+            return;
+        int m = (rlo + rhi) >>> 1;
+        int rank = ranks[m];
+        Select.nthElement(arr, from, to, rank);
+        multiSelect(arr, from, rank, ranks, rlo, m - 1);
+        multiSelect(arr, rank + 1, to, ranks, m + 1, rhi);
+    }
+}
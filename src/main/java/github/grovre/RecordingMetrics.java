@@ -0,0 +1,145 @@
+package github.grovre;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * {@link ArraysSupportMetrics} that keep totals per operation and element type: calls,
+ * elements, time and allocated bytes, plus a histogram of call durations in
+ * power-of-two nanosecond buckets. Recording never blocks and, once an operation
+ * has been seen, never allocates.
+ * </P>
+ * <pre>{@code
+ * RecordingMetrics metrics = new RecordingMetrics();
+ * ArraysSupportMetrics.register(metrics);
+ * ...
+ * for (RecordingMetrics.Summary s : metrics.snapshot())
+ *     System.out.println(s.getOperation() + "(" + s.getType() + ") " + s.getTotalNanos());
+ * }</pre>
+ */
+public final class RecordingMetrics implements ArraysSupportMetrics {
+
+    private static final int BUCKETS = 64;
+
+    private final ConcurrentMap<String, ConcurrentMap<String, Recording>> operations = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(final String operation, final String type, final int length, final long nanos, final long allocatedBytes) {
+        ConcurrentMap<String, Recording> types = operations.get(operation);
+        if (types == null)
+            types = operations.computeIfAbsent(operation, o -> new ConcurrentHashMap<>());
+        Recording recording = types.get(type);
+        if (recording == null)
+            recording = types.computeIfAbsent(type, t -> new Recording());
+        recording.calls.increment();
+        recording.elements.add(length);
+        recording.nanos.add(nanos);
+        if (allocatedBytes > 0)
+            recording.bytes.add(allocatedBytes);
+        recording.histogram.incrementAndGet(bucket(nanos));
+    }
+
+    /**
+     * @return A summary of every operation and type recorded so far
+     */
+    public List<Summary> snapshot() {
+        List<Summary> summaries = new ArrayList<>();
+        operations.forEach((operation, types) -> types.forEach((type, recording) -> {
+            long[] histogram = new long[BUCKETS];
+            for (int b = 0; b < BUCKETS; b++)
+                histogram[b] = recording.histogram.get(b);
+            summaries.add(new Summary(operation, type, recording.calls.sum(), recording.elements.sum(),
+                    recording.nanos.sum(), recording.bytes.sum(), histogram));
+        }));
+        return summaries;
+    }
+
+    /**
+     * @param operation The name of the operation
+     * @param type      The array type
+     * @return The summary of the operation on the type, or null if it was never recorded
+     */
+    public Summary summary(final String operation, final String type) {
+        for (Summary summary : snapshot())
+            if (summary.operation.equals(operation) && summary.type.equals(type))
+                return summary;
+        return null;
+    }
+
+    /**
+     * Forgets everything recorded so far.
+     */
+    public void reset() {
+        operations.clear();
+    }
+
+    // Bucket b holds durations in [2^(b-1), 2^b), bucket 0 holds 0
+    private static int bucket(final long nanos) {
+        return nanos <= 0 ? 0 : BUCKETS - Long.numberOfLeadingZeros(nanos);
+    }
+
+    private static final class Recording {
+        final LongAdder calls = new LongAdder();
+        final LongAdder elements = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    }
+
+    /**
+     * The totals recorded for one operation on one element type.
+     */
+    @Value
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    public static class Summary {
+
+        String operation;
+        String type;
+        long calls;
+        long elements;
+        long totalNanos;
+        /**
+         * The bytes allocated by all calls, or 0 if the JVM cannot measure them.
+         */
+        long allocatedBytes;
+        /**
+         * Call counts by duration: index b counts calls that took [2^(b-1), 2^b) nanoseconds.
+         */
+        long[] histogram;
+
+        /**
+         * @return The mean call duration in nanoseconds, or 0 if there were no calls
+         */
+        public double getMeanNanos() {
+            return calls == 0 ? 0 : (double) totalNanos / calls;
+        }
+
+        /**
+         * Estimates a percentile of the call durations from the histogram.
+         *
+         * @param q The percentile as a fraction in [0, 1], such as 0.99
+         * @return The upper bound, in nanoseconds, of the bucket holding that percentile
+         */
+        public long percentileNanos(final double q) {
+            if (q < 0 || q > 1)
+                throw new IllegalArgumentException("Percentile " + q + " is not in [0, 1]");
+            long rank = (long) Math.ceil(q * calls);
+            long seen = 0;
+            for (int b = 0; b < histogram.length; b++) {
+                seen += histogram[b];
+                if (seen >= rank && seen > 0)
+                    return b == 0 ? 0 : b >= 63 ? Long.MAX_VALUE : (1L << b) - 1;
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package github.grovre;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Prefix sums (scans). The parallel scan is the usual two-pass blocked scan:
+ * every block is summed in parallel, the block sums are scanned sequentially
+ * into offsets, then every block is scanned in parallel starting from its offset.
+ * Source and destination may be the same array.
+ */
+@UtilityClass
+class Scan {
+
+    // Below this many elements per block the second pass is not worth forking
+    private static final int MIN_BLOCK_SIZE = 1 << 13;
+
+    private static void checkLengths(final int srcLength, final int dstLength) {
+        if (dstLength < srcLength)
+            throw new IllegalArgumentException("Destination of length " + dstLength + " is smaller than the source of length " + srcLength);
+    }
+
+    static int blocks(final int n, final ForkJoinPool pool) {
+        return (int) Math.min((long) pool.getParallelism() * 4, n / MIN_BLOCK_SIZE);
+    }
+
+    /**
+     * Runs the body for every block index in [from, to), splitting the range in half until one block is left.
+     */
+    static final class Blocks extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+        private final IntConsumer body;
+
+        Blocks(final int from, final int to, final IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.accept(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Blocks(from, mid, body), new Blocks(mid, to, body));
+        }
+    }
+
+    public static void scan(@NonNull final int[] src, @NonNull final int[] dst, final boolean exclusive, final ForkJoinPool pool) {
+        checkLengths(src.length, dst.length);
+        final int n = src.length;
+        final int blocks = pool == null ? 1 : blocks(n, pool);
+        if (blocks <= 1) {
+            scan(src, dst, 0, n, 0, exclusive);
+            return;
+        }
+
+        final int blockSize = (n + blocks - 1) / blocks;
+        final int[] sums = new int[blocks];
+        pool.invoke(new Blocks(0, blocks, b -> {
+            int sum = 0;
+            for (int i = b * blockSize, end = Math.min(n, i + blockSize); i < end; i++)
+                sum += src[i];
+            sums[b] = sum;
+        }));
+        int offset = 0;
+        for (int b = 0; b < blocks; b++) {
+            int sum = sums[b];
+            sums[b] = offset;
+            offset += sum;
+        }
+        pool.invoke(new Blocks(0, blocks, b -> {
+            int from = b * blockSize;
+            scan(src, dst, from, Math.min(n, from + blockSize), sums[b], exclusive);
+        }));
+    }
+
+    private static void scan(final int[] src, final int[] dst, final int from, final int to, int sum, final boolean exclusive) {
+        if (exclusive) {
+            for (int i = from; i < to; i++) {
+                int v = src[i];
+                dst[i] = sum;
+                sum += v;
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                sum += src[i];
+                dst[i] = sum;
+            }
+        }
+    }
+
+    public static void scan(@NonNull final long[] src, @NonNull final long[] dst, final boolean exclusive, final ForkJoinPool pool) {
+        checkLengths(src.length, dst.length);
+        final int n = src.length;
+        final int blocks = pool == null ? 1 : blocks(n, pool);
+        if (blocks <= 1) {
+            scan(src, dst, 0, n, 0, exclusive);
+            return;
+        }
+
+        final int blockSize = (n + blocks - 1) / blocks;
+        final long[] sums = new long[blocks];
+        pool.invoke(new Blocks(0, blocks, b -> {
+            long sum = 0;
+            for (int i = b * blockSize, end = Math.min(n, i + blockSize); i < end; i++)
+                sum += src[i];
+            sums[b] = sum;
+        }));
+        long offset = 0;
+        for (int b = 0; b < blocks; b++) {
+            long sum = sums[b];
+            sums[b] = offset;
+            offset += sum;
+        }
+        pool.invoke(new Blocks(0, blocks, b -> {
+            int from = b * blockSize;
+            scan(src, dst, from, Math.min(n, from + blockSize), sums[b], exclusive);
+        }));
+    }
+
+    private static void scan(final long[] src, final long[] dst, final int from, final int to, long sum, final boolean exclusive) {
+        if (exclusive) {
+            for (int i = from; i < to; i++) {
+                long v = src[i];
+                dst[i] = sum;
+                sum += v;
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                sum += src[i];
+                dst[i] = sum;
+            }
+        }
+    }
+
+    public static void scan(@NonNull final float[] src, @NonNull final float[] dst, final boolean exclusive,
+                            final boolean compensated, final ForkJoinPool pool) {
+        checkLengths(src.length, dst.length);
+        final int n = src.length;
+        final int blocks = pool == null ? 1 : blocks(n, pool);
+        if (blocks <= 1) {
+            scan(src, dst, 0, n, 0, 0, exclusive, compensated);
+            return;
+        }
+
+        final int blockSize = (n + blocks - 1) / blocks;
+        final float[] sums = new float[blocks];
+        final float[] errors = new float[blocks];
+        pool.invoke(new Blocks(0, blocks, b -> {
+            float sum = 0, c = 0;
+            for (int i = b * blockSize, end = Math.min(n, i + blockSize); i < end; i++) {
+                if (compensated) {
+                    float y = src[i] - c;
+                    float t = sum + y;
+                    c = (t - sum) - y;
+                    sum = t;
+                } else {
+                    sum += src[i];
+                }
+            }
+            sums[b] = sum;
+            errors[b] = c;
+        }));
+        // Offsets carry their own compensation into the second pass
+        float offset = 0, c = 0;
+        for (int b = 0; b < blocks; b++) {
+            float sum = sums[b], error = errors[b];
+            sums[b] = offset;
+            errors[b] = c;
+            if (compensated) {
+                float y = sum - c;
+                float t = offset + y;
+                c = (t - offset) - y;
+                offset = t;
+                y = -error - c;
+                t = offset + y;
+                c = (t - offset) - y;
+                offset = t;
+            } else {
+                offset += sum;
+            }
+        }
+        pool.invoke(new Blocks(0, blocks, b -> {
+            int from = b * blockSize;
+            scan(src, dst, from, Math.min(n, from + blockSize), sums[b], errors[b], exclusive, compensated);
+        }));
+    }
+
+    private static void scan(final float[] src, final float[] dst, final int from, final int to,
+                             float sum, float c, final boolean exclusive, final boolean compensated) {
+        if (!compensated) {
+            for (int i = from; i < to; i++) {
+                float v = src[i];
+                if (exclusive)
+                    dst[i] = sum;
+                sum += v;
+                if (!exclusive)
+                    dst[i] = sum;
+            }
+            return;
+        }
+        // Kahan summation: c holds the low-order bits lost by the last addition
+        for (int i = from; i < to; i++) {
+            float v = src[i];
+            if (exclusive)
+                dst[i] = sum;
+            float y = v - c;
+            float t = sum + y;
+            c = (t - sum) - y;
+            sum = t;
+            if (!exclusive)
+                dst[i] = sum;
+        }
+    }
+
+    public static void scan(@NonNull final double[] src, @NonNull final double[] dst, final boolean exclusive,
+                            final boolean compensated, final ForkJoinPool pool) {
+        checkLengths(src.length, dst.length);
+        final int n = src.length;
+        final int blocks = pool == null ? 1 : blocks(n, pool);
+        if (blocks <= 1) {
+            scan(src, dst, 0, n, 0, 0, exclusive, compensated);
+            return;
+        }
+
+        final int blockSize = (n + blocks - 1) / blocks;
+        final double[] sums = new double[blocks];
+        final double[] errors = new double[blocks];
+        pool.invoke(new Blocks(0, blocks, b -> {
+            double sum = 0, c = 0;
+            for (int i = b * blockSize, end = Math.min(n, i + blockSize); i < end; i++) {
+                if (compensated) {
+                    double y = src[i] - c;
+                    double t = sum + y;
+                    c = (t - sum) - y;
+                    sum = t;
+                } else {
+                    sum += src[i];
+                }
+            }
+            sums[b] = sum;
+            errors[b] = c;
+        }));
+        // Offsets carry their own compensation into the second pass
+        double offset = 0, c = 0;
+        for (int b = 0; b < blocks; b++) {
+            double sum = sums[b], error = errors[b];
+            sums[b] = offset;
+            errors[b] = c;
+            if (compensated) {
+                double y = sum - c;
+                double t = offset + y;
+                c = (t - offset) - y;
+                offset = t;
+                y = -error - c;
+                t = offset + y;
+                c = (t - offset) - y;
+                offset = t;
+            } else {
+                offset += sum;
+            }
+        }
+        pool.invoke(new Blocks(0, blocks, b -> {
+            int from = b * blockSize;
+            scan(src, dst, from, Math.min(n, from + blockSize), sums[b], errors[b], exclusive, compensated);
+        }));
+    }
+
+    private static void scan(final double[] src, final double[] dst, final int from, final int to,
+                             double sum, double c, final boolean exclusive, final boolean compensated) {
+        if (!compensated) {
+            for (int i = from; i < to; i++) {
+                double v = src[i];
+                if (exclusive)
+                    dst[i] = sum;
+                sum += v;
+                if (!exclusive)
+                    dst[i] = sum;
+            }
+            return;
+        }
+        // Kahan summation: c holds the low-order bits lost by the last addition
+        for (int i = from; i < to; i++) {
+            double v = src[i];
+            if (exclusive)
+                dst[i] = sum;
+            double y = v - c;
+            double t = sum + y;
+            c = (t - sum) - y;
+            sum = t;
+            if (!exclusive)
+                dst[i] = sum;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package github.grovre;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A pool of scratch arrays for the temporaries of sorts and set operations, so that
+ * sorting many small arrays does not allocate a new map or buffer on every call.
+ * Arrays are handed out by power-of-two size classes and taken back with
+ * {@code release}; what is borrowed may be longer than asked for and may hold
+ * leftovers from earlier use.
+ * </P>
+ * <p>
+ * Retention is bounded: at most a few arrays per size class are kept, the largest class
+ * is capped, and the total kept never exceeds the arena's byte budget. Anything past
+ * those limits is simply left to the garbage collector. An arena is not thread-safe,
+ * so either use one per thread through {@link #local()} or pass one explicitly to the
+ * code that owns it.
+ * </P>
+ *
+ * @see ArraysSupport#countingSort(int[], ScratchArena)
+ */
+public final class ScratchArena {
+
+    // Size classes hold arrays of 2^MIN_CLASS up to 2^MAX_CLASS elements
+    private static final int MIN_CLASS = 6;
+    private static final int MAX_CLASS = 24;
+    private static final int CLASSES = MAX_CLASS - MIN_CLASS + 1;
+    private static final int PER_CLASS = 4;
+
+    /**
+     * The byte budget of arenas created without one, and of the thread-local arenas.
+     */
+    public static final long DEFAULT_MAX_RETAINED_BYTES = 32L << 20;
+
+    private static final ThreadLocal<ScratchArena> LOCAL = ThreadLocal.withInitial(ScratchArena::new);
+
+    private final long maxRetainedBytes;
+    private long retainedBytes;
+
+    private final int[][][] ints = new int[CLASSES][PER_CLASS][];
+    private final int[] intCounts = new int[CLASSES];
+    private final long[][][] longs = new long[CLASSES][PER_CLASS][];
+    private final int[] longCounts = new int[CLASSES];
+
+    /**
+     * Creates an arena that keeps up to {@link #DEFAULT_MAX_RETAINED_BYTES} of arrays.
+     */
+    public ScratchArena() {
+        this(DEFAULT_MAX_RETAINED_BYTES);
+    }
+
+    /**
+     * @param maxRetainedBytes The most bytes of released arrays to keep for reuse
+     */
+    public ScratchArena(final long maxRetainedBytes) {
+        if (maxRetainedBytes < 0)
+            throw new IllegalArgumentException("Negative byte budget " + maxRetainedBytes);
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    /**
+     * @return The arena of the current thread
+     */
+    public static ScratchArena local() {
+        return LOCAL.get();
+    }
+
+    /**
+     * @param minLength The least length needed
+     * @return An array of at least the given length, with unspecified contents
+     */
+    public int[] borrowInts(final int minLength) {
+        int c = sizeClass(minLength);
+        if (c < 0)
+            return new int[minLength];
+        if (intCounts[c] == 0)
+            return new int[1 << (c + MIN_CLASS)];
+        int[] arr = ints[c][--intCounts[c]];
+        ints[c][intCounts[c]] = null;
+        retainedBytes -= (long) arr.length << 2;
+        return arr;
+    }
+
+    /**
+     * @param minLength The least length needed
+     * @return An array of at least the given length, with unspecified contents
+     */
+    public long[] borrowLongs(final int minLength) {
+        int c = sizeClass(minLength);
+        if (c < 0)
+            return new long[minLength];
+        if (longCounts[c] == 0)
+            return new long[1 << (c + MIN_CLASS)];
+        long[] arr = longs[c][--longCounts[c]];
+        longs[c][longCounts[c]] = null;
+        retainedBytes -= (long) arr.length << 3;
+        return arr;
+    }
+
+    /**
+     * Gives an array back for reuse. Arrays whose length is not one of the size classes,
+     * or that would go past the arena's limits, are dropped.
+     *
+     * @param arr The array to give back, which must no longer be used
+     */
+    public void release(final int[] arr) {
+        int c = releasedClass(arr.length, intCounts, (long) arr.length << 2);
+        if (c < 0)
+            return;
+        ints[c][intCounts[c]++] = arr;
+        retainedBytes += (long) arr.length << 2;
+    }
+
+    /**
+     * Gives an array back for reuse. Arrays whose length is not one of the size classes,
+     * or that would go past the arena's limits, are dropped.
+     *
+     * @param arr The array to give back, which must no longer be used
+     */
+    public void release(final long[] arr) {
+        int c = releasedClass(arr.length, longCounts, (long) arr.length << 3);
+        if (c < 0)
+            return;
+        longs[c][longCounts[c]++] = arr;
+        retainedBytes += (long) arr.length << 3;
+    }
+
+    /**
+     * @return The bytes of arrays kept for reuse
+     */
+    public long retainedBytes() {
+        return retainedBytes;
+    }
+
+    /**
+     * Drops every array kept for reuse.
+     */
+    public void clear() {
+        for (int c = 0; c < CLASSES; c++) {
+            Arrays.fill(ints[c], null);
+            Arrays.fill(longs[c], null);
+        }
+        Arrays.fill(intCounts, 0);
+        Arrays.fill(longCounts, 0);
+        retainedBytes = 0;
+    }
+
+    /**
+     * @return The class holding arrays of at least the given length, or -1 if it is too large to pool
+     */
+    private static int sizeClass(final int minLength) {
+        if (minLength < 0)
+            throw new NegativeArraySizeException(Integer.toString(minLength));
+        if (minLength > 1 << MAX_CLASS)
+            return -1;
+        int bits = minLength <= 1 << MIN_CLASS ? MIN_CLASS : 32 - Integer.numberOfLeadingZeros(minLength - 1);
+        return bits - MIN_CLASS;
+    }
+
+    /**
+     * @return The class to keep a released array of the given length in, or -1 if it should be dropped
+     */
+    private int releasedClass(final int length, final int[] counts, final long bytes) {
+        if (Integer.bitCount(length) != 1)
+            return -1;
+        int c = Integer.numberOfTrailingZeros(length) - MIN_CLASS;
+        if (c < 0 || c >= CLASSES || counts[c] == PER_CLASS || retainedBytes + bytes > maxRetainedBytes)
+            return -1;
+        return c;
+    }
+}
@@ -0,0 +1,1905 @@
+package github.grovre;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Selection of order statistics. {@code nthElement} is an introselect:
+ * quickselect with a median-of-3 pivot and three-way partitioning that
+ * falls back to a median-of-medians pivot once it recurses too deep,
+ * keeping the worst case linear. Top-k queries with a small k use a
+ * bounded heap in a single pass instead of copying the input.
+ */
+@UtilityClass
+class Select {
+
+    private static final int INSERTION_THRESHOLD = 16;
+
+    static void checkK(final int length, final int k) {
+        if (k < 0 || k > length)
+            throw new IllegalArgumentException("k must be between 0 and " + length + " but was " + k);
+    }
+
+    private static boolean less(final int a, final int b) {
+        return a < b;
+    }
+
+    public static void nthElement(@NonNull final int[] arr, final int from, final int to, final int k) {
+        if (from < 0 || to > arr.length || k < from || k >= to)
+            throw new ArrayIndexOutOfBoundsException("Index " + k + " out of bounds for range [" + from + ", " + to + ")");
+
+        int lo = from, hi = to - 1;
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            // Quickselect until it degrades, then switch to a pivot with a linear worst case
+            int p = depth-- > 0 ? medianOf3(arr, lo, (lo + hi) >>> 1, hi) : medianOfMedians(arr, lo, hi);
+            int pivot = arr[p];
+
+            // [lo, lt) < pivot, [lt, gt] == pivot, (gt, hi] > pivot
+            int lt = lo, i = lo, gt = hi;
+            while (i <= gt) {
+                if (less(arr[i], pivot))
+                    swap(arr, lt++, i++);
+                else if (less(pivot, arr[i]))
+                    swap(arr, i, gt--);
+                else
+                    i++;
+            }
+            if (k < lt)
+                hi = lt - 1;
+            else if (k > gt)
+                lo = gt + 1;
+            else
+                return;
+        }
+        insertionSort(arr, lo, hi + 1);
+    }
+
+    public static void partialSort(@NonNull final int[] arr, final int k) {
+        checkK(arr.length, k);
+        if (k < arr.length)
+            nthElement(arr, 0, arr.length, k);
+        Arrays.sort(arr, 0, k);
+    }
+
+    public static int[] topK(@NonNull final int[] arr, final int k) {
+        return extremes(arr, k, true);
+    }
+
+    public static int[] bottomK(@NonNull final int[] arr, final int k) {
+        return extremes(arr, k, false);
+    }
+
+    public static int[] topKIndices(@NonNull final int[] arr, final int k) {
+        return extremeIndices(arr, k, true);
+    }
+
+    public static int[] bottomKIndices(@NonNull final int[] arr, final int k) {
+        return extremeIndices(arr, k, false);
+    }
+
+    // The k largest (or smallest) elements, best first
+    private static int[] extremes(final int[] arr, final int k, final boolean largest) {
+        checkK(arr.length, k);
+        if (k > arr.length >>> 3) {
+            // Large k: select on a copy and sort only the selected part
+            int[] copy = arr.clone();
+            if (largest) {
+                if (k < copy.length)
+                    nthElement(copy, 0, copy.length, copy.length - k);
+                int[] best = Arrays.copyOfRange(copy, copy.length - k, copy.length);
+                Arrays.sort(best, 0, k);
+                reverse(best);
+                return best;
+            }
+            if (k < copy.length)
+                nthElement(copy, 0, copy.length, k);
+            int[] best = Arrays.copyOf(copy, k);
+            Arrays.sort(best, 0, k);
+            return best;
+        }
+
+        // Small k: one pass keeping a heap whose root is the worst element kept
+        int[] heap = new int[k];
+        int size = 0;
+        for (int v : arr) {
+            if (size < k) {
+                heap[size] = v;
+                siftUp(heap, size++, largest);
+            } else if (k > 0 && worse(heap[0], v, largest)) {
+                heap[0] = v;
+                siftDown(heap, 0, size, largest);
+            }
+        }
+        // Moving the worst element to the back each time leaves the best first
+        for (int end = size - 1; end > 0; end--) {
+            swap(heap, 0, end);
+            siftDown(heap, 0, end, largest);
+        }
+        return heap;
+    }
+
+    private static boolean worse(final int a, final int b, final boolean largest) {
+        return largest ? less(a, b) : less(b, a);
+    }
+
+    private static void siftUp(final int[] heap, int i, final boolean largest) {
+        int v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(v, heap[parent], largest))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDown(final int[] heap, int i, final int size, final boolean largest) {
+        int v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && worse(heap[child + 1], heap[child], largest))
+                child++;
+            if (!worse(heap[child], v, largest))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    // Indices of the k largest (or smallest) elements, best first with ties going to the lower index
+    private static int[] extremeIndices(final int[] arr, final int k, final boolean largest) {
+        checkK(arr.length, k);
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0; i < arr.length; i++) {
+            if (size < k) {
+                heap[size] = i;
+                siftUpIndex(arr, heap, size++, largest);
+            } else if (k > 0 && worseIndex(arr, heap[0], i, largest)) {
+                heap[0] = i;
+                siftDownIndex(arr, heap, 0, size, largest);
+            }
+        }
+        for (int end = size - 1; end > 0; end--) {
+            int tmp = heap[0];
+            heap[0] = heap[end];
+            heap[end] = tmp;
+            siftDownIndex(arr, heap, 0, end, largest);
+        }
+        return heap;
+    }
+
+    private static boolean worseIndex(final int[] arr, final int a, final int b, final boolean largest) {
+        if (worse(arr[a], arr[b], largest))
+            return true;
+        if (worse(arr[b], arr[a], largest))
+            return false;
+        return a > b;
+    }
+
+    private static void siftUpIndex(final int[] arr, final int[] heap, int i, final boolean largest) {
+        int v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worseIndex(arr, v, heap[parent], largest))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDownIndex(final int[] arr, final int[] heap, int i, final int size, final boolean largest) {
+        int v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && worseIndex(arr, heap[child + 1], heap[child], largest))
+                child++;
+            if (!worseIndex(arr, heap[child], v, largest))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    private static int medianOf3(final int[] arr, final int a, final int b, final int c) {
+        if (less(arr[a], arr[b])) {
+            if (less(arr[b], arr[c]))
+                return b;
+            return less(arr[a], arr[c]) ? c : a;
+        }
+        if (less(arr[a], arr[c]))
+            return a;
+        return less(arr[b], arr[c]) ? c : b;
+    }
+
+    // Gathers the medians of groups of 5 at the front of the range and selects their median
+    private static int medianOfMedians(final int[] arr, final int lo, final int hi) {
+        int groups = 0;
+        for (int g = lo; g <= hi; g += 5) {
+            int end = Math.min(g + 5, hi + 1);
+            insertionSort(arr, g, end);
+            swap(arr, lo + groups++, (g + end - 1) >>> 1);
+        }
+        int mid = lo + groups / 2;
+        nthElement(arr, lo, lo + groups, mid);
+        return mid;
+    }
+
+    private static void insertionSort(final int[] arr, final int from, final int to) {
+        for (int i = from + 1; i < to; i++) {
+            int cur = arr[i];
+            int j = i - 1;
+            while (j >= from && less(cur, arr[j])) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = cur;
+        }
+    }
+
+    private static void swap(final int[] arr, final int i, final int j) {
+        int tmp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = tmp;
+    }
+
+    private static void reverse(final int[] arr) {
+        for (int i = 0, j = arr.length - 1; i < j; i++, j--)
+            swap(arr, i, j);
+    }
+
+    private static boolean less(final long a, final long b) {
+        return a < b;
+    }
+
+    public static void nthElement(@NonNull final long[] arr, final int from, final int to, final int k) {
+        if (from < 0 || to > arr.length || k < from || k >= to)
+            throw new ArrayIndexOutOfBoundsException("Index " + k + " out of bounds for range [" + from + ", " + to + ")");
+
+        int lo = from, hi = to - 1;
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            // Quickselect until it degrades, then switch to a pivot with a linear worst case
+            int p = depth-- > 0 ? medianOf3(arr, lo, (lo + hi) >>> 1, hi) : medianOfMedians(arr, lo, hi);
+            long pivot = arr[p];
+
+            // [lo, lt) < pivot, [lt, gt] == pivot, (gt, hi] > pivot
+            int lt = lo, i = lo, gt = hi;
+            while (i <= gt) {
+                if (less(arr[i], pivot))
+                    swap(arr, lt++, i++);
+                else if (less(pivot, arr[i]))
+                    swap(arr, i, gt--);
+                else
+                    i++;
+            }
+            if (k < lt)
+                hi = lt - 1;
+            else if (k > gt)
+                lo = gt + 1;
+            else
+                return;
+        }
+        insertionSort(arr, lo, hi + 1);
+    }
+
+    public static void partialSort(@NonNull final long[] arr, final int k) {
+        checkK(arr.length, k);
+        if (k < arr.length)
+            nthElement(arr, 0, arr.length, k);
+        Arrays.sort(arr, 0, k);
+    }
+
+    public static long[] topK(@NonNull final long[] arr, final int k) {
+        return extremes(arr, k, true);
+    }
+
+    public static long[] bottomK(@NonNull final long[] arr, final int k) {
+        return extremes(arr, k, false);
+    }
+
+    public static int[] topKIndices(@NonNull final long[] arr, final int k) {
+        return extremeIndices(arr, k, true);
+    }
+
+    public static int[] bottomKIndices(@NonNull final long[] arr, final int k) {
+        return extremeIndices(arr, k, false);
+    }
+
+    // The k largest (or smallest) elements, best first
+    private static long[] extremes(final long[] arr, final int k, final boolean largest) {
+        checkK(arr.length, k);
+        if (k > arr.length >>> 3) {
+            // Large k: select on a copy and sort only the selected part
+            long[] copy = arr.clone();
+            if (largest) {
+                if (k < copy.length)
+                    nthElement(copy, 0, copy.length, copy.length - k);
+                long[] best = Arrays.copyOfRange(copy, copy.length - k, copy.length);
+                Arrays.sort(best, 0, k);
+                reverse(best);
+                return best;
+            }
+            if (k < copy.length)
+                nthElement(copy, 0, copy.length, k);
+            long[] best = Arrays.copyOf(copy, k);
+            Arrays.sort(best, 0, k);
+            return best;
+        }
+
+        // Small k: one pass keeping a heap whose root is the worst element kept
+        long[] heap = new long[k];
+        int size = 0;
+        for (long v : arr) {
+            if (size < k) {
+                heap[size] = v;
+                siftUp(heap, size++, largest);
+            } else if (k > 0 && worse(heap[0], v, largest)) {
+                heap[0] = v;
+                siftDown(heap, 0, size, largest);
+            }
+        }
+        // Moving the worst element to the back each time leaves the best first
+        for (int end = size - 1; end > 0; end--) {
+            swap(heap, 0, end);
+            siftDown(heap, 0, end, largest);
+        }
+        return heap;
+    }
+
+    private static boolean worse(final long a, final long b, final boolean largest) {
+        return largest ? less(a, b) : less(b, a);
+    }
+
+    private static void siftUp(final long[] heap, int i, final boolean largest) {
+        long v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(v, heap[parent], largest))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDown(final long[] heap, int i, final int size, final boolean largest) {
+        long v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && worse(heap[child + 1], heap[child], largest))
+                child++;
+            if (!worse(heap[child], v, largest))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    // Indices of the k largest (or smallest) elements, best first with ties going to the lower index
+    private static int[] extremeIndices(final long[] arr, final int k, final boolean largest) {
+        checkK(arr.length, k);
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0; i < arr.length; i++) {
+            if (size < k) {
+                heap[size] = i;
+                siftUpIndex(arr, heap, size++, largest);
+            } else if (k > 0 && worseIndex(arr, heap[0], i, largest)) {
+                heap[0] = i;
+                siftDownIndex(arr, heap, 0, size, largest);
+            }
+        }
+        for (int end = size - 1; end > 0; end--) {
+            int tmp = heap[0];
+            heap[0] = heap[end];
+            heap[end] = tmp;
+            siftDownIndex(arr, heap, 0, end, largest);
+        }
+        return heap;
+    }
+
+    private static boolean worseIndex(final long[] arr, final int a, final int b, final boolean largest) {
+        if (worse(arr[a], arr[b], largest))
+            return true;
+        if (worse(arr[b], arr[a], largest))
+            return false;
+        return a > b;
+    }
+
+    private static void siftUpIndex(final long[] arr, final int[] heap, int i, final boolean largest) {
+        int v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worseIndex(arr, v, heap[parent], largest))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDownIndex(final long[] arr, final int[] heap, int i, final int size, final boolean largest) {
+        int v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && worseIndex(arr, heap[child + 1], heap[child], largest))
+                child++;
+            if (!worseIndex(arr, heap[child], v, largest))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    private static int medianOf3(final long[] arr, final int a, final int b, final int c) {
+        if (less(arr[a], arr[b])) {
+            if (less(arr[b], arr[c]))
+                return b;
+            return less(arr[a], arr[c]) ? c : a;
+        }
+        if (less(arr[a], arr[c]))
+            return a;
+        return less(arr[b], arr[c]) ? c : b;
+    }
+
+    // Gathers the medians of groups of 5 at the front of the range and selects their median
+    private static int medianOfMedians(final long[] arr, final int lo, final int hi) {
+        int groups = 0;
+        for (int g = lo; g <= hi; g += 5) {
+            int end = Math.min(g + 5, hi + 1);
+            insertionSort(arr, g, end);
+            swap(arr, lo + groups++, (g + end - 1) >>> 1);
+        }
+        int mid = lo + groups / 2;
+        nthElement(arr, lo, lo + groups, mid);
+        return mid;
+    }
+
+    private static void insertionSort(final long[] arr, final int from, final int to) {
+        for (int i = from + 1; i < to; i++) {
+            long cur = arr[i];
+            int j = i - 1;
+            while (j >= from && less(cur, arr[j])) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = cur;
+        }
+    }
+
+    private static void swap(final long[] arr, final int i, final int j) {
+        long tmp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = tmp;
+    }
+
+    private static void reverse(final long[] arr) {
+        for (int i = 0, j = arr.length - 1; i < j; i++, j--)
+            swap(arr, i, j);
+    }
+
+    private static boolean less(final short a, final short b) {
+        return a < b;
+    }
+
+    public static void nthElement(@NonNull final short[] arr, final int from, final int to, final int k) {
+        if (from < 0 || to > arr.length || k < from || k >= to)
+            throw new ArrayIndexOutOfBoundsException("Index " + k + " out of bounds for range [" + from + ", " + to + ")");
+
+        int lo = from, hi = to - 1;
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            // Quickselect until it degrades, then switch to a pivot with a linear worst case
+            int p = depth-- > 0 ? medianOf3(arr, lo, (lo + hi) >>> 1, hi) : medianOfMedians(arr, lo, hi);
+            short pivot = arr[p];
+
+            // [lo, lt) < pivot, [lt, gt] == pivot, (gt, hi] > pivot
+            int lt = lo, i = lo, gt = hi;
+            while (i <= gt) {
+                if (less(arr[i], pivot))
+                    swap(arr, lt++, i++);
+                else if (less(pivot, arr[i]))
+                    swap(arr, i, gt--);
+                else
+                    i++;
+            }
+            if (k < lt)
+                hi = lt - 1;
+            else if (k > gt)
+                lo = gt + 1;
+            else
+                return;
+        }
+        insertionSort(arr, lo, hi + 1);
+    }
+
+    public static void partialSort(@NonNull final short[] arr, final int k) {
+        checkK(arr.length, k);
+        if (k < arr.length)
+            nthElement(arr, 0, arr.length, k);
+        Arrays.sort(arr, 0, k);
+    }
+
+    public static short[] topK(@NonNull final short[] arr, final int k) {
+        return extremes(arr, k, true);
+    }
+
+    public static short[] bottomK(@NonNull final short[] arr, final int k) {
+        return extremes(arr, k, false);
+    }
+
+    public static int[] topKIndices(@NonNull final short[] arr, final int k) {
+        return extremeIndices(arr, k, true);
+    }
+
+    public static int[] bottomKIndices(@NonNull final short[] arr, final int k) {
+        return extremeIndices(arr, k, false);
+    }
+
+    // The k largest (or smallest) elements, best first
+    private static short[] extremes(final short[] arr, final int k, final boolean largest) {
+        checkK(arr.length, k);
+        if (k > arr.length >>> 3) {
+            // Large k: select on a copy and sort only the selected part
+            short[] copy = arr.clone();
+            if (largest) {
+                if (k < copy.length)
+                    nthElement(copy, 0, copy.length, copy.length - k);
+                short[] best = Arrays.copyOfRange(copy, copy.length - k, copy.length);
+                Arrays.sort(best, 0, k);
+                reverse(best);
+                return best;
+            }
+            if (k < copy.length)
+                nthElement(copy, 0, copy.length, k);
+            short[] best = Arrays.copyOf(copy, k);
+            Arrays.sort(best, 0, k);
+            return best;
+        }
+
+        // Small k: one pass keeping a heap whose root is the worst element kept
+        short[] heap = new short[k];
+        int size = 0;
+        for (short v : arr) {
+            if (size < k) {
+                heap[size] = v;
+                siftUp(heap, size++, largest);
+            } else if (k > 0 && worse(heap[0], v, largest)) {
+                heap[0] = v;
+                siftDown(heap, 0, size, largest);
+            }
+        }
+        // Moving the worst element to the back each time leaves the best first
+        for (int end = size - 1; end > 0; end--) {
+            swap(heap, 0, end);
+            siftDown(heap, 0, end, largest);
+        }
+        return heap;
+    }
+
+    private static boolean worse(final short a, final short b, final boolean largest) {
+        return largest ? less(a, b) : less(b, a);
+    }
+
+    private static void siftUp(final short[] heap, int i, final boolean largest) {
+        short v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(v, heap[parent], largest))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDown(final short[] heap, int i, final int size, final boolean largest) {
+        short v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && worse(heap[child + 1], heap[child], largest))
+                child++;
+            if (!worse(heap[child], v, largest))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    // Indices of the k largest (or smallest) elements, best first with ties going to the lower index
+    private static int[] extremeIndices(final short[] arr, final int k, final boolean largest) {
+        checkK(arr.length, k);
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0; i < arr.length; i++) {
+            if (size < k) {
+                heap[size] = i;
+                siftUpIndex(arr, heap, size++, largest);
+            } else if (k > 0 && worseIndex(arr, heap[0], i, largest)) {
+                heap[0] = i;
+                siftDownIndex(arr, heap, 0, size, largest);
+            }
+        }
+        for (int end = size - 1; end > 0; end--) {
+            int tmp = heap[0];
+            heap[0] = heap[end];
+            heap[end] = tmp;
+            siftDownIndex(arr, heap, 0, end, largest);
+        }
+        return heap;
+    }
+
+    private static boolean worseIndex(final short[] arr, final int a, final int b, final boolean largest) {
+        if (worse(arr[a], arr[b], largest))
+            return true;
+        if (worse(arr[b], arr[a], largest))
+            return false;
+        return a > b;
+    }
+
+    private static void siftUpIndex(final short[] arr, final int[] heap, int i, final boolean largest) {
+        int v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worseIndex(arr, v, heap[parent], largest))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDownIndex(final short[] arr, final int[] heap, int i, final int size, final boolean largest) {
+        int v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && worseIndex(arr, heap[child + 1], heap[child], largest))
+                child++;
+            if (!worseIndex(arr, heap[child], v, largest))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    private static int medianOf3(final short[] arr, final int a, final int b, final int c) {
+        if (less(arr[a], arr[b])) {
+            if (less(arr[b], arr[c]))
+                return b;
+            return less(arr[a], arr[c]) ? c : a;
+        }
+        if (less(arr[a], arr[c]))
+            return a;
+        return less(arr[b], arr[c]) ? c : b;
+    }
+
+    // Gathers the medians of groups of 5 at the front of the range and selects their median
+    private static int medianOfMedians(final short[] arr, final int lo, final int hi) {
+        int groups = 0;
+        for (int g = lo; g <= hi; g += 5) {
+            int end = Math.min(g + 5, hi + 1);
+            insertionSort(arr, g, end);
+            swap(arr, lo + groups++, (g + end - 1) >>> 1);
+        }
+        int mid = lo + groups / 2;
+        nthElement(arr, lo, lo + groups, mid);
+        return mid;
+    }
+
+    private static void insertionSort(final short[] arr, final int from, final int to) {
+        for (int i = from + 1; i < to; i++) {
+            short cur = arr[i];
+            int j = i - 1;
+            while (j >= from && less(cur, arr[j])) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = cur;
+        }
+    }
+
+    private static void swap(final short[] arr, final int i, final int j) {
+        short tmp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = tmp;
+    }
+
+    private static void reverse(final short[] arr) {
+        for (int i = 0, j = arr.length - 1; i < j; i++, j--)
+            swap(arr, i, j);
+    }
+
+    private static boolean less(final byte a, final byte b) {
+        return a < b;
+    }
+
+    public static void nthElement(@NonNull final byte[] arr, final int from, final int to, final int k) {
+        if (from < 0 || to > arr.length || k < from || k >= to)
+            throw new ArrayIndexOutOfBoundsException("Index " + k + " out of bounds for range [" + from + ", " + to + ")");
+
+        int lo = from, hi = to - 1;
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            // Quickselect until it degrades, then switch to a pivot with a linear worst case
+            int p = depth-- > 0 ? medianOf3(arr, lo, (lo + hi) >>> 1, hi) : medianOfMedians(arr, lo, hi);
+            byte pivot = arr[p];
+
+            // [lo, lt) < pivot, [lt, gt] == pivot, (gt, hi] > pivot
+            int lt = lo, i = lo, gt = hi;
+            while (i <= gt) {
+                if (less(arr[i], pivot))
+                    swap(arr, lt++, i++);
+                else if (less(pivot, arr[i]))
+                    swap(arr, i, gt--);
+                else
+                    i++;
+            }
+            if (k < lt)
+                hi = lt - 1;
+            else if (k > gt)
+                lo = gt + 1;
+            else
+                return;
+        }
+        insertionSort(arr, lo, hi + 1);
+    }
+
+    public static void partialSort(@NonNull final byte[] arr, final int k) {
+        checkK(arr.length, k);
+        if (k < arr.length)
+            nthElement(arr, 0, arr.length, k);
+        Arrays.sort(arr, 0, k);
+    }
+
+    public static byte[] topK(@NonNull final byte[] arr, final int k) {
+        return extremes(arr, k, true);
+    }
+
+    public static byte[] bottomK(@NonNull final byte[] arr, final int k) {
+        return extremes(arr, k, false);
+    }
+
+    public static int[] topKIndices(@NonNull final byte[] arr, final int k) {
+        return extremeIndices(arr, k, true);
+    }
+
+    public static int[] bottomKIndices(@NonNull final byte[] arr, final int k) {
+        return extremeIndices(arr, k, false);
+    }
+
+    // The k largest (or smallest) elements, best first
+    private static byte[] extremes(final byte[] arr, final int k, final boolean largest) {
+        checkK(arr.length, k);
+        if (k > arr.length >>> 3) {
+            // Large k: select on a copy and sort only the selected part
+            byte[] copy = arr.clone();
+            if (largest) {
+                if (k < copy.length)
+                    nthElement(copy, 0, copy.length, copy.length - k);
+                byte[] best = Arrays.copyOfRange(copy, copy.length - k, copy.length);
+                Arrays.sort(best, 0, k);
+                reverse(best);
+                return best;
+            }
+            if (k < copy.length)
+                nthElement(copy, 0, copy.length, k);
+            byte[] best = Arrays.copyOf(copy, k);
+            Arrays.sort(best, 0, k);
+            return best;
+        }
+
+        // Small k: one pass keeping a heap whose root is the worst element kept
+        byte[] heap = new byte[k];
+        int size = 0;
+        for (byte v : arr) {
+            if (size < k) {
+                heap[size] = v;
+                siftUp(heap, size++, largest);
+            } else if (k > 0 && worse(heap[0], v, largest)) {
+                heap[0] = v;
+                siftDown(heap, 0, size, largest);
+            }
+        }
+        // Moving the worst element to the back each time leaves the best first
+        for (int end = size - 1; end > 0; end--) {
+            swap(heap, 0, end);
+            siftDown(heap, 0, end, largest);
+        }
+        return heap;
+    }
+
+    private static boolean worse(final byte a, final byte b, final boolean largest) {
+        return largest ? less(a, b) : less(b, a);
+    }
+
+    private static void siftUp(final byte[] heap, int i, final boolean largest) {
+        byte v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(v, heap[parent], largest))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDown(final byte[] heap, int i, final int size, final boolean largest) {
+        byte v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && worse(heap[child + 1], heap[child], largest))
+                child++;
+            if (!worse(heap[child], v, largest))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    // Indices of the k largest (or smallest) elements, best first with ties going to the lower index
+    private static int[] extremeIndices(final byte[] arr, final int k, final boolean largest) {
+        checkK(arr.length, k);
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0; i < arr.length; i++) {
+            if (size < k) {
+                heap[size] = i;
+                siftUpIndex(arr, heap, size++, largest);
+            } else if (k > 0 && worseIndex(arr, heap[0], i, largest)) {
+                heap[0] = i;
+                siftDownIndex(arr, heap, 0, size, largest);
+            }
+        }
+        for (int end = size - 1; end > 0; end--) {
+            int tmp = heap[0];
+            heap[0] = heap[end];
+            heap[end] = tmp;
+            siftDownIndex(arr, heap, 0, end, largest);
+        }
+        return heap;
+    }
+
+    private static boolean worseIndex(final byte[] arr, final int a, final int b, final boolean largest) {
+        if (worse(arr[a], arr[b], largest))
+            return true;
+        if (worse(arr[b], arr[a], largest))
+            return false;
+        return a > b;
+    }
+
+    private static void siftUpIndex(final byte[] arr, final int[] heap, int i, final boolean largest) {
+        int v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worseIndex(arr, v, heap[parent], largest))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDownIndex(final byte[] arr, final int[] heap, int i, final int size, final boolean largest) {
+        int v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && worseIndex(arr, heap[child + 1], heap[child], largest))
+                child++;
+            if (!worseIndex(arr, heap[child], v, largest))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    private static int medianOf3(final byte[] arr, final int a, final int b, final int c) {
+        if (less(arr[a], arr[b])) {
+            if (less(arr[b], arr[c]))
+                return b;
+            return less(arr[a], arr[c]) ? c : a;
+        }
+        if (less(arr[a], arr[c]))
+            return a;
+        return less(arr[b], arr[c]) ? c : b;
+    }
+
+    // Gathers the medians of groups of 5 at the front of the range and selects their median
+    private static int medianOfMedians(final byte[] arr, final int lo, final int hi) {
+        int groups = 0;
+        for (int g = lo; g <= hi; g += 5) {
+            int end = Math.min(g + 5, hi + 1);
+            insertionSort(arr, g, end);
+            swap(arr, lo + groups++, (g + end - 1) >>> 1);
+        }
+        int mid = lo + groups / 2;
+        nthElement(arr, lo, lo + groups, mid);
+        return mid;
+    }
+
+    private static void insertionSort(final byte[] arr, final int from, final int to) {
+        for (int i = from + 1; i < to; i++) {
+            byte cur = arr[i];
+            int j = i - 1;
+            while (j >= from && less(cur, arr[j])) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = cur;
+        }
+    }
+
+    private static void swap(final byte[] arr, final int i, final int j) {
+        byte tmp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = tmp;
+    }
+
+    private static void reverse(final byte[] arr) {
+        for (int i = 0, j = arr.length - 1; i < j; i++, j--)
+            swap(arr, i, j);
+    }
+
+    private static boolean less(final char a, final char b) {
+        return a < b;
+    }
+
+    public static void nthElement(@NonNull final char[] arr, final int from, final int to, final int k) {
+        if (from < 0 || to > arr.length || k < from || k >= to)
+            throw new ArrayIndexOutOfBoundsException("Index " + k + " out of bounds for range [" + from + ", " + to + ")");
+
+        int lo = from, hi = to - 1;
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            // Quickselect until it degrades, then switch to a pivot with a linear worst case
+            int p = depth-- > 0 ? medianOf3(arr, lo, (lo + hi) >>> 1, hi) : medianOfMedians(arr, lo, hi);
+            char pivot = arr[p];
+
+            // [lo, lt) < pivot, [lt, gt] == pivot, (gt, hi] > pivot
+            int lt = lo, i = lo, gt = hi;
+            while (i <= gt) {
+                if (less(arr[i], pivot))
+                    swap(arr, lt++, i++);
+                else if (less(pivot, arr[i]))
+                    swap(arr, i, gt--);
+                else
+                    i++;
+            }
+            if (k < lt)
+                hi = lt - 1;
+            else if (k > gt)
+                lo = gt + 1;
+            else
+                return;
+        }
+        insertionSort(arr, lo, hi + 1);
+    }
+
+    public static void partialSort(@NonNull final char[] arr, final int k) {
+        checkK(arr.length, k);
+        if (k < arr.length)
+            nthElement(arr, 0, arr.length, k);
+        Arrays.sort(arr, 0, k);
+    }
+
+    public static char[] topK(@NonNull final char[] arr, final int k) {
+        return extremes(arr, k, true);
+    }
+
+    public static char[] bottomK(@NonNull final char[] arr, final int k) {
+        return extremes(arr, k, false);
+    }
+
+    public static int[] topKIndices(@NonNull final char[] arr, final int k) {
+        return extremeIndices(arr, k, true);
+    }
+
+    public static int[] bottomKIndices(@NonNull final char[] arr, final int k) {
+        return extremeIndices(arr, k, false);
+    }
+
+    // The k largest (or smallest) elements, best first
+    private static char[] extremes(final char[] arr, final int k, final boolean largest) {
+        checkK(arr.length, k);
+        if (k > arr.length >>> 3) {
+            // Large k: select on a copy and sort only the selected part
+            char[] copy = arr.clone();
+            if (largest) {
+                if (k < copy.length)
+                    nthElement(copy, 0, copy.length, copy.length - k);
+                char[] best = Arrays.copyOfRange(copy, copy.length - k, copy.length);
+                Arrays.sort(best, 0, k);
+                reverse(best);
+                return best;
+            }
+            if (k < copy.length)
+                nthElement(copy, 0, copy.length, k);
+            char[] best = Arrays.copyOf(copy, k);
+            Arrays.sort(best, 0, k);
+            return best;
+        }
+
+        // Small k: one pass keeping a heap whose root is the worst element kept
+        char[] heap = new char[k];
+        int size = 0;
+        for (char v : arr) {
+            if (size < k) {
+                heap[size] = v;
+                siftUp(heap, size++, largest);
+            } else if (k > 0 && worse(heap[0], v, largest)) {
+                heap[0] = v;
+                siftDown(heap, 0, size, largest);
+            }
+        }
+        // Moving the worst element to the back each time leaves the best first
+        for (int end = size - 1; end > 0; end--) {
+            swap(heap, 0, end);
+            siftDown(heap, 0, end, largest);
+        }
+        return heap;
+    }
+
+    private static boolean worse(final char a, final char b, final boolean largest) {
+        return largest ? less(a, b) : less(b, a);
+    }
+
+    private static void siftUp(final char[] heap, int i, final boolean largest) {
+        char v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(v, heap[parent], largest))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDown(final char[] heap, int i, final int size, final boolean largest) {
+        char v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && worse(heap[child + 1], heap[child], largest))
+                child++;
+            if (!worse(heap[child], v, largest))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    // Indices of the k largest (or smallest) elements, best first with ties going to the lower index
+    private static int[] extremeIndices(final char[] arr, final int k, final boolean largest) {
+        checkK(arr.length, k);
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0; i < arr.length; i++) {
+            if (size < k) {
+                heap[size] = i;
+                siftUpIndex(arr, heap, size++, largest);
+            } else if (k > 0 && worseIndex(arr, heap[0], i, largest)) {
+                heap[0] = i;
+                siftDownIndex(arr, heap, 0, size, largest);
+            }
+        }
+        for (int end = size - 1; end > 0; end--) {
+            int tmp = heap[0];
+            heap[0] = heap[end];
+            heap[end] = tmp;
+            siftDownIndex(arr, heap, 0, end, largest);
+        }
+        return heap;
+    }
+
+    private static boolean worseIndex(final char[] arr, final int a, final int b, final boolean largest) {
+        if (worse(arr[a], arr[b], largest))
+            return true;
+        if (worse(arr[b], arr[a], largest))
+            return false;
+        return a > b;
+    }
+
+    private static void siftUpIndex(final char[] arr, final int[] heap, int i, final boolean largest) {
+        int v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worseIndex(arr, v, heap[parent], largest))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDownIndex(final char[] arr, final int[] heap, int i, final int size, final boolean largest) {
+        int v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && worseIndex(arr, heap[child + 1], heap[child], largest))
+                child++;
+            if (!worseIndex(arr, heap[child], v, largest))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    private static int medianOf3(final char[] arr, final int a, final int b, final int c) {
+        if (less(arr[a], arr[b])) {
+            if (less(arr[b], arr[c]))
+                return b;
+            return less(arr[a], arr[c]) ? c : a;
+        }
+        if (less(arr[a], arr[c]))
+            return a;
+        return less(arr[b], arr[c]) ? c : b;
+    }
+
+    // Gathers the medians of groups of 5 at the front of the range and selects their median
+    private static int medianOfMedians(final char[] arr, final int lo, final int hi) {
+        int groups = 0;
+        for (int g = lo; g <= hi; g += 5) {
+            int end = Math.min(g + 5, hi + 1);
+            insertionSort(arr, g, end);
+            swap(arr, lo + groups++, (g + end - 1) >>> 1);
+        }
+        int mid = lo + groups / 2;
+        nthElement(arr, lo, lo + groups, mid);
+        return mid;
+    }
+
+    private static void insertionSort(final char[] arr, final int from, final int to) {
+        for (int i = from + 1; i < to; i++) {
+            char cur = arr[i];
+            int j = i - 1;
+            while (j >= from && less(cur, arr[j])) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = cur;
+        }
+    }
+
+    private static void swap(final char[] arr, final int i, final int j) {
+        char tmp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = tmp;
+    }
+
+    private static void reverse(final char[] arr) {
+        for (int i = 0, j = arr.length - 1; i < j; i++, j--)
+            swap(arr, i, j);
+    }
+
+    private static boolean less(final float a, final float b) {
+        return Float.compare(a, b) < 0;
+    }
+
+    public static void nthElement(@NonNull final float[] arr, final int from, final int to, final int k) {
+        if (from < 0 || to > arr.length || k < from || k >= to)
+            throw new ArrayIndexOutOfBoundsException("Index " + k + " out of bounds for range [" + from + ", " + to + ")");
+
+        int lo = from, hi = to - 1;
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            // Quickselect until it degrades, then switch to a pivot with a linear worst case
+            int p = depth-- > 0 ? medianOf3(arr, lo, (lo + hi) >>> 1, hi) : medianOfMedians(arr, lo, hi);
+            float pivot = arr[p];
+
+            // [lo, lt) < pivot, [lt, gt] == pivot, (gt, hi] > pivot
+            int lt = lo, i = lo, gt = hi;
+            while (i <= gt) {
+                if (less(arr[i], pivot))
+                    swap(arr, lt++, i++);
+                else if (less(pivot, arr[i]))
+                    swap(arr, i, gt--);
+                else
+                    i++;
+            }
+            if (k < lt)
+                hi = lt - 1;
+            else if (k > gt)
+                lo = gt + 1;
+            else
+                return;
+        }
+        insertionSort(arr, lo, hi + 1);
+    }
+
+    public static void partialSort(@NonNull final float[] arr, final int k) {
+        checkK(arr.length, k);
+        if (k < arr.length)
+            nthElement(arr, 0, arr.length, k);
+        Arrays.sort(arr, 0, k);
+    }
+
+    public static float[] topK(@NonNull final float[] arr, final int k) {
+        return extremes(arr, k, true);
+    }
+
+    public static float[] bottomK(@NonNull final float[] arr, final int k) {
+        return extremes(arr, k, false);
+    }
+
+    public static int[] topKIndices(@NonNull final float[] arr, final int k) {
+        return extremeIndices(arr, k, true);
+    }
+
+    public static int[] bottomKIndices(@NonNull final float[] arr, final int k) {
+        return extremeIndices(arr, k, false);
+    }
+
+    // The k largest (or smallest) elements, best first
+    private static float[] extremes(final float[] arr, final int k, final boolean largest) {
+        checkK(arr.length, k);
+        if (k > arr.length >>> 3) {
+            // Large k: select on a copy and sort only the selected part
+            float[] copy = arr.clone();
+            if (largest) {
+                if (k < copy.length)
+                    nthElement(copy, 0, copy.length, copy.length - k);
+                float[] best = Arrays.copyOfRange(copy, copy.length - k, copy.length);
+                Arrays.sort(best, 0, k);
+                reverse(best);
+                return best;
+            }
+            if (k < copy.length)
+                nthElement(copy, 0, copy.length, k);
+            float[] best = Arrays.copyOf(copy, k);
+            Arrays.sort(best, 0, k);
+            return best;
+        }
+
+        // Small k: one pass keeping a heap whose root is the worst element kept
+        float[] heap = new float[k];
+        int size = 0;
+        for (float v : arr) {
+            if (size < k) {
+                heap[size] = v;
+                siftUp(heap, size++, largest);
+            } else if (k > 0 && worse(heap[0], v, largest)) {
+                heap[0] = v;
+                siftDown(heap, 0, size, largest);
+            }
+        }
+        // Moving the worst element to the back each time leaves the best first
+        for (int end = size - 1; end > 0; end--) {
+            swap(heap, 0, end);
+            siftDown(heap, 0, end, largest);
+        }
+        return heap;
+    }
+
+    private static boolean worse(final float a, final float b, final boolean largest) {
+        return largest ? less(a, b) : less(b, a);
+    }
+
+    private static void siftUp(final float[] heap, int i, final boolean largest) {
+        float v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(v, heap[parent], largest))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDown(final float[] heap, int i, final int size, final boolean largest) {
+        float v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && worse(heap[child + 1], heap[child], largest))
+                child++;
+            if (!worse(heap[child], v, largest))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    // Indices of the k largest (or smallest) elements, best first with ties going to the lower index
+    private static int[] extremeIndices(final float[] arr, final int k, final boolean largest) {
+        checkK(arr.length, k);
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0; i < arr.length; i++) {
+            if (size < k) {
+                heap[size] = i;
+                siftUpIndex(arr, heap, size++, largest);
+            } else if (k > 0 && worseIndex(arr, heap[0], i, largest)) {
+                heap[0] = i;
+                siftDownIndex(arr, heap, 0, size, largest);
+            }
+        }
+        for (int end = size - 1; end > 0; end--) {
+            int tmp = heap[0];
+            heap[0] = heap[end];
+            heap[end] = tmp;
+            siftDownIndex(arr, heap, 0, end, largest);
+        }
+        return heap;
+    }
+
+    private static boolean worseIndex(final float[] arr, final int a, final int b, final boolean largest) {
+        if (worse(arr[a], arr[b], largest))
+            return true;
+        if (worse(arr[b], arr[a], largest))
+            return false;
+        return a > b;
+    }
+
+    private static void siftUpIndex(final float[] arr, final int[] heap, int i, final boolean largest) {
+        int v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worseIndex(arr, v, heap[parent], largest))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDownIndex(final float[] arr, final int[] heap, int i, final int size, final boolean largest) {
+        int v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && worseIndex(arr, heap[child + 1], heap[child], largest))
+                child++;
+            if (!worseIndex(arr, heap[child], v, largest))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    private static int medianOf3(final float[] arr, final int a, final int b, final int c) {
+        if (less(arr[a], arr[b])) {
+            if (less(arr[b], arr[c]))
+                return b;
+            return less(arr[a], arr[c]) ? c : a;
+        }
+        if (less(arr[a], arr[c]))
+            return a;
+        return less(arr[b], arr[c]) ? c : b;
+    }
+
+    // Gathers the medians of groups of 5 at the front of the range and selects their median
+    private static int medianOfMedians(final float[] arr, final int lo, final int hi) {
+        int groups = 0;
+        for (int g = lo; g <= hi; g += 5) {
+            int end = Math.min(g + 5, hi + 1);
+            insertionSort(arr, g, end);
+            swap(arr, lo + groups++, (g + end - 1) >>> 1);
+        }
+        int mid = lo + groups / 2;
+        nthElement(arr, lo, lo + groups, mid);
+        return mid;
+    }
+
+    private static void insertionSort(final float[] arr, final int from, final int to) {
+        for (int i = from + 1; i < to; i++) {
+            float cur = arr[i];
+            int j = i - 1;
+            while (j >= from && less(cur, arr[j])) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = cur;
+        }
+    }
+
+    private static void swap(final float[] arr, final int i, final int j) {
+        float tmp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = tmp;
+    }
+
+    private static void reverse(final float[] arr) {
+        for (int i = 0, j = arr.length - 1; i < j; i++, j--)
+            swap(arr, i, j);
+    }
+
+    private static boolean less(final double a, final double b) {
+        return Double.compare(a, b) < 0;
+    }
+
+    public static void nthElement(@NonNull final double[] arr, final int from, final int to, final int k) {
+        if (from < 0 || to > arr.length || k < from || k >= to)
+            throw new ArrayIndexOutOfBoundsException("Index " + k + " out of bounds for range [" + from + ", " + to + ")");
+
+        int lo = from, hi = to - 1;
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            // Quickselect until it degrades, then switch to a pivot with a linear worst case
+            int p = depth-- > 0 ? medianOf3(arr, lo, (lo + hi) >>> 1, hi) : medianOfMedians(arr, lo, hi);
+            double pivot = arr[p];
+
+            // [lo, lt) < pivot, [lt, gt] == pivot, (gt, hi] > pivot
+            int lt = lo, i = lo, gt = hi;
+            while (i <= gt) {
+                if (less(arr[i], pivot))
+                    swap(arr, lt++, i++);
+                else if (less(pivot, arr[i]))
+                    swap(arr, i, gt--);
+                else
+                    i++;
+            }
+            if (k < lt)
+                hi = lt - 1;
+            else if (k > gt)
+                lo = gt + 1;
+            else
+                return;
+        }
+        insertionSort(arr, lo, hi + 1);
+    }
+
+    public static void partialSort(@NonNull final double[] arr, final int k) {
+        checkK(arr.length, k);
+        if (k < arr.length)
+            nthElement(arr, 0, arr.length, k);
+        Arrays.sort(arr, 0, k);
+    }
+
+    public static double[] topK(@NonNull final double[] arr, final int k) {
+        return extremes(arr, k, true);
+    }
+
+    public static double[] bottomK(@NonNull final double[] arr, final int k) {
+        return extremes(arr, k, false);
+    }
+
+    public static int[] topKIndices(@NonNull final double[] arr, final int k) {
+        return extremeIndices(arr, k, true);
+    }
+
+    public static int[] bottomKIndices(@NonNull final double[] arr, final int k) {
+        return extremeIndices(arr, k, false);
+    }
+
+    // The k largest (or smallest) elements, best first
+    private static double[] extremes(final double[] arr, final int k, final boolean largest) {
+        checkK(arr.length, k);
+        if (k > arr.length >>> 3) {
+            // Large k: select on a copy and sort only the selected part
+            double[] copy = arr.clone();
+            if (largest) {
+                if (k < copy.length)
+                    nthElement(copy, 0, copy.length, copy.length - k);
+                double[] best = Arrays.copyOfRange(copy, copy.length - k, copy.length);
+                Arrays.sort(best, 0, k);
+                reverse(best);
+                return best;
+            }
+            if (k < copy.length)
+                nthElement(copy, 0, copy.length, k);
+            double[] best = Arrays.copyOf(copy, k);
+            Arrays.sort(best, 0, k);
+            return best;
+        }
+
+        // Small k: one pass keeping a heap whose root is the worst element kept
+        double[] heap = new double[k];
+        int size = 0;
+        for (double v : arr) {
+            if (size < k) {
+                heap[size] = v;
+                siftUp(heap, size++, largest);
+            } else if (k > 0 && worse(heap[0], v, largest)) {
+                heap[0] = v;
+                siftDown(heap, 0, size, largest);
+            }
+        }
+        // Moving the worst element to the back each time leaves the best first
+        for (int end = size - 1; end > 0; end--) {
+            swap(heap, 0, end);
+            siftDown(heap, 0, end, largest);
+        }
+        return heap;
+    }
+
+    private static boolean worse(final double a, final double b, final boolean largest) {
+        return largest ? less(a, b) : less(b, a);
+    }
+
+    private static void siftUp(final double[] heap, int i, final boolean largest) {
+        double v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(v, heap[parent], largest))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDown(final double[] heap, int i, final int size, final boolean largest) {
+        double v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && worse(heap[child + 1], heap[child], largest))
+                child++;
+            if (!worse(heap[child], v, largest))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    // Indices of the k largest (or smallest) elements, best first with ties going to the lower index
+    private static int[] extremeIndices(final double[] arr, final int k, final boolean largest) {
+        checkK(arr.length, k);
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0; i < arr.length; i++) {
+            if (size < k) {
+                heap[size] = i;
+                siftUpIndex(arr, heap, size++, largest);
+            } else if (k > 0 && worseIndex(arr, heap[0], i, largest)) {
+                heap[0] = i;
+                siftDownIndex(arr, heap, 0, size, largest);
+            }
+        }
+        for (int end = size - 1; end > 0; end--) {
+            int tmp = heap[0];
+            heap[0] = heap[end];
+            heap[end] = tmp;
+            siftDownIndex(arr, heap, 0, end, largest);
+        }
+        return heap;
+    }
+
+    private static boolean worseIndex(final double[] arr, final int a, final int b, final boolean largest) {
+        if (worse(arr[a], arr[b], largest))
+            return true;
+        if (worse(arr[b], arr[a], largest))
+            return false;
+        return a > b;
+    }
+
+    private static void siftUpIndex(final double[] arr, final int[] heap, int i, final boolean largest) {
+        int v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worseIndex(arr, v, heap[parent], largest))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDownIndex(final double[] arr, final int[] heap, int i, final int size, final boolean largest) {
+        int v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && worseIndex(arr, heap[child + 1], heap[child], largest))
+                child++;
+            if (!worseIndex(arr, heap[child], v, largest))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    private static int medianOf3(final double[] arr, final int a, final int b, final int c) {
+        if (less(arr[a], arr[b])) {
+            if (less(arr[b], arr[c]))
+                return b;
+            return less(arr[a], arr[c]) ? c : a;
+        }
+        if (less(arr[a], arr[c]))
+            return a;
+        return less(arr[b], arr[c]) ? c : b;
+    }
+
+    // Gathers the medians of groups of 5 at the front of the range and selects their median
+    private static int medianOfMedians(final double[] arr, final int lo, final int hi) {
+        int groups = 0;
+        for (int g = lo; g <= hi; g += 5) {
+            int end = Math.min(g + 5, hi + 1);
+            insertionSort(arr, g, end);
+            swap(arr, lo + groups++, (g + end - 1) >>> 1);
+        }
+        int mid = lo + groups / 2;
+        nthElement(arr, lo, lo + groups, mid);
+        return mid;
+    }
+
+    private static void insertionSort(final double[] arr, final int from, final int to) {
+        for (int i = from + 1; i < to; i++) {
+            double cur = arr[i];
+            int j = i - 1;
+            while (j >= from && less(cur, arr[j])) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = cur;
+        }
+    }
+
+    private static void swap(final double[] arr, final int i, final int j) {
+        double tmp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = tmp;
+    }
+
+    private static void reverse(final double[] arr) {
+        for (int i = 0, j = arr.length - 1; i < j; i++, j--)
+            swap(arr, i, j);
+    }
+
+    private static <T> boolean less(final T a, final T b, final Comparator<? super T> comparator) {
+        return comparator.compare(a, b) < 0;
+    }
+
+    public static <T> void nthElement(@NonNull final T[] arr, final int from, final int to, final int k, final Comparator<? super T> comparator) {
+        if (from < 0 || to > arr.length || k < from || k >= to)
+            throw new ArrayIndexOutOfBoundsException("Index " + k + " out of bounds for range [" + from + ", " + to + ")");
+
+        int lo = from, hi = to - 1;
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            // Quickselect until it degrades, then switch to a pivot with a linear worst case
+            int p = depth-- > 0 ? medianOf3(arr, lo, (lo + hi) >>> 1, hi, comparator) : medianOfMedians(arr, lo, hi, comparator);
+            T pivot = arr[p];
+
+            // [lo, lt) < pivot, [lt, gt] == pivot, (gt, hi] > pivot
+            int lt = lo, i = lo, gt = hi;
+            while (i <= gt) {
+                if (less(arr[i], pivot, comparator))
+                    swap(arr, lt++, i++);
+                else if (less(pivot, arr[i], comparator))
+                    swap(arr, i, gt--);
+                else
+                    i++;
+            }
+            if (k < lt)
+                hi = lt - 1;
+            else if (k > gt)
+                lo = gt + 1;
+            else
+                return;
+        }
+        insertionSort(arr, lo, hi + 1, comparator);
+    }
+
+    public static <T> void partialSort(@NonNull final T[] arr, final int k, final Comparator<? super T> comparator) {
+        checkK(arr.length, k);
+        if (k < arr.length)
+            nthElement(arr, 0, arr.length, k, comparator);
+        Arrays.sort(arr, 0, k, comparator);
+    }
+
+    public static <T> T[] topK(@NonNull final T[] arr, final int k, final Comparator<? super T> comparator) {
+        return extremes(arr, k, true, comparator);
+    }
+
+    public static <T> T[] bottomK(@NonNull final T[] arr, final int k, final Comparator<? super T> comparator) {
+        return extremes(arr, k, false, comparator);
+    }
+
+    public static <T> int[] topKIndices(@NonNull final T[] arr, final int k, final Comparator<? super T> comparator) {
+        return extremeIndices(arr, k, true, comparator);
+    }
+
+    public static <T> int[] bottomKIndices(@NonNull final T[] arr, final int k, final Comparator<? super T> comparator) {
+        return extremeIndices(arr, k, false, comparator);
+    }
+
+    // The k largest (or smallest) elements, best first
+    private static <T> T[] extremes(final T[] arr, final int k, final boolean largest, final Comparator<? super T> comparator) {
+        checkK(arr.length, k);
+        if (k > arr.length >>> 3) {
+            // Large k: select on a copy and sort only the selected part
+            T[] copy = arr.clone();
+            if (largest) {
+                if (k < copy.length)
+                    nthElement(copy, 0, copy.length, copy.length - k, comparator);
+                T[] best = Arrays.copyOfRange(copy, copy.length - k, copy.length);
+                Arrays.sort(best, 0, k, comparator);
+                reverse(best);
+                return best;
+            }
+            if (k < copy.length)
+                nthElement(copy, 0, copy.length, k, comparator);
+            T[] best = Arrays.copyOf(copy, k);
+            Arrays.sort(best, 0, k, comparator);
+            return best;
+        }
+
+        // Small k: one pass keeping a heap whose root is the worst element kept
+        T[] heap = Arrays.copyOf(arr, k);
+        int size = 0;
+        for (T v : arr) {
+            if (size < k) {
+                heap[size] = v;
+                siftUp(heap, size++, largest, comparator);
+            } else if (k > 0 && worse(heap[0], v, largest, comparator)) {
+                heap[0] = v;
+                siftDown(heap, 0, size, largest, comparator);
+            }
+        }
+        // Moving the worst element to the back each time leaves the best first
+        for (int end = size - 1; end > 0; end--) {
+            swap(heap, 0, end);
+            siftDown(heap, 0, end, largest, comparator);
+        }
+        return heap;
+    }
+
+    private static <T> boolean worse(final T a, final T b, final boolean largest, final Comparator<? super T> comparator) {
+        return largest ? less(a, b, comparator) : less(b, a, comparator);
+    }
+
+    private static <T> void siftUp(final T[] heap, int i, final boolean largest, final Comparator<? super T> comparator) {
+        T v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(v, heap[parent], largest, comparator))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static <T> void siftDown(final T[] heap, int i, final int size, final boolean largest, final Comparator<? super T> comparator) {
+        T v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && worse(heap[child + 1], heap[child], largest, comparator))
+                child++;
+            if (!worse(heap[child], v, largest, comparator))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    // Indices of the k largest (or smallest) elements, best first with ties going to the lower index
+    private static <T> int[] extremeIndices(final T[] arr, final int k, final boolean largest, final Comparator<? super T> comparator) {
+        checkK(arr.length, k);
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0; i < arr.length; i++) {
+            if (size < k) {
+                heap[size] = i;
+                siftUpIndex(arr, heap, size++, largest, comparator);
+            } else if (k > 0 && worseIndex(arr, heap[0], i, largest, comparator)) {
+                heap[0] = i;
+                siftDownIndex(arr, heap, 0, size, largest, comparator);
+            }
+        }
+        for (int end = size - 1; end > 0; end--) {
+            int tmp = heap[0];
+            heap[0] = heap[end];
+            heap[end] = tmp;
+            siftDownIndex(arr, heap, 0, end, largest, comparator);
+        }
+        return heap;
+    }
+
+    private static <T> boolean worseIndex(final T[] arr, final int a, final int b, final boolean largest, final Comparator<? super T> comparator) {
+        if (worse(arr[a], arr[b], largest, comparator))
+            return true;
+        if (worse(arr[b], arr[a], largest, comparator))
+            return false;
+        return a > b;
+    }
+
+    private static <T> void siftUpIndex(final T[] arr, final int[] heap, int i, final boolean largest, final Comparator<? super T> comparator) {
+        int v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worseIndex(arr, v, heap[parent], largest, comparator))
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static <T> void siftDownIndex(final T[] arr, final int[] heap, int i, final int size, final boolean largest, final Comparator<? super T> comparator) {
+        int v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && worseIndex(arr, heap[child + 1], heap[child], largest, comparator))
+                child++;
+            if (!worseIndex(arr, heap[child], v, largest, comparator))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    private static <T> int medianOf3(final T[] arr, final int a, final int b, final int c, final Comparator<? super T> comparator) {
+        if (less(arr[a], arr[b], comparator)) {
+            if (less(arr[b], arr[c], comparator))
+                return b;
+            return less(arr[a], arr[c], comparator) ? c : a;
+        }
+        if (less(arr[a], arr[c], comparator))
+            return a;
+        return less(arr[b], arr[c], comparator) ? c : b;
+    }
+
+    // Gathers the medians of groups of 5 at the front of the range and selects their median
+    private static <T> int medianOfMedians(final T[] arr, final int lo, final int hi, final Comparator<? super T> comparator) {
+        int groups = 0;
+        for (int g = lo; g <= hi; g += 5) {
+            int end = Math.min(g + 5, hi + 1);
+            insertionSort(arr, g, end, comparator);
+            swap(arr, lo + groups++, (g + end - 1) >>> 1);
+        }
+        int mid = lo + groups / 2;
+        nthElement(arr, lo, lo + groups, mid, comparator);
+        return mid;
+    }
+
+    private static <T> void insertionSort(final T[] arr, final int from, final int to, final Comparator<? super T> comparator) {
+        for (int i = from + 1; i < to; i++) {
+            T cur = arr[i];
+            int j = i - 1;
+            while (j >= from && less(cur, arr[j], comparator)) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = cur;
+        }
+    }
+
+    private static <T> void swap(final T[] arr, final int i, final int j) {
+        T tmp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = tmp;
+    }
+
+    private static <T> void reverse(final T[] arr) {
+        for (int i = 0, j = arr.length - 1; i < j; i++, j--)
+            swap(arr, i, j);
+    }
+}
@@ -0,0 +1,306 @@
+package github.grovre;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.IntFunction;
+import java.util.function.ToLongFunction;
+
+@UtilityClass
+class SetOperations {
+
+    public static <T> T[] union(@NonNull final T[] arr1, @NonNull final T[] arr2,
+                                @NonNull final ToLongFunction<? super T> key, @NonNull final IntFunction<T[]> generator) {
+        final long total = (long) arr1.length + arr2.length;
+        // Indices past arr1.length point into arr2, so every index must fit in an int
+        if (total > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Combined length " + total + " does not fit in an array");
+        LongIndexTable table = new LongIndexTable(total);
+        int[] picked = new int[(int) total];
+        int count = 0;
+        for (int i = 0; i < arr1.length; i++)
+            if (table.putIfAbsent(key.applyAsLong(arr1[i]), i) < 0)
+                picked[count++] = i;
+        for (int i = 0; i < arr2.length; i++)
+            if (table.putIfAbsent(key.applyAsLong(arr2[i]), arr1.length + i) < 0)
+                picked[count++] = arr1.length + i;
+
+        T[] unionArr = generator.apply(count);
+        for (int i = 0; i < count; i++) {
+            int p = picked[i];
+            unionArr[i] = p < arr1.length ? arr1[p] : arr2[p - arr1.length];
+        }
+        return unionArr;
+    }
+
+    public static <T> T[] intersection(@NonNull final T[] arr1, @NonNull final T[] arr2,
+                                       @NonNull final ToLongFunction<? super T> key, @NonNull final IntFunction<T[]> generator) {
+        LongIndexTable table = new LongIndexTable(arr2.length);
+        for (T o : arr2)
+            table.putIfAbsent(key.applyAsLong(o), 0);
+
+        int[] picked = new int[Math.min(arr1.length, table.size())];
+        int count = 0;
+        for (int i = 0; i < arr1.length && count < picked.length; i++) {
+            // 0 marks a key that has not been matched yet, 1 one that has
+            long k = key.applyAsLong(arr1[i]);
+            if (table.get(k) == 0) {
+                table.replace(k, 1);
+                picked[count++] = i;
+            }
+        }
+
+        T[] intersectionArr = generator.apply(count);
+        for (int i = 0; i < count; i++)
+            intersectionArr[i] = arr1[picked[i]];
+        return intersectionArr;
+    }
+
+    public static <T> T[] union(@NonNull final T[] arr1, @NonNull final T[] arr2,
+                                @NonNull final Comparator<? super T> comparator, @NonNull final IntFunction<T[]> generator) {
+        int[] idx1 = Sort.sortedIndices(arr1, comparator);
+        int[] idx2 = Sort.sortedIndices(arr2, comparator);
+
+        T[] merged = generator.apply(arr1.length + arr2.length);
+        int count = 0;
+        int i = 0, j = 0;
+        while (i < idx1.length || j < idx2.length) {
+            T next;
+            if (j >= idx2.length || (i < idx1.length && comparator.compare(arr1[idx1[i]], arr2[idx2[j]]) <= 0))
+                next = arr1[idx1[i++]];
+            else
+                next = arr2[idx2[j++]];
+            if (count == 0 || comparator.compare(merged[count - 1], next) != 0)
+                merged[count++] = next;
+        }
+        return count == merged.length ? merged : Arrays.copyOf(merged, count);
+    }
+
+    public static <T> T[] intersection(@NonNull final T[] arr1, @NonNull final T[] arr2,
+                                       @NonNull final Comparator<? super T> comparator, @NonNull final IntFunction<T[]> generator) {
+        int[] idx1 = Sort.sortedIndices(arr1, comparator);
+        int[] idx2 = Sort.sortedIndices(arr2, comparator);
+
+        T[] matched = generator.apply(Math.min(arr1.length, arr2.length));
+        int count = 0;
+        int i = 0, j = 0;
+        while (i < idx1.length && j < idx2.length) {
+            T o = arr1[idx1[i]];
+            int c = comparator.compare(o, arr2[idx2[j]]);
+            if (c < 0) {
+                i++;
+            } else if (c > 0) {
+                j++;
+            } else {
+                if (count == 0 || comparator.compare(matched[count - 1], o) != 0)
+                    matched[count++] = o;
+                i++;
+            }
+        }
+        return count == matched.length ? matched : Arrays.copyOf(matched, count);
+    }
+
+    /**
+     * Sorts copies of both arrays together in a scratch buffer and keeps one of each run.
+     */
+    public static int[] union(@NonNull final int[] arr1, @NonNull final int[] arr2, @NonNull final ScratchArena arena) {
+        final int n = arr1.length + arr2.length;
+        int[] buffer = arena.borrowInts(n);
+        System.arraycopy(arr1, 0, buffer, 0, arr1.length);
+        System.arraycopy(arr2, 0, buffer, arr1.length, arr2.length);
+        Arrays.sort(buffer, 0, n);
+        int count = 0;
+        for (int i = 0; i < n; i++)
+            if (count == 0 || buffer[count - 1] != buffer[i])
+                buffer[count++] = buffer[i];
+        int[] unionArr = Arrays.copyOf(buffer, count);
+        arena.release(buffer);
+        return unionArr;
+    }
+
+    /**
+     * Sorts copies of both arrays in scratch buffers, then merges them, writing
+     * the matches over the front of the first buffer.
+     */
+    public static int[] intersection(@NonNull final int[] arr1, @NonNull final int[] arr2, @NonNull final ScratchArena arena) {
+        int[] buffer1 = arena.borrowInts(arr1.length);
+        int[] buffer2 = arena.borrowInts(arr2.length);
+        System.arraycopy(arr1, 0, buffer1, 0, arr1.length);
+        System.arraycopy(arr2, 0, buffer2, 0, arr2.length);
+        Arrays.sort(buffer1, 0, arr1.length);
+        Arrays.sort(buffer2, 0, arr2.length);
+        int count = 0;
+        int i = 0, j = 0;
+        while (i < arr1.length && j < arr2.length) {
+            int v = buffer1[i];
+            if (v < buffer2[j]) {
+                i++;
+            } else if (v > buffer2[j]) {
+                j++;
+            } else {
+                if (count == 0 || buffer1[count - 1] != v)
+                    buffer1[count++] = v;
+                i++;
+                j++;
+            }
+        }
+        int[] intersectionArr = Arrays.copyOf(buffer1, count);
+        arena.release(buffer1);
+        arena.release(buffer2);
+        return intersectionArr;
+    }
+
+    /**
+     * Sorts copies of both arrays together in a scratch buffer and keeps one of each run.
+     */
+    public static long[] union(@NonNull final long[] arr1, @NonNull final long[] arr2, @NonNull final ScratchArena arena) {
+        final int n = arr1.length + arr2.length;
+        long[] buffer = arena.borrowLongs(n);
+        System.arraycopy(arr1, 0, buffer, 0, arr1.length);
+        System.arraycopy(arr2, 0, buffer, arr1.length, arr2.length);
+        Arrays.sort(buffer, 0, n);
+        int count = 0;
+        for (int i = 0; i < n; i++)
+            if (count == 0 || buffer[count - 1] != buffer[i])
+                buffer[count++] = buffer[i];
+        long[] unionArr = Arrays.copyOf(buffer, count);
+        arena.release(buffer);
+        return unionArr;
+    }
+
+    /**
+     * Sorts copies of both arrays in scratch buffers, then merges them, writing
+     * the matches over the front of the first buffer.
+     */
+    public static long[] intersection(@NonNull final long[] arr1, @NonNull final long[] arr2, @NonNull final ScratchArena arena) {
+        long[] buffer1 = arena.borrowLongs(arr1.length);
+        long[] buffer2 = arena.borrowLongs(arr2.length);
+        System.arraycopy(arr1, 0, buffer1, 0, arr1.length);
+        System.arraycopy(arr2, 0, buffer2, 0, arr2.length);
+        Arrays.sort(buffer1, 0, arr1.length);
+        Arrays.sort(buffer2, 0, arr2.length);
+        int count = 0;
+        int i = 0, j = 0;
+        while (i < arr1.length && j < arr2.length) {
+            long v = buffer1[i];
+            if (v < buffer2[j]) {
+                i++;
+            } else if (v > buffer2[j]) {
+                j++;
+            } else {
+                if (count == 0 || buffer1[count - 1] != v)
+                    buffer1[count++] = v;
+                i++;
+                j++;
+            }
+        }
+        long[] intersectionArr = Arrays.copyOf(buffer1, count);
+        arena.release(buffer1);
+        arena.release(buffer2);
+        return intersectionArr;
+    }
+
+    /**
+     * Merges two decoders, reading one element ahead of each.
+     */
+    public static int[] union(@NonNull final DeltaCodec.IntDecoder src1, @NonNull final DeltaCodec.IntDecoder src2) {
+        int[] unionArr = new int[Math.addExact(src1.remaining(), src2.remaining())];
+        int count = 0;
+        boolean has1 = src1.hasNext(), has2 = src2.hasNext();
+        int a = has1 ? src1.next() : 0, b = has2 ? src2.next() : 0;
+        while (has1 || has2) {
+            int v;
+            if (has1 && (!has2 || a <= b)) {
+                v = a;
+                has1 = src1.hasNext();
+                if (has1)
+                    a = src1.next();
+            } else {
+                v = b;
+                has2 = src2.hasNext();
+                if (has2)
+                    b = src2.next();
+            }
+            if (count == 0 || unionArr[count - 1] != v)
+                unionArr[count++] = v;
+        }
+        return count == unionArr.length ? unionArr : Arrays.copyOf(unionArr, count);
+    }
+
+    /**
+     * Merges two decoders, stopping as soon as either runs out.
+     */
+    public static int[] intersection(@NonNull final DeltaCodec.IntDecoder src1, @NonNull final DeltaCodec.IntDecoder src2) {
+        int[] intersectionArr = new int[Math.min(src1.remaining(), src2.remaining())];
+        int count = 0;
+        boolean has1 = src1.hasNext(), has2 = src2.hasNext();
+        int a = has1 ? src1.next() : 0, b = has2 ? src2.next() : 0;
+        while (has1 && has2) {
+            if (a <= b) {
+                if (a == b && (count == 0 || intersectionArr[count - 1] != a))
+                    intersectionArr[count++] = a;
+                has1 = src1.hasNext();
+                if (has1)
+                    a = src1.next();
+            } else {
+                has2 = src2.hasNext();
+                if (has2)
+                    b = src2.next();
+            }
+        }
+        return count == intersectionArr.length ? intersectionArr : Arrays.copyOf(intersectionArr, count);
+    }
+
+    /**
+     * Merges two decoders, reading one element ahead of each.
+     */
+    public static long[] union(@NonNull final DeltaCodec.LongDecoder src1, @NonNull final DeltaCodec.LongDecoder src2) {
+        long[] unionArr = new long[Math.addExact(src1.remaining(), src2.remaining())];
+        int count = 0;
+        boolean has1 = src1.hasNext(), has2 = src2.hasNext();
+        long a = has1 ? src1.next() : 0, b = has2 ? src2.next() : 0;
+        while (has1 || has2) {
+            long v;
+            if (has1 && (!has2 || a <= b)) {
+                v = a;
+                has1 = src1.hasNext();
+                if (has1)
+                    a = src1.next();
+            } else {
+                v = b;
+                has2 = src2.hasNext();
+                if (has2)
+                    b = src2.next();
+            }
+            if (count == 0 || unionArr[count - 1] != v)
+                unionArr[count++] = v;
+        }
+        return count == unionArr.length ? unionArr : Arrays.copyOf(unionArr, count);
+    }
+
+    /**
+     * Merges two decoders, stopping as soon as either runs out.
+     */
+    public static long[] intersection(@NonNull final DeltaCodec.LongDecoder src1, @NonNull final DeltaCodec.LongDecoder src2) {
+        long[] intersectionArr = new long[Math.min(src1.remaining(), src2.remaining())];
+        int count = 0;
+        boolean has1 = src1.hasNext(), has2 = src2.hasNext();
+        long a = has1 ? src1.next() : 0, b = has2 ? src2.next() : 0;
+        while (has1 && has2) {
+            if (a <= b) {
+                if (a == b && (count == 0 || intersectionArr[count - 1] != a))
+                    intersectionArr[count++] = a;
+                has1 = src1.hasNext();
+                if (has1)
+                    a = src1.next();
+            } else {
+                has2 = src2.hasNext();
+                if (has2)
+                    b = src2.next();
+            }
+        }
+        return count == intersectionArr.length ? intersectionArr : Arrays.copyOf(intersectionArr, count);
+    }
+}
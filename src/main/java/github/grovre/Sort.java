@@ -3,67 +3,201 @@ package github.grovre;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
 @UtilityClass
 class Sort {
 
-    public static void countingSort(@NonNull final int[] arr) {
+    // Radix digits of 11 bits keep the count array (8 KiB) inside the L1 cache
+    private static final int RADIX_BITS = 11;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    /**
+     * The counting sorts return the length of the map of counts they allocated, which is
+     * the span of values in the array, or 0 if the array was too short to need one.
+     */
+    public static int countingSort(@NonNull final int[] arr) {
+        return countingSort(arr, null);
+    }
+
+    /**
+     * @param arena The arena to borrow the map of counts from, or null to allocate it
+     */
+    static int countingSort(final int[] arr, final ScratchArena arena) {
         if (arr.length < 2)
-            return;
+            return 0;
 
-        int[] minmax = ArraysSupport.minmax(arr);
-        int offset = minmax[0] < 0 ? -minmax[0] : 0; // In case there are negatives
-        int[] map = new int[minmax[1] + offset + 1];
+        int min = arr[0], max = arr[0];
+        for (int n : arr) {
+            min = Math.min(min, n);
+            max = Math.max(max, n);
+        }
+        int offset = min; // Also takes care of negatives
+        int range = max - min + 1;
+        int[] map = arena == null ? new int[range] : zeroed(arena.borrowInts(range), range);
         for (int n : arr)
-            map[n+offset]++;
+            map[n - offset]++;
 
-        for (int mapI = 0, arrI = 0; mapI < map.length; mapI++) {
+        for (int mapI = 0, arrI = 0; mapI < range; mapI++) {
             while (map[mapI] > 0) {
-                arr[arrI++] = mapI - offset;
+                arr[arrI++] = mapI + offset;
                 map[mapI]--;
             }
         }
+        if (arena != null)
+            arena.release(map);
+        return range;
+    }
+
+    private static int[] zeroed(final int[] map, final int length) {
+        Arrays.fill(map, 0, length, 0);
+        return map;
+    }
+
+    /**
+     * Counts every value of an array into a map indexed by <code>value - min</code>,
+     * the first half of a counting sort.
+     *
+     * @return The map of counts, with a length of <code>max - min + 1</code>
+     */
+    static int[] histogram(final int[] arr, final int min, final int max) {
+        int[] map = new int[max - min + 1];
+        for (int n : arr)
+            map[n - min]++;
+        return map;
     }
 
-    public static void countingSort(@NonNull final short[] arr) {
+    /**
+     * Counts every value of an array into a map indexed by <code>value - min</code>,
+     * the first half of a counting sort.
+     *
+     * @return The map of counts, with a length of <code>max - min + 1</code>
+     */
+    static int[] histogram(final long[] arr, final long min, final long max) {
+        int[] map = new int[(int) (max - min + 1)];
+        for (long n : arr)
+            map[(int) (n - min)]++;
+        return map;
+    }
+
+    public static int countingSort(@NonNull final short[] arr) {
+        return countingSort(arr, null);
+    }
+
+    static int countingSort(final short[] arr, final ScratchArena arena) {
         if (arr.length < 2)
-            return;
+            return 0;
 
-        short[] minmax = ArraysSupport.minmax(arr);
-        short offset = (short) (minmax[0] < 0 ? -minmax[0] : 0); // In case there are negatives
-        int[] map = new int[minmax[1] + offset + 1];
+        short min = arr[0], max = arr[0];
+        for (short n : arr) {
+            min = n < min ? n : min;
+            max = n > max ? n : max;
+        }
+        int range = max - min + 1;
+        int[] map = arena == null ? new int[range] : zeroed(arena.borrowInts(range), range);
         for (short n : arr)
-            map[n+offset]++;
+            map[n - min]++;
 
-        for (int mapI = 0, arrI = 0; mapI < map.length; mapI++) {
+        for (int mapI = 0, arrI = 0; mapI < range; mapI++) {
             while (map[mapI] > 0) {
-                arr[arrI++] = (short) (mapI - offset);
+                arr[arrI++] = (short) (mapI + min);
                 map[mapI]--;
             }
         }
+        if (arena != null)
+            arena.release(map);
+        return range;
     }
 
-    public static void countingSort(@NonNull final byte[] arr) {
+    public static int countingSort(@NonNull final byte[] arr) {
+        return countingSort(arr, null);
+    }
+
+    static int countingSort(final byte[] arr, final ScratchArena arena) {
         if (arr.length < 2)
-            return;
+            return 0;
 
-        byte[] minmax = ArraysSupport.minmax(arr);
-        byte offset = (byte) (minmax[0] < 0 ? -minmax[0] : 0); // In case there are negatives
-        int[] map = new int[minmax[1] + offset + 1];
+        byte min = arr[0], max = arr[0];
+        for (byte n : arr) {
+            min = n < min ? n : min;
+            max = n > max ? n : max;
+        }
+        int range = max - min + 1;
+        int[] map = arena == null ? new int[range] : zeroed(arena.borrowInts(range), range);
         for (byte n : arr)
-            map[n+offset]++;
+            map[n - min]++;
 
-        for (int mapI = 0, arrI = 0; mapI < map.length; mapI++) {
+        for (int mapI = 0, arrI = 0; mapI < range; mapI++) {
             while (map[mapI] > 0) {
-                arr[arrI++] = (byte) (mapI - offset);
+                arr[arrI++] = (byte) (mapI + min);
                 map[mapI]--;
             }
         }
+        if (arena != null)
+            arena.release(map);
+        return range;
+    }
+
+    static int countingSort(final char[] arr, final ScratchArena arena) {
+        if (arr.length < 2)
+            return 0;
+
+        char min = arr[0], max = arr[0];
+        for (char n : arr) {
+            min = n < min ? n : min;
+            max = n > max ? n : max;
+        }
+        int range = max - min + 1;
+        int[] map = arena == null ? new int[range] : zeroed(arena.borrowInts(range), range);
+        for (char n : arr)
+            map[n - min]++;
+
+        for (int mapI = 0, arrI = 0; mapI < range; mapI++) {
+            while (map[mapI] > 0) {
+                arr[arrI++] = (char) (mapI + min);
+                map[mapI]--;
+            }
+        }
+        if (arena != null)
+            arena.release(map);
+        return range;
+    }
+
+    /**
+     * The span of values must fit in an int array.
+     */
+    static int countingSort(final long[] arr, final ScratchArena arena) {
+        if (arr.length < 2)
+            return 0;
+
+        long min = arr[0], max = arr[0];
+        for (long n : arr) {
+            min = Math.min(min, n);
+            max = Math.max(max, n);
+        }
+        int range = (int) (max - min + 1);
+        int[] map = arena == null ? new int[range] : zeroed(arena.borrowInts(range), range);
+        for (long n : arr)
+            map[(int) (n - min)]++;
+
+        for (int mapI = 0, arrI = 0; mapI < range; mapI++) {
+            while (map[mapI] > 0) {
+                arr[arrI++] = mapI + min;
+                map[mapI]--;
+            }
+        }
+        if (arena != null)
+            arena.release(map);
+        return range;
     }
 
     // This one was actually fun refactoring
-    public static void countingSort(@NonNull final boolean[] arr) {
+    public static int countingSort(@NonNull final boolean[] arr) {
         if (arr.length < 2)
-            return;
+            return 0;
 
         int[] map = new int[2];
         for (boolean b : arr)
@@ -79,5 +213,205 @@ class Sort {
             arr[i++] = true;
             map[1]--;
         }
+        return map.length;
+    }
+
+    /**
+     * Stably sorts the indices of an array by the elements they point to
+     * without moving or boxing anything in the array itself.
+     *
+     * @return The indices of the array in sorted order of their elements
+     */
+    public static <T> int[] sortedIndices(@NonNull final T[] arr, @NonNull final Comparator<? super T> comparator) {
+        int[] idx = new int[arr.length];
+        for (int i = 0; i < idx.length; i++)
+            idx[i] = i;
+        if (idx.length < 2)
+            return idx;
+
+        int[] buf = idx.clone();
+        mergeSortIndices(arr, comparator, buf, idx, 0, idx.length);
+        return idx;
+    }
+
+    // Sorts src[from, to) into dst[from, to), both arrays hold the same indices on entry
+    private static <T> void mergeSortIndices(T[] arr, Comparator<? super T> comparator,
+                                             int[] src, int[] dst, int from, int to) {
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                int cur = dst[i];
+                int j = i - 1;
+                while (j >= from && comparator.compare(arr[dst[j]], arr[cur]) > 0) {
+                    dst[j + 1] = dst[j];
+                    j--;
+                }
+                dst[j + 1] = cur;
+            }
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        mergeSortIndices(arr, comparator, dst, src, from, mid);
+        mergeSortIndices(arr, comparator, dst, src, mid, to);
+
+        if (comparator.compare(arr[src[mid - 1]], arr[src[mid]]) <= 0) {
+            System.arraycopy(src, from, dst, from, to - from);
+            return;
+        }
+        for (int i = from, l = from, r = mid; i < to; i++) {
+            if (r >= to || (l < mid && comparator.compare(arr[src[l]], arr[src[r]]) <= 0))
+                dst[i] = src[l++];
+            else
+                dst[i] = src[r++];
+        }
+    }
+
+    public static <T> void sortByKey(@NonNull final T[] arr, @NonNull final ToIntFunction<? super T> key) {
+        if (arr.length < 2)
+            return;
+
+        int[] keys = new int[arr.length];
+        for (int i = 0; i < arr.length; i++)
+            keys[i] = key.applyAsInt(arr[i]);
+        gather(arr, stablePermutation(keys));
+    }
+
+    public static <T> void sortByLongKey(@NonNull final T[] arr, @NonNull final ToLongFunction<? super T> key) {
+        if (arr.length < 2)
+            return;
+
+        long[] keys = new long[arr.length];
+        for (int i = 0; i < arr.length; i++)
+            keys[i] = key.applyAsLong(arr[i]);
+        gather(arr, stablePermutation(keys));
+    }
+
+    // One pass moving every element to where the permutation says it comes from
+    private static <T> void gather(final T[] arr, final int[] perm) {
+        T[] copy = arr.clone();
+        for (int i = 0; i < arr.length; i++)
+            arr[i] = copy[perm[i]];
+    }
+
+    /**
+     * Finds the stable sorting permutation of some keys without moving them:
+     * the i-th smallest key is <code>keys[perm[i]]</code> and equal keys keep their order.
+     * Small key ranges are counted directly, wide ones go through an LSD radix sort
+     * on the keys relative to their minimum, skipping digits every key shares.
+     *
+     * @return The permutation
+     */
+    static int[] stablePermutation(final int[] keys) {
+        final int n = keys.length;
+        int min = keys.length == 0 ? 0 : keys[0], max = min;
+        for (int k : keys) {
+            min = Math.min(min, k);
+            max = Math.max(max, k);
+        }
+
+        long range = (long) max - min + 1;
+        if (range <= Math.max(2L * n, RADIX)) {
+            int[] counts = new int[(int) range + 1];
+            for (int k : keys)
+                counts[k - min + 1]++;
+            for (int i = 1; i < counts.length; i++)
+                counts[i] += counts[i - 1];
+            int[] perm = new int[n];
+            for (int i = 0; i < n; i++)
+                perm[counts[keys[i] - min]++] = i;
+            return perm;
+        }
+
+        int[] shifted = new int[n];
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) {
+            shifted[i] = keys[i] - min;
+            perm[i] = i;
+        }
+        int bits = 32 - Integer.numberOfLeadingZeros(max - min);
+        int[] keyBuf = new int[n], permBuf = new int[n];
+        int[] counts = new int[RADIX + 1];
+        for (int shift = 0; shift < bits; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            for (int k : shifted)
+                counts[((k >>> shift) & (RADIX - 1)) + 1]++;
+            if (counts[((shifted[0] >>> shift) & (RADIX - 1)) + 1] == n)
+                continue;
+            for (int i = 1; i <= RADIX; i++)
+                counts[i] += counts[i - 1];
+            for (int i = 0; i < n; i++) {
+                int pos = counts[(shifted[i] >>> shift) & (RADIX - 1)]++;
+                keyBuf[pos] = shifted[i];
+                permBuf[pos] = perm[i];
+            }
+            int[] tmp = shifted;
+            shifted = keyBuf;
+            keyBuf = tmp;
+            tmp = perm;
+            perm = permBuf;
+            permBuf = tmp;
+        }
+        return perm;
+    }
+
+    /**
+     * Finds the stable sorting permutation of some keys without moving them,
+     * the same way as for int keys.
+     *
+     * @return The permutation
+     */
+    static int[] stablePermutation(final long[] keys) {
+        final int n = keys.length;
+        long min = keys.length == 0 ? 0 : keys[0], max = min;
+        for (long k : keys) {
+            min = Math.min(min, k);
+            max = Math.max(max, k);
+        }
+
+        // The difference is read as unsigned, since it can overflow a signed long
+        long spread = max - min;
+        if (Long.compareUnsigned(spread, Math.max(2L * n, RADIX)) < 0) {
+            int[] counts = new int[(int) spread + 2];
+            for (long k : keys)
+                counts[(int) (k - min) + 1]++;
+            for (int i = 1; i < counts.length; i++)
+                counts[i] += counts[i - 1];
+            int[] perm = new int[n];
+            for (int i = 0; i < n; i++)
+                perm[counts[(int) (keys[i] - min)]++] = i;
+            return perm;
+        }
+
+        long[] shifted = new long[n];
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) {
+            shifted[i] = keys[i] - min;
+            perm[i] = i;
+        }
+        int bits = 64 - Long.numberOfLeadingZeros(spread);
+        long[] keyBuf = new long[n];
+        int[] permBuf = new int[n];
+        int[] counts = new int[RADIX + 1];
+        for (int shift = 0; shift < bits; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            for (long k : shifted)
+                counts[(int) ((k >>> shift) & (RADIX - 1)) + 1]++;
+            if (counts[(int) ((shifted[0] >>> shift) & (RADIX - 1)) + 1] == n)
+                continue;
+            for (int i = 1; i <= RADIX; i++)
+                counts[i] += counts[i - 1];
+            for (int i = 0; i < n; i++) {
+                int pos = counts[(int) ((shifted[i] >>> shift) & (RADIX - 1))]++;
+                keyBuf[pos] = shifted[i];
+                permBuf[pos] = perm[i];
+            }
+            long[] tmpKeys = shifted;
+            shifted = keyBuf;
+            keyBuf = tmpKeys;
+            int[] tmp = perm;
+            perm = permBuf;
+            permBuf = tmp;
+        }
+        return perm;
     }
 }
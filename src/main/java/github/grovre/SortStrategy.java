@@ -0,0 +1,33 @@
+package github.grovre;
+
+/**
+ * How {@link ArraysSupport#sort(int[])} and its overloads chose to sort an array.
+ */
+public enum SortStrategy {
+
+    /**
+     * The array was already in order, so it was only checked.
+     */
+    ALREADY_SORTED,
+    /**
+     * The array was in descending order, so it was reversed.
+     */
+    REVERSED,
+    /**
+     * The span of values was no larger than the array, so every value was counted.
+     */
+    COUNTING,
+    /**
+     * The array was large with many distinct values over a moderate span, so it was
+     * LSD radix sorted in 11-bit digits, skipping the digits every value shares.
+     */
+    RADIX,
+    /**
+     * The array was made of a few long ascending runs, so neighbouring runs were merged.
+     */
+    RUN_MERGE,
+    /**
+     * None of the above fit, so {@link java.util.Arrays#sort} was used.
+     */
+    JDK
+}
@@ -0,0 +1,114 @@
+package github.grovre;
+
+import lombok.NonNull;
+
+/**
+ * <p>
+ * Marks an array as sorted in ascending order, opting it in to the sorted fast paths of
+ * {@link ArraysSupport}: {@code union} and {@code intersection} merge, {@code disjoint}
+ * gallops, and {@code frequency} and {@code indexOf} binary search, so they cost
+ * O(n + m) or O(log n) instead of hashing or a full scan.
+ * </P>
+ * <p>
+ * {@code of} checks the order once, in O(n); {@code trusted} takes the caller's word for it.
+ * The array is wrapped, not copied, so it must stay sorted for as long as the wrapper is used.
+ * </P>
+ */
+public final class Sorted {
+
+    private Sorted() {
+    }
+
+    /**
+     * @param arr The array, sorted in ascending order
+     * @return The array marked as sorted
+     * @throws IllegalArgumentException If the array is not sorted
+     */
+    public static OfInt of(@NonNull final int[] arr) {
+        checkSorted(Sortedness.sortedPrefixLength(arr, false), arr.length);
+        return new OfInt(arr);
+    }
+
+    /**
+     * @param arr The array, which the caller guarantees is sorted in ascending order
+     * @return The array marked as sorted, without checking it
+     */
+    public static OfInt trusted(@NonNull final int[] arr) {
+        return new OfInt(arr);
+    }
+
+    /**
+     * @param arr The array, sorted in ascending order
+     * @return The array marked as sorted
+     * @throws IllegalArgumentException If the array is not sorted
+     */
+    public static OfLong of(@NonNull final long[] arr) {
+        checkSorted(Sortedness.sortedPrefixLength(arr, false), arr.length);
+        return new OfLong(arr);
+    }
+
+    /**
+     * @param arr The array, which the caller guarantees is sorted in ascending order
+     * @return The array marked as sorted, without checking it
+     */
+    public static OfLong trusted(@NonNull final long[] arr) {
+        return new OfLong(arr);
+    }
+
+    private static void checkSorted(final int prefix, final int length) {
+        if (prefix != length)
+            throw new IllegalArgumentException("Array is not sorted at index " + prefix);
+    }
+
+    /**
+     * A sorted int array.
+     */
+    public static final class OfInt {
+
+        final int[] arr;
+
+        private OfInt(final int[] arr) {
+            this.arr = arr;
+        }
+
+        /**
+         * @return The wrapped array itself
+         */
+        public int[] array() {
+            return arr;
+        }
+
+        /**
+         * @return The length of the wrapped array
+         */
+        public int length() {
+            return arr.length;
+        }
+    }
+
+    /**
+     * A sorted long array.
+     */
+    public static final class OfLong {
+
+        final long[] arr;
+
+        private OfLong(final long[] arr) {
+            this.arr = arr;
+        }
+
+        /**
+         * @return The wrapped array itself
+         */
+        public long[] array() {
+            return arr;
+        }
+
+        /**
+         * @return The length of the wrapped array
+         */
+        public int length() {
+            return arr.length;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package github.grovre;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.util.Comparator;
+
+/**
+ * Sortedness checks and the searches behind {@link Sorted}. The checks of integral arrays
+ * test whole blocks of pairs without branching on each one, which lets the JIT unroll and
+ * vectorize the loop, and only look for where the order breaks inside a block that has a descent.
+ */
+@UtilityClass
+class Sortedness {
+
+    private static final int BLOCK = 64;
+
+    /**
+     * @param strict True if every element must be greater than the one before it
+     * @return The length of the longest sorted prefix
+     */
+    public static int sortedPrefixLength(@NonNull final int[] arr, final boolean strict) {
+        final int n = arr.length;
+        int i = 1;
+        if (!strict) {
+            for (; i + BLOCK <= n; i += BLOCK) {
+                int descents = 0;
+                for (int j = i; j < i + BLOCK; j++)
+                    descents |= arr[j - 1] > arr[j] ? 1 : 0;
+                if (descents != 0)
+                    break;
+            }
+        } else {
+            for (; i + BLOCK <= n; i += BLOCK) {
+                int descents = 0;
+                for (int j = i; j < i + BLOCK; j++)
+                    descents |= arr[j - 1] >= arr[j] ? 1 : 0;
+                if (descents != 0)
+                    break;
+            }
+        }
+        for (; i < n; i++)
+            if (strict ? arr[i - 1] >= arr[i] : arr[i - 1] > arr[i])
+                return i;
+        return n;
+    }
+
+    /**
+     * @param strict True if every element must be greater than the one before it
+     * @return The length of the longest sorted prefix
+     */
+    public static int sortedPrefixLength(@NonNull final short[] arr, final boolean strict) {
+        final int n = arr.length;
+        final int bias = strict ? 1 : 0;
+        int i = 1;
+        for (; i + BLOCK <= n; i += BLOCK) {
+            int descents = 0;
+            for (int j = i; j < i + BLOCK; j++)
+                descents |= arr[j - 1] + bias > arr[j] ? 1 : 0;
+            if (descents != 0)
+                break;
+        }
+        for (; i < n; i++)
+            if (arr[i - 1] + bias > arr[i])
+                return i;
+        return n;
+    }
+
+    /**
+     * @param strict True if every element must be greater than the one before it
+     * @return The length of the longest sorted prefix
+     */
+    public static int sortedPrefixLength(@NonNull final byte[] arr, final boolean strict) {
+        final int n = arr.length;
+        final int bias = strict ? 1 : 0;
+        int i = 1;
+        for (; i + BLOCK <= n; i += BLOCK) {
+            int descents = 0;
+            for (int j = i; j < i + BLOCK; j++)
+                descents |= arr[j - 1] + bias > arr[j] ? 1 : 0;
+            if (descents != 0)
+                break;
+        }
+        for (; i < n; i++)
+            if (arr[i - 1] + bias > arr[i])
+                return i;
+        return n;
+    }
+
+    /**
+     * @param strict True if every element must be greater than the one before it
+     * @return The length of the longest sorted prefix
+     */
+    public static int sortedPrefixLength(@NonNull final char[] arr, final boolean strict) {
+        final int n = arr.length;
+        final int bias = strict ? 1 : 0;
+        int i = 1;
+        for (; i + BLOCK <= n; i += BLOCK) {
+            int descents = 0;
+            for (int j = i; j < i + BLOCK; j++)
+                descents |= arr[j - 1] + bias > arr[j] ? 1 : 0;
+            if (descents != 0)
+                break;
+        }
+        for (; i < n; i++)
+            if (arr[i - 1] + bias > arr[i])
+                return i;
+        return n;
+    }
+
+    /**
+     * @param strict True if every element must be greater than the one before it
+     * @return The length of the longest sorted prefix
+     */
+    public static int sortedPrefixLength(@NonNull final long[] arr, final boolean strict) {
+        final int n = arr.length;
+        int i = 1;
+        if (!strict) {
+            for (; i + BLOCK <= n; i += BLOCK) {
+                int descents = 0;
+                for (int j = i; j < i + BLOCK; j++)
+                    descents |= arr[j - 1] > arr[j] ? 1 : 0;
+                if (descents != 0)
+                    break;
+            }
+        } else {
+            for (; i + BLOCK <= n; i += BLOCK) {
+                int descents = 0;
+                for (int j = i; j < i + BLOCK; j++)
+                    descents |= arr[j - 1] >= arr[j] ? 1 : 0;
+                if (descents != 0)
+                    break;
+            }
+        }
+        for (; i < n; i++)
+            if (strict ? arr[i - 1] >= arr[i] : arr[i - 1] > arr[i])
+                return i;
+        return n;
+    }
+
+    /**
+     * Orders elements like {@link Float#compare}, so -0.0 comes before 0.0 and NaN last.
+     *
+     * @param strict True if every element must be greater than the one before it
+     * @return The length of the longest sorted prefix
+     */
+    public static int sortedPrefixLength(@NonNull final float[] arr, final boolean strict) {
+        final int floor = strict ? 0 : 1;
+        for (int i = 1; i < arr.length; i++)
+            if (Float.compare(arr[i - 1], arr[i]) >= floor)
+                return i;
+        return arr.length;
+    }
+
+    /**
+     * Orders elements like {@link Double#compare}, so -0.0 comes before 0.0 and NaN last.
+     *
+     * @param strict True if every element must be greater than the one before it
+     * @return The length of the longest sorted prefix
+     */
+    public static int sortedPrefixLength(@NonNull final double[] arr, final boolean strict) {
+        final int floor = strict ? 0 : 1;
+        for (int i = 1; i < arr.length; i++)
+            if (Double.compare(arr[i - 1], arr[i]) >= floor)
+                return i;
+        return arr.length;
+    }
+
+    /**
+     * Orders false before true.
+     *
+     * @param strict True if every element must be greater than the one before it
+     * @return The length of the longest sorted prefix
+     */
+    public static int sortedPrefixLength(@NonNull final boolean[] arr, final boolean strict) {
+        for (int i = 1; i < arr.length; i++)
+            if (strict ? arr[i - 1] || !arr[i] : arr[i - 1] && !arr[i])
+                return i;
+        return arr.length;
+    }
+
+    /**
+     * @param strict True if every element must be greater than the one before it
+     * @return The length of the longest sorted prefix
+     */
+    public static <T extends Comparable<? super T>> int sortedPrefixLength(@NonNull final T[] arr, final boolean strict) {
+        final int floor = strict ? 0 : 1;
+        for (int i = 1; i < arr.length; i++)
+            if (arr[i - 1].compareTo(arr[i]) >= floor)
+                return i;
+        return arr.length;
+    }
+
+    /**
+     * @param strict True if every element must be greater than the one before it
+     * @return The length of the longest sorted prefix
+     */
+    public static <T> int sortedPrefixLength(@NonNull final T[] arr, @NonNull final Comparator<? super T> comparator, final boolean strict) {
+        final int floor = strict ? 0 : 1;
+        for (int i = 1; i < arr.length; i++)
+            if (comparator.compare(arr[i - 1], arr[i]) >= floor)
+                return i;
+        return arr.length;
+    }
+
+    /**
+     * @return The first index whose element is not less than the key, or the length
+     */
+    static int lowerBound(final int[] arr, final int key) {
+        int lo = 0, hi = arr.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] < key)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * @return The first index whose element is greater than the key, or the length
+     */
+    static int upperBound(final int[] arr, final int key) {
+        int lo = 0, hi = arr.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] <= key)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Walks both arrays together, galloping over runs of the one that is behind.
+     */
+    static boolean disjoint(final int[] arr1, final int[] arr2) {
+        int i = 0, j = 0;
+        while (i < arr1.length && j < arr2.length) {
+            if (arr1[i] < arr2[j])
+                i = Merge.gallop(arr1, i, arr1.length, arr2[j]);
+            else if (arr1[i] > arr2[j])
+                j = Merge.gallop(arr2, j, arr2.length, arr1[i]);
+            else
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return The first index whose element is not less than the key, or the length
+     */
+    static int lowerBound(final long[] arr, final long key) {
+        int lo = 0, hi = arr.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] < key)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * @return The first index whose element is greater than the key, or the length
+     */
+    static int upperBound(final long[] arr, final long key) {
+        int lo = 0, hi = arr.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] <= key)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Walks both arrays together, galloping over runs of the one that is behind.
+     */
+    static boolean disjoint(final long[] arr1, final long[] arr2) {
+        int i = 0, j = 0;
+        while (i < arr1.length && j < arr2.length) {
+            if (arr1[i] < arr2[j])
+                i = Merge.gallop(arr1, i, arr1.length, arr2[j]);
+            else if (arr1[i] > arr2[j])
+                j = Merge.gallop(arr2, j, arr2.length, arr1[i]);
+            else
+                return false;
+        }
+        return true;
+    }
+}
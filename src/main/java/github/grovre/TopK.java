@@ -0,0 +1,136 @@
+package github.grovre;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+/**
+ * Keeps the k largest elements offered to it in a bounded binary heap,
+ * so a stream of any length can be ranked in O(n log k) time and O(k) memory.
+ * This is meant for k much smaller than the amount of elements offered; to rank
+ * an array that is already in memory see {@link ArraysSupport#topK(Object[], int, Comparator)}.
+ * This class is not thread-safe.
+ */
+public final class TopK<T> {
+
+    private final T[] heap;
+    private int size;
+    private final Comparator<? super T> comparator;
+
+    /**
+     * @param k The amount of elements to keep
+     * @param comparator The comparator deciding which elements are larger
+     */
+    @SuppressWarnings("unchecked")
+    public TopK(final int k, @NonNull final Comparator<? super T> comparator) {
+        if (k < 0)
+            throw new IllegalArgumentException("k must not be negative but was " + k);
+        this.heap = (T[]) new Object[k];
+        this.comparator = comparator;
+    }
+
+    /**
+     * Offers an element, keeping it if it is among the k largest seen so far.
+     *
+     * @param v The element
+     * @return True if the element was kept
+     */
+    public boolean offer(final T v) {
+        if (size < heap.length) {
+            heap[size] = v;
+            siftUp(size++);
+            return true;
+        }
+        if (size == 0 || comparator.compare(heap[0], v) >= 0)
+            return false;
+        heap[0] = v;
+        siftDown(0, size);
+        return true;
+    }
+
+    /**
+     * Offers every element of an array.
+     *
+     * @param arr The elements to offer
+     */
+    public void offerAll(final T[] arr) {
+        for (T v : arr)
+            offer(v);
+    }
+
+    /**
+     * @return The amount of elements kept, at most k
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The smallest element kept, which any new element has to beat once k are kept.
+     *
+     * @return The smallest element kept
+     */
+    public T threshold() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return heap[0];
+    }
+
+    /**
+     * @param generator The generator to create an array with. Looks like <code>Integer[]::new</code>
+     * @return A new array of the elements kept, largest first
+     */
+    public T[] toArray(@NonNull final IntFunction<T[]> generator) {
+        T[] sorted = generator.apply(size);
+        System.arraycopy(heap, 0, sorted, 0, size);
+        for (int end = size - 1; end > 0; end--) {
+            T tmp = sorted[0];
+            sorted[0] = sorted[end];
+            sorted[end] = tmp;
+            siftDown(sorted, 0, end);
+        }
+        return sorted;
+    }
+
+    /**
+     * Forgets every element kept.
+     */
+    public void clear() {
+        size = 0;
+        Arrays.fill(heap, null);
+    }
+
+    private void siftUp(int i) {
+        T v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (comparator.compare(v, heap[parent]) >= 0)
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private void siftDown(final int i, final int size) {
+        siftDown(heap, i, size);
+    }
+
+    private void siftDown(final T[] heap, int i, final int size) {
+        T v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && comparator.compare(heap[child + 1], heap[child]) < 0)
+                child++;
+            if (comparator.compare(heap[child], v) >= 0)
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+}
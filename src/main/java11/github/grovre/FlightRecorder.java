@@ -0,0 +1,82 @@
+package github.grovre;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import lombok.experimental.UtilityClass;
+
+/**
+ * JDK Flight Recorder hooks for instrumented calls, emitting {@code github.grovre.Operation}
+ * events. Only calls that take at least <code>github.grovre.jfr.threshold</code> nanoseconds
+ * (10 ms by default) or allocate at least <code>github.grovre.jfr.allocationThreshold</code>
+ * bytes (1 MiB by default) are committed, so continuous recordings only see the calls that
+ * matter. While no recording has the event enabled, {@link #begin()} returns null and the
+ * instrumented call skips everything else.
+ */
+@UtilityClass
+class FlightRecorder {
+
+    private static final long THRESHOLD_NANOS = Long.getLong("github.grovre.jfr.threshold", 10_000_000L);
+    private static final long ALLOCATION_THRESHOLD = Long.getLong("github.grovre.jfr.allocationThreshold", 1L << 20);
+
+    @Name("github.grovre.Operation")
+    @Label("ArraysSupport Operation")
+    @Category("ArraysSupport")
+    @Description("A slow or allocation-heavy call into ArraysSupport")
+    @StackTrace
+    // The thresholds above decide what is committed, a recording can still raise this one
+    @Threshold("0 ns")
+    static final class OperationEvent extends Event {
+
+        @Label("Operation")
+        String operation;
+
+        @Label("Element Type")
+        String type;
+
+        @Label("Input Length")
+        int length;
+
+        @Label("Value Range")
+        @Description("The span of values the chosen strategy allocated for, or -1 if it does not depend on it")
+        long range;
+
+        @Label("Strategy")
+        String strategy;
+
+        @Label("Scratch Allocated")
+        @Description("Bytes allocated by the thread during the call, or -1 if the JVM cannot measure it")
+        @DataAmount
+        long scratchBytes;
+    }
+
+    static Object begin() {
+        OperationEvent event = new OperationEvent();
+        if (!event.isEnabled())
+            return null;
+        event.begin();
+        return event;
+    }
+
+    static void end(final Object started, final String operation, final String type, final int length,
+                    final long range, final String strategy, final long nanos, final long scratchBytes) {
+        OperationEvent event = (OperationEvent) started;
+        if (nanos < THRESHOLD_NANOS && scratchBytes < ALLOCATION_THRESHOLD)
+            return;
+        event.end();
+        if (!event.shouldCommit())
+            return;
+        event.operation = operation;
+        event.type = type;
+        event.length = length;
+        event.range = range;
+        event.strategy = strategy;
+        event.scratchBytes = scratchBytes;
+        event.commit();
+    }
+}
@@ -0,0 +1,117 @@
+import github.grovre.ArraysSupport;
+import github.grovre.ScratchArena;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bytes allocated per call by the hot operations, measured with the thread allocation
+ * counter of HotSpot's ThreadMXBean. Scans must not allocate at all and everything else
+ * must stay within a budget, so a change that starts allocating more fails the build.
+ * Each operation is run enough times first for the JIT to settle, then the fewest bytes
+ * seen over a few calls is taken, so unrelated background allocation is not counted.
+ */
+class AllocationTests {
+
+    private static final int WARMUP = 2_000;
+    private static final int RUNS = 5;
+
+    private static com.sun.management.ThreadMXBean threads;
+    private static long baseline;
+
+    @BeforeAll
+    static void setUp() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "No thread allocation counter");
+        threads = (com.sun.management.ThreadMXBean) bean;
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported(), "No thread allocation counter");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        baseline = 0;
+        baseline = allocated(() -> {
+        });
+    }
+
+    private static long allocated(final Runnable op) {
+        long id = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP; i++)
+            op.run();
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long before = threads.getThreadAllocatedBytes(id);
+            op.run();
+            min = Math.min(min, threads.getThreadAllocatedBytes(id) - before);
+        }
+        return Math.max(0, min - baseline);
+    }
+
+    private static void assertAllocationFree(final String name, final Runnable op) {
+        assertEquals(0, allocated(op), name + " allocated");
+    }
+
+    private static void assertAllocatesAtMost(final String name, final long budget, final Runnable op) {
+        long bytes = allocated(op);
+        assertTrue(bytes <= budget, name + " allocated " + bytes + " bytes, over its budget of " + budget);
+    }
+
+    @Test
+    void scansDoNotAllocate() {
+        int[] ints = IntStream.range(0, 1_000).map(i -> i % 97).toArray();
+        long[] longs = LongStream.range(0, 1_000).toArray();
+        double[] doubles = IntStream.range(0, 1_000).asDoubleStream().toArray();
+        Square[] squares = IntStream.range(0, 1_000).mapToObj(Square::new).toArray(Square[]::new);
+        Square target = new Square(999);
+
+        assertAllocationFree("frequency(int[])", () -> ArraysSupport.frequency(ints, 5));
+        assertAllocationFree("frequency(long[])", () -> ArraysSupport.frequency(longs, 5));
+        assertAllocationFree("frequency(double[])", () -> ArraysSupport.frequency(doubles, 5));
+        assertAllocationFree("indexOf(int[])", () -> ArraysSupport.indexOf(ints, 96));
+        assertAllocationFree("indexOf(long[])", () -> ArraysSupport.indexOf(longs, 999));
+        assertAllocationFree("indexOf(T[])", () -> ArraysSupport.indexOf(squares, target));
+        assertAllocationFree("lastIndexOf(int[])", () -> ArraysSupport.lastIndexOf(ints, 0));
+        assertAllocationFree("min(int[])", () -> ArraysSupport.min(ints));
+        assertAllocationFree("max(long[])", () -> ArraysSupport.max(longs));
+        assertAllocationFree("argmin(int[])", () -> ArraysSupport.argmin(ints));
+        assertAllocationFree("argmax(double[])", () -> ArraysSupport.argmax(doubles));
+        assertAllocationFree("reverse(int[])", () -> ArraysSupport.reverse(ints));
+        assertAllocationFree("reverse(T[])", () -> ArraysSupport.reverse(squares));
+        assertAllocationFree("reverse(long[], int, int)", () -> ArraysSupport.reverse(longs, 10, 500));
+        assertAllocationFree("swap(int[])", () -> ArraysSupport.swap(ints, 1, 2));
+        assertAllocationFree("replaceAll(int[])", () -> ArraysSupport.replaceAll(ints, 1_000, 1_001));
+        assertAllocationFree("rotate(int[])", () -> ArraysSupport.rotate(ints, 7));
+        assertAllocationFree("countingSort(int[], ScratchArena)", () -> ArraysSupport.countingSort(ints, ScratchArena.local()));
+        assertAllocationFree("prefixSum(long[])", () -> ArraysSupport.prefixSum(longs, longs, false));
+        assertAllocationFree("nthElement(int[])", () -> ArraysSupport.nthElement(ints, 500));
+    }
+
+    @Test
+    void allocationsStayWithinBudget() {
+        int[] ints = IntStream.range(0, 1_000).map(i -> i % 97).toArray();
+        int[] others = IntStream.range(500, 1_500).toArray();
+        long[] longs = LongStream.range(0, 1_000).toArray();
+        long[] otherLongs = LongStream.range(500, 1_500).toArray();
+
+        // One small result array
+        assertAllocatesAtMost("minmax(int[])", 24, () -> ArraysSupport.minmax(ints));
+        assertAllocatesAtMost("minmax(long[])", 32, () -> ArraysSupport.minmax(longs));
+        // The map of 97 counts plus the minmax array, on top of the copy being sorted
+        assertAllocatesAtMost("countingSort(int[])", ints.length * 4L + 16 + 512, () -> ArraysSupport.countingSort(ints.clone()));
+        // A copy of the input plus a bitmap
+        assertAllocatesAtMost("distinct(int[])", ints.length * 4L + 512, () -> ArraysSupport.distinct(ints));
+        assertAllocatesAtMost("argsort(long[])", longs.length * 16L + 512, () -> ArraysSupport.argsort(longs));
+        assertAllocatesAtMost("mergeSorted(long[])", (longs.length + otherLongs.length) * 8L + 512, () -> ArraysSupport.mergeSorted(longs, otherLongs));
+        assertAllocatesAtMost("intersectionSorted(long[])", (longs.length + otherLongs.length) * 8L + 512, () -> ArraysSupport.intersectionSorted(longs, otherLongs));
+        // Only the result when the buffers come from an arena, plus the run bookkeeping of Arrays.sort
+        assertAllocatesAtMost("union(int[], ScratchArena)", 1_097 * 4L + 1_024, () -> ArraysSupport.union(ints, others, ScratchArena.local()));
+        assertAllocatesAtMost("intersection(long[], ScratchArena)", 500 * 8L + 1_024, () -> ArraysSupport.intersection(longs, otherLongs, ScratchArena.local()));
+        // Boxed hash sets, bounded per element
+        assertAllocatesAtMost("union(int[])", (ints.length + others.length) * 96L, () -> ArraysSupport.union(ints, others));
+        assertAllocatesAtMost("union(long[])", (longs.length + otherLongs.length) * 96L, () -> ArraysSupport.union(longs, otherLongs));
+        assertAllocatesAtMost("disjoint(int[])", (long) ints.length * 512, () -> ArraysSupport.disjoint(ints, others));
+    }
+}
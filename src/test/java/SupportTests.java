@@ -1,10 +1,45 @@
+import github.grovre.ArrayIO;
 import github.grovre.ArraysSupport;
+import github.grovre.ArraysSupportMetrics;
+import github.grovre.BigByteArray;
+import github.grovre.BigIntArray;
+import github.grovre.BigLongArray;
+import github.grovre.DeltaCodec;
+import github.grovre.DoubleStats;
+import github.grovre.ExternalSort;
+import github.grovre.IntArrayView;
+import github.grovre.IntPipeline;
+import github.grovre.IntTopK;
+import github.grovre.LongArrayView;
+import github.grovre.LongPipeline;
+import github.grovre.LongStats;
+import github.grovre.PackedIntArray;
+import github.grovre.RecordingMetrics;
+import github.grovre.ScratchArena;
+import github.grovre.SortStrategy;
+import github.grovre.Sorted;
 import org.junit.jupiter.api.Test;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntToLongFunction;
+import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -92,4 +127,880 @@ class SupportTests {
         ArraysSupport.shuffle(arr);
         assertFalse(Arrays.equals(arr, arr2));
     }
+
+    @Test
+    void keyedSetOperationTests() {
+        Square[] arr = IntStream.rangeClosed(0, 100).mapToObj(Square::new).toArray(Square[]::new);
+        Square[] arr2 = IntStream.rangeClosed(90, 200).mapToObj(Square::new).toArray(Square[]::new);
+        Square[] expectedUnion = IntStream.rangeClosed(0, 200).mapToObj(Square::new).toArray(Square[]::new);
+        Square[] expectedIntersection = IntStream.rangeClosed(90, 100).mapToObj(Square::new).toArray(Square[]::new);
+
+        assertArrayEquals(expectedUnion, ArraysSupport.union(arr, arr2, Square::getSide, Square[]::new));
+        assertArrayEquals(expectedIntersection, ArraysSupport.intersection(arr, arr2, Square::getSide, Square[]::new));
+
+        ArraysSupport.shuffle(arr);
+        ArraysSupport.shuffle(arr2);
+        Comparator<Square> bySide = Comparator.comparingInt(Square::getSide);
+        assertArrayEquals(expectedUnion, ArraysSupport.union(arr, arr2, bySide, Square[]::new));
+        assertArrayEquals(expectedIntersection, ArraysSupport.intersection(arr, arr2, bySide, Square[]::new));
+
+        // The first array's objects are the ones kept
+        Square kept = new Square(95);
+        arr = new Square[]{kept, new Square(95), new Square(1)};
+        Square[] result = ArraysSupport.intersection(arr, arr2, Square::getSide, Square[]::new);
+        assertEquals(1, result.length);
+        assertSame(kept, result[0]);
+    }
+
+    @Test
+    void kWayTests() {
+        int[][] lists = new int[50][];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = ThreadLocalRandom.current().ints(ThreadLocalRandom.current().nextInt(200), 0, 500).toArray();
+            Arrays.sort(lists[i]);
+        }
+        int[] all = Arrays.stream(lists).flatMapToInt(Arrays::stream).sorted().toArray();
+        assertArrayEquals(all, ArraysSupport.mergeSorted(lists));
+        assertArrayEquals(Arrays.stream(all).distinct().toArray(), ArraysSupport.unionSorted(lists));
+
+        int[] expected = Arrays.stream(lists[0]).distinct()
+                .filter(n -> Arrays.stream(lists).allMatch(l -> Arrays.binarySearch(l, n) >= 0))
+                .toArray();
+        assertArrayEquals(expected, ArraysSupport.intersectionSorted(lists));
+
+        long[] a = {1, 3, 5, 7, 9, 11};
+        long[] b = {0, 3, 4, 7, 11, 12};
+        long[] c = {3, 7, 8, 11};
+        assertArrayEquals(new long[]{3, 7, 11}, ArraysSupport.intersectionSorted(a, b, c));
+        assertArrayEquals(new long[]{3, 7}, ArraysSupport.intersectionSorted(new long[][]{a, b, c}, new int[]{1, 0, 0}, new int[]{4, 4, 4}));
+        assertArrayEquals(new long[]{0, 1, 3, 3, 3, 4, 5}, ArraysSupport.mergeSorted(new long[][]{a, b, c}, new int[]{0, 0, 0}, new int[]{3, 3, 1}));
+        assertArrayEquals(new long[]{0, 1, 3, 4, 5}, ArraysSupport.unionSorted(new long[][]{a, b, c}, new int[]{0, 0, 0}, new int[]{3, 3, 1}));
+        assertArrayEquals(ArraysSupport.EMPTY_LONG_ARRAY, ArraysSupport.unionSorted(new long[0][]));
+    }
+
+    @Test
+    void selectionTests() {
+        ThreadLocalRandom tlr = ThreadLocalRandom.current();
+        for (int n : new int[]{1, 10, 100, 10_000}) {
+            int[] arr = tlr.ints(n, -50, 50).toArray();
+            int[] sorted = arr.clone();
+            Arrays.sort(sorted);
+
+            int k = tlr.nextInt(n);
+            int[] copy = arr.clone();
+            ArraysSupport.nthElement(copy, k);
+            assertEquals(sorted[k], copy[k]);
+            for (int i = 0; i < k; i++)
+                assertTrue(copy[i] <= copy[k]);
+            for (int i = k + 1; i < n; i++)
+                assertTrue(copy[i] >= copy[k]);
+
+            copy = arr.clone();
+            ArraysSupport.partialSort(copy, k);
+            assertArrayEquals(Arrays.copyOf(sorted, k), Arrays.copyOf(copy, k));
+
+            for (int kk : new int[]{0, 1, Math.max(1, n / 100), n / 2, n}) {
+                assertArrayEquals(Arrays.copyOf(sorted, kk), ArraysSupport.bottomK(arr, kk));
+                int[] top = ArraysSupport.topK(arr, kk);
+                for (int i = 0; i < kk; i++)
+                    assertEquals(sorted[n - 1 - i], top[i]);
+                int[] topIdx = ArraysSupport.topKIndices(arr, kk);
+                for (int i = 0; i < kk; i++)
+                    assertEquals(top[i], arr[topIdx[i]]);
+            }
+        }
+
+        // Already sorted and all-equal inputs are the classic quickselect killers
+        double[] same = new double[100_000];
+        ArraysSupport.nthElement(same, 50_000);
+        assertArrayEquals(new int[]{0, 1, 2}, ArraysSupport.bottomKIndices(same, 3));
+        long[] ascending = LongStream.range(0, 100_000).toArray();
+        ArraysSupport.nthElement(ascending, 99_999);
+        assertEquals(99_999, ascending[99_999]);
+
+        Square[] squares = Square.randomArray(1_000, 0, 100);
+        Square[] top = ArraysSupport.topK(squares, 5, Comparator.naturalOrder());
+        Square[] expected = Arrays.stream(squares).sorted(Comparator.reverseOrder()).limit(5).toArray(Square[]::new);
+        assertArrayEquals(expected, top);
+
+        IntTopK stream = new IntTopK(3);
+        stream.offerAll(new int[]{5, 1, 9, 7, 3, 9});
+        assertArrayEquals(new int[]{9, 9, 7}, stream.toArray());
+        assertEquals(7, stream.threshold());
+    }
+
+    @Test
+    void quantileTests() {
+        int[] arr = {7, 1, 3, 5};
+        assertEquals(4.0, ArraysSupport.median(arr));
+        assertArrayEquals(new int[]{7, 1, 3, 5}, arr);
+        assertEquals(1.0, ArraysSupport.quantile(arr, 0));
+        assertEquals(7.0, ArraysSupport.quantile(arr, 1));
+        assertEquals(5.0 + 0.5 * 2, ArraysSupport.quantile(arr, 5.0 / 6));
+
+        ThreadLocalRandom tlr = ThreadLocalRandom.current();
+        double[] qs = {0.99, 0.5, 0.9, 0.0, 1.0, 0.25};
+        for (int bound : new int[]{50, Integer.MAX_VALUE}) {
+            // A small bound goes through the histogram, a large one through selection
+            int[] values = tlr.ints(10_001, 0, bound).toArray();
+            int[] sorted = values.clone();
+            Arrays.sort(sorted);
+            double[] expected = new double[qs.length];
+            for (int i = 0; i < qs.length; i++) {
+                double h = (sorted.length - 1) * qs[i];
+                int lo = (int) h;
+                expected[i] = lo + 1 < sorted.length ? sorted[lo] + (h - lo) * ((double) sorted[lo + 1] - sorted[lo]) : sorted[lo];
+            }
+            assertArrayEquals(expected, ArraysSupport.quantiles(values, qs));
+            assertArrayEquals(expected, ArraysSupport.quantiles(values, qs, new int[values.length]));
+            assertArrayEquals(expected, ArraysSupport.quantilesInPlace(values, qs));
+        }
+
+        double[] latencies = tlr.doubles(999).toArray();
+        double[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        assertEquals(sorted[499], ArraysSupport.median(latencies));
+        assertEquals(sorted[988] + 0.02 * (sorted[989] - sorted[988]), ArraysSupport.quantile(latencies, 0.99), 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> ArraysSupport.quantile(latencies, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> ArraysSupport.median(new long[0]));
+    }
+
+    @Test
+    void distinctTests() {
+        ThreadLocalRandom tlr = ThreadLocalRandom.current();
+        for (int bound : new int[]{10, 100_000, Integer.MAX_VALUE}) {
+            // Dense, sparse and hashed ranges
+            int[] arr = tlr.ints(10_000, -bound / 2, bound / 2).toArray();
+            assertArrayEquals(Arrays.stream(arr).distinct().toArray(), ArraysSupport.distinct(arr));
+            int[] sorted = arr.clone();
+            Arrays.sort(sorted);
+            assertArrayEquals(Arrays.stream(sorted).distinct().toArray(), ArraysSupport.distinct(sorted));
+        }
+
+        long[] ids = {5, Long.MIN_VALUE, 5, Long.MAX_VALUE, Long.MIN_VALUE, 7};
+        int len = ArraysSupport.distinctInPlace(ids);
+        assertArrayEquals(new long[]{5, Long.MIN_VALUE, Long.MAX_VALUE, 7}, Arrays.copyOf(ids, len));
+
+        assertArrayEquals(new short[]{3, -3, 0}, ArraysSupport.distinct(new short[]{3, -3, 3, 0, -3}));
+        assertArrayEquals(new byte[]{Byte.MAX_VALUE, Byte.MIN_VALUE}, ArraysSupport.distinct(new byte[]{Byte.MAX_VALUE, Byte.MIN_VALUE, Byte.MAX_VALUE}));
+        assertArrayEquals(new char[]{'b', 'a'}, ArraysSupport.distinct(new char[]{'b', 'a', 'b', 'a'}));
+        assertArrayEquals(new double[]{1.5, Double.NaN, 0.0, -0.0}, ArraysSupport.distinct(new double[]{1.5, Double.NaN, 1.5, 0.0, -0.0, Double.NaN}));
+        assertArrayEquals(new float[]{-1f, 2f}, ArraysSupport.distinct(new float[]{-1f, -1f, 2f, 2f}));
+        assertArrayEquals(new boolean[]{true, false}, ArraysSupport.distinct(new boolean[]{true, true, false, true}));
+        assertArrayEquals(ArraysSupport.EMPTY_INT_ARRAY, ArraysSupport.distinct(ArraysSupport.EMPTY_INT_ARRAY));
+    }
+
+    @Test
+    void prefixSumTests() {
+        int[] arr = {3, 1, 4, 1, 5};
+        int[] sums = new int[arr.length];
+        ArraysSupport.prefixSum(arr, sums, true);
+        assertArrayEquals(new int[]{0, 3, 4, 8, 9}, sums);
+        ArraysSupport.prefixSum(arr);
+        assertArrayEquals(new int[]{3, 4, 8, 9, 14}, arr);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            long[] lengths = ThreadLocalRandom.current().longs(1_000_003, 0, 1_000).toArray();
+            long[] expected = lengths.clone();
+            ArraysSupport.exclusivePrefixSum(expected);
+            long[] offsets = new long[lengths.length];
+            ArraysSupport.parallelPrefixSum(lengths, offsets, true, pool);
+            assertArrayEquals(expected, offsets);
+            ArraysSupport.parallelPrefixSum(lengths, lengths, true, pool);
+            assertArrayEquals(expected, lengths);
+
+            // 0.1 is not exact in binary, so plain sums drift while compensated ones do not
+            double[] tenths = new double[1_000_000];
+            Arrays.fill(tenths, 0.1);
+            double[] compensated = new double[tenths.length];
+            ArraysSupport.parallelPrefixSum(tenths, compensated, false, true, pool);
+            assertEquals(100_000.0, compensated[compensated.length - 1], 1e-9);
+            ArraysSupport.prefixSum(tenths, compensated, false, true);
+            assertEquals(100_000.0, compensated[compensated.length - 1], 1e-9);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void statsTests() {
+        int[] arr = {2, 4, 4, 4, 5, 5, 7, 9};
+        LongStats stats = ArraysSupport.stats(arr);
+        assertEquals(8, stats.getCount());
+        assertEquals(40, stats.getSum());
+        assertEquals(2, stats.getMin());
+        assertEquals(9, stats.getMax());
+        assertEquals(5.0, stats.getMean());
+        assertEquals(4.0, stats.getVariance(), 1e-12);
+        assertEquals(2.0, stats.getStandardDeviation(), 1e-12);
+        assertEquals(stats, ArraysSupport.stats(arr, 0, 3).merge(ArraysSupport.stats(arr, 3, 8)).merge(LongStats.EMPTY));
+
+        long[] big = {Long.MAX_VALUE, Long.MAX_VALUE, 1};
+        LongStats bigStats = ArraysSupport.stats(big);
+        assertThrows(ArithmeticException.class, bigStats::getSum);
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).shiftLeft(1).add(BigInteger.ONE), bigStats.getExactSum());
+        assertEquals(-3, ArraysSupport.stats(new long[]{Long.MIN_VALUE, Long.MAX_VALUE, -2}).getSum());
+
+        double[] values = ThreadLocalRandom.current().doubles(10_000, 1e9, 1e9 + 1).toArray();
+        DoubleStats dStats = ArraysSupport.stats(values, 0, 5_000).merge(ArraysSupport.stats(values, 5_000, 10_000));
+        double mean = Arrays.stream(values).average().getAsDouble();
+        double variance = Arrays.stream(values).map(v -> (v - mean) * (v - mean)).sum() / values.length;
+        assertEquals(mean, dStats.getMean(), 1e-5);
+        assertEquals(variance, dStats.getVariance(), 1e-6);
+        // 1e16 + 1 rounds to 1e16 within the first chunk, and only its compensation remembers the 1
+        DoubleStats compensated = ArraysSupport.stats(new double[]{1e16, 1}).merge(ArraysSupport.stats(new double[]{1}));
+        assertEquals(1e16 + 2, compensated.getSum());
+        assertEquals(ArraysSupport.stats(new double[]{1e16, 1, 1}).getSum(), compensated.getSum());
+        DoubleStats infinite = ArraysSupport.stats(new double[]{Double.POSITIVE_INFINITY, 1});
+        assertEquals(Double.POSITIVE_INFINITY, infinite.getSum());
+        assertEquals(Double.POSITIVE_INFINITY, infinite.getMean());
+        assertEquals(Double.NEGATIVE_INFINITY, ArraysSupport.stats(new double[]{2, Double.NEGATIVE_INFINITY, 3}).getMean());
+        assertTrue(Double.isNaN(ArraysSupport.stats(new double[]{Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY}).getSum()));
+        assertEquals(Double.POSITIVE_INFINITY, ArraysSupport.stats(new float[]{Float.POSITIVE_INFINITY, 2f}).getSum());
+        assertEquals(Double.POSITIVE_INFINITY, infinite.merge(ArraysSupport.stats(new double[]{Double.POSITIVE_INFINITY})).getMean());
+        DoubleStats overflow = ArraysSupport.stats(new double[]{1e308, 1e308, 1});
+        assertEquals(Double.POSITIVE_INFINITY, overflow.getSum());
+        assertEquals(-Double.MAX_VALUE - Double.MAX_VALUE, ArraysSupport.stats(new double[]{-Double.MAX_VALUE, -Double.MAX_VALUE}).getSum());
+        assertEquals(1e308 / 3 * 2, overflow.getMean(), 1e293);
+        assertEquals(ArraysSupport.min(values), dStats.getMin());
+        assertEquals(ArraysSupport.max(values), dStats.getMax());
+        assertEquals(0, ArraysSupport.stats(ArraysSupport.EMPTY_FLOAT_ARRAY).getCount());
+    }
+
+    @Test
+    void sortByKeyTests() {
+        for (int bound : new int[]{10, 1_000_000, Integer.MAX_VALUE}) {
+            Square[] arr = Square.randomArray(10_000, -bound / 2, bound / 2);
+            Square[] expected = arr.clone();
+            Arrays.sort(expected, Comparator.comparingInt(Square::getSide)); // Also stable
+            ArraysSupport.sortByKey(arr, Square::getSide);
+            for (int i = 0; i < arr.length; i++)
+                assertSame(expected[i], arr[i]);
+        }
+
+        long[] timestamps = {Long.MAX_VALUE, 5, Long.MIN_VALUE, 5, -1};
+        Integer[] order = {0, 1, 2, 3, 4};
+        ArraysSupport.sortByLongKey(order, i -> timestamps[i]);
+        assertArrayEquals(new Integer[]{2, 4, 1, 3, 0}, order);
+    }
+
+    @Test
+    void argsortTests() {
+        ThreadLocalRandom tlr = ThreadLocalRandom.current();
+        for (int n : new int[]{0, 1, 100, 50_000}) {
+            int[] ints = tlr.ints(n, -1_000, 1_000).toArray();
+            long[] longs = tlr.longs(n).toArray();
+            double[] doubles = tlr.doubles(n, -1, 1).toArray();
+            if (n > 0) {
+                doubles[0] = Double.NaN;
+                doubles[n - 1] = -0.0;
+            }
+            for (int[] perm : new int[][]{ArraysSupport.argsort(ints), ArraysSupport.parallelArgsort(ints)})
+                assertSortedBy(perm, i -> ints[i], true);
+            for (int[] perm : new int[][]{ArraysSupport.argsort(longs), ArraysSupport.argsort(longs, false), ArraysSupport.parallelArgsort(longs)})
+                assertSortedBy(perm, i -> longs[i], false);
+
+            int[] expected = IntStream.range(0, n).boxed()
+                    .sorted((a, b) -> Double.compare(doubles[a], doubles[b]))
+                    .mapToInt(Integer::intValue).toArray();
+            assertArrayEquals(expected, ArraysSupport.argsort(doubles));
+            assertArrayEquals(expected, ArraysSupport.parallelArgsort(doubles));
+        }
+
+        long[] dups = tlr.longs(10_000, 0, 10).toArray();
+        assertSortedBy(ArraysSupport.argsort(dups, true), i -> dups[i], true);
+        assertSortedBy(ArraysSupport.parallelArgsort(dups), i -> dups[i], true);
+
+        int[] arr = {3, -1, 7, -1, 7};
+        assertEquals(1, ArraysSupport.argmin(arr));
+        assertEquals(2, ArraysSupport.argmax(arr));
+        assertEquals(-1, ArraysSupport.argmax(ArraysSupport.EMPTY_DOUBLE_ARRAY));
+        double[] nan = {2, Double.NaN, -1, Double.NaN};
+        assertEquals(1, ArraysSupport.argmin(nan));
+        assertEquals(1, ArraysSupport.argmax(nan));
+        assertTrue(Double.isNaN(ArraysSupport.min(nan)) && Double.isNaN(ArraysSupport.max(nan)));
+        assertEquals(0, ArraysSupport.argmax(new float[]{Float.NaN, 1}));
+        assertEquals(1, ArraysSupport.argmin(new float[]{0f, -0f}));
+        assertEquals(1, ArraysSupport.argmin(new Square[]{new Square(2), new Square(1), new Square(1)}));
+    }
+
+    private static void assertSortedBy(int[] perm, IntToLongFunction key, boolean stable) {
+        assertEquals(perm.length, Arrays.stream(perm).distinct().count());
+        for (int i = 1; i < perm.length; i++) {
+            long prev = key.applyAsLong(perm[i - 1]), cur = key.applyAsLong(perm[i]);
+            assertTrue(prev <= cur);
+            if (stable && prev == cur)
+                assertTrue(perm[i - 1] < perm[i]);
+        }
+    }
+
+    @Test
+    void permutationTests() {
+        double[] prices = ThreadLocalRandom.current().doubles(1_000).toArray();
+        int[] ids = IntStream.range(0, prices.length).toArray();
+        String[] names = Arrays.stream(ids).mapToObj(Integer::toString).toArray(String[]::new);
+        int[] perm = ArraysSupport.argsort(prices);
+        int[] permCopy = perm.clone();
+
+        double[] sortedPrices = ArraysSupport.parallelApplyPermutation(prices, perm);
+        ArraysSupport.applyPermutation(prices, perm);
+        assertArrayEquals(perm, permCopy);
+        assertArrayEquals(sortedPrices, prices);
+        for (int i = 1; i < prices.length; i++)
+            assertTrue(prices[i - 1] <= prices[i]);
+
+        ArraysSupport.applyPermutation(ids, perm, new long[16]);
+        ArraysSupport.applyPermutation(names, perm);
+        assertArrayEquals(perm, ids);
+        assertArrayEquals(Arrays.stream(perm).mapToObj(Integer::toString).toArray(String[]::new), names);
+
+        int[] inverse = ArraysSupport.invertPermutation(perm);
+        ArraysSupport.applyPermutation(ids, inverse);
+        assertArrayEquals(IntStream.range(0, ids.length).toArray(), ids);
+
+        assertTrue(ArraysSupport.isPermutation(perm));
+        assertFalse(ArraysSupport.isPermutation(new int[]{0, 2, 2}));
+        assertFalse(ArraysSupport.isPermutation(new int[]{1, 2}));
+        assertThrows(IllegalArgumentException.class, () -> ArraysSupport.applyPermutation(new int[2], new int[]{1, 1}, new long[1]));
+        assertThrows(IllegalArgumentException.class, () -> ArraysSupport.applyPermutation(new String[3], new int[]{2, 0, 0}, new long[1]));
+    }
+
+    @Test
+    void generateTests() {
+        assertArrayEquals(new int[]{0, 2, 4, 6}, ArraysSupport.generateIntIndexed(i -> i * 2, 4));
+        assertArrayEquals(new boolean[]{true, false, true}, ArraysSupport.generateBooleanIndexed(i -> i % 2 == 0, 3));
+        assertArrayEquals(new Square[]{new Square(0), new Square(1)}, ArraysSupport.generateIndexed(Square[]::new, Square::new, 2));
+        // Overloaded method references still resolve to the supplier overloads
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        assertEquals(10, ArraysSupport.generateInt(random::nextInt, 10).length);
+        assertEquals(10, ArraysSupport.generateLong(random::nextLong, 10).length);
+        assertEquals(10, ArraysSupport.generateDouble(random::nextDouble, 10).length);
+        assertEquals(10, ArraysSupport.generateBoolean(random::nextBoolean, 10).length);
+        assertArrayEquals(LongStream.range(0, 200_000).map(i -> i * i).toArray(), ArraysSupport.parallelGenerateLong(i -> (long) i * i, 200_000));
+
+        // The same seed gives the same array no matter how the chunks are scheduled
+        int len = 1_000_003;
+        int[] first = ArraysSupport.parallelGenerateInt(r -> r.nextInt(100), len, new SplittableRandom(42));
+        int[] second = ArraysSupport.parallelGenerateInt(r -> r.nextInt(100), len, new SplittableRandom(42));
+        assertArrayEquals(first, second);
+        assertTrue(Arrays.stream(first).allMatch(n -> n >= 0 && n < 100));
+        assertFalse(Arrays.equals(first, ArraysSupport.parallelGenerateInt(r -> r.nextInt(100), len, new SplittableRandom(43))));
+        String[] words = ArraysSupport.parallelGenerate(String[]::new, r -> Long.toHexString(r.nextLong()), 10, new SplittableRandom(7));
+        assertArrayEquals(words, ArraysSupport.parallelGenerate(String[]::new, r -> Long.toHexString(r.nextLong()), 10, new SplittableRandom(7)));
+    }
+
+    @Test
+    void viewTests() {
+        int[] arr = IntStream.range(0, 3_000).toArray();
+        IntArrayView view = IntArrayView.of(arr);
+        assertArrayEquals(IntStream.range(10, 20).toArray(), view.slice(10, 20).toArray());
+        assertArrayEquals(IntStream.range(0, 3_000).map(i -> 2_999 - i).toArray(), view.reversed().toArray());
+
+        int[] rotated = arr.clone();
+        ArraysSupport.rotate(rotated, 1_234);
+        assertArrayEquals(rotated, view.rotated(1_234).toArray());
+        assertArrayEquals(rotated, view.rotated(1_000).rotated(234).toArray());
+        assertArrayEquals(rotated, view.rotated(1_234 - 3_000).toArray());
+
+        IntArrayView mixed = IntArrayView.concat(view.slice(0, 5).reversed(), IntArrayView.of(new int[0]), view.slice(2_000, 3_000).rotated(7));
+        assertEquals(1_005, mixed.length());
+        assertEquals(4, mixed.get(0));
+        assertEquals(2_993, mixed.get(5));
+        int[] copied = new int[1_007];
+        mixed.copyTo(copied, 2);
+        for (int i = 0; i < mixed.length(); i++)
+            assertEquals(mixed.get(i), copied[i + 2]);
+
+        assertEquals(2_999, mixed.max());
+        assertArrayEquals(new int[]{0, 2_999}, mixed.minmax());
+        assertEquals(5, mixed.indexOf(2_993));
+        assertEquals(-1, mixed.indexOf(100));
+        assertEquals(4, view.mapped(i -> i % 1_000).slice(0, 2_100).lastIndexOf(0) / 500);
+        assertEquals(3, view.mapped(i -> i % 1_000).frequency(7));
+        assertEquals(Arrays.stream(arr, 2_000, 3_000).sum() + 10, mixed.stats().getSum());
+
+        mixed.set(0, -1);
+        assertEquals(-1, arr[4]);
+        assertThrows(UnsupportedOperationException.class, () -> view.mapped(i -> i).set(0, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> view.slice(0, 10).get(10));
+
+        long[] longs = {1, 2, 3, 4};
+        assertArrayEquals(new long[]{30, 40, 10, 20}, LongArrayView.of(longs).mapped(l -> l * 10).rotated(2).toArray());
+    }
+
+    @Test
+    void pipelineTests() {
+        int[] arr = ThreadLocalRandom.current().ints(300_000, -1_000, 1_000).toArray();
+        IntPipeline pipeline = IntPipeline.of(arr).filter(n -> n > 0).map(n -> n * 3).filter(n -> n % 2 == 0).map(n -> n + 1);
+        int[] expected = Arrays.stream(arr).filter(n -> n > 0).map(n -> n * 3).filter(n -> n % 2 == 0).map(n -> n + 1).toArray();
+
+        for (IntPipeline p : new IntPipeline[]{pipeline, pipeline.parallel(), pipeline.parallel(new ForkJoinPool(3))}) {
+            assertArrayEquals(expected, p.toArray());
+            assertEquals(Arrays.stream(expected).asLongStream().sum(), p.sum());
+            assertEquals(expected.length, p.count());
+            assertArrayEquals(new int[]{Arrays.stream(expected).min().getAsInt(), Arrays.stream(expected).max().getAsInt()}, p.minmax());
+            assertEquals(Arrays.stream(expected).reduce(0, (a, b) -> a ^ b), p.reduce(0, (a, b) -> a ^ b));
+            int[] buffer = new int[expected.length + 2];
+            assertEquals(expected.length, p.into(buffer, 2));
+            assertArrayEquals(expected, Arrays.copyOfRange(buffer, 2, buffer.length));
+            assertThrows(ArrayIndexOutOfBoundsException.class, () -> p.into(new int[expected.length + 2], 3));
+        }
+
+        int[] doubled = new int[arr.length];
+        assertEquals(arr.length, IntPipeline.of(arr).map(n -> n * 2).parallel().into(doubled, 0));
+        assertArrayEquals(Arrays.stream(arr).map(n -> n * 2).toArray(), doubled);
+        assertArrayEquals(new int[]{3, 4}, IntPipeline.of(new int[]{1, 2, 3, 4, 5}, 2, 4).toArray());
+        assertThrows(NoSuchElementException.class, () -> IntPipeline.of(arr).filter(n -> n > 1_000).minmax());
+
+        long[] longs = LongStream.rangeClosed(1, 100_000).toArray();
+        assertEquals(LongStream.rangeClosed(1, 100_000).filter(l -> l % 3 == 0).map(l -> l * l).sum(),
+                LongPipeline.of(longs).parallel().filter(l -> l % 3 == 0).map(l -> l * l).sum());
+    }
+
+    @Test
+    void metricsTests() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        ArraysSupportMetrics.register(metrics);
+        try {
+            for (int i = 0; i < 3; i++)
+                ArraysSupport.countingSort(new int[]{5, 3, 1, 3});
+            ArraysSupport.union(new long[]{1, 2}, new long[]{2, 3, 4});
+        } finally {
+            ArraysSupportMetrics.unregister();
+        }
+        ArraysSupport.countingSort(new int[]{2, 1});
+        assertNull(ArraysSupportMetrics.registered());
+
+        RecordingMetrics.Summary sorts = metrics.summary("countingSort", "int[]");
+        assertEquals(3, sorts.getCalls());
+        assertEquals(12, sorts.getElements());
+        assertEquals(3, Arrays.stream(sorts.getHistogram()).sum());
+        assertTrue(sorts.percentileNanos(0.5) <= sorts.percentileNanos(1));
+        assertTrue(sorts.getTotalNanos() > 0);
+
+        RecordingMetrics.Summary unions = metrics.summary("union", "long[]");
+        assertEquals(1, unions.getCalls());
+        assertEquals(5, unions.getElements());
+        assertTrue(unions.getAllocatedBytes() >= 0);
+        assertEquals(2, metrics.snapshot().size());
+        metrics.reset();
+        assertNull(metrics.summary("union", "long[]"));
+    }
+
+    @Test
+    void scratchArenaTests() {
+        ScratchArena arena = new ScratchArena(1 << 16);
+        for (int round = 0; round < 20; round++) {
+            int[] arr = ThreadLocalRandom.current().ints(500, -50, 50).toArray();
+            int[] expected = arr.clone();
+            Arrays.sort(expected);
+            ArraysSupport.countingSort(arr, arena);
+            assertArrayEquals(expected, arr);
+        }
+        assertEquals(128 * 4, arena.retainedBytes());
+
+        byte[] bytes = {5, Byte.MIN_VALUE, Byte.MAX_VALUE, 0, -1};
+        ArraysSupport.countingSort(bytes, arena);
+        assertArrayEquals(new byte[]{Byte.MIN_VALUE, -1, 0, 5, Byte.MAX_VALUE}, bytes);
+        short[] shorts = {Short.MAX_VALUE, Short.MIN_VALUE, 7};
+        ArraysSupport.countingSort(shorts);
+        assertArrayEquals(new short[]{Short.MIN_VALUE, 7, Short.MAX_VALUE}, shorts);
+
+        int[] borrowed = arena.borrowInts(100);
+        assertEquals(128, borrowed.length);
+        arena.release(borrowed);
+        assertSame(borrowed, arena.borrowInts(65));
+        arena.release(new int[1 << 16]);
+        assertTrue(arena.retainedBytes() <= 1 << 16);
+        arena.clear();
+        assertEquals(0, arena.retainedBytes());
+
+        assertArrayEquals(new int[]{-2, 1, 3, 4, 9}, ArraysSupport.union(new int[]{4, 1, 9, 1}, new int[]{3, -2, 4}, arena));
+        assertArrayEquals(new long[]{1, 4}, ArraysSupport.intersection(new long[]{4, 1, 9, 1}, new long[]{1, 4, 4, 7}, ScratchArena.local()));
+        assertArrayEquals(new long[0], ArraysSupport.intersection(new long[0], new long[]{1}, ScratchArena.local()));
+    }
+
+    @Test
+    void sortedTests() {
+        int[] arr = IntStream.range(0, 1_000).map(i -> i / 3).toArray();
+        assertTrue(ArraysSupport.isSorted(arr));
+        assertFalse(ArraysSupport.isStrictlySorted(arr));
+        assertEquals(2, ArraysSupport.sortedPrefixLength(new int[]{Integer.MAX_VALUE, Integer.MAX_VALUE, 0}));
+        arr[700] = -1;
+        assertEquals(700, ArraysSupport.sortedPrefixLength(arr));
+        assertTrue(ArraysSupport.isStrictlySorted(LongStream.range(-500, 500).toArray()));
+        assertEquals(130, ArraysSupport.sortedPrefixLength(LongStream.range(0, 200).map(i -> i == 130 ? 0 : i).toArray()));
+        assertTrue(ArraysSupport.isSorted(new double[]{-0.0, 0.0, 1, Double.NaN}));
+        assertFalse(ArraysSupport.isSorted(new double[]{0.0, -0.0}));
+        assertTrue(ArraysSupport.isStrictlySorted(new boolean[]{false, true}));
+        assertFalse(ArraysSupport.isStrictlySorted(new boolean[]{true, true}));
+        assertTrue(ArraysSupport.isSorted(new char[0]));
+        assertTrue(ArraysSupport.isSorted(new Square[]{new Square(1), new Square(2)}));
+        assertEquals(1, ArraysSupport.sortedPrefixLength(new Square[]{new Square(1), new Square(2)}, Comparator.reverseOrder()));
+
+        Sorted.OfInt evens = Sorted.of(IntStream.range(0, 500).map(i -> i * 2).toArray());
+        Sorted.OfInt threes = Sorted.of(IntStream.range(0, 300).map(i -> i * 3).toArray());
+        assertArrayEquals(IntStream.range(0, 1_000).filter(i -> i % 2 == 0 || i % 3 == 0 && i < 900).toArray(), ArraysSupport.union(evens, threes));
+        assertArrayEquals(IntStream.range(0, 900).filter(i -> i % 6 == 0).toArray(), ArraysSupport.intersection(evens, threes));
+        assertFalse(ArraysSupport.disjoint(evens, threes));
+        assertTrue(ArraysSupport.disjoint(evens, Sorted.of(new int[]{1, 3, 5, 999})));
+        assertThrows(IllegalArgumentException.class, () -> Sorted.of(new int[]{2, 1}));
+
+        Sorted.OfLong runs = Sorted.trusted(new long[]{1, 4, 4, 4, 7, 9});
+        assertEquals(3, ArraysSupport.frequency(runs, 4));
+        assertEquals(0, ArraysSupport.frequency(runs, 5));
+        assertEquals(1, ArraysSupport.indexOf(runs, 4));
+        assertEquals(-1, ArraysSupport.indexOf(runs, 10));
+        assertTrue(ArraysSupport.disjoint(runs, Sorted.of(new long[]{2, 3, 5, 6, 8})));
+    }
+
+    @Test
+    void adaptiveSortTests() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[][] inputs = {
+                IntStream.range(0, 10_000).toArray(),
+                IntStream.range(0, 10_000).map(i -> -i).toArray(),
+                random.ints(10_000, -100, 100).toArray(),
+                IntStream.range(0, 10_000).map(i -> (i % 2_500) * 1_000).toArray(),
+                random.ints(100_000).toArray(),
+                random.ints(100_000, 0, 8).map(i -> i * 1_000_000).toArray(),
+        };
+        SortStrategy[] expected = {SortStrategy.ALREADY_SORTED, SortStrategy.REVERSED, SortStrategy.COUNTING,
+                SortStrategy.RUN_MERGE, SortStrategy.RADIX, SortStrategy.JDK};
+        for (int i = 0; i < inputs.length; i++) {
+            int[] sorted = inputs[i].clone();
+            Arrays.sort(sorted);
+            assertEquals(expected[i], ArraysSupport.sort(inputs[i]));
+            assertArrayEquals(sorted, inputs[i]);
+        }
+
+        long[] longs = random.longs(50_000, -(1L << 31), 1L << 31).toArray();
+        long[] sortedLongs = longs.clone();
+        Arrays.sort(sortedLongs);
+        assertEquals(SortStrategy.RADIX, ArraysSupport.sort(longs));
+        assertArrayEquals(sortedLongs, longs);
+        longs = random.longs(50_000).toArray();
+        sortedLongs = longs.clone();
+        Arrays.sort(sortedLongs);
+        assertEquals(SortStrategy.JDK, ArraysSupport.sort(longs));
+        assertArrayEquals(sortedLongs, longs);
+
+        double[] doubles = DoubleStream.concat(random.doubles(5_000), DoubleStream.of(Double.NaN, -0.0, 0.0, -1)).toArray();
+        Arrays.sort(doubles, 0, 5_000);
+        double[] sortedDoubles = doubles.clone();
+        Arrays.sort(sortedDoubles);
+        assertEquals(SortStrategy.RUN_MERGE, ArraysSupport.sort(doubles));
+        assertArrayEquals(sortedDoubles, doubles);
+
+        char[] chars = String.join("", Collections.nCopies(3, "the quick brown fox jumps over the lazy dog")).toCharArray();
+        char[] sortedChars = chars.clone();
+        Arrays.sort(sortedChars);
+        assertEquals(SortStrategy.COUNTING, ArraysSupport.sort(chars));
+        assertArrayEquals(sortedChars, chars);
+        assertEquals(SortStrategy.COUNTING, ArraysSupport.sort(new boolean[]{true, false}));
+        assertEquals(SortStrategy.ALREADY_SORTED, ArraysSupport.sort(new float[]{-0.0f, 0.0f, Float.NaN}));
+    }
+
+    @Test
+    void sortWithTests() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int n : new int[]{10, 5_000, 100_000}) {
+            int[] keys = random.ints(n, 0, n / 4 + 1).toArray();
+            int[] rows = IntStream.range(0, n).toArray();
+            double[] prices = Arrays.stream(keys).asDoubleStream().map(k -> k / 2).toArray();
+            String[] names = Arrays.stream(keys).mapToObj(Integer::toString).toArray(String[]::new);
+            int[] original = keys.clone();
+
+            int[] perm = (n % 2 == 0 ? ArraysSupport.parallelSortWith(keys, rows, prices, names) : ArraysSupport.sortWith(keys, rows, prices, names));
+            assertTrue(ArraysSupport.isSorted(keys));
+            assertArrayEquals(perm, rows);
+            for (int i = 0; i < n; i++) {
+                assertEquals(original[rows[i]], keys[i]);
+                assertEquals(keys[i] / 2.0, prices[i]);
+                assertEquals(Integer.toString(keys[i]), names[i]);
+                if (i > 0 && keys[i - 1] == keys[i])
+                    assertTrue(rows[i - 1] < rows[i]);
+            }
+        }
+
+        long[] keys = random.longs(50_000, 0, 1_000).toArray();
+        long[] original = keys.clone();
+        int[] rows = IntStream.range(0, keys.length).toArray();
+        ArraysSupport.sortWith(keys, rows);
+        for (int i = 0; i < keys.length; i++)
+            assertEquals(original[rows[i]], keys[i]);
+        assertTrue(ArraysSupport.isSorted(keys));
+
+        keys = original.clone();
+        rows = IntStream.range(0, keys.length).toArray();
+        int[] parallelRows = rows.clone();
+        ArraysSupport.stableSortWith(keys, rows);
+        ArraysSupport.parallelSortWith(original, parallelRows);
+        assertArrayEquals(keys, original);
+        assertArrayEquals(rows, parallelRows);
+        for (int i = 1; i < keys.length; i++)
+            assertTrue(keys[i - 1] < keys[i] || rows[i - 1] < rows[i]);
+
+        String[] labels = {"c", "a", "b"};
+        ArraysSupport.sortWith(new int[]{3, 1, 2}, labels);
+        assertArrayEquals(new String[]{"a", "b", "c"}, labels);
+        Object[] boxed = {"c", "a", "b"};
+        ArraysSupport.sortWith(new int[]{3, 1, 2}, boxed);
+        assertArrayEquals(new Object[]{"a", "b", "c"}, boxed);
+        assertThrows(IllegalArgumentException.class, () -> ArraysSupport.sortWith(new int[3], new int[2]));
+        assertThrows(IllegalArgumentException.class, () -> ArraysSupport.sortWith(new long[3], "not an array"));
+    }
+
+    @Test
+    void bigArrayTests() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] arr = random.ints(10_000, -500, 500).toArray();
+        BigIntArray big = BigIntArray.of(arr, 6);
+        assertEquals(arr.length, big.length());
+        assertArrayEquals(ArraysSupport.minmax(arr), big.minmax());
+        assertEquals(ArraysSupport.frequency(arr, 7), big.frequency(7));
+        assertEquals(ArraysSupport.indexOf(arr, 7), big.indexOf(7));
+        assertEquals(ArraysSupport.lastIndexOf(arr, 7), big.lastIndexOf(7));
+        assertEquals(-1, big.indexOf(1_000));
+
+        for (long distance : new long[]{0, 1, -1, 63, 64, 4_321, -10_001, Long.MIN_VALUE}) {
+            BigIntArray rotated = big.copy();
+            rotated.rotate(distance);
+            long shift = Math.floorMod(distance, (long) arr.length);
+            for (int i = 0; i < arr.length; i++)
+                assertEquals(arr[i], rotated.get((i + shift) % arr.length));
+        }
+        BigIntArray reversed = big.copy();
+        reversed.reverse(5, 1_001);
+        int[] expected = arr.clone();
+        ArraysSupport.reverse(expected, 5, 1_001);
+        assertArrayEquals(expected, reversed.toArray());
+
+        int[] sorted = arr.clone();
+        Arrays.sort(sorted);
+        BigIntArray counted = big.copy();
+        counted.countingSort();
+        assertArrayEquals(sorted, counted.toArray());
+        BigIntArray merged = big.copy();
+        merged.shuffle();
+        assertEquals(big.frequency(-3), merged.frequency(-3));
+        merged.sort();
+        assertArrayEquals(sorted, merged.toArray());
+
+        int[] other = random.ints(3_000, 0, 2_000).toArray();
+        assertArrayEquals(ArraysSupport.union(arr, other, new ScratchArena()), big.union(BigIntArray.of(other, 5)).toArray());
+        assertArrayEquals(ArraysSupport.intersection(arr, other, new ScratchArena()), big.intersection(BigIntArray.of(other, 5)).toArray());
+        assertEquals(0, big.intersection(new BigIntArray(0)).length());
+
+        long[] longs = random.longs(5_000).toArray();
+        BigLongArray bigLongs = BigLongArray.of(longs, 8);
+        long[] sortedLongs = longs.clone();
+        Arrays.sort(sortedLongs);
+        bigLongs.sort();
+        assertArrayEquals(sortedLongs, bigLongs.toArray());
+        assertThrows(IllegalArgumentException.class, bigLongs::countingSort);
+
+        byte[] bytes = new byte[30_000];
+        random.nextBytes(bytes);
+        BigByteArray bigBytes = BigByteArray.of(bytes, 4);
+        byte[] sortedBytes = bytes.clone();
+        Arrays.sort(sortedBytes);
+        bigBytes.countingSort();
+        assertArrayEquals(sortedBytes, bigBytes.toArray());
+        assertEquals(Byte.MIN_VALUE, bigBytes.get(0));
+        assertEquals(256, bigBytes.union(bigBytes).length());
+
+        BigIntArray filled = new BigIntArray(100, 4);
+        filled.fill(3);
+        filled.set(99, 4);
+        assertEquals(99, filled.frequency(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> filled.get(100));
+        assertThrows(IllegalArgumentException.class, () -> new BigIntArray(10, 3));
+        assertThrows(NoSuchElementException.class, () -> new BigIntArray(0).minmax());
+    }
+
+    @Test
+    void packedTests() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long range : new long[]{1, 2, 7, 256, 1_000, 65_536, 1L << 32}) {
+            int base = (int) Math.max(Integer.MIN_VALUE, -range / 2);
+            int[] arr = random.longs(3_001, 0, range).mapToInt(v -> (int) (base + v)).toArray();
+            PackedIntArray packed = PackedIntArray.of(arr);
+            assertEquals(arr.length, packed.length());
+            assertTrue(packed.bitsPerValue() <= 64 - Long.numberOfLeadingZeros(range - 1));
+            for (int i = 0; i < arr.length; i += 37)
+                assertEquals(arr[i], packed.get(i));
+            assertArrayEquals(arr, packed.toArray());
+            int[] part = new int[500];
+            packed.decode(1_234, 1_734, part);
+            assertArrayEquals(Arrays.copyOfRange(arr, 1_234, 1_734), part);
+
+            assertArrayEquals(ArraysSupport.minmax(arr), packed.minmax());
+            int[] middle = Arrays.copyOfRange(arr, 100, 2_900);
+            assertArrayEquals(ArraysSupport.minmax(middle), packed.minmax(100, 2_900));
+            for (int target : new int[]{arr[0], arr[arr.length - 1], base, base - 1, (int) (base + range / 2)}) {
+                assertEquals(ArraysSupport.frequency(arr, target), packed.frequency(target));
+                assertEquals(ArraysSupport.indexOf(arr, target), packed.indexOf(target));
+            }
+        }
+
+        PackedIntArray constant = PackedIntArray.of(new int[]{5, 5, 5});
+        assertEquals(0, constant.bitsPerValue());
+        assertEquals(3, constant.frequency(5));
+        assertEquals(0, constant.indexOf(5));
+        assertArrayEquals(new int[]{5, 5, 5}, constant.toArray());
+
+        PackedIntArray padded = PackedIntArray.of(new int[]{3, 2, 1, 2, 3}, 1, 4);
+        assertEquals(1, padded.bitsPerValue());
+        assertEquals(-1, padded.indexOf(0));
+        assertEquals(1, padded.frequency(1));
+        assertEquals(2, padded.frequency(2));
+        assertEquals(1, padded.indexOf(1));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> padded.get(3));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> PackedIntArray.of(new int[0]).minmax());
+    }
+
+    @Test
+    void deltaCodecTests() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] ids = random.ints(20_000, -1_000, 200_000).sorted().toArray();
+        byte[] encoded = DeltaCodec.encode(ids);
+        assertEquals(DeltaCodec.encodedLength(ids), encoded.length);
+        assertTrue(encoded.length < ids.length * 2);
+        assertArrayEquals(ids, DeltaCodec.decodeInts(encoded));
+
+        int[] extremes = {Integer.MIN_VALUE, Integer.MIN_VALUE, -1, 0, Integer.MAX_VALUE};
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        DeltaCodec.encode(extremes, buffer);
+        DeltaCodec.encode(new int[0], buffer);
+        buffer.flip();
+        assertArrayEquals(extremes, DeltaCodec.decodeInts(buffer));
+        assertArrayEquals(new int[0], DeltaCodec.decodeInts(buffer));
+        assertFalse(buffer.hasRemaining());
+
+        long[] longs = {Long.MIN_VALUE, -5, 0, 1L << 40, Long.MAX_VALUE};
+        assertArrayEquals(longs, DeltaCodec.decodeLongs(DeltaCodec.encode(longs)));
+        assertThrows(IllegalArgumentException.class, () -> DeltaCodec.encode(new int[]{2, 1}));
+        assertThrows(IllegalArgumentException.class, () -> DeltaCodec.encode(new long[]{2, 1}));
+        // A header claiming more elements than there are bytes is rejected before anything is allocated
+        assertThrows(IllegalArgumentException.class, () -> DeltaCodec.decodeInts(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07}));
+        assertThrows(IllegalArgumentException.class, () -> DeltaCodec.longs(new byte[]{3, 2, 1}));
+
+        int[] other = random.ints(5_000, 0, 300_000).sorted().toArray();
+        byte[] otherEncoded = DeltaCodec.encode(other);
+        assertArrayEquals(ArraysSupport.union(Sorted.of(ids), Sorted.of(other)),
+                ArraysSupport.union(DeltaCodec.ints(encoded), DeltaCodec.ints(otherEncoded)));
+        assertArrayEquals(ArraysSupport.intersection(Sorted.of(ids), Sorted.of(other)),
+                ArraysSupport.intersection(DeltaCodec.ints(encoded), DeltaCodec.ints(otherEncoded)));
+        assertArrayEquals(ArraysSupport.distinct(ids), ArraysSupport.union(DeltaCodec.ints(encoded), DeltaCodec.ints(DeltaCodec.encode(new int[0]))));
+
+        long[] big = random.longs(3_000, 0, 1L << 50).sorted().toArray();
+        long[] bigOther = random.longs(3_000, 0, 1L << 50).sorted().toArray();
+        bigOther[100] = big[200];
+        Arrays.sort(bigOther);
+        assertArrayEquals(ArraysSupport.union(Sorted.of(big), Sorted.of(bigOther)),
+                ArraysSupport.union(DeltaCodec.longs(DeltaCodec.encode(big)), DeltaCodec.longs(DeltaCodec.encode(bigOther))));
+        assertArrayEquals(ArraysSupport.intersection(Sorted.of(big), Sorted.of(bigOther)),
+                ArraysSupport.intersection(DeltaCodec.longs(DeltaCodec.encode(big)), DeltaCodec.longs(DeltaCodec.encode(bigOther))));
+
+        DeltaCodec.IntDecoder decoder = DeltaCodec.ints(DeltaCodec.encode(new int[]{4, 9}));
+        assertEquals(2, decoder.remaining());
+        assertEquals(4, decoder.next());
+        assertEquals(9, decoder.next());
+        assertFalse(decoder.hasNext());
+        assertThrows(NoSuchElementException.class, decoder::next);
+    }
+
+    @Test
+    void arrayIOTests() throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Path file = Files.createTempFile("arrayio", ".bin");
+        try {
+            int[] ints = random.ints(700_000).toArray();
+            long[] longs = random.longs(400_000).toArray();
+            double[] doubles = random.doubles(10_000).toArray();
+            boolean[] flags = {true, false, true};
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ArrayIO.write(ints, ch, ByteOrder.LITTLE_ENDIAN);
+                ArrayIO.write(ints, 10, 20, ch, ByteOrder.BIG_ENDIAN);
+                ArrayIO.write(ch, ByteOrder.BIG_ENDIAN, longs, new long[0], longs, longs);
+                ArrayIO.write(doubles, ch, ByteOrder.nativeOrder());
+                ArrayIO.write(flags, ch);
+            }
+            assertEquals(ints.length * 4L + 40 + longs.length * 24L + doubles.length * 8L + 3, Files.size(file));
+
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                assertArrayEquals(ints, ArrayIO.readInts(ch, ints.length, ByteOrder.LITTLE_ENDIAN));
+                int[] part = new int[30];
+                ArrayIO.read(ch, part, 5, 15, ByteOrder.BIG_ENDIAN);
+                assertArrayEquals(Arrays.copyOfRange(ints, 10, 20), Arrays.copyOfRange(part, 5, 15));
+                for (int i = 0; i < 3; i++)
+                    assertArrayEquals(longs, ArrayIO.readLongs(ch, longs.length, ByteOrder.BIG_ENDIAN));
+                assertArrayEquals(doubles, ArrayIO.readDoubles(ch, doubles.length, ByteOrder.nativeOrder()));
+                assertArrayEquals(flags, ArrayIO.readBooleans(ch, 3));
+                assertThrows(EOFException.class, () -> ArrayIO.readBytes(ch, 1));
+            }
+
+            ByteBuffer expected = ByteBuffer.allocate(8).order(ByteOrder.BIG_ENDIAN).putInt(1).putInt(-2);
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ArrayIO.write(new int[]{1, -2}, ch, ByteOrder.BIG_ENDIAN);
+                assertThrows(ArrayIndexOutOfBoundsException.class, () -> ArrayIO.write(new short[2], 1, 3, ch, ByteOrder.BIG_ENDIAN));
+            }
+            assertArrayEquals(expected.array(), Files.readAllBytes(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void externalSortTests() throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Path dir = Files.createTempDirectory("externalsort");
+        Path input = dir.resolve("input.bin"), output = dir.resolve("output.bin");
+        try {
+            int[] ints = random.ints(100_000, -50_000, 50_000).toArray();
+            try (FileChannel ch = FileChannel.open(input, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+                ArrayIO.write(ints, ch, ByteOrder.BIG_ENDIAN);
+            }
+            int[] sorted = ints.clone();
+            Arrays.sort(sorted);
+            int[] distinct = IntStream.of(sorted).distinct().toArray();
+
+            ExternalSort inMemory = new ExternalSort();
+            ExternalSort runs = new ExternalSort().memory(16 << 10).parallelism(3);
+            for (ExternalSort sorter : new ExternalSort[]{inMemory, runs, runs.distinct(true)}) {
+                long written = sorter.sortInts(input, output);
+                int[] expected = written == sorted.length ? sorted : distinct;
+                assertEquals(expected.length, written);
+                try (FileChannel ch = FileChannel.open(output, StandardOpenOption.READ)) {
+                    assertArrayEquals(expected, ArrayIO.readInts(ch, expected.length, ByteOrder.BIG_ENDIAN));
+                }
+                try (Stream<Path> files = Files.list(dir)) {
+                    assertEquals(2, files.count());
+                }
+            }
+
+            long[] longs = random.longs(300_000).toArray();
+            try (FileChannel ch = FileChannel.open(input, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ArrayIO.write(longs, ch, ByteOrder.LITTLE_ENDIAN);
+            }
+            // 4 KiB runs of 512 longs make more runs than one merge takes, so the runs are merged in two passes
+            ExternalSort sorter = new ExternalSort().memory(4 << 10).order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(longs.length, sorter.sortLongs(input, input));
+            Arrays.sort(longs);
+            try (FileChannel ch = FileChannel.open(input, StandardOpenOption.READ)) {
+                assertArrayEquals(longs, ArrayIO.readLongs(ch, longs.length, ByteOrder.LITTLE_ENDIAN));
+            }
+
+            Files.write(input, new byte[]{1, 2, 3});
+            assertThrows(IllegalArgumentException.class, () -> sorter.sortInts(input, output));
+            assertThrows(IllegalArgumentException.class, () -> sorter.memory(100));
+            assertThrows(IllegalArgumentException.class, () -> sorter.parallelism(0));
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+            Files.delete(dir);
+        }
+    }
 }
@@ -0,0 +1,56 @@
+import github.grovre.ArraysSupport;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The Flight Recorder events of the Java 11 layer. Run by failsafe against the packaged
+ * multi-release jar, since only there does {@code META-INF/versions/11} replace the
+ * Java 8 FlightRecorder. Calls are recorded and the events are read back from a dump.
+ */
+class FlightRecorderIT {
+
+    @Test
+    void operationEvents() throws IOException {
+        int[] small = {3, 1, 2};
+        // A span of 2^21 values, so the map of counts alone is 8 MiB, past the allocation threshold
+        int[] wide = IntStream.range(0, 1 << 16).map(i -> (1 << 16) - i << 5).toArray();
+        int range = wide[0] - wide[wide.length - 1] + 1;
+        // Loaded and warmed up first, so the recorded call is well below the time threshold
+        ArraysSupport.countingSort(new int[]{3, 1, 2});
+
+        Path dump = Files.createTempFile("operations", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("github.grovre.Operation");
+            recording.start();
+            ArraysSupport.countingSort(small);
+            ArraysSupport.countingSort(wide);
+            recording.stop();
+            recording.dump(dump);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            assertEquals(1, events.size(), "Only the call past a threshold is committed");
+            RecordedEvent event = events.get(0);
+            assertEquals("github.grovre.Operation", event.getEventType().getName());
+            assertEquals("countingSort", event.getString("operation"));
+            assertEquals("int[]", event.getString("type"));
+            assertEquals(wide.length, event.getInt("length"));
+            assertEquals(range, event.getLong("range"));
+            assertEquals("counting", event.getString("strategy"));
+            assertTrue(event.getLong("scratchBytes") >= 4L * range, "Scratch bytes include the map");
+            assertNotNull(event.getStackTrace());
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+        assertTrue(ArraysSupport.isSorted(wide));
+    }
+}